@@ -0,0 +1,409 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.http.benchmark;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.net.ssl.SSLContext;
+
+import org.apache.http.ConnectionReuseStrategy;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpException;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.config.ConnectionConfig;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.DefaultConnectionReuseStrategy;
+import org.apache.http.impl.nio.DefaultHttpClientIODispatch;
+import org.apache.http.impl.nio.pool.BasicNIOConnFactory;
+import org.apache.http.impl.nio.pool.BasicNIOConnPool;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.protocol.AbstractAsyncResponseConsumer;
+import org.apache.http.nio.protocol.BasicAsyncRequestProducer;
+import org.apache.http.nio.protocol.HttpAsyncRequestExecutor;
+import org.apache.http.nio.protocol.HttpAsyncRequester;
+import org.apache.http.nio.reactor.IOEventDispatch;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpCoreContext;
+import org.apache.http.protocol.HttpProcessor;
+import org.apache.http.protocol.ImmutableHttpProcessor;
+import org.apache.http.protocol.RequestConnControl;
+import org.apache.http.protocol.RequestContent;
+import org.apache.http.protocol.RequestExpectContinue;
+import org.apache.http.protocol.RequestTargetHost;
+import org.apache.http.protocol.RequestUserAgent;
+
+/**
+ * Non-blocking load generator for the {@link HttpBenchmark HttpBenchmark}.
+ * <p/>
+ * Requests are executed over a pool of as many connections as the concurrency
+ * level by an I/O reactor with one I/O dispatch thread per CPU. Without
+ * a target request rate each of the concurrency level clients sends its next
+ * request as soon as the previous one completes (closed loop). With a target
+ * request rate requests are sent at fixed arrival times regardless of
+ * completion of earlier requests (open loop) and latency is measured from
+ * the scheduled arrival time, including time spent waiting for a connection.
+ * <p/>
+ * Statistics are gathered in one {@link Stats} stripe per I/O dispatch thread
+ * rather than per connection, so that memory used for latency histograms does
+ * not grow with the concurrency level. Each thread completing requests records
+ * them in the stripe assigned to it.
+ *
+ * @since 4.3
+ */
+class AsyncBenchmark {
+
+    private final HttpBenchmark benchmark;
+    private final Config config;
+    private final HttpHost target;
+    private final SSLContext sslcontext;
+    private final HttpProcessor httpProcessor;
+    private final ConnectionReuseStrategy connstrategy;
+
+    private HttpAsyncRequester requester;
+    private BasicNIOConnPool pool;
+    private ThreadLocal<Stats> localStats;
+
+    AsyncBenchmark(
+            final HttpBenchmark benchmark,
+            final Config config,
+            final HttpHost target,
+            final SSLContext sslcontext) {
+        super();
+        this.benchmark = benchmark;
+        this.config = config;
+        int port = target.getPort();
+        if (port == -1) {
+            port = target.getSchemeName().equalsIgnoreCase("https") ? 443 : 80;
+        }
+        this.target = new HttpHost(target.getHostName(), port, target.getSchemeName());
+        this.sslcontext = sslcontext;
+        this.httpProcessor = new ImmutableHttpProcessor(
+                new RequestContent(),
+                new RequestTargetHost(),
+                new RequestConnControl(),
+                new RequestUserAgent("HttpCore-AB/1.1"),
+                new RequestExpectContinue());
+        this.connstrategy = DefaultConnectionReuseStrategy.INSTANCE;
+    }
+
+    Stats[] execute() throws Exception {
+        final int concurrency = this.config.getThreads();
+        final int ioThreadCount = Math.min(concurrency, Runtime.getRuntime().availableProcessors());
+        final IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+                .setIoThreadCount(ioThreadCount)
+                .setSoTimeout(this.config.getSocketTimeout())
+                .setConnectTimeout(this.config.getSocketTimeout())
+                .setTcpNoDelay(true)
+                .build();
+        final DefaultConnectingIOReactor ioReactor = new DefaultConnectingIOReactor(ioReactorConfig);
+        final IOEventDispatch ioEventDispatch = new DefaultHttpClientIODispatch(
+                new HttpAsyncRequestExecutor(), ConnectionConfig.DEFAULT);
+        this.pool = new BasicNIOConnPool(ioReactor,
+                new BasicNIOConnFactory(this.sslcontext, null, ConnectionConfig.DEFAULT),
+                this.config.getSocketTimeout());
+        this.pool.setDefaultMaxPerRoute(concurrency);
+        this.pool.setMaxTotal(concurrency);
+        this.requester = new HttpAsyncRequester(this.httpProcessor, this.connstrategy);
+
+        final Stats[] stats = new Stats[ioThreadCount];
+        for (int i = 0; i < stats.length; i++) {
+            stats[i] = new Stats();
+            stats[i].start();
+        }
+        final AtomicInteger nextStripe = new AtomicInteger();
+        this.localStats = new ThreadLocal<Stats>() {
+
+            @Override
+            protected Stats initialValue() {
+                return stats[(nextStripe.getAndIncrement() & Integer.MAX_VALUE) % stats.length];
+            }
+
+        };
+
+        final Thread reactorThread = new Thread(new Runnable() {
+
+            public void run() {
+                try {
+                    ioReactor.execute(ioEventDispatch);
+                } catch (final IOException ex) {
+                    if (config.getVerbosity() >= 1) {
+                        System.err.println("I/O reactor terminated: " + ex.getMessage());
+                    }
+                }
+            }
+
+        }, "I/O reactor");
+        reactorThread.start();
+
+        try {
+            if (this.config.getRequestRate() > 0) {
+                executeOpenLoop(concurrency);
+            } else {
+                executeClosedLoop(concurrency);
+            }
+        } finally {
+            for (final Stats s: stats) {
+                synchronized (s) {
+                    s.finish();
+                }
+            }
+            this.pool.shutdown(2000);
+        }
+        return stats;
+    }
+
+    private void executeClosedLoop(final int concurrency) throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            new Client(done).run();
+        }
+        done.await();
+    }
+
+    private void executeOpenLoop(final int concurrency) throws InterruptedException {
+        final long total = (long) this.config.getRequests() * concurrency;
+        if (total == 0) {
+            return;
+        }
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicLong outstanding = new AtomicLong(total);
+        final Runnable completion = new Runnable() {
+
+            public void run() {
+                if (outstanding.decrementAndGet() == 0) {
+                    done.countDown();
+                }
+            }
+
+        };
+        final long interval = 1000000000L / this.config.getRequestRate();
+        final long start = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            final long scheduled = start + i * interval;
+            long delay;
+            while ((delay = scheduled - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(delay);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+            execute(scheduled, completion);
+        }
+        done.await();
+    }
+
+    /**
+     * Returns the statistics stripe assigned to the current thread.
+     */
+    private Stats getStats() {
+        return this.localStats.get();
+    }
+
+    private void execute(final long requestStart, final Runnable completion) {
+        final HttpRequest request = this.benchmark.createRequest();
+        final HttpCoreContext context = HttpCoreContext.create();
+        final ResponseConsumer consumer = new ResponseConsumer();
+        this.requester.execute(
+                new BasicAsyncRequestProducer(this.target, request),
+                consumer,
+                this.pool,
+                context,
+                new RequestCallback(request, requestStart, consumer, context, completion));
+    }
+
+    /**
+     * Sends requests one after another.
+     */
+    class Client implements Runnable {
+
+        private final CountDownLatch done;
+        private int count;
+
+        Client(final CountDownLatch done) {
+            super();
+            this.done = done;
+        }
+
+        public void run() {
+            if (this.count < config.getRequests()) {
+                this.count++;
+                execute(System.nanoTime(), this);
+            } else {
+                this.done.countDown();
+            }
+        }
+
+    }
+
+    class RequestCallback implements FutureCallback<HttpResponse> {
+
+        private final HttpRequest request;
+        private final long requestStart;
+        private final ResponseConsumer consumer;
+        private final HttpContext context;
+        private final Runnable completion;
+
+        RequestCallback(
+                final HttpRequest request,
+                final long requestStart,
+                final ResponseConsumer consumer,
+                final HttpContext context,
+                final Runnable completion) {
+            super();
+            this.request = request;
+            this.requestStart = requestStart;
+            this.consumer = consumer;
+            this.context = context;
+            this.completion = completion;
+        }
+
+        public void completed(final HttpResponse response) {
+            final long requestEnd = System.nanoTime();
+            final boolean keepAlive = config.isKeepAlive() && connstrategy.keepAlive(response, this.context);
+            final int status = response.getStatusLine().getStatusCode();
+            final Stats stats = getStats();
+            synchronized (stats) {
+                if (status == HttpStatus.SC_OK) {
+                    stats.incSuccessCount();
+                } else {
+                    stats.incFailureCount();
+                }
+                if (response.getEntity() != null) {
+                    stats.setContentLength(this.consumer.getContentLength());
+                    stats.incTotalBytesRecv(this.consumer.getContentLength());
+                }
+                if (this.request instanceof HttpEntityEnclosingRequest) {
+                    final HttpEntity entity = ((HttpEntityEnclosingRequest) this.request).getEntity();
+                    if (entity != null && entity.getContentLength() > 0) {
+                        stats.incTotalBytesSent(entity.getContentLength());
+                    }
+                }
+                if (keepAlive) {
+                    stats.incKeepAliveCount();
+                }
+                if (stats.getServerName() == null) {
+                    final Header header = response.getFirstHeader("Server");
+                    if (header != null) {
+                        stats.setServerName(header.getValue());
+                    }
+                }
+                stats.recordLatency(requestEnd, requestEnd - this.requestStart);
+            }
+            if (config.getVerbosity() >= 2) {
+                System.out.println(status);
+            }
+            this.completion.run();
+        }
+
+        public void failed(final Exception ex) {
+            final Stats stats = getStats();
+            synchronized (stats) {
+                stats.incFailureCount();
+            }
+            if (config.getVerbosity() >= 2) {
+                System.err.println("Failed HTTP request : " + ex.getMessage());
+            }
+            this.completion.run();
+        }
+
+        public void cancelled() {
+            final Stats stats = getStats();
+            synchronized (stats) {
+                stats.incFailureCount();
+            }
+            this.completion.run();
+        }
+
+    }
+
+    /**
+     * Discards response content counting the number of bytes received.
+     */
+    static class ResponseConsumer extends AbstractAsyncResponseConsumer<HttpResponse> {
+
+        private volatile HttpResponse response;
+        private volatile long contentLength;
+        private ByteBuffer buffer;
+
+        ResponseConsumer() {
+            super();
+        }
+
+        long getContentLength() {
+            return this.contentLength;
+        }
+
+        @Override
+        protected void onResponseReceived(final HttpResponse response) throws HttpException, IOException {
+            this.response = response;
+        }
+
+        @Override
+        protected void onEntityEnclosed(final HttpEntity entity, final ContentType contentType) {
+        }
+
+        @Override
+        protected void onContentReceived(
+                final ContentDecoder decoder, final IOControl ioctrl) throws IOException {
+            if (this.buffer == null) {
+                this.buffer = ByteBuffer.allocate(4096);
+            }
+            int bytesRead;
+            while ((bytesRead = decoder.read(this.buffer)) > 0) {
+                this.contentLength += bytesRead;
+                this.buffer.clear();
+            }
+        }
+
+        @Override
+        protected HttpResponse buildResult(final HttpContext context) {
+            return this.response;
+        }
+
+        @Override
+        protected void releaseResources() {
+            this.buffer = null;
+        }
+
+    }
+
+}
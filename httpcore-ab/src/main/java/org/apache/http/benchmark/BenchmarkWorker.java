@@ -115,10 +115,31 @@ class BenchmarkWorker implements Runnable {
         // Populate the execution context
         this.context.setTargetHost(this.targetHost);
 
+        // Interval between requests of this worker in nano seconds if a target rate is set
+        final long interval = config.getRequestRate() > 0 ?
+                1000000000L * config.getThreads() / config.getRequestRate() : 0;
+
         stats.start();
         final int count = config.getRequests();
         for (int i = 0; i < count; i++) {
 
+            long requestStart = System.nanoTime();
+            if (interval > 0) {
+                // Measure latency from the scheduled send time rather than the actual one,
+                // so that a stalled server cannot hide the delay of requests queued behind
+                final long scheduled = stats.getStartTime() + i * interval;
+                final long delay = scheduled - requestStart;
+                if (delay > 0) {
+                    try {
+                        Thread.sleep(delay / 1000000, (int) (delay % 1000000));
+                    } catch (final InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+                requestStart = scheduled;
+            }
+
             try {
                 resetHeader(request);
                 if (!conn.isOpen()) {
@@ -183,6 +204,9 @@ class BenchmarkWorker implements Runnable {
                     stats.setContentLength(contentlen);
                 }
 
+                final long requestEnd = System.nanoTime();
+                stats.recordLatency(requestEnd, requestEnd - requestStart);
+
                 if (config.getVerbosity() >= 4) {
                     System.out.println();
                     System.out.println();
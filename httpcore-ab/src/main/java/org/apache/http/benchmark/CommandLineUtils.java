@@ -100,6 +100,23 @@ public class CommandLineUtils {
         vopt.setRequired(false);
         vopt.setArgName("verbosity");
 
+        final Option Ropt = new Option("R", true, "Target number of requests per second " +
+            "across all threads. Latencies are measured from the time a request was " +
+            "scheduled to be sent, which accounts for coordinated omission. " +
+            "Default is to send requests as fast as possible");
+        Ropt.setRequired(false);
+        Ropt.setArgName("rate");
+
+        final Option lopt = new Option("l", true, "Print requests and latencies per second " +
+            "after the results in the given format: csv or json");
+        lopt.setRequired(false);
+        lopt.setArgName("format");
+
+        final Option aopt = new Option("a", false, "Use non-blocking I/O. Concurrency then " +
+            "defines the number of concurrent connections served by a small number of " +
+            "I/O threads. Default is one blocking thread per connection");
+        aopt.setRequired(false);
+
         final Option hopt = new Option("h", false, "Display usage information");
         nopt.setRequired(false);
 
@@ -119,6 +136,9 @@ public class CommandLineUtils {
         options.addOption(hopt);
         options.addOption(topt);
         options.addOption(oopt);
+        options.addOption(Ropt);
+        options.addOption(lopt);
+        options.addOption(aopt);
         return options;
     }
 
@@ -184,6 +204,27 @@ public class CommandLineUtils {
             }
         }
 
+        if (cmd.hasOption('R')) {
+            final String s = cmd.getOptionValue('R');
+            try {
+                config.setRequestRate(Integer.parseInt(s));
+            } catch (final NumberFormatException ex) {
+                printError("Invalid request rate: " + s);
+            }
+        }
+
+        if (cmd.hasOption('l')) {
+            final String s = cmd.getOptionValue('l');
+            if (!"csv".equalsIgnoreCase(s) && !"json".equalsIgnoreCase(s)) {
+                printError("Invalid time series format: " + s);
+            }
+            config.setTimeSeriesFormat(s);
+        }
+
+        if (cmd.hasOption('a')) {
+            config.setUseAsync(true);
+        }
+
         if (cmd.hasOption('o')) {
             config.setUseHttp1_0(true);
         }
@@ -54,6 +54,9 @@ public class Config {
     private String identityStorePath = null;
     private String trustStorePassword = null;
     private String identityStorePassword = null;
+    private int requestRate = 0;
+    private String timeSeriesFormat = null;
+    private boolean useAsync = false;
 
     public Config() {
         super();
@@ -276,4 +279,56 @@ public class Config {
         return copy;
     }
 
+    /**
+     * @since 4.3
+     */
+    public int getRequestRate() {
+        return requestRate;
+    }
+
+    /**
+     * Sets the target number of requests per second across all threads.
+     * <code>0</code> means requests are sent as fast as possible.
+     *
+     * @since 4.3
+     */
+    public void setRequestRate(final int requestRate) {
+        this.requestRate = requestRate;
+    }
+
+    /**
+     * @since 4.3
+     */
+    public String getTimeSeriesFormat() {
+        return timeSeriesFormat;
+    }
+
+    /**
+     * Sets the format of the per-second time series output: <code>csv</code>,
+     * <code>json</code> or <code>null</code> for no output.
+     *
+     * @since 4.3
+     */
+    public void setTimeSeriesFormat(final String timeSeriesFormat) {
+        this.timeSeriesFormat = timeSeriesFormat;
+    }
+
+    /**
+     * @since 4.3
+     */
+    public boolean isUseAsync() {
+        return useAsync;
+    }
+
+    /**
+     * Sets whether requests should be executed with non-blocking I/O. In this mode
+     * the concurrency level defines the number of concurrent connections rather
+     * than the number of threads.
+     *
+     * @since 4.3
+     */
+    public void setUseAsync(final boolean useAsync) {
+        this.useAsync = useAsync;
+    }
+
 }
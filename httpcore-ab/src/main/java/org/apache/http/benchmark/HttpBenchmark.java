@@ -96,7 +96,7 @@ public class HttpBenchmark {
         this.config = config != null ? config : new Config();
     }
 
-    private HttpRequest createRequest() {
+    HttpRequest createRequest() {
         final URL url = config.getUrl();
         HttpEntity entity = null;
 
@@ -161,13 +161,80 @@ public class HttpBenchmark {
     public String execute() throws Exception {
         final Results results = doExecute();
         ResultProcessor.printResults(results);
+        if (config.getTimeSeriesFormat() != null) {
+            System.out.println();
+            ResultProcessor.printTimeSeries(results, config.getTimeSeriesFormat(), System.out);
+        }
         return "";
     }
 
+    private SSLContext createSSLContext() throws Exception {
+        TrustManager[] trustManagers = null;
+        if (config.isDisableSSLVerification()) {
+            // Create a trust manager that does not validate certificate chains
+            trustManagers = new TrustManager[] {
+                new X509TrustManager() {
+
+                    public java.security.cert.X509Certificate[] getAcceptedIssuers() {
+                        return null;
+                    }
+
+                    public void checkClientTrusted(
+                        final java.security.cert.X509Certificate[] certs, final String authType) {
+                    }
+
+                    public void checkServerTrusted(
+                        final java.security.cert.X509Certificate[] certs, final String authType) {
+                    }
+                }
+            };
+        } else if (config.getTrustStorePath() != null) {
+            final KeyStore trustStore = KeyStore.getInstance(KeyStore.getDefaultType());
+            final FileInputStream instream = new FileInputStream(config.getTrustStorePath());
+            try {
+                trustStore.load(instream, config.getTrustStorePath() != null ?
+                        config.getTrustStorePath().toCharArray() : null);
+            } finally {
+                try { instream.close(); } catch (final IOException ignore) {}
+            }
+            final TrustManagerFactory tmfactory = TrustManagerFactory.getInstance(
+                    TrustManagerFactory.getDefaultAlgorithm());
+            tmfactory.init(trustStore);
+            trustManagers = tmfactory.getTrustManagers();
+        }
+        KeyManager[] keyManagers = null;
+        if (config.getIdentityStorePath() != null) {
+            final KeyStore identityStore = KeyStore.getInstance(KeyStore.getDefaultType());
+            final FileInputStream instream = new FileInputStream(config.getIdentityStorePath());
+            try {
+                identityStore.load(instream, config.getIdentityStorePassword() != null ?
+                        config.getIdentityStorePassword().toCharArray() : null);
+            } finally {
+                try { instream.close(); } catch (final IOException ignore) {}
+            }
+            final KeyManagerFactory kmf = KeyManagerFactory.getInstance(
+                KeyManagerFactory.getDefaultAlgorithm());
+            kmf.init(identityStore, config.getIdentityStorePassword() != null ?
+                    config.getIdentityStorePassword().toCharArray() : null);
+            keyManagers = kmf.getKeyManagers();
+        }
+        final SSLContext sc = SSLContext.getInstance("SSL");
+        sc.init(keyManagers, trustManagers, null);
+        return sc;
+    }
+
     public Results doExecute() throws Exception {
 
         final URL url = config.getUrl();
         final HttpHost host = new HttpHost(url.getHost(), url.getPort(), url.getProtocol());
+        final SSLContext sslcontext = "https".equals(host.getSchemeName()) ? createSSLContext() : null;
+
+        if (config.isUseAsync()) {
+            final AsyncBenchmark asyncBenchmark = new AsyncBenchmark(this, config, host, sslcontext);
+            final Stats[] stats = asyncBenchmark.execute();
+            return ResultProcessor.collectResults(
+                    stats, config.getThreads(), host, config.getUrl().toString());
+        }
 
         final ThreadPoolExecutor workerPool = new ThreadPoolExecutor(
                 config.getThreads(), config.getThreads(), 5, TimeUnit.SECONDS,
@@ -181,61 +248,7 @@ public class HttpBenchmark {
             });
         workerPool.prestartAllCoreThreads();
 
-        SocketFactory socketFactory = null;
-        if ("https".equals(host.getSchemeName())) {
-            TrustManager[] trustManagers = null;
-            if (config.isDisableSSLVerification()) {
-                // Create a trust manager that does not validate certificate chains
-                trustManagers = new TrustManager[] {
-                    new X509TrustManager() {
-
-                        public java.security.cert.X509Certificate[] getAcceptedIssuers() {
-                            return null;
-                        }
-
-                        public void checkClientTrusted(
-                            final java.security.cert.X509Certificate[] certs, final String authType) {
-                        }
-
-                        public void checkServerTrusted(
-                            final java.security.cert.X509Certificate[] certs, final String authType) {
-                        }
-                    }
-                };
-            } else if (config.getTrustStorePath() != null) {
-                final KeyStore trustStore = KeyStore.getInstance(KeyStore.getDefaultType());
-                final FileInputStream instream = new FileInputStream(config.getTrustStorePath());
-                try {
-                    trustStore.load(instream, config.getTrustStorePath() != null ?
-                            config.getTrustStorePath().toCharArray() : null);
-                } finally {
-                    try { instream.close(); } catch (final IOException ignore) {}
-                }
-                final TrustManagerFactory tmfactory = TrustManagerFactory.getInstance(
-                        TrustManagerFactory.getDefaultAlgorithm());
-                tmfactory.init(trustStore);
-                trustManagers = tmfactory.getTrustManagers();
-            }
-            KeyManager[] keyManagers = null;
-            if (config.getIdentityStorePath() != null) {
-                final KeyStore identityStore = KeyStore.getInstance(KeyStore.getDefaultType());
-                final FileInputStream instream = new FileInputStream(config.getIdentityStorePath());
-                try {
-                    identityStore.load(instream, config.getIdentityStorePassword() != null ?
-                            config.getIdentityStorePassword().toCharArray() : null);
-                } finally {
-                    try { instream.close(); } catch (final IOException ignore) {}
-                }
-                final KeyManagerFactory kmf = KeyManagerFactory.getInstance(
-                    KeyManagerFactory.getDefaultAlgorithm());
-                kmf.init(identityStore, config.getIdentityStorePassword() != null ?
-                        config.getIdentityStorePassword().toCharArray() : null);
-                keyManagers = kmf.getKeyManagers();
-            }
-            final SSLContext sc = SSLContext.getInstance("SSL");
-            sc.init(keyManagers, trustManagers, null);
-            socketFactory = sc.getSocketFactory();
-        }
+        final SocketFactory socketFactory = sslcontext != null ? sslcontext.getSocketFactory() : null;
 
         final BenchmarkWorker[] workers = new BenchmarkWorker[config.getThreads()];
         for (int i = 0; i < workers.length; i++) {
@@ -0,0 +1,182 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.http.benchmark;
+
+/**
+ * Histogram of latency values recorded in microseconds.
+ * <p/>
+ * Values are counted in log-linear buckets: each power of two range is
+ * split into 128 linear sub-buckets, which keeps the relative error of
+ * reported values below 1% across the whole range of trackable values
+ * (up to about 19 hours) with a fixed footprint of 30 KB. Recording a
+ * value does not allocate any memory and costs a few arithmetic
+ * operations only. Histograms of individual workers can be merged with
+ * {@link #add(LatencyHistogram)}.
+ * <p/>
+ * Instances of this class are not thread safe.
+ *
+ * @since 4.3
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 8;
+    private static final int SUB_BUCKET_HALF_BITS = SUB_BUCKET_BITS - 1;
+    private static final int SUB_BUCKET_HALF_COUNT = 1 << SUB_BUCKET_HALF_BITS;
+    private static final long SUB_BUCKET_MASK = (1 << SUB_BUCKET_BITS) - 1;
+
+    /** The highest trackable value. Larger values are counted as this value. */
+    public static final long MAX_VALUE = (1L << 36) - 1;
+
+    private final long[] counts;
+    private long totalCount;
+    private long min;
+    private long max;
+    private double sum;
+    private double sumOfSquares;
+
+    public LatencyHistogram() {
+        super();
+        this.counts = new long[indexOf(MAX_VALUE) + 1];
+        this.min = Long.MAX_VALUE;
+        this.max = 0;
+    }
+
+    static int indexOf(final long value) {
+        final int bucket = 64 - Long.numberOfLeadingZeros(value | SUB_BUCKET_MASK) - SUB_BUCKET_BITS;
+        final int sub = (int) (value >>> bucket);
+        return (bucket << SUB_BUCKET_HALF_BITS) + sub;
+    }
+
+    static long lowestValueAt(final int index) {
+        int bucket = (index >> SUB_BUCKET_HALF_BITS) - 1;
+        int sub = (index & (SUB_BUCKET_HALF_COUNT - 1)) + SUB_BUCKET_HALF_COUNT;
+        if (bucket < 0) {
+            sub -= SUB_BUCKET_HALF_COUNT;
+            bucket = 0;
+        }
+        return (long) sub << bucket;
+    }
+
+    static long highestValueAt(final int index) {
+        final int bucket = Math.max(0, (index >> SUB_BUCKET_HALF_BITS) - 1);
+        return lowestValueAt(index) + (1L << bucket) - 1;
+    }
+
+    /**
+     * Records a single value.
+     *
+     * @param value the value in microseconds. Negative values are counted as
+     *   <code>0</code>, values above {@link #MAX_VALUE} as {@link #MAX_VALUE}.
+     */
+    public void recordValue(final long value) {
+        long v = value;
+        if (v < 0) {
+            v = 0;
+        } else if (v > MAX_VALUE) {
+            v = MAX_VALUE;
+        }
+        this.counts[indexOf(v)]++;
+        this.totalCount++;
+        if (v < this.min) {
+            this.min = v;
+        }
+        if (v > this.max) {
+            this.max = v;
+        }
+        this.sum += v;
+        this.sumOfSquares += (double) v * v;
+    }
+
+    /**
+     * Adds all values recorded by another histogram to this one.
+     */
+    public void add(final LatencyHistogram other) {
+        if (other == null || other.totalCount == 0) {
+            return;
+        }
+        for (int i = 0; i < this.counts.length; i++) {
+            this.counts[i] += other.counts[i];
+        }
+        this.totalCount += other.totalCount;
+        this.min = Math.min(this.min, other.min);
+        this.max = Math.max(this.max, other.max);
+        this.sum += other.sum;
+        this.sumOfSquares += other.sumOfSquares;
+    }
+
+    public long getTotalCount() {
+        return this.totalCount;
+    }
+
+    public long getMin() {
+        return this.totalCount > 0 ? this.min : 0;
+    }
+
+    public long getMax() {
+        return this.max;
+    }
+
+    public double getMean() {
+        return this.totalCount > 0 ? this.sum / this.totalCount : 0.0;
+    }
+
+    public double getStdDeviation() {
+        if (this.totalCount == 0) {
+            return 0.0;
+        }
+        final double mean = this.sum / this.totalCount;
+        final double variance = this.sumOfSquares / this.totalCount - mean * mean;
+        return variance > 0.0 ? Math.sqrt(variance) : 0.0;
+    }
+
+    /**
+     * Returns the value at or below which the given percentage of all
+     * recorded values fall. The returned value is the upper bound of the
+     * bucket the percentile falls into, but never exceeds the highest
+     * recorded value.
+     *
+     * @param percentile percentile in the range from <code>0</code>
+     *   to <code>100</code>.
+     */
+    public long getValueAtPercentile(final double percentile) {
+        if (this.totalCount == 0) {
+            return 0;
+        }
+        final double p = Math.min(Math.max(percentile, 0.0), 100.0);
+        final long countAtPercentile = Math.max(1, (long) Math.ceil(p / 100.0 * this.totalCount));
+        long count = 0;
+        for (int i = 0; i < this.counts.length; i++) {
+            count += this.counts[i];
+            if (count >= countAtPercentile) {
+                return Math.min(highestValueAt(i), this.max);
+            }
+        }
+        return this.max;
+    }
+
+}
@@ -26,7 +26,9 @@
  */
 package org.apache.http.benchmark;
 
+import java.io.PrintStream;
 import java.text.NumberFormat;
+import java.util.Locale;
 
 import org.apache.http.HttpHost;
 
@@ -36,6 +38,9 @@ public class ResultProcessor {
     static NumberFormat nf3 = NumberFormat.getInstance();
     static NumberFormat nf6 = NumberFormat.getInstance();
 
+    static final double[] PERCENTILES = new double[] {
+        50.0, 66.0, 75.0, 80.0, 90.0, 95.0, 98.0, 99.0, 99.9, 99.99, 100.0 };
+
     static {
         nf2.setMaximumFractionDigits(2);
         nf2.setMinimumFractionDigits(2);
@@ -46,6 +51,24 @@ public class ResultProcessor {
     }
 
     static Results collectResults(final BenchmarkWorker[] workers, final HttpHost host, final String uri) {
+        final Stats[] stats = new Stats[workers.length];
+        for (int i = 0; i < workers.length; i++) {
+            stats[i] = workers[i].getStats();
+        }
+        return collectResults(stats, host, uri);
+    }
+
+    static Results collectResults(final Stats[] allStats, final HttpHost host, final String uri) {
+        return collectResults(allStats, allStats.length, host, uri);
+    }
+
+    /**
+     * Collects results from statistics gathered by the given number of
+     * concurrent clients, which may share fewer {@link Stats} instances.
+     * The total time is reported as if each client had its own instance.
+     */
+    static Results collectResults(
+            final Stats[] allStats, final int concurrencyLevel, final HttpHost host, final String uri) {
         long totalTimeNano = 0;
         long successCount    = 0;
         long failureCount    = 0;
@@ -54,10 +77,23 @@ public class ResultProcessor {
         long totalBytesRcvd  = 0;
         long totalBytesSent  = 0;
 
-        final Stats stats = workers[0].getStats();
+        final Stats stats = allStats[0];
+        final LatencyHistogram latencies = new LatencyHistogram();
+        int intervalCount = 0;
+        for (final Stats s : allStats) {
+            intervalCount = Math.max(intervalCount, s.getIntervalCount());
+        }
+        final long[] intervalRequests = new long[intervalCount];
+        final long[] intervalLatency = new long[intervalCount];
+        final long[] intervalMaxLatency = new long[intervalCount];
 
-        for (final BenchmarkWorker worker : workers) {
-            final Stats s = worker.getStats();
+        for (final Stats s : allStats) {
+            latencies.add(s.getLatencies());
+            for (int i = 0; i < s.getIntervalCount(); i++) {
+                intervalRequests[i] += s.getIntervalRequests(i);
+                intervalLatency[i] += s.getIntervalLatency(i);
+                intervalMaxLatency[i] = Math.max(intervalMaxLatency[i], s.getIntervalMaxLatency(i));
+            }
             totalTimeNano  += s.getDuration();
             successCount   += s.getSuccessCount();
             failureCount   += s.getFailureCount();
@@ -74,8 +110,8 @@ public class ResultProcessor {
             host.getSchemeName().equalsIgnoreCase("https") ? 443 : 80;
         results.documentPath = uri;
         results.contentLength = stats.getContentLength();
-        results.concurrencyLevel = workers.length;
-        results.totalTimeNano = totalTimeNano;
+        results.concurrencyLevel = concurrencyLevel;
+        results.totalTimeNano = totalTimeNano / allStats.length * concurrencyLevel;
         results.successCount = successCount;
         results.failureCount = failureCount;
         results.writeErrors = writeErrors;
@@ -83,6 +119,10 @@ public class ResultProcessor {
         results.totalBytesRcvd = totalBytesRcvd;
         results.totalBytesSent = totalBytesSent;
         results.totalBytes = totalBytesRcvd + (totalBytesSent > 0 ? totalBytesSent : 0);
+        results.latencies = latencies;
+        results.intervalRequests = intervalRequests;
+        results.intervalLatency = intervalLatency;
+        results.intervalMaxLatency = intervalMaxLatency;
         return results;
     }
 
@@ -117,6 +157,82 @@ public class ResultProcessor {
                     / 1000 / totalTimeSec) : Integer.valueOf(-1)) + " kb/s sent");
         System.out.println( "\t\t\t\t" +
             nf2.format(results.getTotalBytes() / 1000 / totalTimeSec) + " kb/s total");
+        printLatencies(results);
+    }
+
+    static void printLatencies(final Results results) {
+        final LatencyHistogram latencies = results.getLatencies();
+        if (latencies.getTotalCount() == 0) {
+            return;
+        }
+        System.out.println( "\nLatency (ms):\t\t\tmin\tmean\t[+/-sd]\tmax");
+        System.out.println( "\t\t\t\t" +
+            nf3.format(latencies.getMin() / 1000.0) + "\t" +
+            nf3.format(latencies.getMean() / 1000.0) + "\t" +
+            nf3.format(latencies.getStdDeviation() / 1000.0) + "\t" +
+            nf3.format(latencies.getMax() / 1000.0));
+
+        final int intervals = results.getIntervalCount();
+        if (intervals > 1) {
+            // The last interval is usually incomplete
+            double sum = 0;
+            double sumOfSquares = 0;
+            for (int i = 0; i < intervals - 1; i++) {
+                final double n = results.getIntervalRequests(i);
+                sum += n;
+                sumOfSquares += n * n;
+            }
+            final double mean = sum / (intervals - 1);
+            final double variance = sumOfSquares / (intervals - 1) - mean * mean;
+            System.out.println( "Requests per second:\t\t" + nf2.format(mean) + " [#/sec] (mean of " +
+                (intervals - 1) + " full intervals, +/-sd " +
+                nf2.format(variance > 0 ? Math.sqrt(variance) : 0.0) + ")");
+        }
+
+        System.out.println( "\nPercentage of the requests served within a certain time (ms)");
+        for (final double percentile : PERCENTILES) {
+            final String label = percentile == Math.rint(percentile) ?
+                    Integer.toString((int) percentile) : Double.toString(percentile);
+            final long value = latencies.getValueAtPercentile(percentile);
+            System.out.println( "  " + label + "%\t" + nf3.format(value / 1000.0) +
+                    (percentile == 100.0 ? " (longest request)" : ""));
+        }
+    }
+
+    /**
+     * Prints requests completed and latencies in milli seconds per one second
+     * interval in the given format.
+     *
+     * @param results the benchmark results.
+     * @param format either <code>csv</code> or <code>json</code>.
+     * @param out the print stream.
+     */
+    static void printTimeSeries(final Results results, final String format, final PrintStream out) {
+        final boolean json = "json".equalsIgnoreCase(format);
+        if (json) {
+            out.println("[");
+        } else {
+            out.println("second,requests,mean_latency_ms,max_latency_ms");
+        }
+        final int intervals = results.getIntervalCount();
+        for (int i = 0; i < intervals; i++) {
+            final String mean = String.format(Locale.ENGLISH, "%.3f", Double.valueOf(
+                    results.getIntervalMeanLatency(i) / 1000.0));
+            final String max = String.format(Locale.ENGLISH, "%.3f", Double.valueOf(
+                    results.getIntervalMaxLatency(i) / 1000.0));
+            if (json) {
+                out.println("  {\"second\": " + i +
+                        ", \"requests\": " + results.getIntervalRequests(i) +
+                        ", \"mean_latency_ms\": " + mean +
+                        ", \"max_latency_ms\": " + max + "}" +
+                        (i < intervals - 1 ? "," : ""));
+            } else {
+                out.println(i + "," + results.getIntervalRequests(i) + "," + mean + "," + max);
+            }
+        }
+        if (json) {
+            out.println("]");
+        }
     }
 
 }
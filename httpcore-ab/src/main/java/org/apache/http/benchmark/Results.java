@@ -47,10 +47,18 @@ public final class Results {
     long totalBytesRcvd;
     long totalBytesSent;
     long totalBytes;
+    LatencyHistogram latencies;
+    long[] intervalRequests;
+    long[] intervalLatency;
+    long[] intervalMaxLatency;
 
     Results() {
         super();
         this.contentLength = -1;
+        this.latencies = new LatencyHistogram();
+        this.intervalRequests = new long[0];
+        this.intervalLatency = new long[0];
+        this.intervalMaxLatency = new long[0];
     }
 
     public String getServerName() {
@@ -109,6 +117,39 @@ public final class Results {
         return totalBytes;
     }
 
+    /**
+     * Latencies of all completed requests in micro seconds.
+     */
+    public LatencyHistogram getLatencies() {
+        return latencies;
+    }
+
+    /**
+     * Number of one second intervals covered by the benchmark.
+     */
+    public int getIntervalCount() {
+        return intervalRequests.length;
+    }
+
+    public long getIntervalRequests(final int interval) {
+        return intervalRequests[interval];
+    }
+
+    /**
+     * Mean latency in micro seconds of requests completed within the given interval.
+     */
+    public double getIntervalMeanLatency(final int interval) {
+        final long count = intervalRequests[interval];
+        return count > 0 ? (double) intervalLatency[interval] / count : 0.0;
+    }
+
+    /**
+     * Max latency in micro seconds of requests completed within the given interval.
+     */
+    public long getIntervalMaxLatency(final int interval) {
+        return intervalMaxLatency[interval];
+    }
+
     @Override
     public String toString() {
         final StringBuilder builder = new StringBuilder();
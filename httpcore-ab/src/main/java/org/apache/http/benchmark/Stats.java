@@ -44,6 +44,11 @@ public class Stats {
     private long totalBytesRecv = 0;
     private long totalBytesSent = 0;
     private long contentLength = -1;
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private long[] intervalCounts = new long[64];    // requests per second since start
+    private long[] intervalLatencies = new long[64]; // sum of latencies in micro seconds
+    private long[] intervalMaxLatencies = new long[64];
+    private int intervalCount = 0;
 
     public Stats() {
         super();
@@ -140,4 +145,80 @@ public class Stats {
         this.serverName = serverName;
     }
 
+    /**
+     * Records latency of a single request completed at the given time.
+     *
+     * @param completionTime value of {@link System#nanoTime()} at request completion.
+     * @param latency request latency in nano seconds.
+     *
+     * @since 4.3
+     */
+    public void recordLatency(final long completionTime, final long latency) {
+        final long micros = latency / 1000;
+        this.latencies.recordValue(micros);
+        final long elapsed = completionTime - this.startTime;
+        final int interval = elapsed > 0 ? (int) (elapsed / 1000000000L) : 0;
+        if (interval >= this.intervalCounts.length) {
+            final int newlen = Math.max(interval + 1, this.intervalCounts.length << 1);
+            this.intervalCounts = expand(this.intervalCounts, newlen);
+            this.intervalLatencies = expand(this.intervalLatencies, newlen);
+            this.intervalMaxLatencies = expand(this.intervalMaxLatencies, newlen);
+        }
+        this.intervalCounts[interval]++;
+        this.intervalLatencies[interval] += micros;
+        if (micros > this.intervalMaxLatencies[interval]) {
+            this.intervalMaxLatencies[interval] = micros;
+        }
+        if (interval >= this.intervalCount) {
+            this.intervalCount = interval + 1;
+        }
+    }
+
+    private static long[] expand(final long[] array, final int newlen) {
+        final long[] newarray = new long[newlen];
+        System.arraycopy(array, 0, newarray, 0, array.length);
+        return newarray;
+    }
+
+    /**
+     * @since 4.3
+     */
+    public LatencyHistogram getLatencies() {
+        return this.latencies;
+    }
+
+    /**
+     * Number of one second intervals since start, for which latencies
+     * have been recorded.
+     *
+     * @since 4.3
+     */
+    public int getIntervalCount() {
+        return this.intervalCount;
+    }
+
+    /**
+     * @since 4.3
+     */
+    public long getIntervalRequests(final int interval) {
+        return interval < this.intervalCount ? this.intervalCounts[interval] : 0;
+    }
+
+    /**
+     * Sum of latencies in micro seconds of requests completed within
+     * the given interval.
+     *
+     * @since 4.3
+     */
+    public long getIntervalLatency(final int interval) {
+        return interval < this.intervalCount ? this.intervalLatencies[interval] : 0;
+    }
+
+    /**
+     * @since 4.3
+     */
+    public long getIntervalMaxLatency(final int interval) {
+        return interval < this.intervalCount ? this.intervalMaxLatencies[interval] : 0;
+    }
+
 }
@@ -85,6 +85,70 @@ public class SmokeTest {
         Assert.assertEquals(0, results.getWriteErrors());
         Assert.assertEquals(300 * 16, results.getTotalBytes());
         Assert.assertEquals(300 * 16, results.getTotalBytesRcvd());
+        Assert.assertEquals(300, results.getLatencies().getTotalCount());
+        long requests = 0;
+        for (int i = 0; i < results.getIntervalCount(); i++) {
+            requests += results.getIntervalRequests(i);
+        }
+        Assert.assertEquals(300, requests);
+    }
+
+    @Test
+    public void testRequestRate() throws Exception {
+        final Config config = new Config();
+        config.setKeepAlive(true);
+        config.setMethod("GET");
+        config.setUrl(new URL("http://localhost:" + server.getPort() + "/"));
+        config.setThreads(2);
+        config.setRequests(20);
+        config.setRequestRate(100);
+        final HttpBenchmark httpBenchmark = new HttpBenchmark(config);
+        final Results results = httpBenchmark.doExecute();
+        Assert.assertEquals(40, results.getSuccessCount());
+        Assert.assertEquals(40, results.getLatencies().getTotalCount());
+        // 20 requests per thread at 50 requests per second per thread take at least 380 ms
+        Assert.assertTrue(results.getTotalTimeNano() / 2 >= 380000000L);
+    }
+
+    @Test
+    public void testAsyncBasics() throws Exception {
+        final Config config = new Config();
+        config.setKeepAlive(true);
+        config.setMethod("GET");
+        config.setUrl(new URL("http://localhost:" + server.getPort() + "/"));
+        config.setThreads(3);
+        config.setRequests(100);
+        config.setUseAsync(true);
+        final HttpBenchmark httpBenchmark = new HttpBenchmark(config);
+        final Results results = httpBenchmark.doExecute();
+        Assert.assertNotNull(results);
+        Assert.assertEquals(16, results.getContentLength());
+        Assert.assertEquals(3, results.getConcurrencyLevel());
+        Assert.assertEquals(300, results.getKeepAliveCount());
+        Assert.assertEquals(300, results.getSuccessCount());
+        Assert.assertEquals(0, results.getFailureCount());
+        Assert.assertEquals(300 * 16, results.getTotalBytesRcvd());
+        Assert.assertEquals(300, results.getLatencies().getTotalCount());
+    }
+
+    @Test
+    public void testAsyncRequestRate() throws Exception {
+        final Config config = new Config();
+        config.setKeepAlive(false);
+        config.setMethod("GET");
+        config.setUrl(new URL("http://localhost:" + server.getPort() + "/"));
+        config.setThreads(4);
+        config.setRequests(10);
+        config.setRequestRate(100);
+        config.setUseAsync(true);
+        final HttpBenchmark httpBenchmark = new HttpBenchmark(config);
+        final Results results = httpBenchmark.doExecute();
+        Assert.assertEquals(40, results.getSuccessCount());
+        Assert.assertEquals(0, results.getFailureCount());
+        Assert.assertEquals(0, results.getKeepAliveCount());
+        Assert.assertEquals(40, results.getLatencies().getTotalCount());
+        // 40 requests at 100 requests per second take at least 390 ms
+        Assert.assertTrue(results.getTotalTimeNano() / 4 >= 390000000L);
     }
 
 }
@@ -0,0 +1,100 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.http.benchmark;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestLatencyHistogram {
+
+    @Test
+    public void testIndexRoundTrip() throws Exception {
+        for (long v = 0; v < 100000; v++) {
+            final int index = LatencyHistogram.indexOf(v);
+            Assert.assertTrue(LatencyHistogram.lowestValueAt(index) <= v);
+            Assert.assertTrue(LatencyHistogram.highestValueAt(index) >= v);
+        }
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertEquals(i, LatencyHistogram.indexOf(LatencyHistogram.lowestValueAt(i)));
+            Assert.assertEquals(i, LatencyHistogram.indexOf(LatencyHistogram.highestValueAt(i)));
+        }
+        Assert.assertEquals(LatencyHistogram.MAX_VALUE,
+                LatencyHistogram.highestValueAt(LatencyHistogram.indexOf(LatencyHistogram.MAX_VALUE)));
+    }
+
+    @Test
+    public void testPercentiles() throws Exception {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 10000; i++) {
+            histogram.recordValue(i);
+        }
+        Assert.assertEquals(10000, histogram.getTotalCount());
+        Assert.assertEquals(1, histogram.getMin());
+        Assert.assertEquals(10000, histogram.getMax());
+        Assert.assertEquals(5000.5, histogram.getMean(), 0.001);
+        Assert.assertEquals(2886.75, histogram.getStdDeviation(), 0.01);
+        assertWithin(5000, histogram.getValueAtPercentile(50.0));
+        assertWithin(9900, histogram.getValueAtPercentile(99.0));
+        assertWithin(9990, histogram.getValueAtPercentile(99.9));
+        Assert.assertEquals(10000, histogram.getValueAtPercentile(100.0));
+        Assert.assertEquals(1, histogram.getValueAtPercentile(0.0));
+    }
+
+    @Test
+    public void testAdd() throws Exception {
+        final LatencyHistogram h1 = new LatencyHistogram();
+        final LatencyHistogram h2 = new LatencyHistogram();
+        h1.recordValue(100);
+        h1.recordValue(200);
+        h2.recordValue(1000000);
+        h2.recordValue(-1);
+        h2.recordValue(Long.MAX_VALUE);
+        h1.add(h2);
+        h1.add(new LatencyHistogram());
+        Assert.assertEquals(5, h1.getTotalCount());
+        Assert.assertEquals(0, h1.getMin());
+        Assert.assertEquals(LatencyHistogram.MAX_VALUE, h1.getMax());
+        assertWithin(1000000, h1.getValueAtPercentile(80.0));
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        Assert.assertEquals(0, histogram.getTotalCount());
+        Assert.assertEquals(0, histogram.getMin());
+        Assert.assertEquals(0, histogram.getMax());
+        Assert.assertEquals(0, histogram.getValueAtPercentile(99.0));
+        Assert.assertEquals(0.0, histogram.getMean(), 0.0);
+    }
+
+    private static void assertWithin(final long expected, final long actual) {
+        Assert.assertTrue("Expected " + expected + " but was " + actual,
+                Math.abs(actual - expected) <= expected / 100);
+    }
+
+}
@@ -0,0 +1,147 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.http.jmh;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.Consts;
+import org.apache.http.impl.io.HttpTransportMetricsImpl;
+import org.apache.http.impl.nio.codecs.ChunkDecoder;
+import org.apache.http.impl.nio.codecs.ChunkEncoder;
+import org.apache.http.impl.nio.codecs.LengthDelimitedDecoder;
+import org.apache.http.impl.nio.reactor.SessionInputBufferImpl;
+import org.apache.http.impl.nio.reactor.SessionOutputBufferImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks non-blocking content codecs transferring a message body of the given size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContentCodecBenchmark {
+
+    private static final int CHUNK_SIZE = 1024;
+
+    @Param({"1024", "65536"})
+    public int contentLength;
+
+    private HttpTransportMetricsImpl metrics;
+    private SessionInputBufferImpl inbuf;
+    private SessionOutputBufferImpl outbuf;
+    private ByteBuffer content;
+    private ByteBuffer dst;
+    private ReplayChannel identityChannel;
+    private ReplayChannel chunkedChannel;
+    private ReplayChannel discardChannel;
+
+    @Setup
+    public void setup() {
+        final byte[] body = new byte[this.contentLength];
+        for (int i = 0; i < body.length; i++) {
+            body[i] = (byte) ('a' + i % 26);
+        }
+        final StringBuilder chunked = new StringBuilder();
+        for (int off = 0; off < body.length; off += CHUNK_SIZE) {
+            final int len = Math.min(CHUNK_SIZE, body.length - off);
+            chunked.append(Integer.toHexString(len)).append("\r\n");
+            chunked.append(new String(body, off, len, Consts.ASCII)).append("\r\n");
+        }
+        chunked.append("0\r\n\r\n");
+
+        this.metrics = new HttpTransportMetricsImpl();
+        this.inbuf = new SessionInputBufferImpl(8 * 1024, 256);
+        this.outbuf = new SessionOutputBufferImpl(8 * 1024, 256);
+        this.content = ByteBuffer.wrap(body);
+        this.dst = ByteBuffer.allocate(4 * 1024);
+        this.identityChannel = new ReplayChannel(body);
+        this.chunkedChannel = new ReplayChannel(chunked.toString().getBytes(Consts.ASCII));
+        this.discardChannel = new ReplayChannel(new byte[0]);
+    }
+
+    @Benchmark
+    public long lengthDelimitedDecoder() throws IOException {
+        this.identityChannel.reset();
+        final LengthDelimitedDecoder decoder = new LengthDelimitedDecoder(
+                this.identityChannel, this.inbuf, this.metrics, this.contentLength);
+        long total = 0;
+        while (!decoder.isCompleted()) {
+            this.dst.clear();
+            total += decoder.read(this.dst);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long chunkDecoder() throws IOException {
+        this.chunkedChannel.reset();
+        final ChunkDecoder decoder = new ChunkDecoder(this.chunkedChannel, this.inbuf, this.metrics);
+        long total = 0;
+        while (!decoder.isCompleted()) {
+            this.dst.clear();
+            final int n = decoder.read(this.dst);
+            if (n > 0) {
+                total += n;
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long chunkEncoder() throws IOException {
+        final ChunkEncoder encoder = new ChunkEncoder(this.discardChannel, this.outbuf, this.metrics);
+        long total = 0;
+        this.content.clear();
+        while (this.content.position() < this.content.capacity()) {
+            final int limit = Math.min(this.content.position() + CHUNK_SIZE, this.content.capacity());
+            this.content.limit(limit);
+            total += encoder.write(this.content);
+        }
+        encoder.complete();
+        while (this.outbuf.hasData()) {
+            this.outbuf.flush(this.discardChannel);
+        }
+        return total;
+    }
+
+}
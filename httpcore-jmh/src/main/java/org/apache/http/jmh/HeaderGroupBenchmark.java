@@ -0,0 +1,92 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.http.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.Header;
+import org.apache.http.message.BasicHeader;
+import org.apache.http.message.HeaderGroup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link HeaderGroup} lookups in messages with a varying number of headers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HeaderGroupBenchmark {
+
+    private static final String[] NAMES = new String[] {
+        "Host", "User-Agent", "Accept", "Accept-Language", "Accept-Encoding",
+        "Connection", "Cookie", "Cache-Control", "Referer", "Content-Type"
+    };
+
+    @Param({"10", "30"})
+    public int headerCount;
+
+    private HeaderGroup headergroup;
+
+    @Setup
+    public void setup() {
+        this.headergroup = new HeaderGroup();
+        for (int i = 0; i < this.headerCount; i++) {
+            final String name = i < NAMES.length ? NAMES[i] : "X-Custom-" + i;
+            this.headergroup.addHeader(new BasicHeader(name, "value " + i));
+        }
+    }
+
+    @Benchmark
+    public Header getFirstHeader() {
+        return this.headergroup.getFirstHeader("content-type");
+    }
+
+    @Benchmark
+    public Header[] getHeaders() {
+        return this.headergroup.getHeaders("Cookie");
+    }
+
+    @Benchmark
+    public boolean containsMissingHeader() {
+        return this.headergroup.containsHeader("Transfer-Encoding");
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.http.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.Header;
+import org.apache.http.HttpVersion;
+import org.apache.http.RequestLine;
+import org.apache.http.StatusLine;
+import org.apache.http.message.BasicHeader;
+import org.apache.http.message.BasicLineFormatter;
+import org.apache.http.message.BasicRequestLine;
+import org.apache.http.message.BasicStatusLine;
+import org.apache.http.util.CharArrayBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link BasicLineFormatter}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LineFormatterBenchmark {
+
+    private RequestLine requestLine;
+    private StatusLine statusLine;
+    private Header header;
+    private CharArrayBuffer buffer;
+
+    @Setup
+    public void setup() {
+        this.requestLine = new BasicRequestLine("GET",
+                "/some/path/to/a/resource?param1=value1&param2=value2", HttpVersion.HTTP_1_1);
+        this.statusLine = new BasicStatusLine(HttpVersion.HTTP_1_1, 200, "OK");
+        this.header = new BasicHeader("Content-Type", "text/html; charset=ISO-8859-1");
+        this.buffer = new CharArrayBuffer(128);
+    }
+
+    @Benchmark
+    public CharArrayBuffer formatRequestLine() {
+        this.buffer.clear();
+        return BasicLineFormatter.INSTANCE.formatRequestLine(this.buffer, this.requestLine);
+    }
+
+    @Benchmark
+    public CharArrayBuffer formatStatusLine() {
+        this.buffer.clear();
+        return BasicLineFormatter.INSTANCE.formatStatusLine(this.buffer, this.statusLine);
+    }
+
+    @Benchmark
+    public CharArrayBuffer formatHeader() {
+        this.buffer.clear();
+        return BasicLineFormatter.INSTANCE.formatHeader(this.buffer, this.header);
+    }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.http.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.Header;
+import org.apache.http.HeaderElement;
+import org.apache.http.RequestLine;
+import org.apache.http.StatusLine;
+import org.apache.http.message.BasicHeaderValueParser;
+import org.apache.http.message.BasicLineParser;
+import org.apache.http.message.ParserCursor;
+import org.apache.http.util.CharArrayBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link BasicLineParser} and {@link BasicHeaderValueParser}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LineParserBenchmark {
+
+    private CharArrayBuffer requestLine;
+    private CharArrayBuffer statusLine;
+    private CharArrayBuffer header;
+    private CharArrayBuffer headerValue;
+
+    private static CharArrayBuffer toBuffer(final String s) {
+        final CharArrayBuffer buffer = new CharArrayBuffer(s.length());
+        buffer.append(s);
+        return buffer;
+    }
+
+    @Setup
+    public void setup() {
+        this.requestLine = toBuffer("GET /some/path/to/a/resource?param1=value1&param2=value2 HTTP/1.1");
+        this.statusLine = toBuffer("HTTP/1.1 200 OK");
+        this.header = toBuffer("Content-Type: text/html; charset=ISO-8859-1");
+        this.headerValue = toBuffer(
+                "text/html; q=0.9, application/xhtml+xml, application/xml; q=0.8, */*; q=0.1");
+    }
+
+    @Benchmark
+    public RequestLine parseRequestLine() {
+        return BasicLineParser.INSTANCE.parseRequestLine(this.requestLine,
+                new ParserCursor(0, this.requestLine.length()));
+    }
+
+    @Benchmark
+    public StatusLine parseStatusLine() {
+        return BasicLineParser.INSTANCE.parseStatusLine(this.statusLine,
+                new ParserCursor(0, this.statusLine.length()));
+    }
+
+    @Benchmark
+    public Header parseHeader() {
+        return BasicLineParser.INSTANCE.parseHeader(this.header);
+    }
+
+    @Benchmark
+    public HeaderElement[] parseHeaderElements() {
+        return BasicHeaderValueParser.INSTANCE.parseElements(this.headerValue,
+                new ParserCursor(0, this.headerValue.length()));
+    }
+
+}
@@ -0,0 +1,184 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.http.jmh;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.http.nio.reactor.EventMask;
+import org.apache.http.nio.reactor.IOSession;
+import org.apache.http.nio.reactor.SessionBufferStatus;
+
+/**
+ * In-memory {@link IOSession} whose channel writes to one buffer and reads
+ * from another. Two instances sharing a pair of buffers form a loopback
+ * connection.
+ */
+class LoopbackIOSession implements IOSession {
+
+    private final ByteBuffer inbound;
+    private final ByteBuffer outbound;
+    private final ByteChannel channel;
+    private final Map<String, Object> attributes;
+
+    private int eventMask;
+    private int status;
+    private int socketTimeout;
+    private SessionBufferStatus bufferStatus;
+
+    LoopbackIOSession(final ByteBuffer inbound, final ByteBuffer outbound) {
+        super();
+        this.inbound = inbound;
+        this.outbound = outbound;
+        this.channel = new LoopbackChannel();
+        this.attributes = new HashMap<String, Object>();
+        this.eventMask = EventMask.READ_WRITE;
+        this.status = ACTIVE;
+    }
+
+    static LoopbackIOSession[] createPair(final int capacity) {
+        final ByteBuffer b1 = ByteBuffer.allocate(capacity);
+        final ByteBuffer b2 = ByteBuffer.allocate(capacity);
+        return new LoopbackIOSession[] {
+                new LoopbackIOSession(b1, b2), new LoopbackIOSession(b2, b1) };
+    }
+
+    public ByteChannel channel() {
+        return this.channel;
+    }
+
+    public SocketAddress getRemoteAddress() {
+        return new InetSocketAddress("localhost", 443);
+    }
+
+    public SocketAddress getLocalAddress() {
+        return new InetSocketAddress("localhost", 0);
+    }
+
+    public int getEventMask() {
+        return this.eventMask;
+    }
+
+    public void setEventMask(final int ops) {
+        this.eventMask = ops;
+    }
+
+    public void setEvent(final int op) {
+        this.eventMask |= op;
+    }
+
+    public void clearEvent(final int op) {
+        this.eventMask &= ~op;
+    }
+
+    public void close() {
+        this.status = CLOSED;
+    }
+
+    public void shutdown() {
+        this.status = CLOSED;
+    }
+
+    public int getStatus() {
+        return this.status;
+    }
+
+    public boolean isClosed() {
+        return this.status == CLOSED;
+    }
+
+    public int getSocketTimeout() {
+        return this.socketTimeout;
+    }
+
+    public void setSocketTimeout(final int timeout) {
+        this.socketTimeout = timeout;
+    }
+
+    public void setBufferStatus(final SessionBufferStatus status) {
+        this.bufferStatus = status;
+    }
+
+    public boolean hasBufferedInput() {
+        return this.bufferStatus != null && this.bufferStatus.hasBufferedInput();
+    }
+
+    public boolean hasBufferedOutput() {
+        return this.bufferStatus != null && this.bufferStatus.hasBufferedOutput();
+    }
+
+    public void setAttribute(final String name, final Object obj) {
+        this.attributes.put(name, obj);
+    }
+
+    public Object getAttribute(final String name) {
+        return this.attributes.get(name);
+    }
+
+    public Object removeAttribute(final String name) {
+        return this.attributes.remove(name);
+    }
+
+    private class LoopbackChannel implements ByteChannel {
+
+        public int read(final ByteBuffer dst) {
+            final ByteBuffer src = LoopbackIOSession.this.inbound;
+            src.flip();
+            final int len = Math.min(dst.remaining(), src.remaining());
+            final int limit = src.limit();
+            src.limit(src.position() + len);
+            dst.put(src);
+            src.limit(limit);
+            src.compact();
+            return len;
+        }
+
+        public int write(final ByteBuffer src) {
+            final ByteBuffer dst = LoopbackIOSession.this.outbound;
+            final int len = Math.min(dst.remaining(), src.remaining());
+            final int limit = src.limit();
+            src.limit(src.position() + len);
+            dst.put(src);
+            src.limit(limit);
+            return len;
+        }
+
+        public boolean isOpen() {
+            return !isClosed();
+        }
+
+        public void close() {
+            LoopbackIOSession.this.close();
+        }
+
+    }
+
+}
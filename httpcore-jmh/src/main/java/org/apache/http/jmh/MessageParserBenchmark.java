@@ -0,0 +1,125 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.http.jmh;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.Consts;
+import org.apache.http.Header;
+import org.apache.http.HttpException;
+import org.apache.http.HttpRequest;
+import org.apache.http.config.MessageConstraints;
+import org.apache.http.impl.io.DefaultHttpRequestParser;
+import org.apache.http.impl.io.HttpTransportMetricsImpl;
+import org.apache.http.impl.io.SessionInputBufferImpl;
+import org.apache.http.message.BasicLineParser;
+import org.apache.http.message.LazyLineParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks parsing of a request head with twenty headers of which only
+ * a few get consumed, using either {@link BasicLineParser} or
+ * {@link LazyLineParser}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageParserBenchmark {
+
+    private static final String HEAD =
+        "GET /some/path/to/a/resource?param1=value1&param2=value2 HTTP/1.1\r\n" +
+        "Host: www.example.com\r\n" +
+        "User-Agent: Mozilla/5.0 (X11; Linux x86_64; rv:20.0) Gecko/20100101 Firefox/20.0\r\n" +
+        "Accept: text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8\r\n" +
+        "Accept-Language: en-US,en;q=0.5\r\n" +
+        "Accept-Encoding: gzip, deflate\r\n" +
+        "Accept-Charset: ISO-8859-1,utf-8;q=0.7,*;q=0.7\r\n" +
+        "Referer: http://www.example.com/some/path/to/a/page.html\r\n" +
+        "Cookie: JSESSIONID=1A530637289A03B07199A44E8D531427; lang=en\r\n" +
+        "Connection: keep-alive\r\n" +
+        "Cache-Control: max-age=0\r\n" +
+        "Pragma: no-cache\r\n" +
+        "If-Modified-Since: Sat, 29 Oct 1994 19:43:31 GMT\r\n" +
+        "If-None-Match: \"737060cd8c284d8af7ad3082f209582d\"\r\n" +
+        "DNT: 1\r\n" +
+        "Via: 1.1 proxy1.example.com, 1.1 proxy2.example.com\r\n" +
+        "X-Forwarded-For: 192.168.0.1, 10.0.0.1\r\n" +
+        "X-Forwarded-Proto: https\r\n" +
+        "X-Request-Id: f058ebd6-02f7-4d3f-942e-904344e8cde5\r\n" +
+        "X-Requested-With: XMLHttpRequest\r\n" +
+        "Origin: http://www.example.com\r\n" +
+        "\r\n";
+
+    @Param({"false", "true"})
+    public boolean lazy;
+
+    private byte[] content;
+    private SessionInputBufferImpl inbuffer;
+    private DefaultHttpRequestParser parser;
+
+    @Setup
+    public void setup() {
+        this.content = HEAD.getBytes(Consts.ASCII);
+        this.inbuffer = new SessionInputBufferImpl(
+                new HttpTransportMetricsImpl(), 8 * 1024, 512, null, null);
+        this.parser = new DefaultHttpRequestParser(this.inbuffer,
+                this.lazy ? LazyLineParser.INSTANCE : BasicLineParser.INSTANCE,
+                null, MessageConstraints.DEFAULT);
+    }
+
+    @Benchmark
+    public int parseAndReadFewHeaders() throws IOException, HttpException {
+        this.inbuffer.bind(new ByteArrayInputStream(this.content));
+        final HttpRequest request = this.parser.parse();
+        int total = 0;
+        final Header host = request.getFirstHeader("Host");
+        total += host.getValue().length();
+        final Header connection = request.getFirstHeader("Connection");
+        total += connection.getValue().length();
+        final Header contentLength = request.getFirstHeader("Content-Length");
+        if (contentLength != null) {
+            total += contentLength.getValue().length();
+        }
+        return total;
+    }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.http.jmh;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Byte channel that replays the same content on every {@link #reset()}
+ * and discards all output.
+ */
+class ReplayChannel implements ReadableByteChannel, WritableByteChannel {
+
+    private final ByteBuffer content;
+
+    ReplayChannel(final byte[] content) {
+        super();
+        this.content = ByteBuffer.wrap(content);
+    }
+
+    void reset() {
+        this.content.rewind();
+    }
+
+    public int read(final ByteBuffer dst) {
+        if (!this.content.hasRemaining()) {
+            return -1;
+        }
+        final int len = Math.min(dst.remaining(), this.content.remaining());
+        final int limit = this.content.limit();
+        this.content.limit(this.content.position() + len);
+        dst.put(this.content);
+        this.content.limit(limit);
+        return len;
+    }
+
+    public int write(final ByteBuffer src) {
+        final int len = src.remaining();
+        src.position(src.limit());
+        return len;
+    }
+
+    public boolean isOpen() {
+        return true;
+    }
+
+    public void close() {
+    }
+
+}
@@ -0,0 +1,158 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.http.jmh;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.security.KeyStore;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+
+import org.apache.http.nio.reactor.ssl.SSLIOSession;
+import org.apache.http.nio.reactor.ssl.SSLMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks TLS throughput of a pair of {@link SSLIOSession}s connected
+ * over an in-memory loopback on a single thread.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SSLIOSessionBenchmark {
+
+    @Param({"1024", "65536"})
+    public int contentLength;
+
+    private SSLIOSession client;
+    private SSLIOSession server;
+    private ByteBuffer content;
+    private ByteBuffer dst;
+
+    private static SSLContext createServerSSLContext() throws Exception {
+        final KeyStore keystore = KeyStore.getInstance("jks");
+        final InputStream instream = SSLIOSessionBenchmark.class.getClassLoader()
+                .getResourceAsStream("test.keystore");
+        try {
+            keystore.load(instream, "nopassword".toCharArray());
+        } finally {
+            instream.close();
+        }
+        final KeyManagerFactory kmfactory = KeyManagerFactory.getInstance(
+                KeyManagerFactory.getDefaultAlgorithm());
+        kmfactory.init(keystore, "nopassword".toCharArray());
+        final SSLContext sslcontext = SSLContext.getInstance("TLSv1.2");
+        sslcontext.init(kmfactory.getKeyManagers(), null, null);
+        return sslcontext;
+    }
+
+    private static SSLContext createClientSSLContext() throws Exception {
+        final TrustManager trustAll = new X509TrustManager() {
+
+            public void checkClientTrusted(final X509Certificate[] chain, final String authType) {
+            }
+
+            public void checkServerTrusted(final X509Certificate[] chain, final String authType) {
+            }
+
+            public X509Certificate[] getAcceptedIssuers() {
+                return new X509Certificate[0];
+            }
+
+        };
+        final SSLContext sslcontext = SSLContext.getInstance("TLSv1.2");
+        sslcontext.init(null, new TrustManager[] { trustAll }, null);
+        return sslcontext;
+    }
+
+    @Setup
+    public void setup() throws Exception {
+        final LoopbackIOSession[] pair = LoopbackIOSession.createPair(256 * 1024);
+        this.client = new SSLIOSession(pair[0], SSLMode.CLIENT, createClientSSLContext(), null);
+        this.server = new SSLIOSession(pair[1], SSLMode.SERVER, createServerSSLContext(), null);
+        this.client.initialize();
+        this.server.initialize();
+        for (int i = 0; i < 1000; i++) {
+            if (this.client.isAppOutputReady() && this.server.isAppOutputReady()) {
+                break;
+            }
+            this.client.isAppInputReady();
+            this.client.outboundTransport();
+            this.server.isAppInputReady();
+            this.server.outboundTransport();
+        }
+        if (!this.client.isAppOutputReady() || !this.server.isAppOutputReady()) {
+            throw new IllegalStateException("TLS handshake failed to complete");
+        }
+        final byte[] body = new byte[this.contentLength];
+        for (int i = 0; i < body.length; i++) {
+            body[i] = (byte) ('a' + i % 26);
+        }
+        this.content = ByteBuffer.wrap(body);
+        this.dst = ByteBuffer.allocate(8 * 1024);
+    }
+
+    @Benchmark
+    public int transfer() throws IOException {
+        this.content.rewind();
+        int total = 0;
+        while (this.content.hasRemaining() || total < this.contentLength) {
+            if (this.content.hasRemaining()) {
+                this.client.channel().write(this.content);
+            }
+            this.client.outboundTransport();
+            this.server.isAppInputReady();
+            int n;
+            while ((n = this.server.channel().read(this.dst)) > 0) {
+                total += n;
+                this.dst.clear();
+            }
+            this.server.inboundTransport();
+        }
+        return total;
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.http.jmh;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.Consts;
+import org.apache.http.impl.io.HttpTransportMetricsImpl;
+import org.apache.http.util.CharArrayBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks <code>readLine</code> of the blocking and non-blocking session
+ * input buffers by reading a typical request head line by line.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionBufferReadLineBenchmark {
+
+    private static final String HEAD =
+        "GET /some/path/to/a/resource?param1=value1&param2=value2 HTTP/1.1\r\n" +
+        "Host: www.example.com\r\n" +
+        "User-Agent: Mozilla/5.0 (X11; Linux x86_64; rv:20.0) Gecko/20100101 Firefox/20.0\r\n" +
+        "Accept: text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8\r\n" +
+        "Accept-Language: en-US,en;q=0.5\r\n" +
+        "Accept-Encoding: gzip, deflate\r\n" +
+        "Cookie: JSESSIONID=1A530637289A03B07199A44E8D531427; lang=en\r\n" +
+        "Connection: keep-alive\r\n" +
+        "Cache-Control: max-age=0\r\n" +
+        "\r\n";
+
+    private byte[] content;
+    private CharArrayBuffer linebuffer;
+    private org.apache.http.impl.io.SessionInputBufferImpl blockingBuffer;
+    private org.apache.http.impl.nio.reactor.SessionInputBufferImpl nioBuffer;
+    private ReplayChannel channel;
+
+    @Setup
+    public void setup() {
+        this.content = HEAD.getBytes(Consts.ASCII);
+        this.linebuffer = new CharArrayBuffer(256);
+        this.blockingBuffer = new org.apache.http.impl.io.SessionInputBufferImpl(
+                new HttpTransportMetricsImpl(), 8 * 1024, 512, null, null);
+        this.nioBuffer = new org.apache.http.impl.nio.reactor.SessionInputBufferImpl(
+                8 * 1024, 256);
+        this.channel = new ReplayChannel(this.content);
+    }
+
+    @Benchmark
+    public int blockingReadLine() throws IOException {
+        this.blockingBuffer.bind(new ByteArrayInputStream(this.content));
+        int total = 0;
+        int l;
+        do {
+            this.linebuffer.clear();
+            l = this.blockingBuffer.readLine(this.linebuffer);
+            total += this.linebuffer.length();
+        } while (l > 0);
+        return total;
+    }
+
+    @Benchmark
+    public int nioReadLine() throws IOException {
+        this.channel.reset();
+        this.nioBuffer.fill(this.channel);
+        int total = 0;
+        for (;;) {
+            this.linebuffer.clear();
+            if (!this.nioBuffer.readLine(this.linebuffer, false) || this.linebuffer.length() == 0) {
+                break;
+            }
+            total += this.linebuffer.length();
+        }
+        return total;
+    }
+
+}
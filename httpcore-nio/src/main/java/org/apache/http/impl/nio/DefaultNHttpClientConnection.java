@@ -258,7 +258,9 @@ public class DefaultNHttpClientConnection
                         resetInput();
                     }
                 }
-                if (bytesRead == -1) {
+                if (bytesRead == -1 && !this.inbuf.hasData()) {
+                    // Signal end of input only once all buffered
+                    // (possibly pipelined) responses have been processed
                     handler.endOfInput(this);
                 }
             }
@@ -278,6 +280,10 @@ public class DefaultNHttpClientConnection
         } finally {
             // Finally set buffered input flag
             this.hasBufferedInput = this.inbuf.hasData();
+            if (!this.hasBufferedInput && this.response == null) {
+                // Return idle session buffer to the pool (if any)
+                this.inbuf.release();
+            }
         }
     }
 
@@ -315,6 +321,10 @@ public class DefaultNHttpClientConnection
         } finally {
             // Finally set the buffered output flag
             this.hasBufferedOutput = this.outbuf.hasData();
+            if (!this.hasBufferedOutput && this.request == null) {
+                // Return idle session buffer to the pool (if any)
+                this.outbuf.release();
+            }
         }
     }
 
@@ -296,6 +296,10 @@ public class DefaultNHttpServerConnection
         } finally {
             // Finally set buffered input flag
             this.hasBufferedInput = this.inbuf.hasData();
+            if (!this.hasBufferedInput && this.request == null) {
+                // Return idle session buffer to the pool (if any)
+                this.inbuf.release();
+            }
         }
     }
 
@@ -333,6 +337,10 @@ public class DefaultNHttpServerConnection
         } finally {
             // Finally set the buffered output flag
             this.hasBufferedOutput = this.outbuf.hasData();
+            if (!this.hasBufferedOutput && this.response == null) {
+                // Return idle session buffer to the pool (if any)
+                this.outbuf.release();
+            }
         }
     }
 
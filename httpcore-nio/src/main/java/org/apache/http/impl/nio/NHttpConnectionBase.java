@@ -468,6 +468,21 @@ public class NHttpConnectionBase
         }
     }
 
+    /**
+     * Releases session buffers of this connection. Buffers allocated by
+     * a {@link org.apache.http.nio.util.PooledByteBufferAllocator} get
+     * returned to the pool. Any buffered content gets discarded.
+     * <p>
+     * This method is expected to be called by the I/O dispatch thread once
+     * the underlying I/O session has been closed.
+     *
+     * @since 4.3
+     */
+    protected void releaseBuffers() {
+        this.inbuf.release();
+        this.outbuf.release();
+    }
+
     public boolean isOpen() {
         return this.status == ACTIVE && !this.session.isClosed();
     }
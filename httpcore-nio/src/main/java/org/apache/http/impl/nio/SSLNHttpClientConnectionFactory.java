@@ -30,15 +30,21 @@ import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CharsetEncoder;
 import java.nio.charset.CodingErrorAction;
+import java.util.concurrent.Executor;
 
 import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLSession;
 
+import org.apache.http.HttpHost;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpResponseFactory;
 import org.apache.http.annotation.Immutable;
 import org.apache.http.config.ConnectionConfig;
 import org.apache.http.impl.DefaultHttpResponseFactory;
 import org.apache.http.impl.nio.codecs.DefaultHttpResponseParserFactory;
+import org.apache.http.impl.pool.SSLSessionCache;
 import org.apache.http.nio.NHttpClientConnection;
 import org.apache.http.nio.NHttpConnectionFactory;
 import org.apache.http.nio.NHttpMessageParserFactory;
@@ -67,6 +73,10 @@ public class SSLNHttpClientConnectionFactory
     private final SSLContext sslcontext;
     private final SSLSetupHandler sslHandler;
     private final ConnectionConfig config;
+    private final Executor taskExecutor;
+    private final SSLSessionCache sessionCache;
+
+    private volatile SSLContext defaultSSLContext;
 
     /**
      * @deprecated (4.3) use {@link
@@ -89,6 +99,8 @@ public class SSLNHttpClientConnectionFactory
         this.allocator = allocator;
         this.responseParserFactory = new DefaultHttpResponseParserFactory(null, responseFactory);
         this.config = HttpParamConfig.getConnectionConfig(params);
+        this.taskExecutor = null;
+        this.sessionCache = null;
     }
 
     /**
@@ -123,6 +135,32 @@ public class SSLNHttpClientConnectionFactory
             final NHttpMessageParserFactory<HttpResponse> responseParserFactory,
             final ByteBufferAllocator allocator,
             final ConnectionConfig config) {
+        this(sslcontext, sslHandler, responseParserFactory, allocator, config, null, null);
+    }
+
+    /**
+     * @param sslcontext SSL context. If <code>null</code> the default context is used.
+     * @param sslHandler optional SSL setup handler. May be <code>null</code>.
+     * @param responseParserFactory optional message parser factory.
+     * @param allocator optional session buffer allocator.
+     * @param config connection configuration.
+     * @param taskExecutor optional executor of SSL engine delegated tasks.
+     *   If <code>null</code> delegated tasks are executed by the I/O
+     *   dispatch thread.
+     * @param sessionCache optional cache of SSL sessions. If specified
+     *   sessions of connections created for a {@link HttpHost} route are
+     *   reported to the cache. May be <code>null</code>.
+     *
+     * @since 4.3
+     */
+    public SSLNHttpClientConnectionFactory(
+            final SSLContext sslcontext,
+            final SSLSetupHandler sslHandler,
+            final NHttpMessageParserFactory<HttpResponse> responseParserFactory,
+            final ByteBufferAllocator allocator,
+            final ConnectionConfig config,
+            final Executor taskExecutor,
+            final SSLSessionCache sessionCache) {
         super();
         this.sslcontext = sslcontext;
         this.sslHandler = sslHandler;
@@ -130,6 +168,8 @@ public class SSLNHttpClientConnectionFactory
         this.responseParserFactory = responseParserFactory != null ? responseParserFactory :
             DefaultHttpResponseParserFactory.INSTANCE;
         this.config = config != null ? config : ConnectionConfig.DEFAULT;
+        this.taskExecutor = taskExecutor;
+        this.sessionCache = sessionCache;
     }
 
     /**
@@ -150,13 +190,18 @@ public class SSLNHttpClientConnectionFactory
     }
 
     private SSLContext getDefaultSSLContext() {
-        SSLContext sslcontext;
+        // SSL sessions can only be resumed with the same SSL context
+        SSLContext sslcontext = this.defaultSSLContext;
+        if (sslcontext != null) {
+            return sslcontext;
+        }
         try {
             sslcontext = SSLContext.getInstance("TLS");
             sslcontext.init(null, null, null);
         } catch (final Exception ex) {
             throw new IllegalStateException("Failure initializing default SSL context", ex);
         }
+        this.defaultSSLContext = sslcontext;
         return sslcontext;
     }
 
@@ -179,9 +224,13 @@ public class SSLNHttpClientConnectionFactory
             final IOSession iosession,
             final SSLContext sslcontext,
             final SSLSetupHandler sslHandler) {
-        final SSLIOSession ssliosession = new SSLIOSession(iosession, SSLMode.CLIENT,
+        final Object attachment = iosession.getAttribute(IOSession.ATTACHMENT_KEY);
+        final HttpHost route = attachment instanceof HttpHost ? (HttpHost) attachment : null;
+        final SSLSetupHandler handler = route != null && this.sessionCache != null ?
+                new SessionCachingSetupHandler(sslHandler, this.sessionCache, route) : sslHandler;
+        final SSLIOSession ssliosession = new SSLIOSession(iosession, SSLMode.CLIENT, route,
                 (sslcontext != null ? sslcontext : getDefaultSSLContext()),
-                sslHandler);
+                handler, this.allocator, this.taskExecutor);
         iosession.setAttribute(SSLIOSession.SESSION_KEY, ssliosession);
         return ssliosession;
     }
@@ -213,4 +262,35 @@ public class SSLNHttpClientConnectionFactory
                 this.responseParserFactory);
     }
 
+    static class SessionCachingSetupHandler implements SSLSetupHandler {
+
+        private final SSLSetupHandler handler;
+        private final SSLSessionCache sessionCache;
+        private final HttpHost route;
+
+        SessionCachingSetupHandler(
+                final SSLSetupHandler handler,
+                final SSLSessionCache sessionCache,
+                final HttpHost route) {
+            super();
+            this.handler = handler;
+            this.sessionCache = sessionCache;
+            this.route = route;
+        }
+
+        public void initalize(final SSLEngine sslengine) throws SSLException {
+            if (this.handler != null) {
+                this.handler.initalize(sslengine);
+            }
+        }
+
+        public void verify(final IOSession iosession, final SSLSession sslsession) throws SSLException {
+            if (this.handler != null) {
+                this.handler.verify(iosession, sslsession);
+            }
+            this.sessionCache.sessionEstablished(this.route, sslsession);
+        }
+
+    }
+
 }
@@ -30,6 +30,7 @@ import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CharsetEncoder;
 import java.nio.charset.CodingErrorAction;
+import java.util.concurrent.Executor;
 
 import javax.net.ssl.SSLContext;
 
@@ -67,6 +68,7 @@ public class SSLNHttpServerConnectionFactory
     private final SSLContext sslcontext;
     private final SSLSetupHandler sslHandler;
     private final ConnectionConfig config;
+    private final Executor taskExecutor;
 
     /**
      * @deprecated (4.3) use {@link
@@ -89,6 +91,7 @@ public class SSLNHttpServerConnectionFactory
         this.allocator = allocator;
         this.requestParserFactory = new DefaultHttpRequestParserFactory(null, requestFactory);
         this.config = HttpParamConfig.getConnectionConfig(params);
+        this.taskExecutor = null;
     }
 
     /**
@@ -123,6 +126,28 @@ public class SSLNHttpServerConnectionFactory
             final NHttpMessageParserFactory<HttpRequest> requestParserFactory,
             final ByteBufferAllocator allocator,
             final ConnectionConfig config) {
+        this(sslcontext, sslHandler, requestParserFactory, allocator, config, null);
+    }
+
+    /**
+     * @param sslcontext SSL context. If <code>null</code> the default context is used.
+     * @param sslHandler optional SSL setup handler. May be <code>null</code>.
+     * @param requestParserFactory optional message parser factory.
+     * @param allocator optional session buffer allocator.
+     * @param config connection configuration.
+     * @param taskExecutor optional executor of SSL engine delegated tasks.
+     *   If <code>null</code> delegated tasks are executed by the I/O
+     *   dispatch thread.
+     *
+     * @since 4.3
+     */
+    public SSLNHttpServerConnectionFactory(
+            final SSLContext sslcontext,
+            final SSLSetupHandler sslHandler,
+            final NHttpMessageParserFactory<HttpRequest> requestParserFactory,
+            final ByteBufferAllocator allocator,
+            final ConnectionConfig config,
+            final Executor taskExecutor) {
         super();
         this.sslcontext = sslcontext;
         this.sslHandler = sslHandler;
@@ -130,6 +155,7 @@ public class SSLNHttpServerConnectionFactory
         this.requestParserFactory = requestParserFactory != null ? requestParserFactory :
             DefaultHttpRequestParserFactory.INSTANCE;
         this.config = config != null ? config : ConnectionConfig.DEFAULT;
+        this.taskExecutor = taskExecutor;
     }
 
     /**
@@ -181,7 +207,7 @@ public class SSLNHttpServerConnectionFactory
             final SSLSetupHandler sslHandler) {
         final SSLIOSession ssliosession = new SSLIOSession(iosession, SSLMode.SERVER,
                 (sslcontext != null ? sslcontext : getDefaultSSLContext()),
-                sslHandler);
+                sslHandler, this.allocator, this.taskExecutor);
         iosession.setAttribute(SSLIOSession.SESSION_KEY, ssliosession);
         return ssliosession;
     }
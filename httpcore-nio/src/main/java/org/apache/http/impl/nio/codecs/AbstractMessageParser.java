@@ -40,6 +40,7 @@ import org.apache.http.ProtocolException;
 import org.apache.http.annotation.NotThreadSafe;
 import org.apache.http.config.MessageConstraints;
 import org.apache.http.message.BasicLineParser;
+import org.apache.http.message.HeaderBufferParser;
 import org.apache.http.message.LineParser;
 import org.apache.http.nio.NHttpMessageParser;
 import org.apache.http.nio.reactor.SessionInputBuffer;
@@ -51,6 +52,10 @@ import org.apache.http.util.CharArrayBuffer;
 /**
  * Abstract {@link NHttpMessageParser} that serves as a base for all message
  * parser implementations.
+ * <p/>
+ * If the line parser implements {@link HeaderBufferParser} all header lines
+ * of a message are collected into a single buffer and headers are created
+ * from regions of that buffer.
  *
  * @since 4.0
  */
@@ -70,6 +75,10 @@ public abstract class AbstractMessageParser<T extends HttpMessage> implements NH
     private T message;
     private CharArrayBuffer lineBuf;
     private final List<CharArrayBuffer> headerBufs;
+    private CharArrayBuffer headerBlock;
+    private int[] headerEnds;
+    private int headerCount;
+    private int headerBlockHint;
 
     protected final LineParser lineParser;
     private final MessageConstraints constraints;
@@ -129,6 +138,8 @@ public abstract class AbstractMessageParser<T extends HttpMessage> implements NH
         this.state = READ_HEAD_LINE;
         this.endOfStream = false;
         this.headerBufs.clear();
+        this.headerBlock = null;
+        this.headerCount = 0;
         this.message = null;
     }
 
@@ -156,7 +167,52 @@ public abstract class AbstractMessageParser<T extends HttpMessage> implements NH
         this.message = createMessage(this.lineBuf);
     }
 
+    private void appendHeader() throws IOException {
+        final CharArrayBuffer current = this.lineBuf;
+        if (this.headerBlock == null) {
+            this.headerBlock = new CharArrayBuffer(Math.max(this.headerBlockHint, 256));
+            this.headerCount = 0;
+        }
+        if (this.headerEnds == null) {
+            this.headerEnds = new int[16];
+        }
+        final CharArrayBuffer block = this.headerBlock;
+        if ((current.charAt(0) == ' ' || current.charAt(0) == '\t') && this.headerCount > 0) {
+            // Handle folded header line. The last header always ends
+            // at the end of the block
+            int i = 0;
+            while (i < current.length()) {
+                final char ch = current.charAt(i);
+                if (ch != ' ' && ch != '\t') {
+                    break;
+                }
+                i++;
+            }
+            final int previous = this.headerCount > 1 ? this.headerEnds[this.headerCount - 2] : 0;
+            final int maxLineLen = this.constraints.getMaxLineLength();
+            if (maxLineLen > 0 && block.length() - previous + 1 + current.length() - i > maxLineLen) {
+                throw new MessageConstraintException("Maximum line length limit exceeded");
+            }
+            block.append(' ');
+            block.append(current, i, current.length() - i);
+            this.headerEnds[this.headerCount - 1] = block.length();
+        } else {
+            block.append(current);
+            if (this.headerCount == this.headerEnds.length) {
+                final int[] newEnds = new int[this.headerEnds.length << 1];
+                System.arraycopy(this.headerEnds, 0, newEnds, 0, this.headerCount);
+                this.headerEnds = newEnds;
+            }
+            this.headerEnds[this.headerCount] = block.length();
+            this.headerCount++;
+        }
+    }
+
     private void parseHeader() throws IOException {
+        if (this.lineParser instanceof HeaderBufferParser) {
+            appendHeader();
+            return;
+        }
         final CharArrayBuffer current = this.lineBuf;
         final int count = this.headerBufs.size();
         if ((this.lineBuf.charAt(0) == ' ' || this.lineBuf.charAt(0) == '\t') && count > 0) {
@@ -212,7 +268,9 @@ public abstract class AbstractMessageParser<T extends HttpMessage> implements NH
             case READ_HEADERS:
                 if (this.lineBuf.length() > 0) {
                     final int maxHeaderCount = this.constraints.getMaxHeaderCount();
-                    if (maxHeaderCount > 0 && headerBufs.size() >= maxHeaderCount) {
+                    final int headerCount = this.lineParser instanceof HeaderBufferParser ?
+                            this.headerCount : this.headerBufs.size();
+                    if (maxHeaderCount > 0 && headerCount >= maxHeaderCount) {
                         throw new MessageConstraintException("Maximum header count exceeded");
                     }
 
@@ -227,6 +285,21 @@ public abstract class AbstractMessageParser<T extends HttpMessage> implements NH
             }
         }
         if (this.state == COMPLETED) {
+            if (this.headerBlock != null) {
+                final HeaderBufferParser parser = (HeaderBufferParser) this.lineParser;
+                final CharArrayBuffer block = this.headerBlock;
+                this.headerBlockHint = block.length();
+                int beginIndex = 0;
+                for (int i = 0; i < this.headerCount; i++) {
+                    final int endIndex = this.headerEnds[i];
+                    try {
+                        this.message.addHeader(parser.parseHeader(block, beginIndex, endIndex));
+                    } catch (final ParseException ex) {
+                        throw new ProtocolException(ex.getMessage(), ex);
+                    }
+                    beginIndex = endIndex;
+                }
+            }
             for (int i = 0; i < this.headerBufs.size(); i++) {
                 final CharArrayBuffer buffer = this.headerBufs.get(i);
                 try {
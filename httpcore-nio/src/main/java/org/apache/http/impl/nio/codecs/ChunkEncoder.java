@@ -29,28 +29,39 @@ package org.apache.http.impl.nio.codecs;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.channels.WritableByteChannel;
 
 import org.apache.http.annotation.NotThreadSafe;
 import org.apache.http.impl.io.HttpTransportMetricsImpl;
 import org.apache.http.io.BufferInfo;
+import org.apache.http.nio.FileContentEncoder;
 import org.apache.http.nio.reactor.SessionOutputBuffer;
+import org.apache.http.util.Asserts;
 import org.apache.http.util.CharArrayBuffer;
 
 /**
  * Implements chunked transfer coding. The content is sent in small chunks.
  * Entities transferred using this decoder can be of unlimited length.
+ * <p/>
+ * Content of a file channel can be transferred with
+ * {@link #transfer(FileChannel, long, long)}, in which case only the chunk
+ * framing goes through the session buffer and chunk data is written directly
+ * to the underlying channel using {@link FileChannel#transferTo(long, long,
+ * WritableByteChannel)}.
  *
  * @since 4.0
  */
 @NotThreadSafe
-public class ChunkEncoder extends AbstractContentEncoder {
+public class ChunkEncoder extends AbstractContentEncoder implements FileContentEncoder {
 
     private final int fragHint;
     private final CharArrayBuffer lineBuffer;
 
     private final BufferInfo bufferinfo;
 
+    private long chunkRemaining;
+
     /**
      * @since 4.3
      *
@@ -88,6 +99,7 @@ public class ChunkEncoder extends AbstractContentEncoder {
             return 0;
         }
         assertNotCompleted();
+        assertNoChunkInProgress();
 
         int total = 0;
         while (src.hasRemaining()) {
@@ -135,9 +147,61 @@ public class ChunkEncoder extends AbstractContentEncoder {
         return total;
     }
 
+    private void assertNoChunkInProgress() {
+        Asserts.check(this.chunkRemaining == 0, "Transfer of file chunk in progress");
+    }
+
+    /**
+     * @since 4.3
+     */
+    public long transfer(
+            final FileChannel src,
+            final long position,
+            final long count) throws IOException {
+
+        if (src == null) {
+            return 0;
+        }
+        assertNotCompleted();
+
+        flushToChannel();
+        if (this.buffer.hasData()) {
+            return 0;
+        }
+
+        if (this.chunkRemaining == 0) {
+            final long chunk = Math.min(count, src.size() - position);
+            if (chunk <= 0) {
+                return 0;
+            }
+            this.lineBuffer.clear();
+            this.lineBuffer.append(Long.toHexString(chunk));
+            this.buffer.writeLine(this.lineBuffer);
+            this.chunkRemaining = chunk;
+            flushToChannel();
+            if (this.buffer.hasData()) {
+                return 0;
+            }
+        }
+
+        final long bytesWritten = src.transferTo(
+                position, Math.min(count, this.chunkRemaining), this.channel);
+        if (bytesWritten > 0) {
+            this.metrics.incrementBytesTransferred(bytesWritten);
+            this.chunkRemaining -= bytesWritten;
+        }
+        if (this.chunkRemaining == 0) {
+            this.lineBuffer.clear();
+            this.buffer.writeLine(this.lineBuffer);
+            flushToChannel();
+        }
+        return bytesWritten;
+    }
+
     @Override
     public void complete() throws IOException {
         assertNotCompleted();
+        assertNoChunkInProgress();
         this.lineBuffer.clear();
         this.lineBuffer.append("0");
         this.buffer.writeLine(this.lineBuffer);
@@ -30,16 +30,19 @@ package org.apache.http.impl.nio.reactor;
 import java.io.IOException;
 import java.io.InterruptedIOException;
 import java.nio.channels.CancelledKeyException;
+import java.nio.channels.Channel;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.ClosedSelectorException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.http.annotation.ThreadSafe;
 import org.apache.http.nio.reactor.IOReactor;
@@ -65,10 +68,16 @@ public abstract class AbstractIOReactor implements IOReactor {
     private final long selectTimeout;
     private final boolean interestOpsQueueing;
     private final Selector selector;
+    private final SelectedSelectionKeySet selectedKeySet;
     private final Set<IOSession> sessions;
     private final Queue<InterestOpEntry> interestOpsQueue;
     private final Queue<IOSession> closedSessions;
     private final Queue<ChannelEntry> newChannels;
+    private final Queue<ListenerChannelEntry> newListenerChannels;
+    private final AtomicBoolean wakeupPending;
+    private final WakeupCallback wakeupCallback;
+
+    private volatile Thread thread;
 
     /**
      * Creates new AbstractIOReactor instance.
@@ -91,6 +100,30 @@ public abstract class AbstractIOReactor implements IOReactor {
      * @since 4.1
      */
     public AbstractIOReactor(final long selectTimeout, final boolean interestOpsQueueing) throws IOReactorException {
+        this(selectTimeout, interestOpsQueueing, false);
+    }
+
+    /**
+     * Creates new AbstractIOReactor instance.
+     * <p>
+     * If <code>selectedKeysOptimized</code> is <code>true</code> the I/O reactor
+     * attempts to replace the selected key set of its {@link Selector} with
+     * an array backed set that can be processed without generating garbage.
+     * The I/O reactor falls back to the standard selected key set if the JDK
+     * selector implementation does not permit that.
+     *
+     * @param selectTimeout the select timeout.
+     * @param interestOpsQueueing Ops queueing flag.
+     * @param selectedKeysOptimized optimized selected key set flag.
+     *
+     * @throws IOReactorException in case if a non-recoverable I/O error.
+     *
+     * @since 4.3
+     */
+    public AbstractIOReactor(
+            final long selectTimeout,
+            final boolean interestOpsQueueing,
+            final boolean selectedKeysOptimized) throws IOReactorException {
         super();
         Args.positive(selectTimeout, "Select timeout");
         this.selectTimeout = selectTimeout;
@@ -99,11 +132,21 @@ public abstract class AbstractIOReactor implements IOReactor {
         this.interestOpsQueue = new ConcurrentLinkedQueue<InterestOpEntry>();
         this.closedSessions = new ConcurrentLinkedQueue<IOSession>();
         this.newChannels = new ConcurrentLinkedQueue<ChannelEntry>();
+        this.newListenerChannels = new ConcurrentLinkedQueue<ListenerChannelEntry>();
+        this.wakeupPending = new AtomicBoolean(false);
+        this.wakeupCallback = new WakeupCallback() {
+
+            public void wakeup() {
+                wakeupSelector();
+            }
+
+        };
         try {
             this.selector = Selector.open();
         } catch (final IOException ex) {
             throw new IOReactorException("Failure opening selector", ex);
         }
+        this.selectedKeySet = selectedKeysOptimized ? SelectedSelectionKeySet.install(this.selector) : null;
         this.statusMutex = new Object();
         this.status = IOReactorStatus.INACTIVE;
     }
@@ -187,6 +230,20 @@ public abstract class AbstractIOReactor implements IOReactor {
     protected void sessionTimedOut(final IOSession session) {
     }
 
+    /**
+     * Triggered when the socket timeout of a session has been changed.
+     * <p>
+     * Please note this method can be called by any thread, not just the
+     * I/O reactor thread. Super-classes can implement this method to react
+     * to the event.
+     *
+     * @param session I/O session whose socket timeout changed.
+     *
+     * @since 4.3
+     */
+    protected void sessionTimeoutChanged(final IOSession session) {
+    }
+
     /**
      * Obtains {@link IOSession} instance associated with the given selection
      * key.
@@ -211,6 +268,16 @@ public abstract class AbstractIOReactor implements IOReactor {
         return this.interestOpsQueueing;
     }
 
+    /**
+     * Returns <code>true</code> if the optimized selected key set is in use,
+     * <code>false</code> otherwise.
+     *
+     * @since 4.3
+     */
+    public boolean isSelectedKeysOptimized() {
+        return this.selectedKeySet != null;
+    }
+
     /**
      * Adds new channel entry. The channel will be asynchronously registered
      * with the selector.
@@ -220,7 +287,42 @@ public abstract class AbstractIOReactor implements IOReactor {
     public void addChannel(final ChannelEntry channelEntry) {
         Args.notNull(channelEntry, "Channel entry");
         this.newChannels.add(channelEntry);
-        this.selector.wakeup();
+        wakeupSelector();
+    }
+
+    /**
+     * Adds new listener channel entry. The channel will be asynchronously
+     * registered with the selector and connections accepted on it will be
+     * handled by this I/O reactor.
+     *
+     * @param entry the listener channel entry.
+     *
+     * @since 4.3
+     */
+    void addListenerChannel(final ListenerChannelEntry entry) {
+        Args.notNull(entry, "Listener channel entry");
+        this.newListenerChannels.add(entry);
+        wakeupSelector();
+    }
+
+    /**
+     * Wakes up the selector unless called by the I/O reactor thread itself
+     * or a wake-up is already pending. Pending changes made by the I/O reactor
+     * thread and those made while a wake-up is pending get picked up before
+     * the next select operation.
+     *
+     * @return <code>true</code> if the selector has been woken up,
+     *   <code>false</code> if the wake-up has been deemed redundant.
+     */
+    boolean wakeupSelector() {
+        if (Thread.currentThread() == this.thread) {
+            return false;
+        }
+        if (this.wakeupPending.compareAndSet(false, true)) {
+            this.selector.wakeup();
+            return true;
+        }
+        return false;
     }
 
     /**
@@ -247,6 +349,7 @@ public abstract class AbstractIOReactor implements IOReactor {
      */
     protected void execute() throws InterruptedIOException, IOReactorException {
         this.status = IOReactorStatus.ACTIVE;
+        this.thread = Thread.currentThread();
 
         try {
             for (;;) {
@@ -259,6 +362,11 @@ public abstract class AbstractIOReactor implements IOReactor {
                 } catch (final IOException ex) {
                     throw new IOReactorException("Unexpected selector failure", ex);
                 }
+                // Changes made by other threads from this point on will be
+                // picked up by the current loop iteration
+                if (this.wakeupPending.get()) {
+                    this.wakeupPending.set(false);
+                }
 
                 if (this.status == IOReactorStatus.SHUT_DOWN) {
                     // Hard shut down. Exit select loop immediately
@@ -270,11 +378,16 @@ public abstract class AbstractIOReactor implements IOReactor {
                     // Try to close things out nicely
                     closeSessions();
                     closeNewChannels();
+                    closeListenerChannels();
                 }
 
                 // Process selected I/O events
                 if (readyCount > 0) {
-                    processEvents(this.selector.selectedKeys());
+                    if (this.selectedKeySet != null) {
+                        processSelectedKeys();
+                    } else {
+                        processEvents(this.selector.selectedKeys());
+                    }
                 }
 
                 // Validate active channels
@@ -285,6 +398,7 @@ public abstract class AbstractIOReactor implements IOReactor {
 
                 // If active process new channels
                 if (this.status == IOReactorStatus.ACTIVE) {
+                    processNewListenerChannels();
                     processNewChannels();
                 }
 
@@ -310,15 +424,62 @@ public abstract class AbstractIOReactor implements IOReactor {
         }
     }
 
-    private void processEvents(final Set<SelectionKey> selectedKeys) {
+    private void processEvents(final Set<SelectionKey> selectedKeys) throws IOReactorException {
         for (final SelectionKey key : selectedKeys) {
 
-            processEvent(key);
+            if (key.attachment() instanceof ListenerChannelEntry) {
+                processAccept(key);
+            } else {
+                processEvent(key);
+            }
 
         }
         selectedKeys.clear();
     }
 
+    private void processSelectedKeys() throws IOReactorException {
+        final SelectedSelectionKeySet selectedKeys = this.selectedKeySet;
+        for (int i = 0; i < selectedKeys.size(); i++) {
+
+            final SelectionKey key = selectedKeys.get(i);
+            if (key.attachment() instanceof ListenerChannelEntry) {
+                processAccept(key);
+            } else {
+                processEvent(key);
+            }
+
+        }
+        selectedKeys.reset();
+    }
+
+    private void processAccept(final SelectionKey key) throws IOReactorException {
+        final ListenerChannelEntry entry = (ListenerChannelEntry) key.attachment();
+        final AcceptCallback callback = entry.getCallback();
+        try {
+            if (key.isAcceptable()) {
+                final ServerSocketChannel serverChannel = entry.getChannel();
+                for (;;) {
+                    SocketChannel socketChannel = null;
+                    try {
+                        socketChannel = serverChannel.accept();
+                    } catch (final IOException ex) {
+                        callback.failed(ex);
+                    }
+                    if (socketChannel == null) {
+                        break;
+                    }
+                    final ChannelEntry channelEntry = callback.accepted(socketChannel);
+                    if (channelEntry != null) {
+                        // Registered with the selector later in this loop iteration
+                        this.newChannels.add(channelEntry);
+                    }
+                }
+            }
+        } catch (final CancelledKeyException ex) {
+            key.attach(null);
+        }
+    }
+
     /**
      * Processes new event on the given selection key.
      *
@@ -399,7 +560,17 @@ public abstract class AbstractIOReactor implements IOReactor {
                 };
             }
 
-            final IOSession session = new IOSessionImpl(key, interestOpsCallback, sessionClosedCallback);
+            final SessionTimeoutCallback sessionTimeoutCallback = new SessionTimeoutCallback() {
+
+                public void socketTimeoutChanged(final IOSession session) {
+                    sessionTimeoutChanged(session);
+                }
+
+            };
+
+            final IOSession session = new IOSessionImpl(
+                    key, interestOpsCallback, sessionClosedCallback, sessionTimeoutCallback,
+                    this.wakeupCallback);
 
             int timeout = 0;
             try {
@@ -428,6 +599,22 @@ public abstract class AbstractIOReactor implements IOReactor {
         }
     }
 
+    private void processNewListenerChannels() throws IOReactorException {
+        ListenerChannelEntry entry;
+        while ((entry = this.newListenerChannels.poll()) != null) {
+            final ServerSocketChannel channel = entry.getChannel();
+            try {
+                channel.configureBlocking(false);
+                channel.register(this.selector, SelectionKey.OP_ACCEPT, entry);
+            } catch (final ClosedChannelException ex) {
+                // Listener endpoint closed in the meantime
+            } catch (final IOException ex) {
+                throw new IOReactorException("Failure registering channel " +
+                        "with the selector", ex);
+            }
+        }
+    }
+
     private void processClosedSessions() {
         IOSession session;
         while ((session = this.closedSessions.poll()) != null) {
@@ -522,6 +709,31 @@ public abstract class AbstractIOReactor implements IOReactor {
         }
     }
 
+    /**
+     * Closes out all listener channels registered with the selector of
+     * this I/O reactor.
+     */
+    private void closeListenerChannels() {
+        ListenerChannelEntry entry;
+        while ((entry = this.newListenerChannels.poll()) != null) {
+            closeChannel(entry.getChannel());
+        }
+        if (this.selector.isOpen()) {
+            for (final SelectionKey key : this.selector.keys()) {
+                if (key.attachment() instanceof ListenerChannelEntry) {
+                    closeChannel(key.channel());
+                }
+            }
+        }
+    }
+
+    private static void closeChannel(final Channel channel) {
+        try {
+            channel.close();
+        } catch (final IOException ignore) {
+        }
+    }
+
     /**
      * Closes out all active channels registered with the selector of
      * this I/O reactor.
@@ -531,6 +743,10 @@ public abstract class AbstractIOReactor implements IOReactor {
         try {
             final Set<SelectionKey> keys = this.selector.keys();
             for (final SelectionKey key : keys) {
+                if (key.attachment() instanceof ListenerChannelEntry) {
+                    closeChannel(key.channel());
+                    continue;
+                }
                 final IOSession session = getSession(key);
                 if (session != null) {
                     session.close();
@@ -568,6 +784,7 @@ public abstract class AbstractIOReactor implements IOReactor {
         }
 
         closeNewChannels();
+        closeListenerChannels();
         closeActiveChannels();
         processClosedSessions();
     }
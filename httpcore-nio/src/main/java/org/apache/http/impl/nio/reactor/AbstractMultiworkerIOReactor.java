@@ -318,7 +318,8 @@ public abstract class AbstractMultiworkerIOReactor implements IOReactor {
             this.status = IOReactorStatus.ACTIVE;
             // Start I/O dispatchers
             for (int i = 0; i < this.dispatchers.length; i++) {
-                final BaseIOReactor dispatcher = new BaseIOReactor(this.selectTimeout, this.interestOpsQueueing);
+                final BaseIOReactor dispatcher = new BaseIOReactor(
+                        this.selectTimeout, this.interestOpsQueueing, this.config.isSelectedKeysOptimized());
                 dispatcher.setExceptionHandler(exceptionHandler);
                 this.dispatchers[i] = dispatcher;
             }
@@ -477,6 +478,20 @@ public abstract class AbstractMultiworkerIOReactor implements IOReactor {
         this.dispatchers[i].addChannel(entry);
     }
 
+    /**
+     * Assigns the given listener channel entry to the worker I/O reactor
+     * with the given index. The worker I/O reactor will accept incoming
+     * connections on the channel directly.
+     *
+     * @param worker the worker index.
+     * @param entry the listener channel entry.
+     *
+     * @since 4.3
+     */
+    void addListenerChannel(final int worker, final ListenerChannelEntry entry) {
+        this.dispatchers[worker].addListenerChannel(entry);
+    }
+
     /**
      * Registers the given channel with the main {@link Selector}.
      *
@@ -30,9 +30,13 @@ package org.apache.http.impl.nio.reactor;
 import java.io.InterruptedIOException;
 import java.nio.channels.CancelledKeyException;
 import java.nio.channels.SelectionKey;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.apache.http.annotation.ThreadSafe;
 import org.apache.http.nio.reactor.EventMask;
@@ -48,14 +52,25 @@ import org.apache.http.util.Args;
  * for more advanced {@link IOReactor} implementations. This class adds
  * support for the I/O event dispatching using {@link IOEventDispatch},
  * management of buffering sessions, and session timeout handling.
+ * <p>
+ * Session timeouts are tracked by a timing wheel with a resolution of
+ * the select timeout. The cost of timeout handling is proportional to
+ * the number of sessions whose deadline falls into the elapsed interval,
+ * not to the total number of sessions managed by the I/O reactor.
+ * Subclasses that override {@link #timeoutCheck(SelectionKey, long)} have
+ * all selection keys checked once per select timeout interval instead.
  *
  * @since 4.0
  */
 @ThreadSafe // public methods only
 public class BaseIOReactor extends AbstractIOReactor {
 
-    private final long timeoutCheckInterval;
     private final Set<IOSession> bufferingSessions;
+    private final SessionTimeoutWheel timeoutWheel;
+    private final Queue<IOSession> timeoutChanges;
+    private final List<IOSession> expiredSessions;
+    private final boolean timeoutCheckOverridden;
+    private final long timeoutCheckInterval;
 
     private long lastTimeoutCheck;
 
@@ -84,12 +99,51 @@ public class BaseIOReactor extends AbstractIOReactor {
      */
     public BaseIOReactor(
             final long selectTimeout, final boolean interestOpsQueueing) throws IOReactorException {
-        super(selectTimeout, interestOpsQueueing);
+        this(selectTimeout, interestOpsQueueing, false);
+    }
+
+    /**
+     * Creates new BaseIOReactor instance.
+     *
+     * @param selectTimeout the select timeout.
+     * @param interestOpsQueueing Ops queueing flag.
+     * @param selectedKeysOptimized optimized selected key set flag.
+     *
+     * @throws IOReactorException in case if a non-recoverable I/O error.
+     *
+     * @see AbstractIOReactor#AbstractIOReactor(long, boolean, boolean)
+     *
+     * @since 4.3
+     */
+    public BaseIOReactor(
+            final long selectTimeout,
+            final boolean interestOpsQueueing,
+            final boolean selectedKeysOptimized) throws IOReactorException {
+        super(selectTimeout, interestOpsQueueing, selectedKeysOptimized);
         this.bufferingSessions = new HashSet<IOSession>();
+        this.timeoutWheel = new SessionTimeoutWheel(selectTimeout, System.currentTimeMillis());
+        this.timeoutChanges = new ConcurrentLinkedQueue<IOSession>();
+        this.expiredSessions = new ArrayList<IOSession>();
+        this.timeoutCheckOverridden = isTimeoutCheckOverridden(getClass());
         this.timeoutCheckInterval = selectTimeout;
         this.lastTimeoutCheck = System.currentTimeMillis();
     }
 
+    private static boolean isTimeoutCheckOverridden(final Class<?> clazz) {
+        Class<?> c = clazz;
+        while (c != null && c != AbstractIOReactor.class) {
+            try {
+                c.getDeclaredMethod("timeoutCheck", SelectionKey.class, Long.TYPE);
+                return true;
+            } catch (final NoSuchMethodException ignore) {
+                c = c.getSuperclass();
+            } catch (final SecurityException ex) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Activates the I/O reactor. The I/O reactor will start reacting to I/O
      * events and dispatch I/O event notifications to the given
@@ -187,9 +241,13 @@ public class BaseIOReactor extends AbstractIOReactor {
     }
 
     /**
-     * Verifies whether any of the sessions associated with the given selection
-     * keys timed out by invoking the {@link #timeoutCheck(SelectionKey, long)}
-     * method.
+     * Verifies whether any of the sessions whose timeout deadline has passed
+     * since the last check timed out and invokes {@link #sessionTimedOut(IOSession)}
+     * for those that did. Sessions that have been active in the meantime are
+     * rescheduled. Only sessions due to expire are examined; the given
+     * selection keys are not scanned unless {@link #timeoutCheck(SelectionKey, long)}
+     * has been overridden, in which case it is invoked for every key once
+     * per select timeout interval.
      * <p>
      * This method will also invoke the
      * {@link IOEventDispatch#inputReady(IOSession)} method on all sessions
@@ -198,13 +256,17 @@ public class BaseIOReactor extends AbstractIOReactor {
     @Override
     protected void validate(final Set<SelectionKey> keys) {
         final long currentTime = System.currentTimeMillis();
-        if( (currentTime - this.lastTimeoutCheck) >= this.timeoutCheckInterval) {
-            this.lastTimeoutCheck = currentTime;
-            if (keys != null) {
-                for (final SelectionKey key : keys) {
-                    timeoutCheck(key, currentTime);
+        if (this.timeoutCheckOverridden) {
+            if ((currentTime - this.lastTimeoutCheck) >= this.timeoutCheckInterval) {
+                this.lastTimeoutCheck = currentTime;
+                if (keys != null) {
+                    for (final SelectionKey key : keys) {
+                        timeoutCheck(key, currentTime);
+                    }
                 }
             }
+        } else {
+            expireSessions(currentTime);
         }
         if (!this.bufferingSessions.isEmpty()) {
             for (final Iterator<IOSession> it = this.bufferingSessions.iterator(); it.hasNext(); ) {
@@ -230,6 +292,71 @@ public class BaseIOReactor extends AbstractIOReactor {
         }
     }
 
+    private void expireSessions(final long currentTime) {
+        processTimeoutChanges();
+        this.timeoutWheel.expire(currentTime, this.expiredSessions);
+        if (this.expiredSessions.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < this.expiredSessions.size(); i++) {
+            final IOSession session = this.expiredSessions.get(i);
+            if (session.isClosed()) {
+                continue;
+            }
+            final int timeout = session.getSocketTimeout();
+            if (timeout > 0) {
+                if (getLastAccessTime(session) + timeout < currentTime) {
+                    sessionTimedOut(session);
+                }
+                scheduleTimeout(session);
+            }
+        }
+        this.expiredSessions.clear();
+    }
+
+    private static long getLastAccessTime(final IOSession session) {
+        return ((IOSessionImpl) session).getLastAccessTime();
+    }
+
+    private void scheduleTimeout(final IOSession session) {
+        if (session.isClosed()) {
+            return;
+        }
+        final int timeout = session.getSocketTimeout();
+        if (timeout > 0) {
+            this.timeoutWheel.schedule(session, getLastAccessTime(session) + timeout);
+        }
+    }
+
+    private void processTimeoutChanges() {
+        IOSession session;
+        while ((session = this.timeoutChanges.poll()) != null) {
+            if (session.isClosed()) {
+                continue;
+            }
+            final int timeout = session.getSocketTimeout();
+            if (timeout > 0) {
+                // Deadlines that moved further away are picked up lazily
+                // once the currently scheduled deadline expires
+                this.timeoutWheel.scheduleIfEarlier(session, getLastAccessTime(session) + timeout);
+            }
+        }
+    }
+
+    /**
+     * Queues the session to have its timeout deadline re-evaluated by
+     * the I/O reactor thread.
+     *
+     * @since 4.3
+     */
+    @Override
+    protected void sessionTimeoutChanged(final IOSession session) {
+        if (this.timeoutCheckOverridden) {
+            return;
+        }
+        this.timeoutChanges.add(session);
+    }
+
     /**
      * Processes newly created I/O session. This method dispatches the event
      * notification to the {@link IOEventDispatch#connected(IOSession)} method.
@@ -267,6 +394,7 @@ public class BaseIOReactor extends AbstractIOReactor {
      */
     @Override
     protected void sessionClosed(final IOSession session) {
+        this.timeoutWheel.remove(session);
         try {
             this.eventDispatch.disconnected(session);
         } catch (final CancelledKeyException ex) {
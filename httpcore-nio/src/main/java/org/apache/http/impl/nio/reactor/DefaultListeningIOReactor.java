@@ -28,6 +28,7 @@
 package org.apache.http.impl.nio.reactor;
 
 import java.io.IOException;
+import java.lang.reflect.Method;
 import java.net.ServerSocket;
 import java.net.SocketAddress;
 import java.nio.channels.CancelledKeyException;
@@ -54,6 +55,11 @@ import org.apache.http.util.Asserts;
  * Default implementation of {@link ListeningIOReactor}. This class extends
  * {@link AbstractMultiworkerIOReactor} with capability to listen for incoming
  * connections.
+ * <p/>
+ * If {@link IOReactorConfig#isSoReusePort()} is enabled and supported by
+ * the platform, a separate listener socket bound with <code>SO_REUSEPORT</code>
+ * is created for each I/O dispatch thread. Each I/O dispatch thread then
+ * accepts incoming connections directly, bypassing the main I/O reactor.
  *
  * @since 4.0
  */
@@ -62,10 +68,40 @@ import org.apache.http.util.Asserts;
 public class DefaultListeningIOReactor extends AbstractMultiworkerIOReactor
         implements ListeningIOReactor {
 
+    private static final Object SO_REUSEPORT;
+    private static final Method SET_OPTION;
+
+    static {
+        Object option = null;
+        Method setOption = null;
+        try {
+            // java.net.StandardSocketOptions#SO_REUSEPORT is available as of Java 9
+            final Class<?> optionsClass = Class.forName("java.net.StandardSocketOptions");
+            option = optionsClass.getField("SO_REUSEPORT").get(null);
+            final Class<?> optionClass = Class.forName("java.net.SocketOption");
+            setOption = ServerSocketChannel.class.getMethod("setOption", optionClass, Object.class);
+            final Method supportedOptions = ServerSocketChannel.class.getMethod("supportedOptions");
+            final ServerSocketChannel channel = ServerSocketChannel.open();
+            try {
+                if (!((Set<?>) supportedOptions.invoke(channel)).contains(option)) {
+                    option = null;
+                }
+            } finally {
+                channel.close();
+            }
+        } catch (final Exception ex) {
+            option = null;
+        }
+        SO_REUSEPORT = option;
+        SET_OPTION = option != null ? setOption : null;
+    }
+
     private final Queue<ListenerEndpointImpl> requestQueue;
     private final Set<ListenerEndpointImpl> endpoints;
     private final Set<SocketAddress> pausedEndpoints;
 
+    private final AcceptCallback acceptCallback;
+
     private volatile boolean paused;
 
     /**
@@ -85,6 +121,17 @@ public class DefaultListeningIOReactor extends AbstractMultiworkerIOReactor
         this.requestQueue = new ConcurrentLinkedQueue<ListenerEndpointImpl>();
         this.endpoints = Collections.synchronizedSet(new HashSet<ListenerEndpointImpl>());
         this.pausedEndpoints = new HashSet<SocketAddress>();
+        this.acceptCallback = new AcceptCallback() {
+
+            public ChannelEntry accepted(final SocketChannel channel) throws IOReactorException {
+                return prepareChannel(channel);
+            }
+
+            public void failed(final IOException ex) throws IOReactorException {
+                acceptFailed(ex);
+            }
+
+        };
     }
 
     /**
@@ -169,25 +216,12 @@ public class DefaultListeningIOReactor extends AbstractMultiworkerIOReactor
                     try {
                         socketChannel = serverChannel.accept();
                     } catch (final IOException ex) {
-                        if (this.exceptionHandler == null ||
-                                !this.exceptionHandler.handle(ex)) {
-                            throw new IOReactorException(
-                                    "Failure accepting connection", ex);
-                        }
+                        acceptFailed(ex);
                     }
                     if (socketChannel == null) {
                         break;
                     }
-                    try {
-                        prepareSocket(socketChannel.socket());
-                    } catch (final IOException ex) {
-                        if (this.exceptionHandler == null ||
-                                !this.exceptionHandler.handle(ex)) {
-                            throw new IOReactorException(
-                                    "Failure initalizing socket", ex);
-                        }
-                    }
-                    final ChannelEntry entry = new ChannelEntry(socketChannel);
+                    final ChannelEntry entry = prepareChannel(socketChannel);
                     addChannel(entry);
                 }
             }
@@ -199,6 +233,27 @@ public class DefaultListeningIOReactor extends AbstractMultiworkerIOReactor
         }
     }
 
+    private void acceptFailed(final IOException ex) throws IOReactorException {
+        if (this.exceptionHandler == null ||
+                !this.exceptionHandler.handle(ex)) {
+            throw new IOReactorException(
+                    "Failure accepting connection", ex);
+        }
+    }
+
+    private ChannelEntry prepareChannel(final SocketChannel socketChannel) throws IOReactorException {
+        try {
+            prepareSocket(socketChannel.socket());
+        } catch (final IOException ex) {
+            if (this.exceptionHandler == null ||
+                    !this.exceptionHandler.handle(ex)) {
+                throw new IOReactorException(
+                        "Failure initalizing socket", ex);
+            }
+        }
+        return new ChannelEntry(socketChannel);
+    }
+
     private ListenerEndpointImpl createEndpoint(final SocketAddress address) {
         final ListenerEndpointImpl endpoint = new ListenerEndpointImpl(
                 address,
@@ -224,6 +279,10 @@ public class DefaultListeningIOReactor extends AbstractMultiworkerIOReactor
     private void processSessionRequests() throws IOReactorException {
         ListenerEndpointImpl request;
         while ((request = this.requestQueue.poll()) != null) {
+            if (this.config.isSoReusePort() && isReusePortSupported()) {
+                processReusePortRequest(request);
+                continue;
+            }
             final SocketAddress address = request.getAddress();
             ServerSocketChannel serverChannel;
             try {
@@ -261,6 +320,68 @@ public class DefaultListeningIOReactor extends AbstractMultiworkerIOReactor
         }
     }
 
+    private void processReusePortRequest(final ListenerEndpointImpl request) throws IOReactorException {
+        SocketAddress address = request.getAddress();
+        final int workerCount = this.config.getIoThreadCount();
+        final ServerSocketChannel[] serverChannels = new ServerSocketChannel[workerCount];
+        try {
+            for (int i = 0; i < workerCount; i++) {
+                final ServerSocketChannel serverChannel = ServerSocketChannel.open();
+                serverChannels[i] = serverChannel;
+                final ServerSocket socket = serverChannel.socket();
+                socket.setReuseAddress(this.config.isSoReuseAddress());
+                setReusePort(serverChannel);
+                serverChannel.configureBlocking(false);
+                socket.bind(address);
+                // Bind the remaining sockets to the same port if an ephemeral one was requested
+                address = socket.getLocalSocketAddress();
+            }
+        } catch (final IOException ex) {
+            for (final ServerSocketChannel serverChannel: serverChannels) {
+                if (serverChannel != null) {
+                    closeChannel(serverChannel);
+                }
+            }
+            request.failed(ex);
+            if (this.exceptionHandler == null || !this.exceptionHandler.handle(ex)) {
+                throw new IOReactorException("Failure binding socket to address "
+                        + request.getAddress(), ex);
+            } else {
+                return;
+            }
+        }
+        request.setChannels(serverChannels);
+        for (int i = 0; i < workerCount; i++) {
+            addListenerChannel(i, new ListenerChannelEntry(serverChannels[i], this.acceptCallback));
+        }
+        this.endpoints.add(request);
+        request.completed(address);
+    }
+
+    /**
+     * Returns <code>true</code> if the <code>SO_REUSEPORT</code> socket option
+     * is supported by the JRE and the operating system.
+     *
+     * @since 4.3
+     */
+    public static boolean isReusePortSupported() {
+        return SO_REUSEPORT != null;
+    }
+
+    private static void setReusePort(final ServerSocketChannel channel) throws IOException {
+        try {
+            SET_OPTION.invoke(channel, SO_REUSEPORT, Boolean.TRUE);
+        } catch (final Exception ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            final IOException ioex = new IOException("Failure setting SO_REUSEPORT");
+            ioex.initCause(cause != null ? cause : ex);
+            throw ioex;
+        }
+    }
+
     public Set<ListenerEndpoint> getEndpoints() {
         final Set<ListenerEndpoint> set = new HashSet<ListenerEndpoint>();
         synchronized (this.endpoints) {
@@ -58,6 +58,8 @@ public final class IOReactorConfig implements Cloneable {
     private int connectTimeout;
     private int sndBufSize;
     private int rcvBufSize;
+    private boolean selectedKeysOptimized;
+    private boolean soReusePort;
 
     @Deprecated
     public IOReactorConfig() {
@@ -88,7 +90,9 @@ public final class IOReactorConfig implements Cloneable {
             final boolean tcpNoDelay,
             final int connectTimeout,
             final int sndBufSize,
-            final int rcvBufSize) {
+            final int rcvBufSize,
+            final boolean selectedKeysOptimized,
+            final boolean soReusePort) {
         super();
         this.selectInterval = selectInterval;
         this.shutdownGracePeriod = shutdownGracePeriod;
@@ -102,6 +106,8 @@ public final class IOReactorConfig implements Cloneable {
         this.connectTimeout = connectTimeout;
         this.sndBufSize = sndBufSize;
         this.rcvBufSize = rcvBufSize;
+        this.selectedKeysOptimized = selectedKeysOptimized;
+        this.soReusePort = soReusePort;
     }
 
     /**
@@ -339,6 +345,37 @@ public final class IOReactorConfig implements Cloneable {
         this.rcvBufSize = rcvBufSize;
     }
 
+    /**
+     * Determines whether or not I/O reactors are to replace the selected key set of
+     * their {@link java.nio.channels.Selector} with an array backed set in order to avoid
+     * generating garbage in the I/O select loop. This optimization relies on internals
+     * of the JDK selector implementation and is silently disabled if those are not
+     * accessible.
+     * <p/>
+     * Default: <code>false</code>
+     *
+     * @since 4.3
+     */
+    public boolean isSelectedKeysOptimized() {
+        return this.selectedKeysOptimized;
+    }
+
+    /**
+     * Determines whether or not listening I/O reactors are to bind a separate listener
+     * socket with the <code>SO_REUSEPORT</code> option set for each I/O dispatch thread,
+     * letting the operating system balance incoming connections across them and each
+     * I/O dispatch thread accept connections directly. This option requires
+     * the <code>SO_REUSEPORT</code> socket option to be supported by the JRE and
+     * the operating system; the single listener socket is used otherwise.
+     * <p/>
+     * Default: <code>false</code>
+     *
+     * @since 4.3
+     */
+    public boolean isSoReusePort() {
+        return this.soReusePort;
+    }
+
     @Override
     protected IOReactorConfig clone() throws CloneNotSupportedException {
         return (IOReactorConfig) super.clone();
@@ -360,7 +397,9 @@ public final class IOReactorConfig implements Cloneable {
             .setSoLinger(config.getSoLinger())
             .setSoKeepAlive(config.isSoKeepalive())
             .setTcpNoDelay(config.isTcpNoDelay())
-            .setConnectTimeout(config.getConnectTimeout());
+            .setConnectTimeout(config.getConnectTimeout())
+            .setSelectedKeysOptimized(config.isSelectedKeysOptimized())
+            .setSoReusePort(config.isSoReusePort());
     }
 
     public static class Builder {
@@ -377,6 +416,8 @@ public final class IOReactorConfig implements Cloneable {
         private int connectTimeout;
         private int sndBufSize;
         private int rcvBufSize;
+        private boolean selectedKeysOptimized;
+        private boolean soReusePort;
 
         Builder() {
             this.selectInterval = 1000;
@@ -391,6 +432,8 @@ public final class IOReactorConfig implements Cloneable {
             this.connectTimeout = 0;
             this.sndBufSize = 0;
             this.rcvBufSize = 0;
+            this.selectedKeysOptimized = false;
+            this.soReusePort = false;
         }
 
         public Builder setSelectInterval(final long selectInterval) {
@@ -453,11 +496,28 @@ public final class IOReactorConfig implements Cloneable {
             return this;
         }
 
+        /**
+         * @since 4.3
+         */
+        public Builder setSelectedKeysOptimized(final boolean selectedKeysOptimized) {
+            this.selectedKeysOptimized = selectedKeysOptimized;
+            return this;
+        }
+
+        /**
+         * @since 4.3
+         */
+        public Builder setSoReusePort(final boolean soReusePort) {
+            this.soReusePort = soReusePort;
+            return this;
+        }
+
         public IOReactorConfig build() {
             return new IOReactorConfig(
                     selectInterval, shutdownGracePeriod, interestOpQueued, ioThreadCount,
                     soTimeout, soReuseAddress, soLinger, soKeepAlive, tcpNoDelay,
-                    connectTimeout, sndBufSize, rcvBufSize);
+                    connectTimeout, sndBufSize, rcvBufSize, selectedKeysOptimized,
+                    soReusePort);
         }
 
     }
@@ -477,6 +537,8 @@ public final class IOReactorConfig implements Cloneable {
                 .append(", connectTimeout=").append(this.connectTimeout)
                 .append(", sndBufSize=").append(this.sndBufSize)
                 .append(", rcvBufSize=").append(this.rcvBufSize)
+                .append(", selectedKeysOptimized=").append(this.selectedKeysOptimized)
+                .append(", soReusePort=").append(this.soReusePort)
                 .append("]");
         return builder.toString();
     }
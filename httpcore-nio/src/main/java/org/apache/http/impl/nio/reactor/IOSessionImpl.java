@@ -58,6 +58,8 @@ public class IOSessionImpl implements IOSession, SocketAccessor {
     private final Map<String, Object> attributes;
     private final InterestOpsCallback interestOpsCallback;
     private final SessionClosedCallback sessionClosedCallback;
+    private final SessionTimeoutCallback sessionTimeoutCallback;
+    private final WakeupCallback wakeupCallback;
 
     private volatile int status;
     private volatile int currentEventMask;
@@ -83,12 +85,34 @@ public class IOSessionImpl implements IOSession, SocketAccessor {
             final SelectionKey key,
             final InterestOpsCallback interestOpsCallback,
             final SessionClosedCallback sessionClosedCallback) {
+        this(key, interestOpsCallback, sessionClosedCallback, null, null);
+    }
+
+    /**
+     * Creates new instance of IOSessionImpl.
+     *
+     * @param key the selection key.
+     * @param interestOpsCallback interestOps callback.
+     * @param sessionClosedCallback session closed callback.
+     * @param sessionTimeoutCallback socket timeout change callback.
+     * @param wakeupCallback selector wake-up callback.
+     *
+     * @since 4.3
+     */
+    IOSessionImpl(
+            final SelectionKey key,
+            final InterestOpsCallback interestOpsCallback,
+            final SessionClosedCallback sessionClosedCallback,
+            final SessionTimeoutCallback sessionTimeoutCallback,
+            final WakeupCallback wakeupCallback) {
         super();
         Args.notNull(key, "Selection key");
         this.key = key;
         this.channel = (ByteChannel) this.key.channel();
         this.interestOpsCallback = interestOpsCallback;
         this.sessionClosedCallback = sessionClosedCallback;
+        this.sessionTimeoutCallback = sessionTimeoutCallback;
+        this.wakeupCallback = wakeupCallback;
         this.attributes = Collections.synchronizedMap(new HashMap<String, Object>());
         this.currentEventMask = key.interestOps();
         this.socketTimeout = 0;
@@ -154,7 +178,7 @@ public class IOSessionImpl implements IOSession, SocketAccessor {
         } else {
             this.key.interestOps(ops);
         }
-        this.key.selector().wakeup();
+        wakeup();
     }
 
     public synchronized void setEvent(final int op) {
@@ -174,7 +198,7 @@ public class IOSessionImpl implements IOSession, SocketAccessor {
             final int ops = this.key.interestOps();
             this.key.interestOps(ops | op);
         }
-        this.key.selector().wakeup();
+        wakeup();
     }
 
     public synchronized void clearEvent(final int op) {
@@ -194,7 +218,15 @@ public class IOSessionImpl implements IOSession, SocketAccessor {
             final int ops = this.key.interestOps();
             this.key.interestOps(ops & ~op);
         }
-        this.key.selector().wakeup();
+        wakeup();
+    }
+
+    private void wakeup() {
+        if (this.wakeupCallback != null) {
+            this.wakeupCallback.wakeup();
+        } else {
+            this.key.selector().wakeup();
+        }
     }
 
     public int getSocketTimeout() {
@@ -204,6 +236,9 @@ public class IOSessionImpl implements IOSession, SocketAccessor {
     public synchronized void setSocketTimeout(final int timeout) {
         this.socketTimeout = timeout;
         this.lastAccessTime = System.currentTimeMillis();
+        if (this.sessionTimeoutCallback != null) {
+            this.sessionTimeoutCallback.socketTimeoutChanged(this);
+        }
     }
 
     public synchronized void close() {
@@ -222,7 +257,7 @@ public class IOSessionImpl implements IOSession, SocketAccessor {
             this.sessionClosedCallback.sessionClosed(this);
         }
         if (this.key.selector().isOpen()) {
-            this.key.selector().wakeup();
+            wakeup();
         }
     }
 
@@ -47,6 +47,7 @@ public class ListenerEndpointImpl implements ListenerEndpoint {
     private volatile boolean completed;
     private volatile boolean closed;
     private volatile SelectionKey key;
+    private volatile Channel[] channels;
     private volatile SocketAddress address;
     private volatile IOException exception;
 
@@ -125,6 +126,16 @@ public class ListenerEndpointImpl implements ListenerEndpoint {
         this.key = key;
     }
 
+    /**
+     * Sets the listener channels of this endpoint that are not registered
+     * with the selector of the listening I/O reactor itself.
+     *
+     * @since 4.3
+     */
+    void setChannels(final Channel[] channels) {
+        this.channels = channels;
+    }
+
     public boolean isClosed() {
         return this.closed || (this.key != null && !this.key.isValid());
     }
@@ -144,6 +155,14 @@ public class ListenerEndpointImpl implements ListenerEndpoint {
                 } catch (final IOException ignore) {}
             }
         }
+        final Channel[] channels = this.channels;
+        if (channels != null) {
+            for (final Channel channel : channels) {
+                try {
+                    channel.close();
+                } catch (final IOException ignore) {}
+            }
+        }
         if (this.callback != null) {
             this.callback.endpointClosed(this);
         }
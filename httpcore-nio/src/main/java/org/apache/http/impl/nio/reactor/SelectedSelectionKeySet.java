@@ -0,0 +1,158 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.http.impl.nio.reactor;
+
+import java.lang.reflect.Field;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.apache.http.annotation.NotThreadSafe;
+
+/**
+ * Array backed set of selected keys that can be installed into the JDK
+ * {@link Selector} implementation in place of the default hash set. Adding
+ * selected keys and iterating over them by index does not generate any
+ * garbage.
+ * <p/>
+ * The set does not check for duplicates: {@link #contains(Object)} and
+ * {@link #remove(Object)} always return <code>false</code>. This is safe as
+ * long as the set is reset after each select operation.
+ *
+ * @since 4.3
+ */
+@NotThreadSafe
+class SelectedSelectionKeySet extends AbstractSet<SelectionKey> {
+
+    private SelectionKey[] keys;
+    private int size;
+
+    SelectedSelectionKeySet() {
+        super();
+        this.keys = new SelectionKey[1024];
+    }
+
+    @Override
+    public boolean add(final SelectionKey key) {
+        if (key == null) {
+            return false;
+        }
+        if (this.size == this.keys.length) {
+            final SelectionKey[] newKeys = new SelectionKey[this.keys.length << 1];
+            System.arraycopy(this.keys, 0, newKeys, 0, this.size);
+            this.keys = newKeys;
+        }
+        this.keys[this.size++] = key;
+        return true;
+    }
+
+    @Override
+    public boolean contains(final Object o) {
+        return false;
+    }
+
+    @Override
+    public boolean remove(final Object o) {
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    SelectionKey get(final int i) {
+        return this.keys[i];
+    }
+
+    /**
+     * Removes all keys from the set releasing references to them.
+     */
+    void reset() {
+        for (int i = 0; i < this.size; i++) {
+            this.keys[i] = null;
+        }
+        this.size = 0;
+    }
+
+    @Override
+    public Iterator<SelectionKey> iterator() {
+        return new Iterator<SelectionKey>() {
+
+            private int idx;
+
+            public boolean hasNext() {
+                return this.idx < size;
+            }
+
+            public SelectionKey next() {
+                if (this.idx >= size) {
+                    throw new NoSuchElementException();
+                }
+                return keys[this.idx++];
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+
+        };
+    }
+
+    /**
+     * Attempts to replace the selected key set of the given selector with
+     * a new instance of this class. This relies on internals of the JDK
+     * selector implementation and may fail on some platforms.
+     *
+     * @return the installed key set or <code>null</code> if the selector
+     *   does not support replacement of its selected key set.
+     */
+    static SelectedSelectionKeySet install(final Selector selector) {
+        try {
+            final Class<?> clazz = Class.forName(
+                    "sun.nio.ch.SelectorImpl", false, Selector.class.getClassLoader());
+            if (!clazz.isInstance(selector)) {
+                return null;
+            }
+            final Field selectedKeysField = clazz.getDeclaredField("selectedKeys");
+            final Field publicSelectedKeysField = clazz.getDeclaredField("publicSelectedKeys");
+            selectedKeysField.setAccessible(true);
+            publicSelectedKeysField.setAccessible(true);
+            final SelectedSelectionKeySet selectedKeySet = new SelectedSelectionKeySet();
+            selectedKeysField.set(selector, selectedKeySet);
+            publicSelectedKeysField.set(selector, selectedKeySet);
+            return selectedKeySet;
+        } catch (final Exception ex) {
+            // Selector internals not accessible, use the default key set
+            return null;
+        }
+    }
+
+}
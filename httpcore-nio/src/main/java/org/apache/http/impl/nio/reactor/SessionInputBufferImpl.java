@@ -29,6 +29,7 @@ package org.apache.http.impl.nio.reactor;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.CharBuffer;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
@@ -60,7 +61,11 @@ import org.apache.http.util.CharsetUtils;
 @NotThreadSafe
 public class SessionInputBufferImpl extends ExpandableBuffer implements SessionInputBuffer {
 
+    private static final long LF_WORD = 0x0A0A0A0A0A0A0A0AL;
+    private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+
     private final CharsetDecoder chardecoder;
+    private final boolean asciiCompatible;
     private final int lineBuffersize;
 
     private CharBuffer charbuffer;
@@ -86,6 +91,7 @@ public class SessionInputBufferImpl extends ExpandableBuffer implements SessionI
         super(buffersize, allocator != null ? allocator : HeapByteBufferAllocator.INSTANCE);
         this.lineBuffersize = Args.positive(lineBuffersize, "Line buffer size");
         this.chardecoder = chardecoder;
+        this.asciiCompatible = chardecoder != null && CharsetUtils.isASCIICompatible(chardecoder.charset());
     }
 
     /**
@@ -114,6 +120,8 @@ public class SessionInputBufferImpl extends ExpandableBuffer implements SessionI
         } else {
             this.chardecoder = null;
         }
+        this.asciiCompatible = this.chardecoder != null
+                && CharsetUtils.isASCIICompatible(this.chardecoder.charset());
     }
 
     /**
@@ -222,17 +230,9 @@ public class SessionInputBufferImpl extends ExpandableBuffer implements SessionI
 
         setOutputMode();
         // See if there is LF char present in the buffer
-        int pos = -1;
-        boolean hasLine = false;
-        for (int i = this.buffer.position(); i < this.buffer.limit(); i++) {
-            final int b = this.buffer.get(i);
-            if (b == HTTP.LF) {
-                hasLine = true;
-                pos = i + 1;
-                break;
-            }
-        }
-        if (!hasLine) {
+        final int lf = locateLF();
+        int pos = lf + 1;
+        if (lf == -1) {
             if (endOfStream && this.buffer.hasRemaining()) {
                 // No more data. Get the rest
                 pos = this.buffer.limit();
@@ -261,6 +261,8 @@ public class SessionInputBufferImpl extends ExpandableBuffer implements SessionI
                     linebuffer.append((char) (this.buffer.get() & 0xff));
                 }
             }
+        } else if (this.asciiCompatible && appendASCII(linebuffer)) {
+            // US-ASCII only, no need to decode
         } else {
             if (this.charbuffer == null) {
                 this.charbuffer = CharBuffer.allocate(this.lineBuffersize);
@@ -320,6 +322,84 @@ public class SessionInputBufferImpl extends ExpandableBuffer implements SessionI
         return true;
     }
 
+    /**
+     * Returns the position of the first LF in the buffer or <code>-1</code>
+     * if there is none. The buffer is expected to be in output mode.
+     */
+    private int locateLF() {
+        final int from = this.buffer.position();
+        final int to = this.buffer.limit();
+        if (this.buffer.hasArray()) {
+            final byte[] b = this.buffer.array();
+            final int off = this.buffer.arrayOffset();
+            for (int i = from; i < to; i++) {
+                if (b[off + i] == HTTP.LF) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        // Direct buffer: examine eight bytes at a time. After XOR with
+        // LF_WORD bytes equal to LF become zero, for which the expression
+        // below yields 0x80 and 0x00 for any other byte
+        final boolean bigEndian = this.buffer.order() == ByteOrder.BIG_ENDIAN;
+        int i = from;
+        while (i + 8 <= to) {
+            final long word = this.buffer.getLong(i) ^ LF_WORD;
+            final long zeros = ~(((word & LOW_BITS) + LOW_BITS) | word | LOW_BITS);
+            if (zeros != 0) {
+                final int bits = bigEndian ?
+                        Long.numberOfLeadingZeros(zeros) : Long.numberOfTrailingZeros(zeros);
+                return i + (bits >>> 3);
+            }
+            i += 8;
+        }
+        for (; i < to; i++) {
+            if (this.buffer.get(i) == HTTP.LF) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Appends the remaining content of the buffer to the line buffer using
+     * simple type cast unless it contains non US-ASCII bytes, in which case
+     * neither the buffer nor the line buffer are changed.
+     *
+     * @return <code>true</code> if the content has been appended.
+     */
+    private boolean appendASCII(final CharArrayBuffer linebuffer) {
+        final int from = this.buffer.position();
+        final int len = this.buffer.remaining();
+        final int oldlen = linebuffer.length();
+        linebuffer.ensureCapacity(len);
+        final char[] chars = linebuffer.buffer();
+        int bits = 0;
+        if (this.buffer.hasArray()) {
+            final byte[] b = this.buffer.array();
+            final int off = this.buffer.arrayOffset() + from;
+            for (int i = 0; i < len; i++) {
+                final byte ch = b[off + i];
+                bits |= ch;
+                chars[oldlen + i] = (char) ch;
+            }
+        } else {
+            for (int i = 0; i < len; i++) {
+                final byte ch = this.buffer.get(from + i);
+                bits |= ch;
+                chars[oldlen + i] = (char) ch;
+            }
+        }
+        if (bits < 0) {
+            // at least one byte has its high bit set
+            return false;
+        }
+        linebuffer.setLength(oldlen + len);
+        this.buffer.position(from + len);
+        return true;
+    }
+
     public String readLine(final boolean endOfStream) throws CharacterCodingException {
         final CharArrayBuffer charbuffer = new CharArrayBuffer(64);
         final boolean found = readLine(charbuffer, endOfStream);
@@ -0,0 +1,220 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.http.impl.nio.reactor;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.http.annotation.NotThreadSafe;
+import org.apache.http.nio.reactor.IOSession;
+import org.apache.http.util.Args;
+
+/**
+ * Hashed timing wheel used by I/O reactors to keep track of I/O session
+ * timeout deadlines. Scheduling, rescheduling and removal of a session
+ * are constant time operations, while the cost of {@link #expire(long, List)}
+ * is proportional to the number of sessions falling into the elapsed ticks
+ * rather than the total number of sessions.
+ * <p/>
+ * Deadlines are rounded up to the tick duration, so sessions are reported
+ * no earlier than their deadline and at most one tick late. Deadlines further
+ * away than a full rotation of the wheel are kept in their bucket until the
+ * corresponding rotation comes around.
+ * <p/>
+ * Instances of this class are expected to be confined to the I/O reactor
+ * thread.
+ *
+ * @since 4.3
+ */
+@NotThreadSafe
+class SessionTimeoutWheel {
+
+    static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private final long tickDuration;
+    private final int mask;
+    private final Entry[] buckets;
+    private final Map<IOSession, Entry> entries;
+
+    private long currentTick;
+
+    SessionTimeoutWheel(final long tickDuration, final int wheelSize, final long now) {
+        super();
+        Args.positive(tickDuration, "Tick duration");
+        Args.positive(wheelSize, "Wheel size");
+        int size = 1;
+        while (size < wheelSize) {
+            size <<= 1;
+        }
+        this.tickDuration = tickDuration;
+        this.mask = size - 1;
+        this.buckets = new Entry[size];
+        this.entries = new HashMap<IOSession, Entry>();
+        this.currentTick = now / tickDuration;
+    }
+
+    SessionTimeoutWheel(final long tickDuration, final long now) {
+        this(tickDuration, DEFAULT_WHEEL_SIZE, now);
+    }
+
+    private long tickOf(final long deadline) {
+        final long tick = deadline / this.tickDuration + 1;
+        return tick > this.currentTick ? tick : this.currentTick;
+    }
+
+    /**
+     * Schedules the session to be reported once the given deadline has
+     * passed. If the session has already been scheduled, its deadline is
+     * replaced.
+     */
+    void schedule(final IOSession session, final long deadline) {
+        Entry entry = this.entries.get(session);
+        if (entry == null) {
+            entry = new Entry(session);
+            this.entries.put(session, entry);
+        } else {
+            unlink(entry);
+        }
+        link(entry, tickOf(deadline));
+    }
+
+    /**
+     * Schedules the session to be reported once the given deadline has
+     * passed unless it has already been scheduled for an earlier or the same
+     * tick. This method never postpones a deadline.
+     */
+    void scheduleIfEarlier(final IOSession session, final long deadline) {
+        final Entry entry = this.entries.get(session);
+        if (entry == null || tickOf(deadline) < entry.tick) {
+            schedule(session, deadline);
+        }
+    }
+
+    /**
+     * Removes the session from the wheel.
+     */
+    void remove(final IOSession session) {
+        final Entry entry = this.entries.remove(session);
+        if (entry != null) {
+            unlink(entry);
+        }
+    }
+
+    boolean isScheduled(final IOSession session) {
+        return this.entries.containsKey(session);
+    }
+
+    int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Removes all sessions whose deadline has passed as of <code>now</code>
+     * from the wheel and adds them to the given list.
+     */
+    void expire(final long now, final List<IOSession> expired) {
+        final long nowTick = now / this.tickDuration;
+        if (nowTick < this.currentTick) {
+            return;
+        }
+        // No need to go round the wheel more than once
+        final long lastTick = Math.min(nowTick, this.currentTick + this.mask);
+        for (long tick = this.currentTick; tick <= lastTick; tick++) {
+            Entry entry = this.buckets[(int) (tick & this.mask)];
+            while (entry != null) {
+                final Entry next = entry.next;
+                if (entry.tick <= nowTick) {
+                    unlink(entry);
+                    this.entries.remove(entry.session);
+                    expired.add(entry.session);
+                }
+                entry = next;
+            }
+        }
+        this.currentTick = nowTick + 1;
+    }
+
+    private void link(final Entry entry, final long tick) {
+        final int idx = (int) (tick & this.mask);
+        entry.tick = tick;
+        entry.bucket = idx;
+        entry.prev = null;
+        entry.next = this.buckets[idx];
+        if (entry.next != null) {
+            entry.next.prev = entry;
+        }
+        this.buckets[idx] = entry;
+    }
+
+    private void unlink(final Entry entry) {
+        if (entry.bucket < 0) {
+            return;
+        }
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else {
+            this.buckets[entry.bucket] = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        }
+        entry.prev = null;
+        entry.next = null;
+        entry.bucket = -1;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder buffer = new StringBuilder();
+        buffer.append("[scheduled: ");
+        buffer.append(this.entries.size());
+        buffer.append("][tick: ");
+        buffer.append(this.currentTick);
+        buffer.append("]");
+        return buffer.toString();
+    }
+
+    static class Entry {
+
+        final IOSession session;
+
+        long tick;
+        int bucket;
+        Entry prev;
+        Entry next;
+
+        Entry(final IOSession session) {
+            super();
+            this.session = session;
+            this.bucket = -1;
+        }
+
+    }
+
+}
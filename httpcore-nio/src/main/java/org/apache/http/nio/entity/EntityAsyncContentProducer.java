@@ -27,14 +27,18 @@
 
 package org.apache.http.nio.entity;
 
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 
 import org.apache.http.HttpEntity;
 import org.apache.http.annotation.NotThreadSafe;
 import org.apache.http.nio.ContentEncoder;
+import org.apache.http.nio.FileContentEncoder;
 import org.apache.http.nio.IOControl;
 import org.apache.http.util.Args;
 
@@ -42,6 +46,10 @@ import org.apache.http.util.Args;
  * Basic implementation of {@link HttpAsyncContentProducer} that relies on
  * inefficient and potentially blocking I/O operation redirection through
  * {@link Channels#newChannel(java.io.InputStream)}.
+ * <p/>
+ * If the entity content is a {@link FileInputStream} and the encoder is
+ * a {@link FileContentEncoder} the content is transferred directly from
+ * the file channel.
  *
  * @since 4.2
  */
@@ -62,7 +70,27 @@ public class EntityAsyncContentProducer implements HttpAsyncContentProducer {
     public void produceContent(
             final ContentEncoder encoder, final IOControl ioctrl) throws IOException {
         if (this.channel == null) {
-            this.channel = Channels.newChannel(this.entity.getContent());
+            final InputStream instream = this.entity.getContent();
+            if (instream instanceof FileInputStream) {
+                this.channel = ((FileInputStream) instream).getChannel();
+            } else {
+                this.channel = Channels.newChannel(instream);
+            }
+        }
+        if (this.channel instanceof FileChannel && encoder instanceof FileContentEncoder
+                && this.buffer.position() == 0) {
+            final FileChannel fileChannel = (FileChannel) this.channel;
+            final long position = fileChannel.position();
+            final long transferred = ((FileContentEncoder) encoder).transfer(
+                    fileChannel, position, Long.MAX_VALUE);
+            if (transferred > 0) {
+                fileChannel.position(position + transferred);
+            }
+            if (fileChannel.position() >= fileChannel.size()) {
+                encoder.complete();
+                close();
+            }
+            return;
         }
         final int i = this.channel.read(this.buffer);
         this.buffer.flip();
@@ -84,11 +84,16 @@ public class NFileEntity extends AbstractHttpEntity
     }
 
     /**
+     * Creates new instance of NFileEntity from the given source {@link File}.
+     * The entity will try to use {@link FileContentEncoder} interface to stream
+     * file content directly from the file channel.
+     *
      * @since 4.2
      */
     public NFileEntity(final File file) {
         Args.notNull(file, "File");
         this.file = file;
+        this.useFileChannels = true;
     }
     /**
      * Creates new instance of NFileEntity from the given source {@link File}
@@ -28,13 +28,17 @@ package org.apache.http.nio.pool;
 
 import java.io.IOException;
 import java.net.SocketAddress;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -57,6 +61,21 @@ import org.apache.http.util.Asserts;
 
 /**
  * Abstract non-blocking connection pool.
+ * <p/>
+ * Pending lease requests are indexed by route. Releasing a connection or
+ * completing a session request only re-evaluates requests pending on
+ * the same route and, if the total capacity of the pool permits, those
+ * requests that are blocked by the total max limit. Session request events
+ * and connection releases never block the calling thread (usually an I/O
+ * dispatcher) on the pool lock: if the lock is held by another thread
+ * the event is queued and processed by the lock owner. Lease request
+ * callbacks are always invoked after the pool lock has been released.
+ * <p/>
+ * Please note that queued events and lease request callbacks may be
+ * executed by any thread that happens to own the pool lock at the time,
+ * including I/O dispatch threads and user threads calling pool methods
+ * such as {@link #getTotalStats()} or {@link #lease(Object, Object)}.
+ * Callbacks should therefore be short and must not block.
  *
  * @param <T> route
  * @param <C> connection object
@@ -73,7 +92,10 @@ public abstract class AbstractNIOConnPool<T, C, E extends PoolEntry<T, C>>
     private final SocketAddressResolver<T> addressResolver;
     private final SessionRequestCallback sessionRequestCallback;
     private final Map<T, RouteSpecificPool<T, C, E>> routeToPool;
-    private final LinkedList<LeaseRequest<T, C, E>> leasingRequests;
+    private final Map<T, LinkedList<LeaseRequest<T, C, E>>> leasingRequests;
+    private final Set<T> blockedRoutes;
+    private final ConcurrentLinkedQueue<PoolEvent> eventQueue;
+    private final ConcurrentLinkedQueue<LeaseRequest<T, C, E>> completedRequests;
     private final Set<SessionRequest> pending;
     private final Set<E> leased;
     private final LinkedList<E> available;
@@ -114,7 +136,10 @@ public abstract class AbstractNIOConnPool<T, C, E extends PoolEntry<T, C>>
         };
         this.sessionRequestCallback = new InternalSessionRequestCallback();
         this.routeToPool = new HashMap<T, RouteSpecificPool<T, C, E>>();
-        this.leasingRequests = new LinkedList<LeaseRequest<T, C, E>>();
+        this.leasingRequests = new HashMap<T, LinkedList<LeaseRequest<T, C, E>>>();
+        this.blockedRoutes = new LinkedHashSet<T>();
+        this.eventQueue = new ConcurrentLinkedQueue<PoolEvent>();
+        this.completedRequests = new ConcurrentLinkedQueue<LeaseRequest<T, C, E>>();
         this.pending = new HashSet<SessionRequest>();
         this.leased = new HashSet<E>();
         this.available = new LinkedList<E>();
@@ -144,7 +169,10 @@ public abstract class AbstractNIOConnPool<T, C, E extends PoolEntry<T, C>>
         this.addressResolver = addressResolver;
         this.sessionRequestCallback = new InternalSessionRequestCallback();
         this.routeToPool = new HashMap<T, RouteSpecificPool<T, C, E>>();
-        this.leasingRequests = new LinkedList<LeaseRequest<T, C, E>>();
+        this.leasingRequests = new HashMap<T, LinkedList<LeaseRequest<T, C, E>>>();
+        this.blockedRoutes = new LinkedHashSet<T>();
+        this.eventQueue = new ConcurrentLinkedQueue<PoolEvent>();
+        this.completedRequests = new ConcurrentLinkedQueue<LeaseRequest<T, C, E>>();
         this.pending = new HashSet<SessionRequest>();
         this.leased = new HashSet<E>();
         this.available = new LinkedList<E>();
@@ -200,12 +228,80 @@ public abstract class AbstractNIOConnPool<T, C, E extends PoolEntry<T, C>>
             this.pending.clear();
             this.available.clear();
             this.leasingRequests.clear();
+            this.blockedRoutes.clear();
+            this.eventQueue.clear();
             this.ioreactor.shutdown(waitMs);
         } finally {
             this.lock.unlock();
         }
     }
 
+    /**
+     * Releases the pool lock, invokes callbacks of lease requests completed
+     * while the lock was held and processes events queued by threads that
+     * failed to acquire the lock in the meantime.
+     */
+    private void unlock() {
+        this.lock.unlock();
+        fireCallbacks();
+        while (!this.eventQueue.isEmpty() && this.lock.tryLock()) {
+            try {
+                processEvents();
+            } finally {
+                this.lock.unlock();
+            }
+            fireCallbacks();
+        }
+    }
+
+    private void fireCallbacks() {
+        LeaseRequest<T, C, E> request;
+        while ((request = this.completedRequests.poll()) != null) {
+            final BasicFuture<E> future = request.getFuture();
+            final Exception ex = request.getException();
+            if (request.isCancelled()) {
+                future.cancel(true);
+            } else if (ex != null) {
+                future.failed(ex);
+            } else {
+                future.completed(request.getResult());
+            }
+        }
+    }
+
+    private void processEvents() {
+        PoolEvent event;
+        while ((event = this.eventQueue.poll()) != null) {
+            if (!this.isShutDown) {
+                event.process();
+            }
+        }
+    }
+
+    /**
+     * Processes the event immediately if the pool lock is available or
+     * queues it for the current lock owner otherwise. This method never blocks.
+     */
+    private void execute(final PoolEvent event) {
+        this.eventQueue.add(event);
+        if (this.lock.tryLock()) {
+            try {
+                processEvents();
+            } finally {
+                unlock();
+            }
+        }
+    }
+
+    private LinkedList<LeaseRequest<T, C, E>> getLeasingRequests(final T route) {
+        LinkedList<LeaseRequest<T, C, E>> requests = this.leasingRequests.get(route);
+        if (requests == null) {
+            requests = new LinkedList<LeaseRequest<T, C, E>>();
+            this.leasingRequests.put(route, requests);
+        }
+        return requests;
+    }
+
     private RouteSpecificPool<T, C, E> getPool(final T route) {
         RouteSpecificPool<T, C, E> pool = this.routeToPool.get(route);
         if (pool == null) {
@@ -229,18 +325,18 @@ public abstract class AbstractNIOConnPool<T, C, E extends PoolEntry<T, C>>
         Args.notNull(route, "Route");
         Args.notNull(tunit, "Time unit");
         Asserts.check(!this.isShutDown, "Connection pool shut down");
+        final long timeout = connectTimeout > 0 ? tunit.toMillis(connectTimeout) : 0;
+        final BasicFuture<E> future = new BasicFuture<E>(callback);
+        final LeaseRequest<T, C, E> request = new LeaseRequest<T, C, E>(route, state, timeout, future);
         this.lock.lock();
         try {
-            final long timeout = connectTimeout > 0 ? tunit.toMillis(connectTimeout) : 0;
-            final BasicFuture<E> future = new BasicFuture<E>(callback);
-            final LeaseRequest<T, C, E> request = new LeaseRequest<T, C, E>(route, state, timeout, future);
-            this.leasingRequests.add(request);
-
-            processPendingRequests();
-            return future;
+            processEvents();
+            getLeasingRequests(route).add(request);
+            processPendingRequests(route);
         } finally {
-            this.lock.unlock();
+            unlock();
         }
+        return future;
     }
 
     public Future<E> lease(final T route, final Object state, final FutureCallback<E> callback) {
@@ -258,41 +354,70 @@ public abstract class AbstractNIOConnPool<T, C, E extends PoolEntry<T, C>>
         if (this.isShutDown) {
             return;
         }
-        this.lock.lock();
-        try {
-            if (this.leased.remove(entry)) {
-                final RouteSpecificPool<T, C, E> pool = getPool(entry.getRoute());
-                pool.free(entry, reusable);
-                if (reusable) {
-                    this.available.addFirst(entry);
-                } else {
-                    entry.close();
-                }
-                processPendingRequests();
+        execute(new PoolEvent() {
+
+            @Override
+            void process() {
+                releaseEntry(entry, reusable);
             }
-        } finally {
-            this.lock.unlock();
+
+        });
+    }
+
+    private void releaseEntry(final E entry, final boolean reusable) {
+        if (this.leased.remove(entry)) {
+            final T route = entry.getRoute();
+            final RouteSpecificPool<T, C, E> pool = getPool(route);
+            pool.free(entry, reusable);
+            if (reusable) {
+                this.available.addFirst(entry);
+            } else {
+                entry.close();
+            }
+            processPendingRequests(route);
+            processBlockedRoutes();
+        }
+    }
+
+    /**
+     * Re-evaluates requests blocked by the total max limit as long as
+     * the total capacity of the pool permits.
+     */
+    private void processBlockedRoutes() {
+        if (this.blockedRoutes.isEmpty()) {
+            return;
+        }
+        final List<T> routes = new ArrayList<T>(this.blockedRoutes);
+        for (final T route: routes) {
+            if (this.pending.size() + this.leased.size() >= this.maxTotal) {
+                break;
+            }
+            this.blockedRoutes.remove(route);
+            processPendingRequests(route);
         }
     }
 
-    private void processPendingRequests() {
-        final ListIterator<LeaseRequest<T, C, E>> it = this.leasingRequests.listIterator();
+    private void processPendingRequests(final T route) {
+        final LinkedList<LeaseRequest<T, C, E>> requests = this.leasingRequests.get(route);
+        if (requests == null) {
+            return;
+        }
+        final RouteSpecificPool<T, C, E> pool = getPool(route);
+        final ListIterator<LeaseRequest<T, C, E>> it = requests.listIterator();
         while (it.hasNext()) {
             final LeaseRequest<T, C, E> request = it.next();
 
-            final T route = request.getRoute();
             final Object state = request.getState();
             final long deadline = request.getDeadline();
-            final BasicFuture<E> future = request.getFuture();
 
             final long now = System.currentTimeMillis();
             if (now > deadline) {
                 it.remove();
-                future.failed(new TimeoutException());
+                request.failed(new TimeoutException());
+                this.completedRequests.add(request);
                 continue;
             }
 
-            final RouteSpecificPool<T, C, E> pool = getPool(route);
             E entry = null;
             for (;;) {
                 entry = pool.getFree(state);
@@ -311,7 +436,8 @@ public abstract class AbstractNIOConnPool<T, C, E extends PoolEntry<T, C>>
                 it.remove();
                 this.available.remove(entry);
                 this.leased.add(entry);
-                future.completed(entry);
+                request.completed(entry);
+                this.completedRequests.add(request);
                 continue;
             }
 
@@ -335,6 +461,11 @@ public abstract class AbstractNIOConnPool<T, C, E extends PoolEntry<T, C>>
                 final int totalUsed = this.pending.size() + this.leased.size();
                 final int freeCapacity = Math.max(this.maxTotal - totalUsed, 0);
                 if (freeCapacity == 0) {
+                    this.blockedRoutes.add(route);
+                    if (pool.getAvailableCount() == 0) {
+                        // No other request of this route can be satisfied
+                        break;
+                    }
                     continue;
                 }
                 final int totalAvailable = this.available.size();
@@ -354,7 +485,8 @@ public abstract class AbstractNIOConnPool<T, C, E extends PoolEntry<T, C>>
                     remoteAddress = this.addressResolver.resolveRemoteAddress(route);
                     localAddress = this.addressResolver.resolveLocalAddress(route);
                 } catch (final IOException ex) {
-                    future.failed(ex);
+                    request.failed(ex);
+                    this.completedRequests.add(request);
                     continue;
                 }
 
@@ -364,27 +496,42 @@ public abstract class AbstractNIOConnPool<T, C, E extends PoolEntry<T, C>>
                         (int) request.getConnectTimeout() : Integer.MAX_VALUE;
                 sessionRequest.setConnectTimeout(timout);
                 this.pending.add(sessionRequest);
-                pool.addPending(sessionRequest, future);
+                pool.addPending(sessionRequest, request);
+            } else if (pool.getAvailableCount() == 0) {
+                // No other request of this route can be satisfied
+                break;
             }
         }
+        if (requests.isEmpty()) {
+            this.leasingRequests.remove(route);
+        }
     }
 
     public void validatePendingRequests() {
         this.lock.lock();
         try {
+            processEvents();
             final long now = System.currentTimeMillis();
-            final ListIterator<LeaseRequest<T, C, E>> it = this.leasingRequests.listIterator();
-            while (it.hasNext()) {
-                final LeaseRequest<T, C, E> request = it.next();
-                final long deadline = request.getDeadline();
-                if (now > deadline) {
-                    it.remove();
-                    final BasicFuture<E> future = request.getFuture();
-                    future.failed(new TimeoutException());
+            final Iterator<LinkedList<LeaseRequest<T, C, E>>> rit =
+                    this.leasingRequests.values().iterator();
+            while (rit.hasNext()) {
+                final LinkedList<LeaseRequest<T, C, E>> requests = rit.next();
+                final ListIterator<LeaseRequest<T, C, E>> it = requests.listIterator();
+                while (it.hasNext()) {
+                    final LeaseRequest<T, C, E> request = it.next();
+                    final long deadline = request.getDeadline();
+                    if (now > deadline) {
+                        it.remove();
+                        request.failed(new TimeoutException());
+                        this.completedRequests.add(request);
+                    }
+                }
+                if (requests.isEmpty()) {
+                    rit.remove();
                 }
             }
         } finally {
-            this.lock.unlock();
+            unlock();
         }
     }
 
@@ -392,25 +539,31 @@ public abstract class AbstractNIOConnPool<T, C, E extends PoolEntry<T, C>>
         if (this.isShutDown) {
             return;
         }
+        this.lock.lock();
+        try {
+            processEvents();
+            sessionRequestCompleted(request);
+        } finally {
+            unlock();
+        }
+    }
+
+    private void sessionRequestCompleted(final SessionRequest request) {
         @SuppressWarnings("unchecked")
         final
         T route = (T) request.getAttachment();
-        this.lock.lock();
+        this.pending.remove(request);
+        final RouteSpecificPool<T, C, E> pool = getPool(route);
+        final IOSession session = request.getSession();
         try {
-            this.pending.remove(request);
-            final RouteSpecificPool<T, C, E> pool = getPool(route);
-            final IOSession session = request.getSession();
-            try {
-                final C conn = this.connFactory.create(route, session);
-                final E entry = pool.createEntry(request, conn);
-                this.leased.add(entry);
-                pool.completed(request, entry);
-
-            } catch (final IOException ex) {
-                pool.failed(request, ex);
-            }
-        } finally {
-            this.lock.unlock();
+            final C conn = this.connFactory.create(route, session);
+            final E entry = pool.createEntry(request, conn);
+            this.leased.add(entry);
+            this.completedRequests.add(pool.completed(request, entry));
+        } catch (final IOException ex) {
+            this.completedRequests.add(pool.failed(request, ex));
+            processPendingRequests(route);
+            processBlockedRoutes();
         }
     }
 
@@ -418,56 +571,74 @@ public abstract class AbstractNIOConnPool<T, C, E extends PoolEntry<T, C>>
         if (this.isShutDown) {
             return;
         }
-        @SuppressWarnings("unchecked")
-        final
-        T route = (T) request.getAttachment();
         this.lock.lock();
         try {
-            this.pending.remove(request);
-            final RouteSpecificPool<T, C, E> pool = getPool(route);
-            pool.cancelled(request);
-            processPendingRequests();
+            processEvents();
+            sessionRequestCancelled(request);
         } finally {
-            this.lock.unlock();
+            unlock();
         }
     }
 
+    private void sessionRequestCancelled(final SessionRequest request) {
+        @SuppressWarnings("unchecked")
+        final
+        T route = (T) request.getAttachment();
+        this.pending.remove(request);
+        final RouteSpecificPool<T, C, E> pool = getPool(route);
+        this.completedRequests.add(pool.cancelled(request));
+        processPendingRequests(route);
+        processBlockedRoutes();
+    }
+
     protected void requestFailed(final SessionRequest request) {
         if (this.isShutDown) {
             return;
         }
-        @SuppressWarnings("unchecked")
-        final
-        T route = (T) request.getAttachment();
         this.lock.lock();
         try {
-            this.pending.remove(request);
-            final RouteSpecificPool<T, C, E> pool = getPool(route);
-            pool.failed(request, request.getException());
-            processPendingRequests();
+            processEvents();
+            sessionRequestFailed(request);
         } finally {
-            this.lock.unlock();
+            unlock();
         }
     }
 
+    private void sessionRequestFailed(final SessionRequest request) {
+        @SuppressWarnings("unchecked")
+        final
+        T route = (T) request.getAttachment();
+        this.pending.remove(request);
+        final RouteSpecificPool<T, C, E> pool = getPool(route);
+        this.completedRequests.add(pool.failed(request, request.getException()));
+        processPendingRequests(route);
+        processBlockedRoutes();
+    }
+
     protected void requestTimeout(final SessionRequest request) {
         if (this.isShutDown) {
             return;
         }
-        @SuppressWarnings("unchecked")
-        final
-        T route = (T) request.getAttachment();
         this.lock.lock();
         try {
-            this.pending.remove(request);
-            final RouteSpecificPool<T, C, E> pool = getPool(route);
-            pool.timeout(request);
-            processPendingRequests();
+            processEvents();
+            sessionRequestTimeout(request);
         } finally {
-            this.lock.unlock();
+            unlock();
         }
     }
 
+    private void sessionRequestTimeout(final SessionRequest request) {
+        @SuppressWarnings("unchecked")
+        final
+        T route = (T) request.getAttachment();
+        this.pending.remove(request);
+        final RouteSpecificPool<T, C, E> pool = getPool(route);
+        this.completedRequests.add(pool.timeout(request));
+        processPendingRequests(route);
+        processBlockedRoutes();
+    }
+
     private int getMax(final T route) {
         final Integer v = this.maxPerRoute.get(route);
         if (v != null) {
@@ -483,7 +654,7 @@ public abstract class AbstractNIOConnPool<T, C, E extends PoolEntry<T, C>>
         try {
             this.maxTotal = max;
         } finally {
-            this.lock.unlock();
+            unlock();
         }
     }
 
@@ -492,7 +663,7 @@ public abstract class AbstractNIOConnPool<T, C, E extends PoolEntry<T, C>>
         try {
             return this.maxTotal;
         } finally {
-            this.lock.unlock();
+            unlock();
         }
     }
 
@@ -502,7 +673,7 @@ public abstract class AbstractNIOConnPool<T, C, E extends PoolEntry<T, C>>
         try {
             this.defaultMaxPerRoute = max;
         } finally {
-            this.lock.unlock();
+            unlock();
         }
     }
 
@@ -511,7 +682,7 @@ public abstract class AbstractNIOConnPool<T, C, E extends PoolEntry<T, C>>
         try {
             return this.defaultMaxPerRoute;
         } finally {
-            this.lock.unlock();
+            unlock();
         }
     }
 
@@ -522,7 +693,7 @@ public abstract class AbstractNIOConnPool<T, C, E extends PoolEntry<T, C>>
         try {
             this.maxPerRoute.put(route, max);
         } finally {
-            this.lock.unlock();
+            unlock();
         }
     }
 
@@ -532,7 +703,7 @@ public abstract class AbstractNIOConnPool<T, C, E extends PoolEntry<T, C>>
         try {
             return getMax(route);
         } finally {
-            this.lock.unlock();
+            unlock();
         }
     }
 
@@ -545,7 +716,7 @@ public abstract class AbstractNIOConnPool<T, C, E extends PoolEntry<T, C>>
                     this.available.size(),
                     this.maxTotal);
         } finally {
-            this.lock.unlock();
+            unlock();
         }
     }
 
@@ -560,7 +731,7 @@ public abstract class AbstractNIOConnPool<T, C, E extends PoolEntry<T, C>>
                     pool.getAvailableCount(),
                     getMax(route));
         } finally {
-            this.lock.unlock();
+            unlock();
         }
     }
 
@@ -573,6 +744,8 @@ public abstract class AbstractNIOConnPool<T, C, E extends PoolEntry<T, C>>
         final long deadline = System.currentTimeMillis() - time;
         this.lock.lock();
         try {
+            processEvents();
+            final Set<T> routes = new HashSet<T>();
             final Iterator<E> it = this.available.iterator();
             while (it.hasNext()) {
                 final E entry = it.next();
@@ -581,11 +754,15 @@ public abstract class AbstractNIOConnPool<T, C, E extends PoolEntry<T, C>>
                     final RouteSpecificPool<T, C, E> pool = getPool(entry.getRoute());
                     pool.remove(entry);
                     it.remove();
+                    routes.add(entry.getRoute());
                 }
             }
-            processPendingRequests();
+            for (final T route: routes) {
+                processPendingRequests(route);
+            }
+            processBlockedRoutes();
         } finally {
-            this.lock.unlock();
+            unlock();
         }
     }
 
@@ -593,6 +770,8 @@ public abstract class AbstractNIOConnPool<T, C, E extends PoolEntry<T, C>>
         final long now = System.currentTimeMillis();
         this.lock.lock();
         try {
+            processEvents();
+            final Set<T> routes = new HashSet<T>();
             final Iterator<E> it = this.available.iterator();
             while (it.hasNext()) {
                 final E entry = it.next();
@@ -601,11 +780,15 @@ public abstract class AbstractNIOConnPool<T, C, E extends PoolEntry<T, C>>
                     final RouteSpecificPool<T, C, E> pool = getPool(entry.getRoute());
                     pool.remove(entry);
                     it.remove();
+                    routes.add(entry.getRoute());
                 }
             }
-            processPendingRequests();
+            for (final T route: routes) {
+                processPendingRequests(route);
+            }
+            processBlockedRoutes();
         } finally {
-            this.lock.unlock();
+            unlock();
         }
     }
 
@@ -622,22 +805,68 @@ public abstract class AbstractNIOConnPool<T, C, E extends PoolEntry<T, C>>
         return buffer.toString();
     }
 
+    abstract class PoolEvent {
+
+        abstract void process();
+
+    }
+
     class InternalSessionRequestCallback implements SessionRequestCallback {
 
         public void completed(final SessionRequest request) {
-            requestCompleted(request);
+            if (isShutDown) {
+                return;
+            }
+            execute(new PoolEvent() {
+
+                @Override
+                void process() {
+                    sessionRequestCompleted(request);
+                }
+
+            });
         }
 
         public void cancelled(final SessionRequest request) {
-            requestCancelled(request);
+            if (isShutDown) {
+                return;
+            }
+            execute(new PoolEvent() {
+
+                @Override
+                void process() {
+                    sessionRequestCancelled(request);
+                }
+
+            });
         }
 
         public void failed(final SessionRequest request) {
-            requestFailed(request);
+            if (isShutDown) {
+                return;
+            }
+            execute(new PoolEvent() {
+
+                @Override
+                void process() {
+                    sessionRequestFailed(request);
+                }
+
+            });
         }
 
         public void timeout(final SessionRequest request) {
-            requestTimeout(request);
+            if (isShutDown) {
+                return;
+            }
+            execute(new PoolEvent() {
+
+                @Override
+                void process() {
+                    sessionRequestTimeout(request);
+                }
+
+            });
         }
 
     }
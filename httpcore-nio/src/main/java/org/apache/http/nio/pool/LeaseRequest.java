@@ -26,11 +26,11 @@
  */
 package org.apache.http.nio.pool;
 
-import org.apache.http.annotation.Immutable;
+import org.apache.http.annotation.ThreadSafe;
 import org.apache.http.concurrent.BasicFuture;
 import org.apache.http.pool.PoolEntry;
 
-@Immutable
+@ThreadSafe
 class LeaseRequest<T, C, E extends PoolEntry<T, C>> {
 
     private final T route;
@@ -39,6 +39,10 @@ class LeaseRequest<T, C, E extends PoolEntry<T, C>> {
     private final long deadline;
     private final BasicFuture<E> future;
 
+    private volatile E result;
+    private volatile Exception ex;
+    private volatile boolean cancelled;
+
     public LeaseRequest(
             final T route,
             final Object state,
@@ -73,6 +77,30 @@ class LeaseRequest<T, C, E extends PoolEntry<T, C>> {
         return this.future;
     }
 
+    public E getResult() {
+        return this.result;
+    }
+
+    public Exception getException() {
+        return this.ex;
+    }
+
+    public void completed(final E result) {
+        this.result = result;
+    }
+
+    public void failed(final Exception ex) {
+        this.ex = ex;
+    }
+
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    public void cancelled() {
+        this.cancelled = true;
+    }
+
     @Override
     public String toString() {
         final StringBuilder buffer = new StringBuilder();
@@ -35,7 +35,6 @@ import java.util.Map;
 import java.util.Set;
 
 import org.apache.http.annotation.NotThreadSafe;
-import org.apache.http.concurrent.BasicFuture;
 import org.apache.http.nio.reactor.SessionRequest;
 import org.apache.http.pool.PoolEntry;
 import org.apache.http.util.Args;
@@ -47,14 +46,14 @@ abstract class RouteSpecificPool<T, C, E extends PoolEntry<T, C>> {
     private final T route;
     private final Set<E> leased;
     private final LinkedList<E> available;
-    private final Map<SessionRequest, BasicFuture<E>> pending;
+    private final Map<SessionRequest, LeaseRequest<T, C, E>> pending;
 
     RouteSpecificPool(final T route) {
         super();
         this.route = route;
         this.leased = new HashSet<E>();
         this.available = new LinkedList<E>();
-        this.pending = new HashMap<SessionRequest, BasicFuture<E>>();
+        this.pending = new HashMap<SessionRequest, LeaseRequest<T, C, E>>();
     }
 
     protected abstract E createEntry(T route, C conn);
@@ -130,14 +129,14 @@ abstract class RouteSpecificPool<T, C, E extends PoolEntry<T, C>> {
 
     public void addPending(
             final SessionRequest sessionRequest,
-            final BasicFuture<E> future) {
-        this.pending.put(sessionRequest, future);
+            final LeaseRequest<T, C, E> request) {
+        this.pending.put(sessionRequest, request);
     }
 
-    private BasicFuture<E> removeRequest(final SessionRequest request) {
-        final BasicFuture<E> future = this.pending.remove(request);
-        Asserts.notNull(future, "Session request future");
-        return future;
+    private LeaseRequest<T, C, E> removeRequest(final SessionRequest sessionRequest) {
+        final LeaseRequest<T, C, E> request = this.pending.remove(sessionRequest);
+        Asserts.notNull(request, "Lease request");
+        return request;
     }
 
     public E createEntry(final SessionRequest request, final C conn) {
@@ -146,24 +145,34 @@ abstract class RouteSpecificPool<T, C, E extends PoolEntry<T, C>> {
         return entry;
     }
 
-    public void completed(final SessionRequest request, final E entry) {
-        final BasicFuture<E> future = removeRequest(request);
-        future.completed(entry);
+    /*
+     * The following methods only record the outcome of the lease request.
+     * The caller is expected to complete the request future once
+     * the pool lock has been released.
+     */
+
+    public LeaseRequest<T, C, E> completed(final SessionRequest sessionRequest, final E entry) {
+        final LeaseRequest<T, C, E> request = removeRequest(sessionRequest);
+        request.completed(entry);
+        return request;
     }
 
-    public void cancelled(final SessionRequest request) {
-        final BasicFuture<E> future = removeRequest(request);
-        future.cancel(true);
+    public LeaseRequest<T, C, E> cancelled(final SessionRequest sessionRequest) {
+        final LeaseRequest<T, C, E> request = removeRequest(sessionRequest);
+        request.cancelled();
+        return request;
     }
 
-    public void failed(final SessionRequest request, final Exception ex) {
-        final BasicFuture<E> future = removeRequest(request);
-        future.failed(ex);
+    public LeaseRequest<T, C, E> failed(final SessionRequest sessionRequest, final Exception ex) {
+        final LeaseRequest<T, C, E> request = removeRequest(sessionRequest);
+        request.failed(ex);
+        return request;
     }
 
-    public void timeout(final SessionRequest request) {
-        final BasicFuture<E> future = removeRequest(request);
-        future.failed(new SocketTimeoutException());
+    public LeaseRequest<T, C, E> timeout(final SessionRequest sessionRequest) {
+        final LeaseRequest<T, C, E> request = removeRequest(sessionRequest);
+        request.failed(new SocketTimeoutException());
+        return request;
     }
 
     public void shutdown() {
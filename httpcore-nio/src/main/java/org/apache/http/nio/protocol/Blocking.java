@@ -0,0 +1,59 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.http.nio.protocol;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.Executor;
+
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * Marks {@link HttpAsyncRequestHandler} implementations that may block
+ * the calling thread in
+ * {@link HttpAsyncRequestHandler#handle(Object, HttpAsyncExchange, HttpContext)}.
+ * <p/>
+ * If {@link HttpAsyncService} has been given an {@link Executor}, requests
+ * mapped to a blocking handler are handed over to the executor once their
+ * content has been fully consumed, so that a slow handler does not stall
+ * other connections served by the same I/O dispatcher. The handler is
+ * expected to commit the response through {@link HttpAsyncExchange}
+ * as usual.
+ *
+ * @since 4.3
+ */
+@Documented
+@Inherited
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Blocking {
+}
@@ -30,6 +30,8 @@ package org.apache.http.nio.protocol;
 import java.io.Closeable;
 import java.io.IOException;
 import java.net.SocketTimeoutException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.apache.http.ConnectionClosedException;
 import org.apache.http.HttpConnection;
@@ -38,7 +40,9 @@ import org.apache.http.HttpException;
 import org.apache.http.HttpRequest;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
 import org.apache.http.ProtocolException;
+import org.apache.http.ProtocolVersion;
 import org.apache.http.annotation.Immutable;
 import org.apache.http.nio.ContentDecoder;
 import org.apache.http.nio.ContentEncoder;
@@ -70,8 +74,15 @@ import org.apache.http.util.Asserts;
  * and outgoing messages. <tt>HttpAsyncClientExchangeHandler</tt>s can delegate
  * implementation of application specific content generation and processing to
  * a {@link HttpAsyncRequestProducer} and a {@link HttpAsyncResponseConsumer}.
+ * <p/>
+ * Exchange handlers annotated with {@link Pipelined} are executed in pipelining
+ * mode: requests are written out one after another as long as the handler keeps
+ * generating them and responses are matched to requests on the FIFO basis.
+ * Pipelined requests must be HTTP/1.1 or newer and may not use
+ * the <code>Expect: 100-continue</code> handshake.
  *
  * @see HttpAsyncClientExchangeHandler
+ * @see PipeliningClientExchangeHandler
  *
  * @since 4.2
  */
@@ -111,6 +122,10 @@ public class HttpAsyncRequestExecutor implements NHttpClientEventHandler {
         final HttpAsyncClientExchangeHandler handler = getHandler(conn);
         if (state == null || (handler != null && handler.isDone())) {
             closeHandler(handler);
+        } else if (handler != null && isPipelined(state, handler)) {
+            // Connection closed before all pipelined responses have been received
+            handler.failed(new ConnectionClosedException("Connection closed"));
+            closeHandler(handler);
         }
         if (state != null) {
             state.reset();
@@ -143,25 +158,45 @@ public class HttpAsyncRequestExecutor implements NHttpClientEventHandler {
         if (handler == null) {
             return;
         }
+        final boolean pipelined = isPipelined(state, handler);
+        do {
+            final HttpRequest request = handler.generateRequest();
+            if (request == null && pipelined) {
+                // No more requests to pipeline
+                return;
+            }
+            if (pipelined) {
+                final ProtocolVersion ver = request.getRequestLine().getProtocolVersion();
+                if (ver.lessEquals(HttpVersion.HTTP_1_0)) {
+                    throw new ProtocolException(ver + " cannot be used with request pipelining");
+                }
+                if (request instanceof HttpEntityEnclosingRequest
+                        && ((HttpEntityEnclosingRequest) request).expectContinue()) {
+                    throw new ProtocolException(
+                            "Expect-continue handshake cannot be used with request pipelining");
+                }
+                state.getRequestQueue().add(request);
+            }
+            state.setRequest(request);
 
-        final HttpRequest request = handler.generateRequest();
-        state.setRequest(request);
-
-        conn.submitRequest(request);
+            conn.submitRequest(request);
 
-        if (request instanceof HttpEntityEnclosingRequest) {
-            if (((HttpEntityEnclosingRequest) request).expectContinue()) {
-                final int timeout = conn.getSocketTimeout();
-                state.setTimeout(timeout);
-                conn.setSocketTimeout(this.waitForContinue);
-                state.setRequestState(MessageState.ACK_EXPECTED);
+            if (request instanceof HttpEntityEnclosingRequest) {
+                if (((HttpEntityEnclosingRequest) request).expectContinue()) {
+                    final int timeout = conn.getSocketTimeout();
+                    state.setTimeout(timeout);
+                    conn.setSocketTimeout(this.waitForContinue);
+                    state.setRequestState(MessageState.ACK_EXPECTED);
+                } else {
+                    state.setRequestState(MessageState.BODY_STREAM);
+                }
             } else {
-                state.setRequestState(MessageState.BODY_STREAM);
+                handler.requestCompleted();
+                state.setRequestState(pipelined ? MessageState.READY : MessageState.COMPLETED);
             }
-        } else {
-            handler.requestCompleted();
-            state.setRequestState(MessageState.COMPLETED);
-        }
+            // Keep on writing out pipelined requests until one with
+            // a content body or until the handler runs out of requests
+        } while (pipelined && state.getRequestState() == MessageState.READY);
     }
 
     public void outputReady(
@@ -177,7 +212,7 @@ public class HttpAsyncRequestExecutor implements NHttpClientEventHandler {
         state.setRequestState(MessageState.BODY_STREAM);
         if (encoder.isCompleted()) {
             handler.requestCompleted();
-            state.setRequestState(MessageState.COMPLETED);
+            state.setRequestState(isPipelined(state, handler) ? MessageState.READY : MessageState.COMPLETED);
         }
     }
 
@@ -186,7 +221,6 @@ public class HttpAsyncRequestExecutor implements NHttpClientEventHandler {
         final State state = ensureNotNull(getState(conn));
         final HttpAsyncClientExchangeHandler handler = ensureNotNull(getHandler(conn));
         final HttpResponse response = conn.getHttpResponse();
-        final HttpRequest request = state.getRequest();
 
         final int statusCode = response.getStatusLine().getStatusCode();
         if (statusCode < HttpStatus.SC_OK) {
@@ -203,8 +237,26 @@ public class HttpAsyncRequestExecutor implements NHttpClientEventHandler {
             }
             return;
         }
+        final boolean pipelined = isPipelined(state, handler);
+        final HttpRequest request;
+        if (pipelined) {
+            request = state.getRequestQueue().poll();
+            if (request == null) {
+                throw new ProtocolException("Out of sequence response: " + response.getStatusLine());
+            }
+        } else {
+            request = state.getRequest();
+        }
         state.setResponse(response);
-        if (state.getRequestState() == MessageState.ACK_EXPECTED) {
+        if (pipelined) {
+            if (state.getRequestState() == MessageState.BODY_STREAM && request == state.getRequest()) {
+                // Early response to the request still being written out
+                conn.resetOutput();
+                conn.suspendOutput();
+                state.setRequestState(MessageState.COMPLETED);
+                state.invalidate();
+            }
+        } else if (state.getRequestState() == MessageState.ACK_EXPECTED) {
             final int timeout = state.getTimeout();
             conn.setSocketTimeout(timeout);
             conn.resetOutput();
@@ -242,7 +294,8 @@ public class HttpAsyncRequestExecutor implements NHttpClientEventHandler {
     public void endOfInput(final NHttpClientConnection conn) throws IOException {
         final State state = getState(conn);
         if (state != null) {
-            if (state.getRequestState().compareTo(MessageState.READY) != 0) {
+            if (state.getRequestState().compareTo(MessageState.READY) != 0
+                    || !state.getRequestQueue().isEmpty()) {
                 state.invalidate();
             }
             final HttpAsyncClientExchangeHandler handler = getHandler(conn);
@@ -330,6 +383,19 @@ public class HttpAsyncRequestExecutor implements NHttpClientEventHandler {
         }
     }
 
+    /**
+     * Determines whether the given handler is {@link Pipelined}. The annotation
+     * lookup is performed once per exchange and its result is kept in the
+     * exchange state for subsequent I/O events.
+     */
+    private static boolean isPipelined(final State state, final HttpAsyncClientExchangeHandler handler) {
+        if (state.getHandler() != handler) {
+            state.setPipelined(handler.getClass().isAnnotationPresent(Pipelined.class));
+            state.setHandler(handler);
+        }
+        return state.isPipelined();
+    }
+
     private void closeHandler(final HttpAsyncClientExchangeHandler handler) {
         if (handler != null) {
             try {
@@ -348,7 +414,16 @@ public class HttpAsyncRequestExecutor implements NHttpClientEventHandler {
             conn.close();
         }
         handler.responseCompleted();
-        state.reset();
+        if (isPipelined(state, handler) && state.isValid() && !handler.isDone()) {
+            state.setResponseState(MessageState.READY);
+            state.setResponse(null);
+            if (state.getRequestState() == MessageState.READY) {
+                // Resume pipelining, if paused after a request with a content body
+                conn.requestOutput();
+            }
+        } else {
+            state.reset();
+        }
     }
 
     private boolean canResponseHaveBody(final HttpRequest request, final HttpResponse response) {
@@ -372,15 +447,19 @@ public class HttpAsyncRequestExecutor implements NHttpClientEventHandler {
 
     static class State {
 
+        private final Queue<HttpRequest> requestQueue;
         private volatile MessageState requestState;
         private volatile MessageState responseState;
         private volatile HttpRequest request;
         private volatile HttpResponse response;
         private volatile boolean valid;
         private volatile int timeout;
+        private volatile HttpAsyncClientExchangeHandler handler;
+        private volatile boolean pipelined;
 
         State() {
             super();
+            this.requestQueue = new ConcurrentLinkedQueue<HttpRequest>();
             this.valid = true;
             this.requestState = MessageState.READY;
             this.responseState = MessageState.READY;
@@ -402,6 +481,13 @@ public class HttpAsyncRequestExecutor implements NHttpClientEventHandler {
             this.responseState = state;
         }
 
+        /**
+         * Returns requests awaiting a response in pipelining mode.
+         */
+        public Queue<HttpRequest> getRequestQueue() {
+            return this.requestQueue;
+        }
+
         public HttpRequest getRequest() {
             return this.request;
         }
@@ -426,12 +512,34 @@ public class HttpAsyncRequestExecutor implements NHttpClientEventHandler {
             this.timeout = timeout;
         }
 
+        /**
+         * Returns the exchange handler the pipelining mode has been resolved for.
+         */
+        public HttpAsyncClientExchangeHandler getHandler() {
+            return this.handler;
+        }
+
+        public void setHandler(final HttpAsyncClientExchangeHandler handler) {
+            this.handler = handler;
+        }
+
+        public boolean isPipelined() {
+            return this.pipelined;
+        }
+
+        public void setPipelined(final boolean pipelined) {
+            this.pipelined = pipelined;
+        }
+
         public void reset() {
             this.responseState = MessageState.READY;
             this.requestState = MessageState.READY;
             this.response = null;
             this.request = null;
             this.timeout = 0;
+            this.handler = null;
+            this.pipelined = false;
+            this.requestQueue.clear();
         }
 
         public boolean isValid() {
@@ -451,6 +559,10 @@ public class HttpAsyncRequestExecutor implements NHttpClientEventHandler {
             if (this.request != null) {
                 buf.append(this.request.getRequestLine());
             }
+            if (!this.requestQueue.isEmpty()) {
+                buf.append("; pipelined: ");
+                buf.append(this.requestQueue.size());
+            }
             buf.append("; response state: ");
             buf.append(this.responseState);
             buf.append("; response: ");
@@ -28,6 +28,7 @@ package org.apache.http.nio.protocol;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.List;
 import java.util.concurrent.Future;
 
 import org.apache.http.ConnectionClosedException;
@@ -126,6 +127,37 @@ public class HttpAsyncRequester {
         return handler.getFuture();
     }
 
+    /**
+     * Initiates asynchronous pipelined HTTP request execution.
+     *
+     * @param <T> the result type of request execution.
+     * @param requestProducers list of request producers.
+     * @param responseConsumers list of response consumers.
+     * @param conn underlying HTTP connection.
+     * @param context HTTP context
+     * @param callback future callback.
+     * @return future representing pending completion of the operation.
+     *
+     * @see PipeliningClientExchangeHandler
+     * @since 4.3
+     */
+    public <T> Future<List<T>> executePipelined(
+            final List<? extends HttpAsyncRequestProducer> requestProducers,
+            final List<? extends HttpAsyncResponseConsumer<T>> responseConsumers,
+            final NHttpClientConnection conn,
+            final HttpContext context,
+            final FutureCallback<List<T>> callback) {
+        Args.notEmpty(requestProducers, "Request producer list");
+        Args.notEmpty(responseConsumers, "Response consumer list");
+        Args.notNull(conn, "HTTP connection");
+        Args.notNull(context, "HTTP context");
+        final PipeliningClientExchangeHandler<T> handler = new PipeliningClientExchangeHandler<T>(
+                requestProducers, responseConsumers, callback, context, conn,
+                this.httppocessor, this.connReuseStrategy);
+        initExection(handler, conn);
+        return handler.getFuture();
+    }
+
     private void initExection(
             final HttpAsyncClientExchangeHandler handler, final NHttpClientConnection conn) {
         conn.getContext().setAttribute(HttpAsyncRequestExecutor.HTTP_HANDLER, handler);
@@ -280,6 +312,41 @@ public class HttpAsyncRequester {
         return execute(requestProducer, responseConsumer, connPool, new BasicHttpContext());
     }
 
+    /**
+     * Initiates asynchronous pipelined HTTP request execution over a connection
+     * leased from the pool.
+     *
+     * @param <T> the result type of request execution.
+     * @param <E> the connection pool entry type.
+     * @param target target host.
+     * @param requestProducers list of request producers.
+     * @param responseConsumers list of response consumers.
+     * @param connPool pool of persistent reusable connections.
+     * @param context HTTP context
+     * @param callback future callback.
+     * @return future representing pending completion of the operation.
+     *
+     * @see PipeliningClientExchangeHandler
+     * @since 4.3
+     */
+    public <T, E extends PoolEntry<HttpHost, NHttpClientConnection>> Future<List<T>> executePipelined(
+            final HttpHost target,
+            final List<? extends HttpAsyncRequestProducer> requestProducers,
+            final List<? extends HttpAsyncResponseConsumer<T>> responseConsumers,
+            final ConnPool<HttpHost, E> connPool,
+            final HttpContext context,
+            final FutureCallback<List<T>> callback) {
+        Args.notNull(target, "HTTP target");
+        Args.notEmpty(requestProducers, "Request producer list");
+        Args.notEmpty(responseConsumers, "Response consumer list");
+        Args.notNull(connPool, "HTTP connection pool");
+        Args.notNull(context, "HTTP context");
+        final BasicFuture<List<T>> future = new BasicFuture<List<T>>(callback);
+        connPool.lease(target, null, new ConnPipelinedRequestCallback<T, E>(
+                future, requestProducers, responseConsumers, connPool, context));
+        return future;
+    }
+
     class ConnRequestCallback<T, E extends PoolEntry<HttpHost, NHttpClientConnection>> implements FutureCallback<E> {
 
         private final BasicFuture<T> requestFuture;
@@ -354,6 +421,89 @@ public class HttpAsyncRequester {
 
     }
 
+    class ConnPipelinedRequestCallback<T, E extends PoolEntry<HttpHost, NHttpClientConnection>>
+                                               implements FutureCallback<E> {
+
+        private final BasicFuture<List<T>> requestFuture;
+        private final List<? extends HttpAsyncRequestProducer> requestProducers;
+        private final List<? extends HttpAsyncResponseConsumer<T>> responseConsumers;
+        private final ConnPool<HttpHost, E> connPool;
+        private final HttpContext context;
+
+        ConnPipelinedRequestCallback(
+                final BasicFuture<List<T>> requestFuture,
+                final List<? extends HttpAsyncRequestProducer> requestProducers,
+                final List<? extends HttpAsyncResponseConsumer<T>> responseConsumers,
+                final ConnPool<HttpHost, E> connPool,
+                final HttpContext context) {
+            super();
+            this.requestFuture = requestFuture;
+            this.requestProducers = requestProducers;
+            this.responseConsumers = responseConsumers;
+            this.connPool = connPool;
+            this.context = context;
+        }
+
+        public void completed(final E result) {
+            if (this.requestFuture.isDone()) {
+                this.connPool.release(result, true);
+                return;
+            }
+            final NHttpClientConnection conn = result.getConnection();
+            final PipeliningClientExchangeHandler<T> handler = new PipeliningClientExchangeHandler<T>(
+                    this.requestProducers, this.responseConsumers,
+                    new RequestExecutionCallback<List<T>, E>(this.requestFuture, result, this.connPool),
+                    this.context, conn, httppocessor, connReuseStrategy);
+            initExection(handler, conn);
+        }
+
+        public void failed(final Exception ex) {
+            try {
+                try {
+                    for (final HttpAsyncResponseConsumer<T> responseConsumer: this.responseConsumers) {
+                        responseConsumer.failed(ex);
+                    }
+                } finally {
+                    releaseResources();
+                }
+            } finally {
+                this.requestFuture.failed(ex);
+            }
+        }
+
+        public void cancelled() {
+            try {
+                try {
+                    for (final HttpAsyncResponseConsumer<T> responseConsumer: this.responseConsumers) {
+                        responseConsumer.cancel();
+                    }
+                } finally {
+                    releaseResources();
+                }
+            } finally {
+                this.requestFuture.cancel(true);
+            }
+        }
+
+        public void releaseResources() {
+            for (final HttpAsyncRequestProducer requestProducer: this.requestProducers) {
+                try {
+                    requestProducer.close();
+                } catch (final IOException ioex) {
+                    log(ioex);
+                }
+            }
+            for (final HttpAsyncResponseConsumer<T> responseConsumer: this.responseConsumers) {
+                try {
+                    responseConsumer.close();
+                } catch (final IOException ioex) {
+                    log(ioex);
+                }
+            }
+        }
+
+    }
+
     class RequestExecutionCallback<T, E extends PoolEntry<HttpHost, NHttpClientConnection>>
                                                implements FutureCallback<T> {
 
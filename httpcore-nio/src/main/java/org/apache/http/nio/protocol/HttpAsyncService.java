@@ -30,6 +30,9 @@ package org.apache.http.nio.protocol;
 import java.io.Closeable;
 import java.io.IOException;
 import java.net.SocketTimeoutException;
+import java.util.LinkedList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.apache.http.ConnectionReuseStrategy;
 import org.apache.http.HttpConnection;
@@ -44,7 +47,8 @@ import org.apache.http.HttpVersion;
 import org.apache.http.MethodNotSupportedException;
 import org.apache.http.ProtocolException;
 import org.apache.http.UnsupportedHttpVersionException;
-import org.apache.http.annotation.Immutable;
+import org.apache.http.annotation.GuardedBy;
+import org.apache.http.annotation.ThreadSafe;
 import org.apache.http.concurrent.Cancellable;
 import org.apache.http.entity.ContentType;
 import org.apache.http.impl.DefaultConnectionReuseStrategy;
@@ -91,11 +95,21 @@ import org.apache.http.util.Asserts;
  * request handling to another service or a worker thread. HTTP response can
  * be submitted as a later a later point of time once response content becomes
  * available.
+ * <p/>
+ * Request handlers annotated with {@link Blocking} can be executed by an
+ * {@link Executor} instead of the I/O dispatch thread. Such handlers are
+ * invoked on a worker thread once the request content has been fully
+ * consumed and commit the response through {@link HttpAsyncExchange}.
+ * The executor is expected to be bounded and to reject tasks when
+ * saturated. Rejected requests are queued up internally and input
+ * on their connections is suspended until a worker becomes available.
+ * As no further requests are read from suspended connections the queue
+ * cannot hold more than one request per connection.
  *
  * @since 4.2
  */
 @SuppressWarnings("deprecation")
-@Immutable // provided injected dependencies are immutable
+@ThreadSafe // provided injected dependencies are immutable or thread-safe
 public class HttpAsyncService implements NHttpServerEventHandler {
 
     static final String HTTP_EXCHANGE_STATE = "http.nio.http-exchange-state";
@@ -105,6 +119,14 @@ public class HttpAsyncService implements NHttpServerEventHandler {
     private final HttpResponseFactory responseFactory;
     private final HttpAsyncRequestHandlerMapper handlerMapper;
     private final HttpAsyncExpectationVerifier expectationVerifier;
+    private final Executor executor;
+
+    @GuardedBy("backlog")
+    private final LinkedList<RequestHandlerTask> backlog;
+    @GuardedBy("backlog")
+    private int tasksInProgress;
+    @GuardedBy("backlog")
+    private long tasksCompleted;
 
     /**
      * Creates new instance of <tt>HttpAsyncServerProtocolHandler</tt>.
@@ -179,6 +201,31 @@ public class HttpAsyncService implements NHttpServerEventHandler {
             final HttpResponseFactory responseFactory,
             final HttpAsyncRequestHandlerMapper handlerMapper,
             final HttpAsyncExpectationVerifier expectationVerifier) {
+        this(httpProcessor, connStrategy, responseFactory, handlerMapper, expectationVerifier, null);
+    }
+
+    /**
+     * Creates new instance of <tt>HttpAsyncServerProtocolHandler</tt>.
+     *
+     * @param httpProcessor HTTP protocol processor.
+     * @param connStrategy Connection re-use strategy. If <code>null</code>
+     *   {@link DefaultConnectionReuseStrategy#INSTANCE} will be used.
+     * @param responseFactory HTTP response factory. If <code>null</code>
+     *   {@link DefaultHttpResponseFactory#INSTANCE} will be used.
+     * @param handlerMapper Request handler mapper.
+     * @param expectationVerifier Request expectation verifier. May be <code>null</code>.
+     * @param executor Executor for request handlers annotated with {@link Blocking}.
+     *   If <code>null</code> all handlers will be executed by the I/O dispatch thread.
+     *
+     * @since 4.3
+     */
+    public HttpAsyncService(
+            final HttpProcessor httpProcessor,
+            final ConnectionReuseStrategy connStrategy,
+            final HttpResponseFactory responseFactory,
+            final HttpAsyncRequestHandlerMapper handlerMapper,
+            final HttpAsyncExpectationVerifier expectationVerifier,
+            final Executor executor) {
         super();
         this.httpProcessor = Args.notNull(httpProcessor, "HTTP processor");
         this.connStrategy = connStrategy != null ? connStrategy :
@@ -187,6 +234,8 @@ public class HttpAsyncService implements NHttpServerEventHandler {
             DefaultHttpResponseFactory.INSTANCE;
         this.handlerMapper = handlerMapper;
         this.expectationVerifier = expectationVerifier;
+        this.executor = executor;
+        this.backlog = new LinkedList<RequestHandlerTask>();
     }
 
     /**
@@ -553,6 +602,19 @@ public class HttpAsyncService implements NHttpServerEventHandler {
             final HttpResponse response = this.responseFactory.newHttpResponse(HttpVersion.HTTP_1_1,
                     HttpStatus.SC_OK, context);
             final Exchange httpexchange = new Exchange(request, response, state, conn);
+            if (this.executor != null && isBlocking(handler)) {
+                final RequestHandlerTask task = new RequestHandlerTask(
+                        handler, result, httpexchange, state, conn);
+                synchronized (this.backlog) {
+                    if (!this.backlog.isEmpty()) {
+                        // Requests are already waiting for a worker
+                        task.suspend();
+                    }
+                    this.backlog.add(task);
+                }
+                dispatchBacklog();
+                return;
+            }
             try {
                 handler.handle(result, httpexchange, context);
             } catch (final HttpException ex) {
@@ -563,6 +625,67 @@ public class HttpAsyncService implements NHttpServerEventHandler {
         }
     }
 
+    private static boolean isBlocking(final HttpAsyncRequestHandler<?> handler) {
+        return handler.getClass().isAnnotationPresent(Blocking.class);
+    }
+
+    /**
+     * Hands queued up requests over to the executor in the order they have
+     * been received. Tasks are taken off the queue before being passed to
+     * the executor and the executor is never invoked while holding the queue
+     * lock, so executors that run tasks on the calling thread are supported.
+     * If the executor rejects a task while other tasks are still in progress
+     * the task is put back at the head of the queue and input on its
+     * connection is suspended until one of the tasks in progress completes.
+     * Input on connections of tasks queued up behind it is suspended as well
+     * and resumed as their tasks get handed over to the executor.
+     * If no task is in progress there is nothing to wait for and the request
+     * is rejected with status 503.
+     */
+    private void dispatchBacklog() {
+        for (;;) {
+            final RequestHandlerTask task;
+            final long completed;
+            synchronized (this.backlog) {
+                if (this.backlog.isEmpty()) {
+                    return;
+                }
+                task = this.backlog.removeFirst();
+                completed = this.tasksCompleted;
+                this.tasksInProgress++;
+            }
+            try {
+                this.executor.execute(task);
+                synchronized (this.backlog) {
+                    task.resume();
+                }
+                continue;
+            } catch (final RejectedExecutionException ex) {
+                synchronized (this.backlog) {
+                    this.tasksInProgress--;
+                    if (this.tasksInProgress > 0 || this.tasksCompleted != completed) {
+                        this.backlog.addFirst(task);
+                        if (this.tasksCompleted != completed) {
+                            // A worker has become available in the meantime
+                            continue;
+                        }
+                        task.suspend();
+                        return;
+                    }
+                }
+            }
+            task.reject();
+        }
+    }
+
+    private void taskCompleted() {
+        synchronized (this.backlog) {
+            this.tasksInProgress--;
+            this.tasksCompleted++;
+        }
+        dispatchBacklog();
+    }
+
     private void commitFinalResponse(
             final NHttpServerConnection conn,
             final State state) throws IOException, HttpException {
@@ -815,6 +938,80 @@ public class HttpAsyncService implements NHttpServerEventHandler {
 
     }
 
+    class RequestHandlerTask implements Runnable {
+
+        private final HttpAsyncRequestHandler<Object> handler;
+        private final Object result;
+        private final Exchange httpexchange;
+        private final State state;
+        private final NHttpServerConnection conn;
+
+        private boolean suspended;
+
+        RequestHandlerTask(
+                final HttpAsyncRequestHandler<Object> handler,
+                final Object result,
+                final Exchange httpexchange,
+                final State state,
+                final NHttpServerConnection conn) {
+            super();
+            this.handler = handler;
+            this.result = result;
+            this.httpexchange = httpexchange;
+            this.state = state;
+            this.conn = conn;
+        }
+
+        void suspend() {
+            if (!this.suspended) {
+                this.suspended = true;
+                this.conn.suspendInput();
+            }
+        }
+
+        void resume() {
+            if (this.suspended) {
+                this.suspended = false;
+                this.conn.requestInput();
+            }
+        }
+
+        void reject() {
+            final HttpContext context = this.state.getContext();
+            final HttpResponse response = responseFactory.newHttpResponse(HttpVersion.HTTP_1_1,
+                    HttpStatus.SC_SERVICE_UNAVAILABLE, context);
+            submitError(new ErrorResponseProducer(response,
+                    new NStringEntity("Service unavailable", ContentType.DEFAULT_TEXT), false));
+        }
+
+        private void submitError(final HttpAsyncResponseProducer responseProducer) {
+            synchronized (this.httpexchange) {
+                if (!this.httpexchange.isCompleted()) {
+                    this.httpexchange.submitResponse(responseProducer);
+                }
+            }
+        }
+
+        public void run() {
+            try {
+                if (!this.state.isTerminated()) {
+                    this.handler.handle(this.result, this.httpexchange, this.state.getContext());
+                }
+            } catch (final HttpException ex) {
+                submitError(handleException(ex, this.state.getContext()));
+            } catch (final IOException ex) {
+                log(ex);
+                shutdownConnection(this.conn);
+            } catch (final RuntimeException ex) {
+                log(ex);
+                submitError(handleException(ex, this.state.getContext()));
+            } finally {
+                taskCompleted();
+            }
+        }
+
+    }
+
     /**
      * Adaptor class to transition from HttpAsyncRequestHandlerResolver to HttpAsyncRequestHandlerMapper.
      */
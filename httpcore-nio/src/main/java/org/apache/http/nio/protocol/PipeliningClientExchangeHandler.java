@@ -0,0 +1,323 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.http.nio.protocol;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+
+import org.apache.http.ConnectionClosedException;
+import org.apache.http.ConnectionReuseStrategy;
+import org.apache.http.HttpException;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.concurrent.BasicFuture;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.impl.DefaultConnectionReuseStrategy;
+import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.ContentEncoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.NHttpClientConnection;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpCoreContext;
+import org.apache.http.protocol.HttpProcessor;
+import org.apache.http.util.Args;
+import org.apache.http.util.Asserts;
+
+/**
+ * Pipelining implementation of {@link HttpAsyncClientExchangeHandler} that
+ * executes a series of HTTP request / response exchanges over a single
+ * connection without waiting for a response before sending the next request.
+ * Responses are matched to requests in the order requests were sent.
+ * <p/>
+ * Please note that HTTP/1.1 pipelining should only be used with idempotent
+ * requests. Should the opposite endpoint close the connection before all
+ * responses have been received the exchange fails with
+ * {@link ConnectionClosedException}. Responses that have been completely
+ * received by then remain available through
+ * {@link #getCompletedResults()}; the remaining requests can be safely
+ * re-tried over a new connection.
+ *
+ * @param <T> the result type of request execution.
+ * @since 4.3
+ */
+@Pipelined
+public class PipeliningClientExchangeHandler<T> implements HttpAsyncClientExchangeHandler {
+
+    private final Queue<HttpAsyncRequestProducer> requestProducerQueue;
+    private final Queue<HttpAsyncResponseConsumer<T>> responseConsumerQueue;
+    private final Queue<HttpRequest> requestQueue;
+    private final List<HttpAsyncRequestProducer> requestProducers;
+    private final List<HttpAsyncResponseConsumer<T>> responseConsumers;
+    private final List<T> results;
+    private final BasicFuture<List<T>> future;
+    private final HttpContext localContext;
+    private final NHttpClientConnection conn;
+    private final HttpProcessor httppocessor;
+    private final ConnectionReuseStrategy connReuseStrategy;
+
+    private volatile HttpAsyncRequestProducer requestProducer;
+    private volatile HttpAsyncResponseConsumer<T> responseConsumer;
+    private volatile boolean keepAlive;
+
+    /**
+     * Creates new instance of <code>PipeliningClientExchangeHandler</code>.
+     *
+     * @param requestProducers the request producers.
+     * @param responseConsumers the response consumers. Must be of the same
+     *   size as the list of request producers.
+     * @param callback the future callback invoked when the operation is completed.
+     * @param localContext the local execution context.
+     * @param conn the actual connection.
+     * @param httppocessor the HTTP protocol processor.
+     * @param connReuseStrategy the connection re-use strategy.
+     */
+    public PipeliningClientExchangeHandler(
+            final List<? extends HttpAsyncRequestProducer> requestProducers,
+            final List<? extends HttpAsyncResponseConsumer<T>> responseConsumers,
+            final FutureCallback<List<T>> callback,
+            final HttpContext localContext,
+            final NHttpClientConnection conn,
+            final HttpProcessor httppocessor,
+            final ConnectionReuseStrategy connReuseStrategy) {
+        super();
+        Args.notEmpty(requestProducers, "Request producer list");
+        Args.notEmpty(responseConsumers, "Response consumer list");
+        Args.check(requestProducers.size() == responseConsumers.size(),
+                "Number of request producers does not match that of response consumers");
+        this.requestProducers = new ArrayList<HttpAsyncRequestProducer>(requestProducers);
+        this.responseConsumers = new ArrayList<HttpAsyncResponseConsumer<T>>(responseConsumers);
+        this.requestProducerQueue = new ConcurrentLinkedQueue<HttpAsyncRequestProducer>(
+                this.requestProducers);
+        this.responseConsumerQueue = new ConcurrentLinkedQueue<HttpAsyncResponseConsumer<T>>(
+                this.responseConsumers);
+        this.requestQueue = new ConcurrentLinkedQueue<HttpRequest>();
+        this.results = new ArrayList<T>(requestProducers.size());
+        this.future = new BasicFuture<List<T>>(callback);
+        this.localContext = Args.notNull(localContext, "HTTP context");
+        this.conn = Args.notNull(conn, "HTTP connection");
+        this.httppocessor = Args.notNull(httppocessor, "HTTP processor");
+        this.connReuseStrategy = connReuseStrategy != null ? connReuseStrategy :
+            DefaultConnectionReuseStrategy.INSTANCE;
+    }
+
+    /**
+     * Creates new instance of <code>PipeliningClientExchangeHandler</code>.
+     *
+     * @param requestProducers the request producers.
+     * @param responseConsumers the response consumers.
+     * @param localContext the local execution context.
+     * @param conn the actual connection.
+     * @param httppocessor the HTTP protocol processor.
+     */
+    public PipeliningClientExchangeHandler(
+            final List<? extends HttpAsyncRequestProducer> requestProducers,
+            final List<? extends HttpAsyncResponseConsumer<T>> responseConsumers,
+            final HttpContext localContext,
+            final NHttpClientConnection conn,
+            final HttpProcessor httppocessor) {
+        this(requestProducers, responseConsumers, null, localContext, conn, httppocessor, null);
+    }
+
+    public Future<List<T>> getFuture() {
+        return this.future;
+    }
+
+    /**
+     * Returns results of the exchanges completed so far in the order
+     * the requests were sent.
+     */
+    public List<T> getCompletedResults() {
+        synchronized (this.results) {
+            return new ArrayList<T>(this.results);
+        }
+    }
+
+    private void releaseResources() {
+        for (final HttpAsyncRequestProducer producer: this.requestProducers) {
+            try {
+                producer.close();
+            } catch (final IOException ex) {
+            }
+        }
+        for (final HttpAsyncResponseConsumer<T> consumer: this.responseConsumers) {
+            try {
+                consumer.close();
+            } catch (final IOException ex) {
+            }
+        }
+    }
+
+    public void close() throws IOException {
+        releaseResources();
+        if (!this.future.isDone()) {
+            this.future.cancel();
+        }
+    }
+
+    public HttpRequest generateRequest() throws IOException, HttpException {
+        Asserts.check(this.requestProducer == null, "Inconsistent state: request producer is not null");
+        final HttpAsyncRequestProducer producer = this.requestProducerQueue.poll();
+        if (producer == null) {
+            return null;
+        }
+        this.requestProducer = producer;
+        final HttpRequest request = producer.generateRequest();
+        this.localContext.setAttribute(HttpCoreContext.HTTP_REQUEST, request);
+        this.localContext.setAttribute(HttpCoreContext.HTTP_CONNECTION, this.conn);
+        this.httppocessor.process(request, this.localContext);
+        this.requestQueue.add(request);
+        return request;
+    }
+
+    public void produceContent(
+            final ContentEncoder encoder, final IOControl ioctrl) throws IOException {
+        final HttpAsyncRequestProducer producer = this.requestProducer;
+        Asserts.check(producer != null, "Inconsistent state: request producer is null");
+        producer.produceContent(encoder, ioctrl);
+    }
+
+    public void requestCompleted() {
+        final HttpAsyncRequestProducer producer = this.requestProducer;
+        Asserts.check(producer != null, "Inconsistent state: request producer is null");
+        this.requestProducer = null;
+        producer.requestCompleted(this.localContext);
+    }
+
+    public void responseReceived(final HttpResponse response) throws IOException, HttpException {
+        Asserts.check(this.responseConsumer == null, "Inconsistent state: response consumer is not null");
+        final HttpAsyncResponseConsumer<T> consumer = this.responseConsumerQueue.poll();
+        Asserts.check(consumer != null, "Inconsistent state: response consumer queue is empty");
+        this.responseConsumer = consumer;
+        final HttpRequest request = this.requestQueue.poll();
+        Asserts.check(request != null, "Inconsistent state: request queue is empty");
+        this.localContext.setAttribute(HttpCoreContext.HTTP_REQUEST, request);
+        this.localContext.setAttribute(HttpCoreContext.HTTP_RESPONSE, response);
+        this.httppocessor.process(response, this.localContext);
+        consumer.responseReceived(response);
+        this.keepAlive = this.connReuseStrategy.keepAlive(response, this.localContext);
+    }
+
+    public void consumeContent(
+            final ContentDecoder decoder, final IOControl ioctrl) throws IOException {
+        final HttpAsyncResponseConsumer<T> consumer = this.responseConsumer;
+        Asserts.check(consumer != null, "Inconsistent state: response consumer is null");
+        consumer.consumeContent(decoder, ioctrl);
+    }
+
+    public void responseCompleted() throws IOException {
+        final HttpAsyncResponseConsumer<T> consumer = this.responseConsumer;
+        Asserts.check(consumer != null, "Inconsistent state: response consumer is null");
+        try {
+            this.responseConsumer = null;
+            consumer.responseCompleted(this.localContext);
+            final T result = consumer.getResult();
+            final Exception ex = consumer.getException();
+            if (ex != null) {
+                failed(ex);
+                return;
+            }
+            final List<T> completed;
+            synchronized (this.results) {
+                this.results.add(result);
+                completed = this.responseConsumerQueue.isEmpty() ?
+                        new ArrayList<T>(this.results) : null;
+            }
+            if (!this.keepAlive) {
+                this.conn.close();
+            }
+            if (completed != null) {
+                this.future.completed(completed);
+                releaseResources();
+            } else if (!this.keepAlive) {
+                // The opposite endpoint is not going to process
+                // the remaining pipelined requests
+                failed(new ConnectionClosedException("Connection closed"));
+            }
+        } catch (final RuntimeException ex) {
+            failed(ex);
+            throw ex;
+        }
+    }
+
+    public void inputTerminated() {
+        failed(new ConnectionClosedException("Connection closed"));
+    }
+
+    public void failed(final Exception ex) {
+        if (this.future.isDone()) {
+            return;
+        }
+        try {
+            final HttpAsyncRequestProducer producer = this.requestProducer;
+            if (producer != null) {
+                producer.failed(ex);
+            }
+            final HttpAsyncResponseConsumer<T> consumer = this.responseConsumer;
+            if (consumer != null) {
+                consumer.failed(ex);
+            }
+            for (final HttpAsyncResponseConsumer<T> pending: this.responseConsumerQueue) {
+                pending.failed(ex);
+            }
+        } finally {
+            try {
+                this.future.failed(ex);
+            } finally {
+                releaseResources();
+            }
+        }
+    }
+
+    public boolean cancel() {
+        try {
+            boolean cancelled = false;
+            final HttpAsyncResponseConsumer<T> consumer = this.responseConsumer;
+            if (consumer != null) {
+                cancelled = consumer.cancel();
+            }
+            for (final HttpAsyncResponseConsumer<T> pending: this.responseConsumerQueue) {
+                cancelled = pending.cancel() || cancelled;
+            }
+            this.future.cancel();
+            releaseResources();
+            return cancelled;
+        } catch (final RuntimeException ex) {
+            failed(ex);
+            throw ex;
+        }
+    }
+
+    public boolean isDone() {
+        return this.future.isDone();
+    }
+
+}
@@ -34,6 +34,8 @@ import java.net.SocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.ByteChannel;
 import java.nio.channels.SelectionKey;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLEngine;
@@ -43,11 +45,14 @@ import javax.net.ssl.SSLEngineResult.Status;
 import javax.net.ssl.SSLException;
 import javax.net.ssl.SSLSession;
 
+import org.apache.http.HttpHost;
 import org.apache.http.annotation.ThreadSafe;
 import org.apache.http.nio.reactor.EventMask;
 import org.apache.http.nio.reactor.IOSession;
 import org.apache.http.nio.reactor.SessionBufferStatus;
 import org.apache.http.nio.reactor.SocketAccessor;
+import org.apache.http.nio.util.ByteBufferAllocator;
+import org.apache.http.nio.util.PooledByteBufferAllocator;
 import org.apache.http.util.Args;
 import org.apache.http.util.Asserts;
 
@@ -65,6 +70,26 @@ import org.apache.http.util.Asserts;
  *      iosession, SSLMode.CLIENT, sslcontext, null);
  *  iosession.setAttribute(SSLIOSession.SESSION_KEY, sslsession);
  * </pre>
+ * <p/>
+ * If the session is created with a {@link PooledByteBufferAllocator} its
+ * network and application buffers are acquired lazily and returned to the pool
+ * whenever they are drained, so that idle TLS connections do not pin
+ * packet-sized buffers.
+ * <p/>
+ * If the session is created with a delegated task {@link Executor},
+ * long-running tasks of the SSL engine (such as key exchange computations)
+ * are executed by that executor instead of the I/O dispatch thread. While
+ * a task is running the session stops listening for I/O events. Once
+ * the task completes the session resumes the handshake.
+ * <p/>
+ * Session buffers and the data path ({@link #isAppInputReady()},
+ * {@link #inboundTransport()}, {@link #outboundTransport()} and the read and
+ * write operations of {@link #channel()}) are confined to the I/O dispatch
+ * thread that owns the session and require no locking. Operations that may
+ * be invoked by other threads, such as event mask updates, {@link #close()}
+ * and {@link #shutdown()}, are synchronized. They rely on volatile state
+ * published by the I/O dispatch thread and never access session buffers,
+ * which may be returned to the buffer pool at any time.
  *
  * @since 4.2
  */
@@ -80,20 +105,28 @@ public class SSLIOSession implements IOSession, SessionBufferStatus, SocketAcces
     private final IOSession session;
     private final SSLMode defaultMode;
     private final SSLEngine sslEngine;
-    private final ByteBuffer inEncrypted;
-    private final ByteBuffer outEncrypted;
-    private final ByteBuffer inPlain;
-    private final ByteBuffer outPlain;
+    private final PooledByteBufferAllocator pool;
+    private final int netBuffersize;
+    private final int appBuffersize;
+    private ByteBuffer inEncrypted;
+    private ByteBuffer outEncrypted;
+    private ByteBuffer inPlain;
+    private ByteBuffer outPlain;
     private final InternalByteChannel channel;
     private final SSLSetupHandler handler;
+    private final Executor taskExecutor;
 
-    private int appEventMask;
-    private SessionBufferStatus appBufferStatus;
+    private volatile int appEventMask;
+    private volatile SessionBufferStatus appBufferStatus;
 
-    private boolean endOfStream;
+    private volatile boolean endOfStream;
+    private volatile boolean outboundPending;
     private volatile int status;
     private volatile boolean initialized;
 
+    private volatile boolean taskPending;
+    private volatile SSLException taskException;
+
     /**
      * Creates new instance of <tt>SSLIOSession</tt> class.
      *
@@ -107,6 +140,84 @@ public class SSLIOSession implements IOSession, SessionBufferStatus, SocketAcces
             final SSLMode defaultMode,
             final SSLContext sslContext,
             final SSLSetupHandler handler) {
+        this(session, defaultMode, sslContext, handler, null);
+    }
+
+    /**
+     * Creates new instance of <tt>SSLIOSession</tt> class.
+     *
+     * @param session I/O session to be decorated with the TLS/SSL capabilities.
+     * @param defaultMode default mode (client or server)
+     * @param sslContext SSL context to use for this I/O session.
+     * @param handler optional SSL setup handler. May be <code>null</code>.
+     * @param allocator optional allocator of session buffers. If it is
+     *   a {@link PooledByteBufferAllocator} idle buffers are returned to
+     *   the pool. May be <code>null</code>.
+     *
+     * @since 4.3
+     */
+    public SSLIOSession(
+            final IOSession session,
+            final SSLMode defaultMode,
+            final SSLContext sslContext,
+            final SSLSetupHandler handler,
+            final ByteBufferAllocator allocator) {
+        this(session, defaultMode, sslContext, handler, allocator, null);
+    }
+
+    /**
+     * Creates new instance of <tt>SSLIOSession</tt> class.
+     *
+     * @param session I/O session to be decorated with the TLS/SSL capabilities.
+     * @param defaultMode default mode (client or server)
+     * @param sslContext SSL context to use for this I/O session.
+     * @param handler optional SSL setup handler. May be <code>null</code>.
+     * @param allocator optional allocator of session buffers. If it is
+     *   a {@link PooledByteBufferAllocator} idle buffers are returned to
+     *   the pool. May be <code>null</code>.
+     * @param taskExecutor optional executor of SSL engine delegated tasks.
+     *   If <code>null</code> delegated tasks are executed by the I/O
+     *   dispatch thread.
+     *
+     * @since 4.3
+     */
+    public SSLIOSession(
+            final IOSession session,
+            final SSLMode defaultMode,
+            final SSLContext sslContext,
+            final SSLSetupHandler handler,
+            final ByteBufferAllocator allocator,
+            final Executor taskExecutor) {
+        this(session, defaultMode, null, sslContext, handler, allocator, taskExecutor);
+    }
+
+    /**
+     * Creates new instance of <tt>SSLIOSession</tt> class.
+     *
+     * @param session I/O session to be decorated with the TLS/SSL capabilities.
+     * @param defaultMode default mode (client or server)
+     * @param host original host (applicable in client mode only). If given
+     *   its name and port are used as a peer hint, which enables resumption
+     *   of cached SSL sessions. May be <code>null</code>.
+     * @param sslContext SSL context to use for this I/O session.
+     * @param handler optional SSL setup handler. May be <code>null</code>.
+     * @param allocator optional allocator of session buffers. If it is
+     *   a {@link PooledByteBufferAllocator} idle buffers are returned to
+     *   the pool. May be <code>null</code>.
+     * @param taskExecutor optional executor of SSL engine delegated tasks.
+     *   If <code>null</code> delegated tasks are executed by the I/O
+     *   dispatch thread.
+     *
+     * @since 4.3
+     */
+    public SSLIOSession(
+            final IOSession session,
+            final SSLMode defaultMode,
+            final HttpHost host,
+            final SSLContext sslContext,
+            final SSLSetupHandler handler,
+            final ByteBufferAllocator allocator,
+            final Executor taskExecutor) {
         super();
         Args.notNull(session, "IO session");
         Args.notNull(sslContext, "SSL context");
@@ -115,12 +226,17 @@ public class SSLIOSession implements IOSession, SessionBufferStatus, SocketAcces
         this.appEventMask = session.getEventMask();
         this.channel = new InternalByteChannel();
         this.handler = handler;
+        this.taskExecutor = taskExecutor;
 
         // Override the status buffer interface
         this.session.setBufferStatus(this);
 
         final SocketAddress address = session.getRemoteAddress();
-        if (address instanceof InetSocketAddress) {
+        if (host != null) {
+            final int port = host.getPort() >= 0 ? host.getPort() :
+                (address instanceof InetSocketAddress ? ((InetSocketAddress) address).getPort() : -1);
+            this.sslEngine = sslContext.createSSLEngine(host.getHostName(), port);
+        } else if (address instanceof InetSocketAddress) {
             final String hostname = ((InetSocketAddress) address).getHostName();
             final int port = ((InetSocketAddress) address).getPort();
             this.sslEngine = sslContext.createSSLEngine(hostname, port);
@@ -128,15 +244,79 @@ public class SSLIOSession implements IOSession, SessionBufferStatus, SocketAcces
             this.sslEngine = sslContext.createSSLEngine();
         }
 
-        // Allocate buffers for network (encrypted) data
-        final int netBuffersize = this.sslEngine.getSession().getPacketBufferSize();
-        this.inEncrypted = ByteBuffer.allocate(netBuffersize);
-        this.outEncrypted = ByteBuffer.allocate(netBuffersize);
+        this.netBuffersize = this.sslEngine.getSession().getPacketBufferSize();
+        this.appBuffersize = this.sslEngine.getSession().getApplicationBufferSize();
+        this.pool = allocator instanceof PooledByteBufferAllocator ?
+                (PooledByteBufferAllocator) allocator : null;
+        if (this.pool == null) {
+            // Allocate buffers for network (encrypted) data
+            this.inEncrypted = allocate(allocator, this.netBuffersize);
+            this.outEncrypted = allocate(allocator, this.netBuffersize);
+            // Allocate buffers for application (unencrypted) data
+            this.inPlain = allocate(allocator, this.appBuffersize);
+            this.outPlain = allocate(allocator, this.appBuffersize);
+        }
+    }
+
+    private static ByteBuffer allocate(final ByteBufferAllocator allocator, final int size) {
+        return allocator != null ? allocator.allocate(size) : ByteBuffer.allocate(size);
+    }
+
+    private ByteBuffer inEncrypted() {
+        if (this.inEncrypted == null) {
+            this.inEncrypted = this.pool.allocate(this.netBuffersize);
+        }
+        return this.inEncrypted;
+    }
+
+    private ByteBuffer outEncrypted() {
+        if (this.outEncrypted == null) {
+            this.outEncrypted = this.pool.allocate(this.netBuffersize);
+        }
+        return this.outEncrypted;
+    }
+
+    private ByteBuffer inPlain() {
+        if (this.inPlain == null) {
+            this.inPlain = this.pool.allocate(this.appBuffersize);
+        }
+        return this.inPlain;
+    }
+
+    private ByteBuffer outPlain() {
+        if (this.outPlain == null) {
+            this.outPlain = this.pool.allocate(this.appBuffersize);
+        }
+        return this.outPlain;
+    }
 
-        // Allocate buffers for application (unencrypted) data
-        final int appBuffersize = this.sslEngine.getSession().getApplicationBufferSize();
-        this.inPlain = ByteBuffer.allocate(appBuffersize);
-        this.outPlain = ByteBuffer.allocate(appBuffersize);
+    private static int position(final ByteBuffer buffer) {
+        return buffer != null ? buffer.position() : 0;
+    }
+
+    private ByteBuffer release(final ByteBuffer buffer) {
+        if (buffer != null && buffer.position() == 0) {
+            this.pool.release(buffer);
+            return null;
+        }
+        return buffer;
+    }
+
+    /**
+     * Returns drained buffers to the pool unless a handshake is in progress.
+     */
+    private void releaseIdleBuffers() {
+        if (this.pool == null) {
+            return;
+        }
+        if (this.status != CLOSED
+                && this.sslEngine.getHandshakeStatus() != HandshakeStatus.NOT_HANDSHAKING) {
+            return;
+        }
+        this.inEncrypted = release(this.inEncrypted);
+        this.outEncrypted = release(this.outEncrypted);
+        this.inPlain = release(this.inPlain);
+        this.outPlain = release(this.outPlain);
     }
 
     protected SSLSetupHandler getSSLSetupHandler() {
@@ -204,7 +384,7 @@ public class SSLIOSession implements IOSession, SessionBufferStatus, SocketAcces
     //
     // sun.security.pkcs11.wrapper.PKCS11Exception is re-thrown as
     // plain RuntimeException in sun.security.ssl.Handshaker#checkThrown
-    private SSLException convert(final RuntimeException ex) throws SSLException {
+    private SSLException convert(final RuntimeException ex) {
         Throwable cause = ex.getCause();
         if (cause == null) {
             cause = ex;
@@ -212,11 +392,19 @@ public class SSLIOSession implements IOSession, SessionBufferStatus, SocketAcces
         return new SSLException(cause);
     }
 
-    private SSLEngineResult doWrap(final ByteBuffer src, final ByteBuffer dst) throws SSLException {
+    /**
+     * Encrypts data into the outbound buffer and publishes whether encrypted
+     * data is pending, so that {@link #updateEventMask()} never has to touch
+     * the buffer when invoked by a thread other than the I/O dispatcher.
+     */
+    private SSLEngineResult doWrap(final ByteBuffer src) throws SSLException {
+        final ByteBuffer dst = outEncrypted();
         try {
             return this.sslEngine.wrap(src, dst);
         } catch (final RuntimeException ex) {
             throw convert(ex);
+        } finally {
+            this.outboundPending = dst.position() > 0;
         }
     }
 
@@ -239,7 +427,63 @@ public class SSLIOSession implements IOSession, SessionBufferStatus, SocketAcces
         }
     }
 
+    private void runDelegatedTasks() {
+        SSLException failure = null;
+        try {
+            Runnable r;
+            while ((r = this.sslEngine.getDelegatedTask()) != null) {
+                r.run();
+            }
+        } catch (final RuntimeException ex) {
+            failure = convert(ex);
+        }
+        delegatedTasksCompleted(failure);
+    }
+
+    private synchronized void delegatedTasksCompleted(final SSLException ex) {
+        this.taskException = ex;
+        this.taskPending = false;
+        updateEventMask();
+        // Resume the handshake on the I/O dispatch thread
+        if (this.status != CLOSED) {
+            this.session.setEvent(EventMask.WRITE);
+        }
+    }
+
+    /**
+     * Hands delegated tasks over to the task executor.
+     *
+     * @return <code>true</code> if the tasks are being executed
+     *   asynchronously, <code>false</code> if they have been executed
+     *   by the calling thread.
+     */
+    private boolean scheduleDelegatedTasks() throws SSLException {
+        if (this.taskPending) {
+            return true;
+        }
+        this.taskPending = true;
+        try {
+            this.taskExecutor.execute(new Runnable() {
+
+                public void run() {
+                    runDelegatedTasks();
+                }
+
+            });
+            return true;
+        } catch (final RejectedExecutionException ex) {
+            this.taskPending = false;
+            doRunTask();
+            return false;
+        }
+    }
+
     private void doHandshake() throws SSLException {
+        if (this.taskException != null) {
+            final SSLException ex = this.taskException;
+            this.taskException = null;
+            throw ex;
+        }
         boolean handshaking = true;
 
         SSLEngineResult result = null;
@@ -247,8 +491,8 @@ public class SSLIOSession implements IOSession, SessionBufferStatus, SocketAcces
             switch (this.sslEngine.getHandshakeStatus()) {
             case NEED_WRAP:
                 // Generate outgoing handshake data
-                this.outPlain.flip();
-                result = doWrap(this.outPlain, this.outEncrypted);
+                outPlain().flip();
+                result = doWrap(this.outPlain);
                 this.outPlain.compact();
                 if (result.getStatus() != Status.OK) {
                     handshaking = false;
@@ -256,15 +500,21 @@ public class SSLIOSession implements IOSession, SessionBufferStatus, SocketAcces
                 break;
             case NEED_UNWRAP:
                 // Process incoming handshake data
-                this.inEncrypted.flip();
-                result = doUnwrap(this.inEncrypted, this.inPlain);
+                inEncrypted().flip();
+                result = doUnwrap(this.inEncrypted, inPlain());
                 this.inEncrypted.compact();
                 if (result.getStatus() != Status.OK) {
                     handshaking = false;
                 }
                 break;
             case NEED_TASK:
-                doRunTask();
+                if (this.taskExecutor != null) {
+                    if (scheduleDelegatedTasks()) {
+                        handshaking = false;
+                    }
+                } else {
+                    doRunTask();
+                }
                 break;
             case NOT_HANDSHAKING:
                 handshaking = false;
@@ -284,7 +534,7 @@ public class SSLIOSession implements IOSession, SessionBufferStatus, SocketAcces
         }
     }
 
-    private void updateEventMask() {
+    private synchronized void updateEventMask() {
         // Graceful session termination
         if (this.status == CLOSING && this.sslEngine.isOutboundDone()
                 && (this.endOfStream || this.sslEngine.isInboundDone())) {
@@ -313,13 +563,17 @@ public class SSLIOSession implements IOSession, SessionBufferStatus, SocketAcces
             newMask = this.appEventMask;
             break;
         case NEED_TASK:
+            if (this.taskPending) {
+                // Park the session until the delegated tasks complete
+                newMask = 0;
+            }
             break;
         case FINISHED:
             break;
         }
 
         // Do we have encrypted data ready to be sent?
-        if (this.outEncrypted.position() > 0) {
+        if (this.outboundPending) {
             newMask = newMask | EventMask.WRITE;
         }
 
@@ -330,9 +584,13 @@ public class SSLIOSession implements IOSession, SessionBufferStatus, SocketAcces
     }
 
     private int sendEncryptedData() throws IOException {
+        if (position(this.outEncrypted) == 0) {
+            return 0;
+        }
         this.outEncrypted.flip();
         final int bytesWritten = this.session.channel().write(this.outEncrypted);
         this.outEncrypted.compact();
+        this.outboundPending = this.outEncrypted.position() > 0;
         return bytesWritten;
     }
 
@@ -340,14 +598,14 @@ public class SSLIOSession implements IOSession, SessionBufferStatus, SocketAcces
         if (this.endOfStream) {
             return -1;
         }
-        return this.session.channel().read(this.inEncrypted);
+        return this.session.channel().read(inEncrypted());
     }
 
     private boolean decryptData() throws SSLException {
         boolean decrypted = false;
-        while (this.inEncrypted.position() > 0) {
+        while (position(this.inEncrypted) > 0) {
             this.inEncrypted.flip();
-            final SSLEngineResult result = doUnwrap(this.inEncrypted, this.inPlain);
+            final SSLEngineResult result = doUnwrap(this.inEncrypted, inPlain());
             this.inEncrypted.compact();
             if (result.getStatus() == Status.OK) {
                 decrypted = true;
@@ -370,7 +628,7 @@ public class SSLIOSession implements IOSession, SessionBufferStatus, SocketAcces
      *
      * @throws IOException in case of an I/O error.
      */
-    public synchronized boolean isAppInputReady() throws IOException {
+    public boolean isAppInputReady() throws IOException {
         final int bytesRead = receiveEncryptedData();
         if (bytesRead == -1) {
             this.endOfStream = true;
@@ -382,7 +640,7 @@ public class SSLIOSession implements IOSession, SessionBufferStatus, SocketAcces
         }
         // Some decrypted data is available or at the end of stream
         return (this.appEventMask & SelectionKey.OP_READ) > 0
-            && (this.inPlain.position() > 0
+            && (position(this.inPlain) > 0
                     || (this.appBufferStatus != null && this.appBufferStatus.hasBufferedInput())
                     || (this.endOfStream && this.status == ACTIVE));
     }
@@ -393,7 +651,7 @@ public class SSLIOSession implements IOSession, SessionBufferStatus, SocketAcces
      *
      * @throws IOException - not thrown currently
      */
-    public synchronized boolean isAppOutputReady() throws IOException {
+    public boolean isAppOutputReady() throws IOException {
         return (this.appEventMask & SelectionKey.OP_WRITE) > 0
             && this.status == ACTIVE
             && this.sslEngine.getHandshakeStatus() == HandshakeStatus.NOT_HANDSHAKING;
@@ -404,8 +662,9 @@ public class SSLIOSession implements IOSession, SessionBufferStatus, SocketAcces
      *
      * @throws IOException - not thrown currently
      */
-    public synchronized void inboundTransport() throws IOException {
+    public void inboundTransport() throws IOException {
         updateEventMask();
+        releaseIdleBuffers();
     }
 
     /**
@@ -413,38 +672,39 @@ public class SSLIOSession implements IOSession, SessionBufferStatus, SocketAcces
      *
      * @throws IOException in case of an I/O error.
      */
-    public synchronized void outboundTransport() throws IOException {
+    public void outboundTransport() throws IOException {
         sendEncryptedData();
         doHandshake();
         updateEventMask();
+        releaseIdleBuffers();
     }
 
     /**
      * Returns whether the session will produce any more inbound data.
      */
-    public synchronized boolean isInboundDone() {
+    public boolean isInboundDone() {
         return this.sslEngine.isInboundDone();
     }
 
     /**
      * Returns whether the session will accept any more outbound data.
      */
-    public synchronized boolean isOutboundDone() {
+    public boolean isOutboundDone() {
         return this.sslEngine.isOutboundDone();
     }
 
-    private synchronized int writePlain(final ByteBuffer src) throws SSLException {
+    private int writePlain(final ByteBuffer src) throws SSLException {
         Args.notNull(src, "Byte buffer");
         if (this.status != ACTIVE) {
             return -1;
         }
-        if (this.outPlain.position() > 0) {
+        if (position(this.outPlain) > 0) {
             this.outPlain.flip();
-            doWrap(this.outPlain, this.outEncrypted);
+            doWrap(this.outPlain);
             this.outPlain.compact();
         }
-        if (this.outPlain.position() == 0) {
-            final SSLEngineResult result = doWrap(src, this.outEncrypted);
+        if (position(this.outPlain) == 0) {
+            final SSLEngineResult result = doWrap(src);
             if (result.getStatus() == Status.CLOSED) {
                 this.status = CLOSED;
             }
@@ -454,9 +714,9 @@ public class SSLIOSession implements IOSession, SessionBufferStatus, SocketAcces
         }
     }
 
-    private synchronized int readPlain(final ByteBuffer dst) {
+    private int readPlain(final ByteBuffer dst) {
         Args.notNull(dst, "Byte buffer");
-        if (this.inPlain.position() > 0) {
+        if (position(this.inPlain) > 0) {
             this.inPlain.flip();
             final int n = Math.min(this.inPlain.remaining(), dst.remaining());
             for (int i = 0; i < n; i++) {
@@ -510,7 +770,7 @@ public class SSLIOSession implements IOSession, SessionBufferStatus, SocketAcces
         return this.session.getRemoteAddress();
     }
 
-    public synchronized int getEventMask() {
+    public int getEventMask() {
         return this.appEventMask;
     }
 
@@ -537,19 +797,19 @@ public class SSLIOSession implements IOSession, SessionBufferStatus, SocketAcces
         this.session.setSocketTimeout(timeout);
     }
 
-    public synchronized boolean hasBufferedInput() {
+    public boolean hasBufferedInput() {
         return (this.appBufferStatus != null && this.appBufferStatus.hasBufferedInput())
-            || this.inEncrypted.position() > 0
-            || this.inPlain.position() > 0;
+            || position(this.inEncrypted) > 0
+            || position(this.inPlain) > 0;
     }
 
-    public synchronized boolean hasBufferedOutput() {
+    public boolean hasBufferedOutput() {
         return (this.appBufferStatus != null && this.appBufferStatus.hasBufferedOutput())
-            || this.outEncrypted.position() > 0
-            || this.outPlain.position() > 0;
+            || this.outboundPending
+            || position(this.outPlain) > 0;
     }
 
-    public synchronized void setBufferStatus(final SessionBufferStatus status) {
+    public void setBufferStatus(final SessionBufferStatus status) {
         this.appBufferStatus = status;
     }
 
@@ -604,13 +864,13 @@ public class SSLIOSession implements IOSession, SessionBufferStatus, SocketAcces
             buffer.append("][EOF][");
         }
         buffer.append("][");
-        buffer.append(this.inEncrypted.position());
+        buffer.append(position(this.inEncrypted));
         buffer.append("][");
-        buffer.append(this.inPlain.position());
+        buffer.append(position(this.inPlain));
         buffer.append("][");
-        buffer.append(this.outEncrypted.position());
+        buffer.append(position(this.outEncrypted));
         buffer.append("][");
-        buffer.append(this.outPlain.position());
+        buffer.append(position(this.outPlain));
         buffer.append("]");
         return buffer.toString();
     }
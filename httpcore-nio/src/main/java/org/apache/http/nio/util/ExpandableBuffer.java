@@ -50,6 +50,7 @@ public class ExpandableBuffer implements BufferInfo, org.apache.http.nio.util.Bu
     public final static int OUTPUT_MODE = 1;
 
     private final ByteBufferAllocator allocator;
+    private final int buffersize;
 
     private int mode;
     protected ByteBuffer buffer = null;
@@ -64,6 +65,7 @@ public class ExpandableBuffer implements BufferInfo, org.apache.http.nio.util.Bu
         super();
         Args.notNull(allocator, "ByteBuffer allocator");
         this.allocator = allocator;
+        this.buffersize = buffersize;
         this.buffer = allocator.allocate(buffersize);
         this.mode = INPUT_MODE;
     }
@@ -85,6 +87,9 @@ public class ExpandableBuffer implements BufferInfo, org.apache.http.nio.util.Bu
      * Sets output mode. The buffer can now be read from.
      */
     protected void setOutputMode() {
+        if (this.buffer == null) {
+            reacquire();
+        }
         if (this.mode != OUTPUT_MODE) {
             this.buffer.flip();
             this.mode = OUTPUT_MODE;
@@ -95,6 +100,9 @@ public class ExpandableBuffer implements BufferInfo, org.apache.http.nio.util.Bu
      * Sets input mode. The buffer can now be written into.
      */
     protected void setInputMode() {
+        if (this.buffer == null) {
+            reacquire();
+        }
         if (this.mode != INPUT_MODE) {
             if (this.buffer.hasRemaining()) {
                 this.buffer.compact();
@@ -110,12 +118,53 @@ public class ExpandableBuffer implements BufferInfo, org.apache.http.nio.util.Bu
         this.buffer = allocator.allocate(capacity);
         oldbuffer.flip();
         this.buffer.put(oldbuffer);
+        if (this.allocator instanceof PooledByteBufferAllocator) {
+            ((PooledByteBufferAllocator) this.allocator).release(oldbuffer);
+        }
+    }
+
+    private void reacquire() {
+        this.buffer = this.allocator.allocate(this.buffersize);
+        this.mode = INPUT_MODE;
+    }
+
+    /**
+     * Returns the underlying {@link ByteBuffer} to the allocator, discarding
+     * any content of this buffer, if the allocator is
+     * a {@link PooledByteBufferAllocator}. This method has no effect otherwise.
+     * <p>
+     * The buffer remains usable after having been released. A new
+     * {@link ByteBuffer} of the initial size gets allocated on demand.
+     *
+     * @since 4.3
+     */
+    public void release() {
+        if (this.buffer != null && this.allocator instanceof PooledByteBufferAllocator) {
+            final ByteBuffer oldbuffer = this.buffer;
+            this.buffer = null;
+            this.mode = INPUT_MODE;
+            ((PooledByteBufferAllocator) this.allocator).release(oldbuffer);
+        }
+    }
+
+    /**
+     * Determines whether the underlying {@link ByteBuffer} has been released.
+     *
+     * @see #release()
+     *
+     * @since 4.3
+     */
+    public boolean isReleased() {
+        return this.buffer == null;
     }
 
     /**
      * Expands buffer's capacity.
      */
     protected void expand() {
+        if (this.buffer == null) {
+            reacquire();
+        }
         int newcapacity = (this.buffer.capacity() + 1) << 1;
         if (newcapacity < 0) {
             newcapacity = Integer.MAX_VALUE;
@@ -129,6 +178,9 @@ public class ExpandableBuffer implements BufferInfo, org.apache.http.nio.util.Bu
      * @param requiredCapacity
      */
     protected void ensureCapacity(final int requiredCapacity) {
+        if (this.buffer == null) {
+            reacquire();
+        }
         if (requiredCapacity > this.buffer.capacity()) {
             expandCapacity(requiredCapacity);
         }
@@ -140,7 +192,7 @@ public class ExpandableBuffer implements BufferInfo, org.apache.http.nio.util.Bu
      * @return total capacity.
      */
     public int capacity() {
-        return this.buffer.capacity();
+        return this.buffer != null ? this.buffer.capacity() : 0;
     }
 
     /**
@@ -150,6 +202,9 @@ public class ExpandableBuffer implements BufferInfo, org.apache.http.nio.util.Bu
      *   <code>false</code> otherwise.
      */
     public boolean hasData() {
+        if (this.buffer == null) {
+            return false;
+        }
         setOutputMode();
         return this.buffer.hasRemaining();
     }
@@ -160,6 +215,9 @@ public class ExpandableBuffer implements BufferInfo, org.apache.http.nio.util.Bu
      * @return buffer length.
      */
     public int length() {
+        if (this.buffer == null) {
+            return 0;
+        }
         setOutputMode();
         return this.buffer.remaining();
     }
@@ -178,7 +236,9 @@ public class ExpandableBuffer implements BufferInfo, org.apache.http.nio.util.Bu
      * Clears buffer.
      */
     protected void clear() {
-        this.buffer.clear();
+        if (this.buffer != null) {
+            this.buffer.clear();
+        }
         this.mode = INPUT_MODE;
     }
 
@@ -192,12 +252,16 @@ public class ExpandableBuffer implements BufferInfo, org.apache.http.nio.util.Bu
         } else {
             sb.append("out");
         }
-        sb.append(" pos=");
-        sb.append(this.buffer.position());
-        sb.append(" lim=");
-        sb.append(this.buffer.limit());
-        sb.append(" cap=");
-        sb.append(this.buffer.capacity());
+        if (this.buffer != null) {
+            sb.append(" pos=");
+            sb.append(this.buffer.position());
+            sb.append(" lim=");
+            sb.append(this.buffer.limit());
+            sb.append(" cap=");
+            sb.append(this.buffer.capacity());
+        } else {
+            sb.append(" released");
+        }
         sb.append("]");
         return sb.toString();
     }
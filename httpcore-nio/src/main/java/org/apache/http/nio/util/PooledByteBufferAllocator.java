@@ -0,0 +1,287 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.http.nio.util;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.http.annotation.ThreadSafe;
+import org.apache.http.util.Args;
+
+/**
+ * {@link ByteBufferAllocator} implementation that recycles {@link ByteBuffer}
+ * instances returned to it with {@link #release(ByteBuffer)}.
+ * <p/>
+ * Buffers are pooled in power-of-two size classes ranging from the minimal to
+ * the maximal pooled size. Requests are rounded up to the nearest size class;
+ * buffers returned by {@link #allocate(int)} may have a greater capacity than
+ * requested. Requests larger than the maximal pooled size are served with
+ * unpooled buffers. Released buffers are kept in a small cache local to
+ * the releasing thread first, which is usually an I/O dispatch thread, and
+ * in an arena shared by all threads otherwise. The total number of bytes
+ * retained by the pool is bounded. Please note that buffers cached by
+ * a thread that terminates are left to the garbage collector but remain
+ * accounted for as retained.
+ * <p/>
+ * {@link ExpandableBuffer} and its subclasses return their buffers to
+ * the allocator when expanding and when released explicitly, for instance
+ * once the connection they belong to has been closed.
+ *
+ * @since 4.3
+ */
+@ThreadSafe
+public class PooledByteBufferAllocator implements ByteBufferAllocator {
+
+    public static final int DEFAULT_MIN_SIZE = 1024;
+    public static final int DEFAULT_MAX_SIZE = 64 * 1024;
+    public static final long DEFAULT_MAX_RETAINED = 64 * 1024 * 1024;
+    public static final int DEFAULT_THREAD_CACHE_SIZE = 16;
+
+    private final boolean direct;
+    private final int minShift;
+    private final int maxSize;
+    private final long maxRetained;
+    private final int threadCacheSize;
+    private final ConcurrentLinkedQueue<ByteBuffer>[] arenas;
+    private final ThreadLocal<ThreadCache> threadCache;
+
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final AtomicLong retained;
+
+    /**
+     * Creates new pooled allocator.
+     *
+     * @param direct if <code>true</code> direct buffers will be allocated,
+     *   heap buffers otherwise.
+     * @param minSize the minimal pooled buffer size. Will be rounded up to a power of two.
+     * @param maxSize the maximal pooled buffer size. Will be rounded up to a power of two.
+     * @param maxRetained the maximal total number of bytes retained by the pool.
+     * @param threadCacheSize the maximal number of buffers per size class
+     *   to be cached locally by each thread.
+     */
+    public PooledByteBufferAllocator(
+            final boolean direct,
+            final int minSize,
+            final int maxSize,
+            final long maxRetained,
+            final int threadCacheSize) {
+        super();
+        Args.positive(minSize, "Min size");
+        Args.check(maxSize >= minSize, "Max size may not be less than min size");
+        Args.notNegative(maxRetained, "Max retained bytes");
+        Args.notNegative(threadCacheSize, "Thread cache size");
+        this.direct = direct;
+        this.minShift = shift(minSize);
+        final int maxShift = shift(maxSize);
+        this.maxSize = 1 << maxShift;
+        this.maxRetained = maxRetained;
+        this.threadCacheSize = threadCacheSize;
+        final int classCount = maxShift - this.minShift + 1;
+        @SuppressWarnings("unchecked")
+        final ConcurrentLinkedQueue<ByteBuffer>[] queues =
+            (ConcurrentLinkedQueue<ByteBuffer>[]) new ConcurrentLinkedQueue<?>[classCount];
+        for (int i = 0; i < classCount; i++) {
+            queues[i] = new ConcurrentLinkedQueue<ByteBuffer>();
+        }
+        this.arenas = queues;
+        this.threadCache = new ThreadLocal<ThreadCache>() {
+
+            @Override
+            protected ThreadCache initialValue() {
+                return new ThreadCache(arenas.length, PooledByteBufferAllocator.this.threadCacheSize);
+            }
+
+        };
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+        this.retained = new AtomicLong();
+    }
+
+    /**
+     * Creates new pooled allocator with default settings.
+     *
+     * @param direct if <code>true</code> direct buffers will be allocated,
+     *   heap buffers otherwise.
+     */
+    public PooledByteBufferAllocator(final boolean direct) {
+        this(direct, DEFAULT_MIN_SIZE, DEFAULT_MAX_SIZE, DEFAULT_MAX_RETAINED, DEFAULT_THREAD_CACHE_SIZE);
+    }
+
+    private static int shift(final int size) {
+        int shift = 0;
+        while (shift < 30 && (1 << shift) < size) {
+            shift++;
+        }
+        return shift;
+    }
+
+    private int sizeClass(final int size) {
+        if (size > this.maxSize) {
+            return -1;
+        }
+        final int shift = shift(size);
+        return shift > this.minShift ? shift - this.minShift : 0;
+    }
+
+    private ByteBuffer newBuffer(final int capacity) {
+        return this.direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    public ByteBuffer allocate(final int size) {
+        Args.notNegative(size, "Buffer size");
+        final int idx = sizeClass(size);
+        if (idx < 0) {
+            this.misses.incrementAndGet();
+            return newBuffer(size);
+        }
+        ByteBuffer buffer = null;
+        if (this.threadCacheSize > 0) {
+            buffer = this.threadCache.get().poll(idx);
+        }
+        if (buffer == null) {
+            buffer = this.arenas[idx].poll();
+        }
+        if (buffer != null) {
+            this.retained.addAndGet(-buffer.capacity());
+            this.hits.incrementAndGet();
+            buffer.clear();
+            return buffer;
+        }
+        this.misses.incrementAndGet();
+        return newBuffer(1 << (idx + this.minShift));
+    }
+
+    /**
+     * Returns the buffer to the pool. The buffer must not be used by
+     * the caller afterwards. Buffers that have not been allocated by this
+     * allocator are discarded.
+     *
+     * @param buffer the buffer to be recycled.
+     */
+    public void release(final ByteBuffer buffer) {
+        if (buffer == null || buffer.isDirect() != this.direct || buffer.isReadOnly()) {
+            return;
+        }
+        final int capacity = buffer.capacity();
+        final int idx = sizeClass(capacity);
+        if (idx < 0 || capacity != 1 << (idx + this.minShift)) {
+            return;
+        }
+        if (this.retained.addAndGet(capacity) > this.maxRetained) {
+            this.retained.addAndGet(-capacity);
+            return;
+        }
+        buffer.clear();
+        if (this.threadCacheSize > 0 && this.threadCache.get().offer(idx, buffer)) {
+            return;
+        }
+        this.arenas[idx].add(buffer);
+    }
+
+    /**
+     * Returns the number of allocation requests served with a recycled buffer.
+     */
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    /**
+     * Returns the number of allocation requests that required a new buffer.
+     */
+    public long getMisses() {
+        return this.misses.get();
+    }
+
+    /**
+     * Returns the ratio of allocation requests served with a recycled buffer.
+     */
+    public double getHitRate() {
+        final long hitCount = this.hits.get();
+        final long total = hitCount + this.misses.get();
+        return total > 0 ? (double) hitCount / total : 0.0;
+    }
+
+    /**
+     * Returns the total number of bytes currently retained by the pool.
+     */
+    public long getRetainedBytes() {
+        return this.retained.get();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder buffer = new StringBuilder();
+        buffer.append("[hits: ");
+        buffer.append(this.hits.get());
+        buffer.append("][misses: ");
+        buffer.append(this.misses.get());
+        buffer.append("][retained: ");
+        buffer.append(this.retained.get());
+        buffer.append("]");
+        return buffer.toString();
+    }
+
+    static class ThreadCache {
+
+        private final ByteBuffer[][] stacks;
+        private final int[] sizes;
+
+        ThreadCache(final int classCount, final int capacity) {
+            super();
+            this.stacks = new ByteBuffer[classCount][capacity];
+            this.sizes = new int[classCount];
+        }
+
+        ByteBuffer poll(final int idx) {
+            final int size = this.sizes[idx];
+            if (size == 0) {
+                return null;
+            }
+            final ByteBuffer[] stack = this.stacks[idx];
+            final ByteBuffer buffer = stack[size - 1];
+            stack[size - 1] = null;
+            this.sizes[idx] = size - 1;
+            return buffer;
+        }
+
+        boolean offer(final int idx, final ByteBuffer buffer) {
+            final int size = this.sizes[idx];
+            final ByteBuffer[] stack = this.stacks[idx];
+            if (size == stack.length) {
+                return false;
+            }
+            stack[size] = buffer;
+            this.sizes[idx] = size + 1;
+            return true;
+        }
+
+    }
+
+}
@@ -52,6 +52,7 @@ import org.apache.http.nio.NHttpServerEventHandler;
 import org.apache.http.nio.entity.HttpAsyncContentProducer;
 import org.apache.http.nio.entity.NStringEntity;
 import org.apache.http.nio.reactor.IOSession;
+import org.apache.http.nio.util.PooledByteBufferAllocator;
 import org.apache.http.nio.util.SimpleInputBuffer;
 import org.apache.http.protocol.HTTP;
 import org.junit.Assert;
@@ -588,6 +589,52 @@ public class TestDefaultNHttpServerConnection {
         Assert.assertFalse(request instanceof HttpEntityEnclosingRequest);
     }
 
+    @Test
+    public void testConsumeInputReleasesIdleBuffer() throws Exception {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator(false);
+        conn = new DefaultNHttpServerConnection(session, 1024, 1024, allocator,
+                null, null, null, null, null, null, null);
+        final ReadableByteChannelMock rchannel = new ReadableByteChannelMock(
+            new String[] {"GET / HTTP/1.1\r\n\r\n"}, Consts.ASCII);
+        final ByteChannelMock channel = new ByteChannelMock(rchannel, null);
+        Mockito.when(session.channel()).thenReturn(channel);
+        Mockito.when(session.getEventMask()).thenReturn(SelectionKey.OP_READ);
+
+        conn.consumeInput(handler);
+
+        Mockito.verify(handler, Mockito.times(1)).requestReceived(
+            Mockito.<NHttpServerConnection>any());
+        Assert.assertFalse(conn.hasBufferedInput());
+        Assert.assertTrue(conn.inbuf.isReleased());
+        Assert.assertEquals(1024, allocator.getRetainedBytes());
+    }
+
+    @Test
+    public void testProduceOutputReleasesIdleBuffer() throws Exception {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator(false);
+        conn = new DefaultNHttpServerConnection(session, 1024, 1024, allocator,
+                null, null, null, null, null, null, null);
+        final BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        final NStringEntity entity = new NStringEntity("stuff");
+        response.setEntity(entity);
+
+        final WritableByteChannelMock wchannel = new WritableByteChannelMock(64);
+        final ByteChannelMock channel = new ByteChannelMock(null, wchannel);
+        Mockito.when(session.channel()).thenReturn(channel);
+
+        conn.submitResponse(response);
+        Assert.assertFalse(conn.outbuf.isReleased());
+
+        Mockito.doAnswer(new ProduceContentAnswer(entity)).when(
+            handler).outputReady(Mockito.<NHttpServerConnection>any(), Mockito.<ContentEncoder>any());
+
+        conn.produceOutput(handler);
+
+        Assert.assertEquals("HTTP/1.1 200 OK\r\n\r\nstuff", wchannel.dump(Consts.ASCII));
+        Assert.assertFalse(conn.hasBufferedOutput());
+        Assert.assertTrue(conn.outbuf.isReleased());
+    }
+
     @Test
     public void testConsumeInputNoData() throws Exception {
         conn = new DefaultNHttpServerConnection(session, 1024);
@@ -27,13 +27,18 @@
 
 package org.apache.http.impl.nio.codecs;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 import org.apache.http.Consts;
 import org.apache.http.WritableByteChannelMock;
 import org.apache.http.impl.io.HttpTransportMetricsImpl;
 import org.apache.http.impl.nio.reactor.SessionOutputBufferImpl;
 import org.apache.http.nio.reactor.SessionOutputBuffer;
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Test;
 import org.mockito.Mockito;
@@ -43,6 +48,26 @@ import org.mockito.Mockito;
  */
 public class TestChunkEncoder {
 
+    private File tmpfile;
+
+    protected File createTempFile(final String content) throws IOException {
+        this.tmpfile = File.createTempFile("testFile", ".txt");
+        final RandomAccessFile testfile = new RandomAccessFile(this.tmpfile, "rw");
+        try {
+            testfile.write(content.getBytes("US-ASCII"));
+        } finally {
+            testfile.close();
+        }
+        return this.tmpfile;
+    }
+
+    @After
+    public void deleteTempFile() {
+        if (this.tmpfile != null && this.tmpfile.exists()) {
+            this.tmpfile.delete();
+        }
+    }
+
     @Test
     public void testBasicCoding() throws Exception {
         final WritableByteChannelMock channel = new WritableByteChannelMock(64);
@@ -228,4 +253,122 @@ public class TestChunkEncoder {
         }
     }
 
+    @Test
+    public void testCodingFromFile() throws Exception {
+        final WritableByteChannelMock channel = new WritableByteChannelMock(64);
+        final SessionOutputBuffer outbuf = new SessionOutputBufferImpl(1024, 128);
+        final HttpTransportMetricsImpl metrics = new HttpTransportMetricsImpl();
+        final ChunkEncoder encoder = new ChunkEncoder(channel, outbuf, metrics);
+
+        createTempFile("stuff;more stuff");
+
+        encoder.write(CodecTestUtils.wrap("12345"));
+        final RandomAccessFile testfile = new RandomAccessFile(this.tmpfile, "r");
+        try {
+            final FileChannel fchannel = testfile.getChannel();
+            Assert.assertEquals(16, encoder.transfer(fchannel, 0, Long.MAX_VALUE));
+            Assert.assertEquals(0, encoder.transfer(fchannel, 16, Long.MAX_VALUE));
+        } finally {
+            testfile.close();
+        }
+        encoder.complete();
+
+        outbuf.flush(channel);
+
+        final String s = channel.dump(Consts.ASCII);
+
+        Assert.assertTrue(encoder.isCompleted());
+        Assert.assertEquals("5\r\n12345\r\n10\r\nstuff;more stuff\r\n0\r\n\r\n", s);
+        // all but the last chunk have been written out by the encoder
+        Assert.assertEquals(32, metrics.getBytesTransferred());
+    }
+
+    @Test
+    public void testCodingFromFileInPortions() throws Exception {
+        final WritableByteChannelMock channel = new WritableByteChannelMock(64);
+        final SessionOutputBuffer outbuf = new SessionOutputBufferImpl(1024, 128);
+        final HttpTransportMetricsImpl metrics = new HttpTransportMetricsImpl();
+        final ChunkEncoder encoder = new ChunkEncoder(channel, outbuf, metrics);
+
+        createTempFile("stuff;more stuff");
+
+        final RandomAccessFile testfile = new RandomAccessFile(this.tmpfile, "r");
+        try {
+            final FileChannel fchannel = testfile.getChannel();
+            Assert.assertEquals(10, encoder.transfer(fchannel, 0, 10));
+            Assert.assertEquals(6, encoder.transfer(fchannel, 10, 10));
+        } finally {
+            testfile.close();
+        }
+        encoder.complete();
+
+        outbuf.flush(channel);
+
+        final String s = channel.dump(Consts.ASCII);
+
+        Assert.assertEquals("a\r\nstuff;more\r\n6\r\n stuff\r\n0\r\n\r\n", s);
+    }
+
+    @Test
+    public void testCodingFromFileChannelSaturated() throws Exception {
+        final WritableByteChannelMock channel = new WritableByteChannelMock(64, 8);
+        final SessionOutputBuffer outbuf = new SessionOutputBufferImpl(1024, 128);
+        final HttpTransportMetricsImpl metrics = new HttpTransportMetricsImpl();
+        final ChunkEncoder encoder = new ChunkEncoder(channel, outbuf, metrics);
+
+        createTempFile("stuff;more stuff");
+
+        final RandomAccessFile testfile = new RandomAccessFile(this.tmpfile, "r");
+        try {
+            final FileChannel fchannel = testfile.getChannel();
+            long pos = encoder.transfer(fchannel, 0, Long.MAX_VALUE);
+            Assert.assertTrue(pos < 16);
+            try {
+                encoder.write(CodecTestUtils.wrap("more stuff"));
+                Assert.fail("IllegalStateException should have been thrown");
+            } catch (final IllegalStateException ex) {
+                // expected: chunk data not written out yet
+            }
+            for (int i = 0; i < 10 && pos < 16; i++) {
+                channel.flush();
+                pos += encoder.transfer(fchannel, pos, Long.MAX_VALUE);
+            }
+            Assert.assertEquals(16, pos);
+        } finally {
+            testfile.close();
+        }
+        encoder.write(CodecTestUtils.wrap("12345"));
+        encoder.complete();
+
+        channel.flush();
+        outbuf.flush(channel);
+        channel.flush();
+        outbuf.flush(channel);
+        channel.flush();
+        outbuf.flush(channel);
+
+        final String s = channel.dump(Consts.ASCII);
+
+        Assert.assertEquals("10\r\nstuff;more stuff\r\n5\r\n12345\r\n0\r\n\r\n", s);
+    }
+
+    @Test(expected=IllegalStateException.class)
+    public void testCodingFromFileIncompleteChunk() throws Exception {
+        final WritableByteChannelMock channel = new WritableByteChannelMock(64, 8);
+        final SessionOutputBuffer outbuf = new SessionOutputBufferImpl(1024, 128);
+        final HttpTransportMetricsImpl metrics = new HttpTransportMetricsImpl();
+        final ChunkEncoder encoder = new ChunkEncoder(channel, outbuf, metrics);
+
+        createTempFile("stuff;more stuff");
+
+        final RandomAccessFile testfile = new RandomAccessFile(this.tmpfile, "r");
+        try {
+            final FileChannel fchannel = testfile.getChannel();
+            encoder.transfer(fchannel, 0, Long.MAX_VALUE);
+        } finally {
+            testfile.close();
+        }
+        encoder.complete();
+    }
+
 }
@@ -40,6 +40,8 @@ import org.apache.http.HttpResponse;
 import org.apache.http.HttpVersion;
 import org.apache.http.config.MessageConstraints;
 import org.apache.http.impl.nio.reactor.SessionInputBufferImpl;
+import org.apache.http.message.LazyHeader;
+import org.apache.http.message.LazyLineParser;
 import org.apache.http.nio.NHttpMessageParser;
 import org.apache.http.nio.reactor.SessionInputBuffer;
 import org.junit.Assert;
@@ -372,4 +374,53 @@ public class TestHttpMessageParser {
         }
     }
 
+    @Test
+    public void testLazyHeaderParsing() throws Exception {
+        final SessionInputBuffer inbuf = new SessionInputBufferImpl(1024, 128, Consts.ASCII);
+        final NHttpMessageParser<HttpRequest> requestParser = new DefaultHttpRequestParser(
+                inbuf, LazyLineParser.INSTANCE, null, MessageConstraints.DEFAULT);
+
+        requestParser.fillBuffer(newChannel("GET /whatever HTTP/1.1\r\nSome header: stuff\r\n"));
+        HttpRequest request = requestParser.parse();
+        Assert.assertNull(request);
+        requestParser.fillBuffer(newChannel("   more\r\n"));
+        request = requestParser.parse();
+        Assert.assertNull(request);
+        requestParser.fillBuffer(newChannel("\tstuff\r\nHost: loc"));
+        request = requestParser.parse();
+        Assert.assertNull(request);
+        requestParser.fillBuffer(newChannel("alhost\r\n\r\n"));
+        request = requestParser.parse();
+
+        Assert.assertNotNull(request);
+        Assert.assertEquals("/whatever", request.getRequestLine().getUri());
+        Assert.assertEquals(2, request.getAllHeaders().length);
+        Assert.assertTrue(request.getFirstHeader("Host") instanceof LazyHeader);
+        Assert.assertEquals("stuff more stuff", request.getFirstHeader("Some header").getValue());
+        Assert.assertEquals("localhost", request.getFirstHeader("Host").getValue());
+
+        requestParser.reset();
+        requestParser.fillBuffer(newChannel("GET / HTTP/1.1\r\nHost: otherhost\r\n\r\n"));
+        request = requestParser.parse();
+        Assert.assertNotNull(request);
+        Assert.assertEquals(1, request.getAllHeaders().length);
+        Assert.assertEquals("otherhost", request.getFirstHeader("Host").getValue());
+    }
+
+    @Test
+    public void testLazyHeaderParsingConstraints() throws Exception {
+        final MessageConstraints constraints = MessageConstraints.custom()
+                .setMaxHeaderCount(2).setMaxLineLength(-1).build();
+        final SessionInputBuffer inbuf = new SessionInputBufferImpl(1024, 128, Consts.ASCII);
+        final NHttpMessageParser<HttpRequest> requestParser = new DefaultHttpRequestParser(
+                inbuf, LazyLineParser.INSTANCE, null, constraints);
+        requestParser.fillBuffer(newChannel("GET /whatever HTTP/1.0\r\nHeader: one\r\n" +
+                "Header: two\r\nHeader: three\r\n\r\n"));
+        try {
+            requestParser.parse();
+            Assert.fail("IOException should have been thrown");
+        } catch (final IOException expected) {
+        }
+    }
+
 }
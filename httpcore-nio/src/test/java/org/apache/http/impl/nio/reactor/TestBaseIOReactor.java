@@ -0,0 +1,88 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.http.impl.nio.reactor;
+
+import java.nio.channels.SelectionKey;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.http.nio.reactor.IOReactorException;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class TestBaseIOReactor {
+
+    static class TimeoutCheckingIOReactor extends BaseIOReactor {
+
+        private final List<SelectionKey> checkedKeys = new ArrayList<SelectionKey>();
+
+        TimeoutCheckingIOReactor(final long selectTimeout) throws IOReactorException {
+            super(selectTimeout);
+        }
+
+        @Override
+        protected void timeoutCheck(final SelectionKey key, final long now) {
+            this.checkedKeys.add(key);
+        }
+
+    }
+
+    static class DerivedTimeoutCheckingIOReactor extends TimeoutCheckingIOReactor {
+
+        DerivedTimeoutCheckingIOReactor(final long selectTimeout) throws IOReactorException {
+            super(selectTimeout);
+        }
+
+    }
+
+    @Test
+    public void testTimeoutCheckNotInvokedByDefault() throws Exception {
+        final BaseIOReactor ioReactor = new BaseIOReactor(1);
+        final SelectionKey key = Mockito.mock(SelectionKey.class);
+        Thread.sleep(10);
+        ioReactor.validate(Collections.singleton(key));
+        Mockito.verifyZeroInteractions(key);
+        ioReactor.shutdown(0);
+    }
+
+    @Test
+    public void testOverriddenTimeoutCheckInvoked() throws Exception {
+        final TimeoutCheckingIOReactor ioReactor = new DerivedTimeoutCheckingIOReactor(1);
+        final SelectionKey key = Mockito.mock(SelectionKey.class);
+        final Set<SelectionKey> keys = Collections.singleton(key);
+        Thread.sleep(10);
+        ioReactor.validate(keys);
+        Assert.assertEquals(1, ioReactor.checkedKeys.size());
+        Assert.assertSame(key, ioReactor.checkedKeys.get(0));
+        ioReactor.shutdown(0);
+    }
+
+}
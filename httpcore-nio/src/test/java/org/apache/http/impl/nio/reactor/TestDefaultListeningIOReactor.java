@@ -30,6 +30,7 @@ package org.apache.http.impl.nio.reactor;
 import java.io.IOException;
 import java.net.BindException;
 import java.net.InetSocketAddress;
+import java.net.Socket;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
@@ -42,6 +43,7 @@ import org.apache.http.nio.protocol.UriHttpAsyncRequestHandlerMapper;
 import org.apache.http.nio.reactor.IOEventDispatch;
 import org.apache.http.nio.reactor.IOReactorExceptionHandler;
 import org.apache.http.nio.reactor.IOReactorStatus;
+import org.apache.http.nio.reactor.IOSession;
 import org.apache.http.nio.reactor.ListenerEndpoint;
 import org.apache.http.nio.reactor.ListeningIOReactor;
 import org.apache.http.protocol.HttpProcessor;
@@ -214,4 +216,74 @@ public class TestDefaultListeningIOReactor {
         Assert.assertEquals(IOReactorStatus.SHUT_DOWN, ioreactor.getStatus());
     }
 
+    @Test
+    public void testReusePortEndpoint() throws Exception {
+        final int connCount = 20;
+        final CountDownLatch connected = new CountDownLatch(connCount);
+        final IOEventDispatch eventDispatch = new IOEventDispatch() {
+
+            public void connected(final IOSession session) {
+                connected.countDown();
+            }
+
+            public void inputReady(final IOSession session) {
+                session.close();
+            }
+
+            public void outputReady(final IOSession session) {
+            }
+
+            public void timeout(final IOSession session) {
+            }
+
+            public void disconnected(final IOSession session) {
+            }
+
+        };
+        // Falls back onto the single listener socket if SO_REUSEPORT is not supported
+        final IOReactorConfig config = IOReactorConfig.custom()
+                .setIoThreadCount(2)
+                .setSoReusePort(true)
+                .build();
+        final ListeningIOReactor ioreactor = new DefaultListeningIOReactor(config);
+
+        final Thread t = new Thread(new Runnable() {
+
+            public void run() {
+                try {
+                    ioreactor.execute(eventDispatch);
+                } catch (final IOException ex) {
+                }
+            }
+
+        });
+
+        t.start();
+
+        final ListenerEndpoint endpoint = ioreactor.listen(new InetSocketAddress("localhost", 0));
+        endpoint.waitFor();
+        Assert.assertNull(endpoint.getException());
+        final int port = ((InetSocketAddress) endpoint.getAddress()).getPort();
+        Assert.assertTrue(port > 0);
+
+        final Socket[] sockets = new Socket[connCount];
+        for (int i = 0; i < sockets.length; i++) {
+            sockets[i] = new Socket("localhost", port);
+        }
+        Assert.assertTrue(connected.await(5, TimeUnit.SECONDS));
+        for (final Socket socket : sockets) {
+            socket.close();
+        }
+
+        Assert.assertEquals(1, ioreactor.getEndpoints().size());
+        endpoint.close();
+        Assert.assertTrue(endpoint.isClosed());
+        Assert.assertEquals(0, ioreactor.getEndpoints().size());
+
+        ioreactor.shutdown(1000);
+        t.join(1000);
+
+        Assert.assertEquals(IOReactorStatus.SHUT_DOWN, ioreactor.getStatus());
+    }
+
 }
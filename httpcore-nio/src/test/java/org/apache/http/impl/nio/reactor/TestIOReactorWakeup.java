@@ -0,0 +1,160 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.http.impl.nio.reactor;
+
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.nio.reactor.IOEventDispatch;
+import org.apache.http.nio.reactor.IOSession;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestIOReactorWakeup {
+
+    // Long enough for a lost wake-up to make the tests fail
+    private static final long SELECT_TIMEOUT = 60000;
+
+    static class RecordingEventDispatch implements IOEventDispatch {
+
+        private final BaseIOReactor ioReactor;
+        private final CountDownLatch connected = new CountDownLatch(1);
+        private final CountDownLatch outputReady = new CountDownLatch(1);
+
+        private volatile IOSession session;
+        private volatile boolean wokenUpByReactorThread;
+
+        RecordingEventDispatch(final BaseIOReactor ioReactor) {
+            super();
+            this.ioReactor = ioReactor;
+        }
+
+        public void connected(final IOSession session) {
+            this.session = session;
+            this.connected.countDown();
+        }
+
+        public void inputReady(final IOSession session) {
+        }
+
+        public void outputReady(final IOSession session) {
+            session.clearEvent(SelectionKey.OP_WRITE);
+            // The I/O reactor thread is not selecting and never needs a wake-up
+            this.wokenUpByReactorThread = this.ioReactor.wakeupSelector();
+            this.outputReady.countDown();
+        }
+
+        public void timeout(final IOSession session) {
+        }
+
+        public void disconnected(final IOSession session) {
+        }
+
+    }
+
+    private BaseIOReactor ioReactor;
+    private RecordingEventDispatch eventDispatch;
+    private ServerSocketChannel serverChannel;
+
+    @Before
+    public void setUp() throws Exception {
+        this.ioReactor = new BaseIOReactor(SELECT_TIMEOUT);
+        this.eventDispatch = new RecordingEventDispatch(this.ioReactor);
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.socket().bind(new InetSocketAddress("localhost", 0));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        this.serverChannel.close();
+        this.ioReactor.shutdown(1000);
+    }
+
+    private void start() {
+        final Thread reactorThread = new Thread() {
+
+            @Override
+            public void run() {
+                try {
+                    ioReactor.execute(eventDispatch);
+                } catch (final Exception ignore) {
+                }
+            }
+
+        };
+        reactorThread.setDaemon(true);
+        reactorThread.start();
+    }
+
+    private SocketChannel connect() throws Exception {
+        final SocketChannel channel = SocketChannel.open(
+                this.serverChannel.socket().getLocalSocketAddress());
+        this.serverChannel.accept();
+        return channel;
+    }
+
+    @Test
+    public void testRedundantWakeupsSuppressed() throws Exception {
+        Assert.assertTrue(this.ioReactor.wakeupSelector());
+        Assert.assertFalse(this.ioReactor.wakeupSelector());
+        Assert.assertFalse(this.ioReactor.wakeupSelector());
+    }
+
+    @Test
+    public void testAddChannelDuringSelect() throws Exception {
+        start();
+        // Give the I/O reactor a chance to block in select
+        Thread.sleep(200);
+
+        this.ioReactor.addChannel(new ChannelEntry(connect()));
+        Assert.assertTrue(this.eventDispatch.connected.await(5, TimeUnit.SECONDS));
+
+        // The pending flag has been cleared once select returned
+        Assert.assertTrue(this.ioReactor.wakeupSelector());
+    }
+
+    @Test
+    public void testSetEventDuringSelect() throws Exception {
+        start();
+        this.ioReactor.addChannel(new ChannelEntry(connect()));
+        Assert.assertTrue(this.eventDispatch.connected.await(5, TimeUnit.SECONDS));
+        // Give the I/O reactor a chance to block in select
+        Thread.sleep(200);
+
+        this.eventDispatch.session.setEvent(SelectionKey.OP_WRITE);
+        Assert.assertTrue(this.eventDispatch.outputReady.await(5, TimeUnit.SECONDS));
+        Assert.assertFalse(this.eventDispatch.wokenUpByReactorThread);
+    }
+
+}
@@ -0,0 +1,181 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.http.impl.nio.reactor;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.http.nio.reactor.IOEventDispatch;
+import org.apache.http.nio.reactor.IOSession;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class TestSelectedSelectionKeySet {
+
+    @Test
+    public void testAddAndReset() {
+        final SelectedSelectionKeySet keySet = new SelectedSelectionKeySet();
+        final SelectionKey key1 = Mockito.mock(SelectionKey.class);
+        final SelectionKey key2 = Mockito.mock(SelectionKey.class);
+        Assert.assertFalse(keySet.add(null));
+        for (int i = 0; i < 1500; i++) {
+            Assert.assertTrue(keySet.add(i % 2 == 0 ? key1 : key2));
+        }
+        Assert.assertEquals(1500, keySet.size());
+        Assert.assertSame(key1, keySet.get(0));
+        Assert.assertSame(key2, keySet.get(1499));
+        final Iterator<SelectionKey> it = keySet.iterator();
+        int count = 0;
+        while (it.hasNext()) {
+            Assert.assertNotNull(it.next());
+            count++;
+        }
+        Assert.assertEquals(1500, count);
+        keySet.reset();
+        Assert.assertEquals(0, keySet.size());
+        Assert.assertTrue(keySet.isEmpty());
+        Assert.assertFalse(keySet.iterator().hasNext());
+    }
+
+    private static long getAllocatedBytes(final Thread thread) throws Exception {
+        final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        final Method method = threadMXBean.getClass().getMethod("getThreadAllocatedBytes", Long.TYPE);
+        method.setAccessible(true);
+        return ((Long) method.invoke(threadMXBean, Long.valueOf(thread.getId()))).longValue();
+    }
+
+    static class ReadingEventDispatch implements IOEventDispatch {
+
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1024);
+        private final AtomicLong total = new AtomicLong();
+        private final CountDownLatch connected = new CountDownLatch(1);
+
+        public void connected(final IOSession session) {
+            this.connected.countDown();
+        }
+
+        public void inputReady(final IOSession session) {
+            try {
+                final int n = ((ByteChannel) session.channel()).read(this.buffer);
+                this.buffer.clear();
+                if (n > 0) {
+                    this.total.addAndGet(n);
+                } else if (n < 0) {
+                    session.close();
+                }
+            } catch (final Exception ex) {
+                session.close();
+            }
+        }
+
+        public void outputReady(final IOSession session) {
+        }
+
+        public void timeout(final IOSession session) {
+        }
+
+        public void disconnected(final IOSession session) {
+        }
+
+    }
+
+    @Test
+    public void testSelectLoopAllocationFree() throws Exception {
+        final Thread probe = Thread.currentThread();
+        try {
+            getAllocatedBytes(probe);
+        } catch (final Exception ex) {
+            Assume.assumeNoException(ex);
+        }
+        final BaseIOReactor ioReactor = new BaseIOReactor(50, false, true);
+        Assume.assumeTrue(ioReactor.isSelectedKeysOptimized());
+
+        final ReadingEventDispatch eventDispatch = new ReadingEventDispatch();
+        final Thread reactorThread = new Thread() {
+
+            @Override
+            public void run() {
+                try {
+                    ioReactor.execute(eventDispatch);
+                } catch (final Exception ignore) {
+                }
+            }
+
+        };
+        reactorThread.start();
+
+        final ServerSocketChannel serverChannel = ServerSocketChannel.open();
+        try {
+            serverChannel.socket().bind(new InetSocketAddress("localhost", 0));
+            final SocketChannel channel = SocketChannel.open(serverChannel.socket().getLocalSocketAddress());
+            final SocketChannel peer = serverChannel.accept();
+            ioReactor.addChannel(new ChannelEntry(channel));
+            Assert.assertTrue(eventDispatch.connected.await(5, TimeUnit.SECONDS));
+
+            final OutputStream outstream = peer.socket().getOutputStream();
+            long sent = 0;
+            long allocated = 0;
+            for (int round = 0; round < 2; round++) {
+                final long before = getAllocatedBytes(reactorThread);
+                for (int i = 0; i < 2000; i++) {
+                    outstream.write(i);
+                    outstream.flush();
+                    sent++;
+                    final long deadline = System.currentTimeMillis() + 5000;
+                    while (eventDispatch.total.get() < sent && System.currentTimeMillis() < deadline) {
+                        Thread.yield();
+                    }
+                    Assert.assertEquals(sent, eventDispatch.total.get());
+                }
+                allocated = getAllocatedBytes(reactorThread) - before;
+            }
+            // Allow for a few stray allocations by the JDK, but nothing proportional
+            // to the number of select loop iterations
+            Assert.assertTrue("Allocated " + allocated + " bytes", allocated < 2000 * 8);
+            peer.close();
+        } finally {
+            serverChannel.close();
+            ioReactor.shutdown(1000);
+        }
+    }
+
+}
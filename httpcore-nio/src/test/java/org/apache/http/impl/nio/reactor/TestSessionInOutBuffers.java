@@ -551,4 +551,51 @@ public class TestSessionInOutBuffers {
         Assert.assertEquals("This text contains a circumflex ? !!!\r\n", result);
     }
 
+    @Test
+    public void testReadLineAtAnyPosition() throws Exception {
+        final StringBuilder buffer = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            for (int j = 0; j < i; j++) {
+                buffer.append((char) ('a' + j % 26));
+            }
+            buffer.append(i % 2 == 0 ? "\r\n" : "\n");
+        }
+        final SessionInputBuffer inbuf = new SessionInputBufferImpl(1024, 16, null, this.allocator);
+        inbuf.fill(newChannel(buffer.toString()));
+
+        final CharArrayBuffer line = new CharArrayBuffer(64);
+        for (int i = 0; i < 40; i++) {
+            line.clear();
+            Assert.assertTrue(inbuf.readLine(line, false));
+            Assert.assertEquals(i, line.length());
+            for (int j = 0; j < i; j++) {
+                Assert.assertEquals((char) ('a' + j % 26), line.charAt(j));
+            }
+        }
+        line.clear();
+        Assert.assertFalse(inbuf.readLine(line, false));
+    }
+
+    @Test
+    public void testDecodedReadLineMixedASCII() throws Exception {
+        final String s1 = "Some plain US-ASCII content";
+        final String s2 = "Gr\u00FCezi_z\u00E4m\u00E4";
+        final String s3 = "More plain US-ASCII content";
+        final SessionInputBuffer inbuf = new SessionInputBufferImpl(1024, 16,
+                Consts.UTF_8.newDecoder(), this.allocator);
+        inbuf.fill(newChannel(s1 + "\r\n" + s2 + "\r\n" + s3 + "\r\n", "UTF-8"));
+
+        final CharArrayBuffer line = new CharArrayBuffer(64);
+        Assert.assertTrue(inbuf.readLine(line, false));
+        Assert.assertEquals(s1, line.toString());
+        line.clear();
+        Assert.assertTrue(inbuf.readLine(line, false));
+        Assert.assertEquals(s2, line.toString());
+        line.clear();
+        Assert.assertTrue(inbuf.readLine(line, false));
+        Assert.assertEquals(s3, line.toString());
+        line.clear();
+        Assert.assertFalse(inbuf.readLine(line, true));
+    }
+
 }
@@ -0,0 +1,149 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.http.impl.nio.reactor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.http.nio.reactor.IOSession;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class TestSessionTimeoutWheel {
+
+    @Test
+    public void testExpireDueSessionsOnly() {
+        final SessionTimeoutWheel wheel = new SessionTimeoutWheel(100, 8, 0);
+        final IOSession session1 = Mockito.mock(IOSession.class);
+        final IOSession session2 = Mockito.mock(IOSession.class);
+        wheel.schedule(session1, 250);
+        wheel.schedule(session2, 550);
+        Assert.assertEquals(2, wheel.size());
+
+        final List<IOSession> expired = new ArrayList<IOSession>();
+        wheel.expire(250, expired);
+        Assert.assertTrue(expired.isEmpty());
+        wheel.expire(300, expired);
+        Assert.assertEquals(1, expired.size());
+        Assert.assertSame(session1, expired.get(0));
+        Assert.assertFalse(wheel.isScheduled(session1));
+        Assert.assertTrue(wheel.isScheduled(session2));
+
+        expired.clear();
+        wheel.expire(600, expired);
+        Assert.assertEquals(1, expired.size());
+        Assert.assertSame(session2, expired.get(0));
+        Assert.assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testDeadlineBeyondWheelRotation() {
+        final SessionTimeoutWheel wheel = new SessionTimeoutWheel(100, 4, 0);
+        final IOSession session = Mockito.mock(IOSession.class);
+        wheel.schedule(session, 1050);
+
+        final List<IOSession> expired = new ArrayList<IOSession>();
+        for (long now = 0; now < 1100; now += 100) {
+            wheel.expire(now, expired);
+            Assert.assertTrue(expired.isEmpty());
+        }
+        wheel.expire(1100, expired);
+        Assert.assertEquals(1, expired.size());
+    }
+
+    @Test
+    public void testExpireAfterLongPause() {
+        final SessionTimeoutWheel wheel = new SessionTimeoutWheel(100, 4, 0);
+        final IOSession session1 = Mockito.mock(IOSession.class);
+        final IOSession session2 = Mockito.mock(IOSession.class);
+        wheel.schedule(session1, 150);
+        wheel.schedule(session2, 100000);
+
+        final List<IOSession> expired = new ArrayList<IOSession>();
+        wheel.expire(50000, expired);
+        Assert.assertEquals(1, expired.size());
+        Assert.assertSame(session1, expired.get(0));
+        expired.clear();
+        wheel.expire(100100, expired);
+        Assert.assertEquals(1, expired.size());
+        Assert.assertSame(session2, expired.get(0));
+    }
+
+    @Test
+    public void testReschedule() {
+        final SessionTimeoutWheel wheel = new SessionTimeoutWheel(100, 8, 0);
+        final IOSession session = Mockito.mock(IOSession.class);
+        wheel.schedule(session, 500);
+        wheel.scheduleIfEarlier(session, 700);
+        wheel.scheduleIfEarlier(session, 150);
+        Assert.assertEquals(1, wheel.size());
+
+        final List<IOSession> expired = new ArrayList<IOSession>();
+        wheel.expire(200, expired);
+        Assert.assertEquals(1, expired.size());
+
+        expired.clear();
+        wheel.schedule(session, 300);
+        wheel.schedule(session, 800);
+        wheel.expire(500, expired);
+        Assert.assertTrue(expired.isEmpty());
+        wheel.expire(900, expired);
+        Assert.assertEquals(1, expired.size());
+    }
+
+    @Test
+    public void testRemove() {
+        final SessionTimeoutWheel wheel = new SessionTimeoutWheel(100, 8, 0);
+        final IOSession session1 = Mockito.mock(IOSession.class);
+        final IOSession session2 = Mockito.mock(IOSession.class);
+        final IOSession session3 = Mockito.mock(IOSession.class);
+        wheel.schedule(session1, 150);
+        wheel.schedule(session2, 150);
+        wheel.schedule(session3, 150);
+        wheel.remove(session2);
+        Assert.assertFalse(wheel.isScheduled(session2));
+
+        final List<IOSession> expired = new ArrayList<IOSession>();
+        wheel.expire(200, expired);
+        Assert.assertEquals(2, expired.size());
+        Assert.assertTrue(expired.contains(session1));
+        Assert.assertTrue(expired.contains(session3));
+    }
+
+    @Test
+    public void testPastDeadlineExpiresOnNextTick() {
+        final SessionTimeoutWheel wheel = new SessionTimeoutWheel(100, 8, 1000);
+        final IOSession session = Mockito.mock(IOSession.class);
+        wheel.schedule(session, 10);
+        final List<IOSession> expired = new ArrayList<IOSession>();
+        wheel.expire(1000, expired);
+        Assert.assertEquals(1, expired.size());
+    }
+
+}
@@ -0,0 +1,153 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.http.nio.integration;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.Future;
+
+import org.apache.http.HttpException;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.config.ConnectionConfig;
+import org.apache.http.impl.nio.DefaultNHttpClientConnection;
+import org.apache.http.impl.nio.DefaultNHttpServerConnection;
+import org.apache.http.impl.nio.SSLNHttpClientConnectionFactory;
+import org.apache.http.impl.nio.pool.BasicNIOConnFactory;
+import org.apache.http.impl.pool.SSLSessionCache;
+import org.apache.http.message.BasicHttpRequest;
+import org.apache.http.nio.NHttpClientConnection;
+import org.apache.http.nio.NHttpConnectionFactory;
+import org.apache.http.nio.pool.NIOConnFactory;
+import org.apache.http.nio.protocol.BasicAsyncRequestHandler;
+import org.apache.http.nio.protocol.UriHttpAsyncRequestHandlerMapper;
+import org.apache.http.nio.reactor.ListenerEndpoint;
+import org.apache.http.nio.testserver.HttpCoreNIOTestBase;
+import org.apache.http.nio.testserver.LoggingClientConnectionFactory;
+import org.apache.http.nio.testserver.LoggingSSLServerConnectionFactory;
+import org.apache.http.nio.testserver.SSLTestContexts;
+import org.apache.http.protocol.HTTP;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpRequestHandler;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * HttpCore NIO integration tests for SSL session resumption.
+ */
+public class TestHttpsSessionResumption extends HttpCoreNIOTestBase {
+
+    private SSLSessionCache sessionCache;
+
+    @Before
+    public void setUp() throws Exception {
+        this.sessionCache = new SSLSessionCache();
+        initServer();
+        initClient();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        shutDownClient();
+        shutDownServer();
+    }
+
+    @Override
+    protected NHttpConnectionFactory<DefaultNHttpServerConnection> createServerConnectionFactory() throws Exception {
+        return new LoggingSSLServerConnectionFactory(SSLTestContexts.createServerSSLContext());
+    }
+
+    @Override
+    protected NHttpConnectionFactory<DefaultNHttpClientConnection> createClientConnectionFactory() throws Exception {
+        return new LoggingClientConnectionFactory();
+    }
+
+    @Override
+    protected NIOConnFactory<HttpHost, NHttpClientConnection> createPoolConnectionFactory()
+        throws Exception {
+        return new BasicNIOConnFactory(createClientConnectionFactory(),
+                new SSLNHttpClientConnectionFactory(SSLTestContexts.createClientSSLContext(),
+                        null, null, null, ConnectionConfig.DEFAULT, null, this.sessionCache));
+    }
+
+    private HttpHost start() throws Exception {
+        final UriHttpAsyncRequestHandlerMapper registry = new UriHttpAsyncRequestHandlerMapper();
+        registry.register("*", new BasicAsyncRequestHandler(new HttpRequestHandler() {
+
+            public void handle(
+                    final HttpRequest request,
+                    final HttpResponse response,
+                    final HttpContext context) throws HttpException, IOException {
+                response.setStatusCode(HttpStatus.SC_OK);
+            }
+
+        }));
+        this.server.start(registry);
+        this.client.start();
+
+        final ListenerEndpoint endpoint = this.server.getListenerEndpoint();
+        endpoint.waitFor();
+        final InetSocketAddress address = (InetSocketAddress) endpoint.getAddress();
+        return new HttpHost("localhost", address.getPort(), "https");
+    }
+
+    private void executeNonPersistent(final HttpHost target) throws Exception {
+        final BasicHttpRequest request = new BasicHttpRequest("GET", "/");
+        request.addHeader(HTTP.CONN_DIRECTIVE, HTTP.CONN_CLOSE);
+        final Future<HttpResponse> future = this.client.execute(target, request);
+        final HttpResponse response = future.get();
+        Assert.assertNotNull(response);
+        Assert.assertEquals(HttpStatus.SC_OK, response.getStatusLine().getStatusCode());
+    }
+
+    @Test
+    public void testSessionResumption() throws Exception {
+        final HttpHost target = start();
+        for (int i = 0; i < 3; i++) {
+            executeNonPersistent(target);
+        }
+        Assert.assertEquals(1, this.sessionCache.getMissCount());
+        Assert.assertEquals(2, this.sessionCache.getHitCount());
+        Assert.assertNotNull(this.sessionCache.getSession(target));
+    }
+
+    @Test
+    public void testSessionInvalidation() throws Exception {
+        final HttpHost target = start();
+        executeNonPersistent(target);
+        this.sessionCache.invalidate(target);
+        Assert.assertNull(this.sessionCache.getSession(target));
+        executeNonPersistent(target);
+        Assert.assertEquals(2, this.sessionCache.getMissCount());
+        Assert.assertEquals(0, this.sessionCache.getHitCount());
+    }
+
+}
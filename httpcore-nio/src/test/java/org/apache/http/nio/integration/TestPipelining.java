@@ -35,11 +35,19 @@ import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.net.InetSocketAddress;
+import java.net.ServerSocket;
 import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.http.ConnectionClosedException;
+
 import org.apache.http.HttpException;
+import org.apache.http.HttpHost;
 import org.apache.http.HttpRequest;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpResponseInterceptor;
@@ -47,13 +55,18 @@ import org.apache.http.concurrent.Cancellable;
 import org.apache.http.entity.ContentType;
 import org.apache.http.impl.nio.DefaultNHttpClientConnection;
 import org.apache.http.impl.nio.DefaultNHttpServerConnection;
+import org.apache.http.message.BasicHttpRequest;
 import org.apache.http.nio.NHttpConnectionFactory;
 import org.apache.http.nio.entity.NStringEntity;
 import org.apache.http.nio.protocol.BasicAsyncRequestConsumer;
 import org.apache.http.nio.protocol.BasicAsyncRequestHandler;
+import org.apache.http.nio.protocol.BasicAsyncRequestProducer;
+import org.apache.http.nio.protocol.BasicAsyncResponseConsumer;
 import org.apache.http.nio.protocol.HttpAsyncExchange;
 import org.apache.http.nio.protocol.HttpAsyncRequestConsumer;
 import org.apache.http.nio.protocol.HttpAsyncRequestHandler;
+import org.apache.http.nio.protocol.HttpAsyncRequestProducer;
+import org.apache.http.nio.protocol.HttpAsyncResponseConsumer;
 import org.apache.http.nio.protocol.HttpAsyncService;
 import org.apache.http.nio.protocol.UriHttpAsyncRequestHandlerMapper;
 import org.apache.http.nio.reactor.IOReactorStatus;
@@ -68,6 +81,7 @@ import org.apache.http.protocol.ImmutableHttpProcessor;
 import org.apache.http.protocol.ResponseConnControl;
 import org.apache.http.protocol.ResponseContent;
 import org.apache.http.protocol.ResponseServer;
+import org.apache.http.util.EntityUtils;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -83,6 +97,7 @@ public class TestPipelining extends HttpCoreNIOTestBase {
     @Before
     public void setUp() throws Exception {
         initServer();
+        initClient();
         this.serverHttpProc = new ImmutableHttpProcessor(new HttpResponseInterceptor[] {
                 new ResponseServer("TEST-SERVER/1.1"),
                 new ResponseContent(),
@@ -92,6 +107,7 @@ public class TestPipelining extends HttpCoreNIOTestBase {
 
     @After
     public void tearDown() throws Exception {
+        shutDownClient();
         shutDownServer();
     }
 
@@ -271,4 +287,131 @@ public class TestPipelining extends HttpCoreNIOTestBase {
         Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
     }
 
+    /**
+     * Minimal server that reads the given number of request heads before
+     * sending any response, echoing request URIs as response content.
+     */
+    static class PipelinedRequestReader extends Thread {
+
+        private final ServerSocket serversocket;
+        private final int requestCount;
+        private final int responseCount;
+        private final List<String> uris;
+
+        private volatile Exception ex;
+
+        PipelinedRequestReader(final int requestCount, final int responseCount) throws IOException {
+            super();
+            this.serversocket = new ServerSocket(0);
+            this.serversocket.setSoTimeout(5000);
+            this.requestCount = requestCount;
+            this.responseCount = responseCount;
+            this.uris = new ArrayList<String>();
+        }
+
+        public int getPort() {
+            return this.serversocket.getLocalPort();
+        }
+
+        public Exception getException() {
+            return this.ex;
+        }
+
+        @Override
+        public void run() {
+            try {
+                final Socket socket = this.serversocket.accept();
+                try {
+                    socket.setSoTimeout(5000);
+                    final BufferedReader reader = new BufferedReader(
+                            new InputStreamReader(socket.getInputStream(), "US-ASCII"));
+                    boolean head = true;
+                    while (this.uris.size() < this.requestCount) {
+                        final String line = reader.readLine();
+                        if (line == null) {
+                            throw new IOException("Unexpected end of stream");
+                        }
+                        if (head) {
+                            this.uris.add(line.split(" ")[1]);
+                            head = false;
+                        } else if (line.length() == 0) {
+                            head = true;
+                        }
+                    }
+                    while (!head) {
+                        if (reader.readLine().length() == 0) {
+                            head = true;
+                        }
+                    }
+                    final OutputStream outstream = socket.getOutputStream();
+                    for (int i = 0; i < this.responseCount; i++) {
+                        final String uri = this.uris.get(i);
+                        final String response = "HTTP/1.1 200 OK\r\n" +
+                                "Content-Length: " + uri.length() + "\r\n" +
+                                "\r\n" + uri;
+                        outstream.write(response.getBytes("US-ASCII"));
+                    }
+                    outstream.flush();
+                } finally {
+                    socket.close();
+                }
+            } catch (final Exception ex) {
+                this.ex = ex;
+            } finally {
+                try {
+                    this.serversocket.close();
+                } catch (final IOException ignore) {
+                }
+            }
+        }
+
+    }
+
+    private Future<List<HttpResponse>> executePipelined(final int port, final int n) {
+        final HttpHost target = new HttpHost("localhost", port);
+        final List<HttpAsyncRequestProducer> producers = new ArrayList<HttpAsyncRequestProducer>();
+        final List<HttpAsyncResponseConsumer<HttpResponse>> consumers =
+                new ArrayList<HttpAsyncResponseConsumer<HttpResponse>>();
+        for (int i = 0; i < n; i++) {
+            producers.add(new BasicAsyncRequestProducer(target, new BasicHttpRequest("GET", "/" + i)));
+            consumers.add(new BasicAsyncResponseConsumer());
+        }
+        return this.client.executePipelined(target, producers, consumers, null, null);
+    }
+
+    @Test
+    public void testPipelinedRequestExecution() throws Exception {
+        final PipelinedRequestReader server = new PipelinedRequestReader(3, 3);
+        server.start();
+        this.client.start();
+
+        final Future<List<HttpResponse>> future = executePipelined(server.getPort(), 3);
+        final List<HttpResponse> responses = future.get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(3, responses.size());
+        for (int i = 0; i < responses.size(); i++) {
+            final HttpResponse response = responses.get(i);
+            Assert.assertEquals(200, response.getStatusLine().getStatusCode());
+            Assert.assertEquals("/" + i, EntityUtils.toString(response.getEntity()));
+        }
+        server.join(5000);
+        Assert.assertNull(server.getException());
+    }
+
+    @Test
+    public void testPipelinedRequestExecutionPrematureClose() throws Exception {
+        final PipelinedRequestReader server = new PipelinedRequestReader(3, 1);
+        server.start();
+        this.client.start();
+
+        final Future<List<HttpResponse>> future = executePipelined(server.getPort(), 3);
+        try {
+            future.get(10, TimeUnit.SECONDS);
+            Assert.fail("ExecutionException expected");
+        } catch (final ExecutionException ex) {
+            Assert.assertTrue(ex.getCause() instanceof ConnectionClosedException);
+        }
+        server.join(5000);
+        Assert.assertNull(server.getException());
+    }
+
 }
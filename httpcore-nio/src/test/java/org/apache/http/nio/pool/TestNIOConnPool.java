@@ -34,8 +34,10 @@ import java.net.UnknownHostException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.http.concurrent.BasicFuture;
+import org.apache.http.concurrent.FutureCallback;
 import org.apache.http.nio.reactor.ConnectingIOReactor;
 import org.apache.http.nio.reactor.IOSession;
 import org.apache.http.nio.reactor.SessionRequest;
@@ -44,10 +46,13 @@ import org.apache.http.pool.PoolEntry;
 import org.apache.http.pool.PoolStats;
 import org.junit.Assert;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
 public class TestNIOConnPool {
 
+    private static final int GRACE_PERIOD = 10000;
+
     static class LocalPoolEntry extends PoolEntry<String, IOSession> {
 
         public LocalPoolEntry(final String route, final IOSession conn) {
@@ -1009,4 +1014,157 @@ public class TestNIOConnPool {
         pool.requestTimeout(Mockito.mock(SessionRequest.class));
     }
 
+    @Test
+    public void testSessionRequestCallback() throws Exception {
+        final IOSession iosession1 = Mockito.mock(IOSession.class);
+        final SessionRequest sessionRequest1 = Mockito.mock(SessionRequest.class);
+        Mockito.when(sessionRequest1.getAttachment()).thenReturn("somehost");
+        Mockito.when(sessionRequest1.getSession()).thenReturn(iosession1);
+
+        final ConnectingIOReactor ioreactor = Mockito.mock(ConnectingIOReactor.class);
+        Mockito.when(ioreactor.connect(
+                Mockito.any(SocketAddress.class), Mockito.any(SocketAddress.class),
+                Mockito.any(), Mockito.any(SessionRequestCallback.class))).
+                thenReturn(sessionRequest1);
+
+        final LocalSessionPool pool = new LocalSessionPool(ioreactor, 2, 10);
+        final Future<LocalPoolEntry> future1 = pool.lease("somehost", null);
+
+        final ArgumentCaptor<SessionRequestCallback> callbackCaptor =
+            ArgumentCaptor.forClass(SessionRequestCallback.class);
+        Mockito.verify(ioreactor).connect(
+                Mockito.any(SocketAddress.class), Mockito.any(SocketAddress.class),
+                Mockito.any(), callbackCaptor.capture());
+        final SessionRequestCallback callback = callbackCaptor.getValue();
+
+        final Thread t = new Thread() {
+
+            @Override
+            public void run() {
+                callback.completed(sessionRequest1);
+            }
+
+        };
+        t.start();
+        t.join(GRACE_PERIOD);
+
+        Assert.assertTrue(future1.isDone());
+        final LocalPoolEntry entry1 = future1.get();
+        Assert.assertNotNull(entry1);
+
+        final PoolStats totals = pool.getTotalStats();
+        Assert.assertEquals(0, totals.getAvailable());
+        Assert.assertEquals(1, totals.getLeased());
+        Assert.assertEquals(0, totals.getPending());
+    }
+
+    @Test
+    public void testLeaseCallbackInvokedWithoutPoolLock() throws Exception {
+        final IOSession iosession1 = Mockito.mock(IOSession.class);
+        final SessionRequest sessionRequest1 = Mockito.mock(SessionRequest.class);
+        Mockito.when(sessionRequest1.getAttachment()).thenReturn("somehost");
+        Mockito.when(sessionRequest1.getSession()).thenReturn(iosession1);
+
+        final ConnectingIOReactor ioreactor = Mockito.mock(ConnectingIOReactor.class);
+        Mockito.when(ioreactor.connect(
+                Mockito.any(SocketAddress.class), Mockito.any(SocketAddress.class),
+                Mockito.any(), Mockito.any(SessionRequestCallback.class))).
+                thenReturn(sessionRequest1);
+
+        final LocalSessionPool pool = new LocalSessionPool(ioreactor, 1, 1);
+
+        final Future<LocalPoolEntry> future1 = pool.lease("somehost", null);
+        pool.requestCompleted(sessionRequest1);
+        final LocalPoolEntry entry1 = future1.get();
+        Assert.assertNotNull(entry1);
+
+        final AtomicBoolean statsAvailable = new AtomicBoolean(false);
+        final Future<LocalPoolEntry> future2 = pool.lease("somehost", null, new FutureCallback<LocalPoolEntry>() {
+
+            public void completed(final LocalPoolEntry result) {
+                final Thread t = new Thread() {
+
+                    @Override
+                    public void run() {
+                        pool.getTotalStats();
+                        statsAvailable.set(true);
+                    }
+
+                };
+                t.start();
+                try {
+                    t.join(GRACE_PERIOD);
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            public void failed(final Exception ex) {
+            }
+
+            public void cancelled() {
+            }
+
+        });
+        Assert.assertFalse(future2.isDone());
+
+        pool.release(entry1, true);
+
+        Assert.assertTrue(future2.isDone());
+        Assert.assertSame(entry1, future2.get());
+        Assert.assertTrue(statsAvailable.get());
+    }
+
+    @Test
+    public void testConnectCallbackInvokedWithoutPoolLock() throws Exception {
+        final IOSession iosession = Mockito.mock(IOSession.class);
+        final SessionRequest sessionRequest = Mockito.mock(SessionRequest.class);
+        Mockito.when(sessionRequest.getAttachment()).thenReturn("somehost");
+        Mockito.when(sessionRequest.getSession()).thenReturn(iosession);
+
+        final ConnectingIOReactor ioreactor = Mockito.mock(ConnectingIOReactor.class);
+        Mockito.when(ioreactor.connect(
+                Mockito.any(SocketAddress.class), Mockito.any(SocketAddress.class),
+                Mockito.any(), Mockito.any(SessionRequestCallback.class))).
+                thenReturn(sessionRequest);
+
+        final LocalSessionPool pool = new LocalSessionPool(ioreactor, 1, 1);
+
+        final AtomicBoolean statsAvailable = new AtomicBoolean(false);
+        final Future<LocalPoolEntry> future = pool.lease("somehost", null, new FutureCallback<LocalPoolEntry>() {
+
+            public void completed(final LocalPoolEntry result) {
+                final Thread t = new Thread() {
+
+                    @Override
+                    public void run() {
+                        pool.getTotalStats();
+                        statsAvailable.set(true);
+                    }
+
+                };
+                t.start();
+                try {
+                    t.join(GRACE_PERIOD);
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            public void failed(final Exception ex) {
+            }
+
+            public void cancelled() {
+            }
+
+        });
+        Assert.assertFalse(future.isDone());
+
+        pool.requestCompleted(sessionRequest);
+
+        Assert.assertTrue(future.isDone());
+        Assert.assertNotNull(future.get());
+        Assert.assertTrue(statsAvailable.get());
+    }
+
 }
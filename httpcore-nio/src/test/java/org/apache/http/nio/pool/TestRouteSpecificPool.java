@@ -28,7 +28,6 @@ package org.apache.http.nio.pool;
 
 import java.io.IOException;
 import java.net.SocketTimeoutException;
-import java.util.concurrent.ExecutionException;
 
 import org.apache.http.concurrent.BasicFuture;
 import org.apache.http.nio.reactor.IOSession;
@@ -71,6 +70,11 @@ public class TestRouteSpecificPool {
 
     }
 
+    private static LeaseRequest<String, IOSession, LocalPoolEntry> newRequest(
+            final BasicFuture<LocalPoolEntry> future) {
+        return new LeaseRequest<String, IOSession, LocalPoolEntry>("whatever", null, 0, future);
+    }
+
     @Test
     public void testEmptyPool() throws Exception {
         final LocalRoutePool pool = new LocalRoutePool();
@@ -89,7 +93,7 @@ public class TestRouteSpecificPool {
         final SessionRequest sessionRequest = Mockito.mock(SessionRequest.class);
         Mockito.when(sessionRequest.getSession()).thenReturn(session);
         final BasicFuture<LocalPoolEntry> future = new BasicFuture<LocalPoolEntry>(null);
-        pool.addPending(sessionRequest, future);
+        pool.addPending(sessionRequest, newRequest(future));
         Assert.assertEquals(1, pool.getAllocatedCount());
         Assert.assertEquals(0, pool.getAvailableCount());
         Assert.assertEquals(0, pool.getLeasedCount());
@@ -99,9 +103,14 @@ public class TestRouteSpecificPool {
         Assert.assertSame(session, entry.getConnection());
         Assert.assertFalse(future.isDone());
         Assert.assertFalse(future.isCancelled());
-        pool.completed(sessionRequest, entry);
-        Assert.assertTrue(future.isDone());
-        Assert.assertFalse(future.isCancelled());
+        final LeaseRequest<String, IOSession, LocalPoolEntry> request = pool.completed(
+                sessionRequest, entry);
+        Assert.assertSame(future, request.getFuture());
+        Assert.assertSame(entry, request.getResult());
+        Assert.assertNull(request.getException());
+        Assert.assertFalse(request.isCancelled());
+        // Callbacks are fired by the pool after its lock has been released
+        Assert.assertFalse(future.isDone());
 
         Assert.assertEquals(1, pool.getAllocatedCount());
         Assert.assertEquals(0, pool.getAvailableCount());
@@ -114,20 +123,18 @@ public class TestRouteSpecificPool {
         final LocalRoutePool pool = new LocalRoutePool();
         final SessionRequest sessionRequest = Mockito.mock(SessionRequest.class);
         final BasicFuture<LocalPoolEntry> future = new BasicFuture<LocalPoolEntry>(null);
-        pool.addPending(sessionRequest, future);
+        pool.addPending(sessionRequest, newRequest(future));
         Assert.assertEquals(1, pool.getAllocatedCount());
         Assert.assertEquals(0, pool.getAvailableCount());
         Assert.assertEquals(0, pool.getLeasedCount());
         Assert.assertEquals(1, pool.getPendingCount());
-        pool.failed(sessionRequest, new IOException());
-        Assert.assertTrue(future.isDone());
-        Assert.assertFalse(future.isCancelled());
-        try {
-            future.get();
-            Assert.fail("ExecutionException should have been thrown");
-        } catch (final ExecutionException ex) {
-            Assert.assertTrue(ex.getCause() instanceof IOException);
-        }
+        final LeaseRequest<String, IOSession, LocalPoolEntry> request = pool.failed(
+                sessionRequest, new IOException());
+        Assert.assertSame(future, request.getFuture());
+        Assert.assertNull(request.getResult());
+        Assert.assertTrue(request.getException() instanceof IOException);
+        Assert.assertFalse(request.isCancelled());
+        Assert.assertFalse(future.isDone());
         Assert.assertEquals(0, pool.getAllocatedCount());
         Assert.assertEquals(0, pool.getAvailableCount());
         Assert.assertEquals(0, pool.getLeasedCount());
@@ -139,14 +146,16 @@ public class TestRouteSpecificPool {
         final LocalRoutePool pool = new LocalRoutePool();
         final SessionRequest sessionRequest = Mockito.mock(SessionRequest.class);
         final BasicFuture<LocalPoolEntry> future = new BasicFuture<LocalPoolEntry>(null);
-        pool.addPending(sessionRequest, future);
+        pool.addPending(sessionRequest, newRequest(future));
         Assert.assertEquals(1, pool.getAllocatedCount());
         Assert.assertEquals(0, pool.getAvailableCount());
         Assert.assertEquals(0, pool.getLeasedCount());
         Assert.assertEquals(1, pool.getPendingCount());
-        pool.cancelled(sessionRequest);
-        Assert.assertTrue(future.isDone());
-        Assert.assertTrue(future.isCancelled());
+        final LeaseRequest<String, IOSession, LocalPoolEntry> request = pool.cancelled(
+                sessionRequest);
+        Assert.assertSame(future, request.getFuture());
+        Assert.assertTrue(request.isCancelled());
+        Assert.assertFalse(future.isDone());
 
         Assert.assertEquals(0, pool.getAllocatedCount());
         Assert.assertEquals(0, pool.getAvailableCount());
@@ -159,20 +168,18 @@ public class TestRouteSpecificPool {
         final LocalRoutePool pool = new LocalRoutePool();
         final SessionRequest sessionRequest = Mockito.mock(SessionRequest.class);
         final BasicFuture<LocalPoolEntry> future = new BasicFuture<LocalPoolEntry>(null);
-        pool.addPending(sessionRequest, future);
+        pool.addPending(sessionRequest, newRequest(future));
         Assert.assertEquals(1, pool.getAllocatedCount());
         Assert.assertEquals(0, pool.getAvailableCount());
         Assert.assertEquals(0, pool.getLeasedCount());
         Assert.assertEquals(1, pool.getPendingCount());
-        pool.timeout(sessionRequest);
-        Assert.assertTrue(future.isDone());
-        Assert.assertFalse(future.isCancelled());
-        try {
-            future.get();
-            Assert.fail("ExecutionException should have been thrown");
-        } catch (final ExecutionException ex) {
-            Assert.assertTrue(ex.getCause() instanceof SocketTimeoutException);
-        }
+        final LeaseRequest<String, IOSession, LocalPoolEntry> request = pool.timeout(
+                sessionRequest);
+        Assert.assertSame(future, request.getFuture());
+        Assert.assertNull(request.getResult());
+        Assert.assertTrue(request.getException() instanceof SocketTimeoutException);
+        Assert.assertFalse(request.isCancelled());
+        Assert.assertFalse(future.isDone());
         Assert.assertEquals(0, pool.getAllocatedCount());
         Assert.assertEquals(0, pool.getAvailableCount());
         Assert.assertEquals(0, pool.getLeasedCount());
@@ -186,17 +193,17 @@ public class TestRouteSpecificPool {
         final SessionRequest sessionRequest1 = Mockito.mock(SessionRequest.class);
         Mockito.when(sessionRequest1.getSession()).thenReturn(session1);
         final BasicFuture<LocalPoolEntry> future1 = new BasicFuture<LocalPoolEntry>(null);
-        pool.addPending(sessionRequest1, future1);
+        pool.addPending(sessionRequest1, newRequest(future1));
         final IOSession session2 = Mockito.mock(IOSession.class);
         final SessionRequest sessionRequest2 = Mockito.mock(SessionRequest.class);
         Mockito.when(sessionRequest2.getSession()).thenReturn(session2);
         final BasicFuture<LocalPoolEntry> future2 = new BasicFuture<LocalPoolEntry>(null);
-        pool.addPending(sessionRequest2, future2);
+        pool.addPending(sessionRequest2, newRequest(future2));
         final IOSession session3 = Mockito.mock(IOSession.class);
         final SessionRequest sessionRequest3 = Mockito.mock(SessionRequest.class);
         Mockito.when(sessionRequest3.getSession()).thenReturn(session3);
         final BasicFuture<LocalPoolEntry> future3 = new BasicFuture<LocalPoolEntry>(null);
-        pool.addPending(sessionRequest3, future3);
+        pool.addPending(sessionRequest3, newRequest(future3));
 
         Assert.assertEquals(3, pool.getAllocatedCount());
         Assert.assertEquals(0, pool.getAvailableCount());
@@ -246,17 +253,17 @@ public class TestRouteSpecificPool {
         final SessionRequest sessionRequest1 = Mockito.mock(SessionRequest.class);
         Mockito.when(sessionRequest1.getSession()).thenReturn(session1);
         final BasicFuture<LocalPoolEntry> future1 = new BasicFuture<LocalPoolEntry>(null);
-        pool.addPending(sessionRequest1, future1);
+        pool.addPending(sessionRequest1, newRequest(future1));
         final IOSession session2 = Mockito.mock(IOSession.class);
         final SessionRequest sessionRequest2 = Mockito.mock(SessionRequest.class);
         Mockito.when(sessionRequest2.getSession()).thenReturn(session2);
         final BasicFuture<LocalPoolEntry> future2 = new BasicFuture<LocalPoolEntry>(null);
-        pool.addPending(sessionRequest2, future2);
+        pool.addPending(sessionRequest2, newRequest(future2));
         final IOSession session3 = Mockito.mock(IOSession.class);
         final SessionRequest sessionRequest3 = Mockito.mock(SessionRequest.class);
         Mockito.when(sessionRequest3.getSession()).thenReturn(session3);
         final BasicFuture<LocalPoolEntry> future3 = new BasicFuture<LocalPoolEntry>(null);
-        pool.addPending(sessionRequest3, future3);
+        pool.addPending(sessionRequest3, newRequest(future3));
 
         Assert.assertEquals(3, pool.getAllocatedCount());
         Assert.assertEquals(0, pool.getAvailableCount());
@@ -297,17 +304,17 @@ public class TestRouteSpecificPool {
         final SessionRequest sessionRequest1 = Mockito.mock(SessionRequest.class);
         Mockito.when(sessionRequest1.getSession()).thenReturn(session1);
         final BasicFuture<LocalPoolEntry> future1 = new BasicFuture<LocalPoolEntry>(null);
-        pool.addPending(sessionRequest1, future1);
+        pool.addPending(sessionRequest1, newRequest(future1));
         final IOSession session2 = Mockito.mock(IOSession.class);
         final SessionRequest sessionRequest2 = Mockito.mock(SessionRequest.class);
         Mockito.when(sessionRequest2.getSession()).thenReturn(session2);
         final BasicFuture<LocalPoolEntry> future2 = new BasicFuture<LocalPoolEntry>(null);
-        pool.addPending(sessionRequest2, future2);
+        pool.addPending(sessionRequest2, newRequest(future2));
         final IOSession session3 = Mockito.mock(IOSession.class);
         final SessionRequest sessionRequest3 = Mockito.mock(SessionRequest.class);
         Mockito.when(sessionRequest3.getSession()).thenReturn(session3);
         final BasicFuture<LocalPoolEntry> future3 = new BasicFuture<LocalPoolEntry>(null);
-        pool.addPending(sessionRequest3, future3);
+        pool.addPending(sessionRequest3, newRequest(future3));
 
         final LocalPoolEntry entry1 = pool.createEntry(sessionRequest1, session1);
         pool.completed(sessionRequest1, entry1);
@@ -359,17 +366,17 @@ public class TestRouteSpecificPool {
         final SessionRequest sessionRequest1 = Mockito.mock(SessionRequest.class);
         Mockito.when(sessionRequest1.getSession()).thenReturn(session1);
         final BasicFuture<LocalPoolEntry> future1 = new BasicFuture<LocalPoolEntry>(null);
-        pool.addPending(sessionRequest1, future1);
+        pool.addPending(sessionRequest1, newRequest(future1));
         final IOSession session2 = Mockito.mock(IOSession.class);
         final SessionRequest sessionRequest2 = Mockito.mock(SessionRequest.class);
         Mockito.when(sessionRequest2.getSession()).thenReturn(session2);
         final BasicFuture<LocalPoolEntry> future2 = new BasicFuture<LocalPoolEntry>(null);
-        pool.addPending(sessionRequest2, future2);
+        pool.addPending(sessionRequest2, newRequest(future2));
         final IOSession session3 = Mockito.mock(IOSession.class);
         final SessionRequest sessionRequest3 = Mockito.mock(SessionRequest.class);
         Mockito.when(sessionRequest3.getSession()).thenReturn(session3);
         final BasicFuture<LocalPoolEntry> future3 = new BasicFuture<LocalPoolEntry>(null);
-        pool.addPending(sessionRequest3, future3);
+        pool.addPending(sessionRequest3, newRequest(future3));
 
         Assert.assertEquals(3, pool.getAllocatedCount());
         Assert.assertEquals(0, pool.getAvailableCount());
@@ -435,17 +442,17 @@ public class TestRouteSpecificPool {
         final SessionRequest sessionRequest1 = Mockito.mock(SessionRequest.class);
         Mockito.when(sessionRequest1.getSession()).thenReturn(session1);
         final BasicFuture<LocalPoolEntry> future1 = new BasicFuture<LocalPoolEntry>(null);
-        pool.addPending(sessionRequest1, future1);
+        pool.addPending(sessionRequest1, newRequest(future1));
         final IOSession session2 = Mockito.mock(IOSession.class);
         final SessionRequest sessionRequest2 = Mockito.mock(SessionRequest.class);
         Mockito.when(sessionRequest2.getSession()).thenReturn(session2);
         final BasicFuture<LocalPoolEntry> future2 = new BasicFuture<LocalPoolEntry>(null);
-        pool.addPending(sessionRequest2, future2);
+        pool.addPending(sessionRequest2, newRequest(future2));
         final IOSession session3 = Mockito.mock(IOSession.class);
         final SessionRequest sessionRequest3 = Mockito.mock(SessionRequest.class);
         Mockito.when(sessionRequest3.getSession()).thenReturn(session3);
         final BasicFuture<LocalPoolEntry> future3 = new BasicFuture<LocalPoolEntry>(null);
-        pool.addPending(sessionRequest3, future3);
+        pool.addPending(sessionRequest3, newRequest(future3));
 
         final LocalPoolEntry entry1 = pool.createEntry(sessionRequest1, session1);
         pool.completed(sessionRequest1, entry1);
@@ -35,6 +35,7 @@ import org.apache.http.HttpException;
 import org.apache.http.HttpRequest;
 import org.apache.http.HttpStatus;
 import org.apache.http.HttpVersion;
+import org.apache.http.ProtocolException;
 import org.apache.http.entity.BasicHttpEntity;
 import org.apache.http.message.BasicHttpEntityEnclosingRequest;
 import org.apache.http.message.BasicHttpRequest;
@@ -526,6 +527,190 @@ public class TestHttpAsyncRequestExecutor {
         Mockito.verify(this.exchangeHandler).inputTerminated();
     }
 
+    @Test
+    public void testPipelinedRequests() throws Exception {
+        final State state = new HttpAsyncRequestExecutor.State();
+        this.connContext.setAttribute(HttpAsyncRequestExecutor.HTTP_EXCHANGE_STATE, state);
+        final PipeliningClientExchangeHandler<?> handler = Mockito.mock(PipeliningClientExchangeHandler.class);
+        this.connContext.setAttribute(HttpAsyncRequestExecutor.HTTP_HANDLER, handler);
+        final HttpRequest request1 = new BasicHttpRequest("GET", "/1");
+        final HttpRequest request2 = new BasicHttpRequest("GET", "/2");
+        Mockito.when(handler.generateRequest()).thenReturn(request1, request2, null);
+
+        this.protocolHandler.requestReady(this.conn);
+
+        Mockito.verify(handler, Mockito.times(3)).generateRequest();
+        Mockito.verify(this.conn).submitRequest(request1);
+        Mockito.verify(this.conn).submitRequest(request2);
+        Mockito.verify(handler, Mockito.times(2)).requestCompleted();
+        Assert.assertEquals(MessageState.READY, state.getRequestState());
+        Assert.assertEquals(2, state.getRequestQueue().size());
+        Assert.assertSame(request1, state.getRequestQueue().peek());
+        Assert.assertSame(handler, state.getHandler());
+        Assert.assertTrue(state.isPipelined());
+    }
+
+    @Test
+    public void testPipelinedEntityEnclosingRequest() throws Exception {
+        final State state = new HttpAsyncRequestExecutor.State();
+        this.connContext.setAttribute(HttpAsyncRequestExecutor.HTTP_EXCHANGE_STATE, state);
+        final PipeliningClientExchangeHandler<?> handler = Mockito.mock(PipeliningClientExchangeHandler.class);
+        this.connContext.setAttribute(HttpAsyncRequestExecutor.HTTP_HANDLER, handler);
+        final HttpRequest request1 = new BasicHttpRequest("GET", "/1");
+        final BasicHttpEntityEnclosingRequest request2 = new BasicHttpEntityEnclosingRequest("POST", "/2");
+        request2.setEntity(new NStringEntity("stuff"));
+        final HttpRequest request3 = new BasicHttpRequest("GET", "/3");
+        Mockito.when(handler.generateRequest()).thenReturn(request1, request2, request3, null);
+
+        this.protocolHandler.requestReady(this.conn);
+
+        Mockito.verify(handler, Mockito.times(2)).generateRequest();
+        Mockito.verify(handler, Mockito.times(1)).requestCompleted();
+        Assert.assertEquals(MessageState.BODY_STREAM, state.getRequestState());
+        Assert.assertEquals(2, state.getRequestQueue().size());
+
+        Mockito.when(this.encoder.isCompleted()).thenReturn(Boolean.TRUE);
+        this.protocolHandler.outputReady(this.conn, this.encoder);
+
+        Mockito.verify(handler, Mockito.times(2)).requestCompleted();
+        Assert.assertEquals(MessageState.READY, state.getRequestState());
+
+        this.protocolHandler.requestReady(this.conn);
+
+        Mockito.verify(this.conn).submitRequest(request3);
+        Assert.assertEquals(3, state.getRequestQueue().size());
+    }
+
+    @Test(expected=ProtocolException.class)
+    public void testPipelinedRequestHttp10() throws Exception {
+        final State state = new HttpAsyncRequestExecutor.State();
+        this.connContext.setAttribute(HttpAsyncRequestExecutor.HTTP_EXCHANGE_STATE, state);
+        final PipeliningClientExchangeHandler<?> handler = Mockito.mock(PipeliningClientExchangeHandler.class);
+        this.connContext.setAttribute(HttpAsyncRequestExecutor.HTTP_HANDLER, handler);
+        final HttpRequest request = new BasicHttpRequest("GET", "/", HttpVersion.HTTP_1_0);
+        Mockito.when(handler.generateRequest()).thenReturn(request);
+
+        this.protocolHandler.requestReady(this.conn);
+    }
+
+    @Test(expected=ProtocolException.class)
+    public void testPipelinedRequestExpectContinue() throws Exception {
+        final State state = new HttpAsyncRequestExecutor.State();
+        this.connContext.setAttribute(HttpAsyncRequestExecutor.HTTP_EXCHANGE_STATE, state);
+        final PipeliningClientExchangeHandler<?> handler = Mockito.mock(PipeliningClientExchangeHandler.class);
+        this.connContext.setAttribute(HttpAsyncRequestExecutor.HTTP_HANDLER, handler);
+        final BasicHttpEntityEnclosingRequest request = new BasicHttpEntityEnclosingRequest("POST", "/");
+        request.setHeader(HTTP.EXPECT_DIRECTIVE, HTTP.EXPECT_CONTINUE);
+        request.setEntity(new NStringEntity("stuff"));
+        Mockito.when(handler.generateRequest()).thenReturn(request);
+
+        this.protocolHandler.requestReady(this.conn);
+    }
+
+    @Test
+    public void testPipelinedResponses() throws Exception {
+        final State state = new HttpAsyncRequestExecutor.State();
+        final HttpRequest request1 = new BasicHttpRequest("HEAD", "/1");
+        final HttpRequest request2 = new BasicHttpRequest("GET", "/2");
+        state.getRequestQueue().add(request1);
+        state.getRequestQueue().add(request2);
+        this.connContext.setAttribute(HttpAsyncRequestExecutor.HTTP_EXCHANGE_STATE, state);
+        final PipeliningClientExchangeHandler<?> handler = Mockito.mock(PipeliningClientExchangeHandler.class);
+        this.connContext.setAttribute(HttpAsyncRequestExecutor.HTTP_HANDLER, handler);
+
+        final BasicHttpResponse response1 = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        Mockito.when(this.conn.getHttpResponse()).thenReturn(response1);
+
+        this.protocolHandler.responseReceived(this.conn);
+
+        // Response to HEAD has no content
+        Mockito.verify(handler).responseReceived(response1);
+        Mockito.verify(this.conn).resetInput();
+        Mockito.verify(handler).responseCompleted();
+        Mockito.verify(this.conn).requestOutput();
+        Assert.assertEquals(MessageState.READY, state.getResponseState());
+        Assert.assertEquals(1, state.getRequestQueue().size());
+        Assert.assertSame(request2, state.getRequestQueue().peek());
+
+        final BasicHttpResponse response2 = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        Mockito.when(this.conn.getHttpResponse()).thenReturn(response2);
+
+        this.protocolHandler.responseReceived(this.conn);
+
+        Mockito.verify(handler).responseReceived(response2);
+        Assert.assertEquals(MessageState.BODY_STREAM, state.getResponseState());
+        Assert.assertTrue(state.getRequestQueue().isEmpty());
+        Assert.assertSame(handler, state.getHandler());
+        Assert.assertTrue(state.isPipelined());
+    }
+
+    @Test
+    public void testPipelinedModeResetWithExchange() throws Exception {
+        final State state = new HttpAsyncRequestExecutor.State();
+        this.connContext.setAttribute(HttpAsyncRequestExecutor.HTTP_EXCHANGE_STATE, state);
+        final PipeliningClientExchangeHandler<?> handler = Mockito.mock(PipeliningClientExchangeHandler.class);
+        this.connContext.setAttribute(HttpAsyncRequestExecutor.HTTP_HANDLER, handler);
+        final HttpRequest request = new BasicHttpRequest("GET", "/");
+        Mockito.when(handler.generateRequest()).thenReturn(request, null);
+
+        this.protocolHandler.requestReady(this.conn);
+        Assert.assertTrue(state.isPipelined());
+
+        this.connContext.setAttribute(HttpAsyncRequestExecutor.HTTP_HANDLER, this.exchangeHandler);
+        state.reset();
+        Assert.assertNull(state.getHandler());
+        Assert.assertFalse(state.isPipelined());
+
+        Mockito.when(this.exchangeHandler.generateRequest()).thenReturn(request);
+        this.protocolHandler.requestReady(this.conn);
+
+        Assert.assertSame(this.exchangeHandler, state.getHandler());
+        Assert.assertFalse(state.isPipelined());
+        Assert.assertEquals(MessageState.COMPLETED, state.getRequestState());
+    }
+
+    @Test(expected=ProtocolException.class)
+    public void testPipelinedResponseOutOfSequence() throws Exception {
+        final State state = new HttpAsyncRequestExecutor.State();
+        this.connContext.setAttribute(HttpAsyncRequestExecutor.HTTP_EXCHANGE_STATE, state);
+        final PipeliningClientExchangeHandler<?> handler = Mockito.mock(PipeliningClientExchangeHandler.class);
+        this.connContext.setAttribute(HttpAsyncRequestExecutor.HTTP_HANDLER, handler);
+        final BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        Mockito.when(this.conn.getHttpResponse()).thenReturn(response);
+
+        this.protocolHandler.responseReceived(this.conn);
+    }
+
+    @Test
+    public void testPipelinedPrematureEndOfInput() throws Exception {
+        final State state = new HttpAsyncRequestExecutor.State();
+        state.getRequestQueue().add(new BasicHttpRequest("GET", "/"));
+        this.connContext.setAttribute(HttpAsyncRequestExecutor.HTTP_EXCHANGE_STATE, state);
+        final PipeliningClientExchangeHandler<?> handler = Mockito.mock(PipeliningClientExchangeHandler.class);
+        this.connContext.setAttribute(HttpAsyncRequestExecutor.HTTP_HANDLER, handler);
+
+        this.protocolHandler.endOfInput(this.conn);
+
+        Assert.assertFalse(state.isValid());
+        Mockito.verify(this.conn).close();
+        Mockito.verify(handler).failed(Mockito.any(ConnectionClosedException.class));
+    }
+
+    @Test
+    public void testPipelinedConnectionClosed() throws Exception {
+        final State state = new HttpAsyncRequestExecutor.State();
+        state.getRequestQueue().add(new BasicHttpRequest("GET", "/"));
+        this.connContext.setAttribute(HttpAsyncRequestExecutor.HTTP_EXCHANGE_STATE, state);
+        final PipeliningClientExchangeHandler<?> handler = Mockito.mock(PipeliningClientExchangeHandler.class);
+        this.connContext.setAttribute(HttpAsyncRequestExecutor.HTTP_HANDLER, handler);
+
+        this.protocolHandler.closed(this.conn);
+
+        Mockito.verify(handler).failed(Mockito.any(ConnectionClosedException.class));
+        Mockito.verify(handler).close();
+        Assert.assertTrue(state.getRequestQueue().isEmpty());
+    }
+
     @Test
     public void testTimeoutNoHandler() throws Exception {
         final State state = new HttpAsyncRequestExecutor.State();
@@ -29,9 +29,13 @@ package org.apache.http.nio.protocol;
 
 import java.io.IOException;
 import java.net.SocketTimeoutException;
+import java.util.LinkedList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.apache.http.ConnectionReuseStrategy;
 import org.apache.http.HttpException;
+import org.apache.http.HttpRequest;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpResponseFactory;
 import org.apache.http.HttpStatus;
@@ -979,4 +983,242 @@ public class TestHttpAsyncService {
         Mockito.verify(this.responseProducer).close();
     }
 
+    @Blocking
+    static class BlockingRequestHandler implements HttpAsyncRequestHandler<Object> {
+
+        private final HttpAsyncRequestHandler<Object> handler;
+
+        BlockingRequestHandler(final HttpAsyncRequestHandler<Object> handler) {
+            super();
+            this.handler = handler;
+        }
+
+        public HttpAsyncRequestConsumer<Object> processRequest(
+                final HttpRequest request,
+                final HttpContext context) throws HttpException, IOException {
+            return this.handler.processRequest(request, context);
+        }
+
+        public void handle(
+                final Object data,
+                final HttpAsyncExchange httpExchange,
+                final HttpContext context) throws HttpException, IOException {
+            this.handler.handle(data, httpExchange, context);
+        }
+
+    }
+
+    static class QueueingExecutor implements Executor {
+
+        private final LinkedList<Runnable> tasks = new LinkedList<Runnable>();
+        private final int capacity;
+
+        QueueingExecutor(final int capacity) {
+            super();
+            this.capacity = capacity;
+        }
+
+        public void execute(final Runnable task) {
+            if (this.tasks.size() >= this.capacity) {
+                throw new RejectedExecutionException();
+            }
+            this.tasks.add(task);
+        }
+
+        boolean runNext() {
+            final Runnable task = this.tasks.poll();
+            if (task == null) {
+                return false;
+            }
+            task.run();
+            return true;
+        }
+
+    }
+
+    private HttpAsyncService createBlockingService(final Executor executor) {
+        this.handlerResolver.register("/blocking", new BlockingRequestHandler(this.requestHandler));
+        return new HttpAsyncService(
+                this.httpProcessor, this.reuseStrategy, this.responseFactory, this.handlerResolver,
+                null, executor);
+    }
+
+    private State receiveBlockingRequest(
+            final HttpAsyncService service, final NHttpServerConnection conn) throws Exception {
+        final HttpContext context = new BasicHttpContext();
+        Mockito.when(conn.getContext()).thenReturn(context);
+        service.connected(conn);
+        final State state = (State) context.getAttribute(HttpAsyncService.HTTP_EXCHANGE_STATE);
+        final BasicHttpRequest request = new BasicHttpRequest("GET", "/blocking", HttpVersion.HTTP_1_1);
+        Mockito.when(conn.getHttpRequest()).thenReturn(request);
+        Mockito.when(this.requestHandler.processRequest(
+                request, state.getContext())).thenReturn(this.requestConsumer);
+        service.requestReceived(conn);
+        return state;
+    }
+
+    @Test
+    public void testBlockingRequestOffloaded() throws Exception {
+        final QueueingExecutor executor = new QueueingExecutor(10);
+        final HttpAsyncService service = createBlockingService(executor);
+        final Object data = new Object();
+        Mockito.when(this.requestConsumer.getResult()).thenReturn(data);
+
+        final State state = receiveBlockingRequest(service, this.conn);
+
+        Assert.assertEquals(MessageState.COMPLETED, state.getRequestState());
+        Assert.assertEquals(MessageState.INIT, state.getResponseState());
+        Mockito.verify(this.requestHandler, Mockito.never()).handle(
+                Mockito.any(),
+                Mockito.any(HttpAsyncExchange.class),
+                Mockito.any(HttpContext.class));
+
+        Assert.assertTrue(executor.runNext());
+        Mockito.verify(this.requestHandler).handle(
+                Mockito.eq(data),
+                Mockito.any(HttpAsyncExchange.class),
+                Mockito.eq(state.getContext()));
+        Mockito.verify(this.conn, Mockito.never()).suspendInput();
+    }
+
+    @Test
+    public void testBlockingRequestCallerRunsExecutor() throws Exception {
+        final HttpAsyncService service = createBlockingService(new Executor() {
+
+            public void execute(final Runnable task) {
+                task.run();
+            }
+
+        });
+        final Object data = new Object();
+        Mockito.when(this.requestConsumer.getResult()).thenReturn(data);
+
+        final State state = receiveBlockingRequest(service, this.conn);
+        final State state2 = receiveBlockingRequest(service, this.conn);
+
+        Mockito.verify(this.requestHandler).handle(
+                Mockito.eq(data),
+                Mockito.any(HttpAsyncExchange.class),
+                Mockito.eq(state.getContext()));
+        Mockito.verify(this.requestHandler).handle(
+                Mockito.eq(data),
+                Mockito.any(HttpAsyncExchange.class),
+                Mockito.eq(state2.getContext()));
+        Mockito.verify(this.conn, Mockito.never()).suspendInput();
+    }
+
+    @Test
+    public void testNonBlockingRequestNotOffloaded() throws Exception {
+        final QueueingExecutor executor = new QueueingExecutor(10);
+        final HttpAsyncService service = createBlockingService(executor);
+        final State state = new HttpAsyncService.State();
+        this.connContext.setAttribute(HttpAsyncService.HTTP_EXCHANGE_STATE, state);
+        final BasicHttpRequest request = new BasicHttpRequest("GET", "/", HttpVersion.HTTP_1_1);
+        Mockito.when(this.conn.getHttpRequest()).thenReturn(request);
+        Mockito.when(this.requestHandler.processRequest(
+                request, state.getContext())).thenReturn(this.requestConsumer);
+
+        service.requestReceived(this.conn);
+
+        Assert.assertFalse(executor.runNext());
+        Mockito.verify(this.requestHandler).handle(
+                Mockito.any(),
+                Mockito.any(HttpAsyncExchange.class),
+                Mockito.eq(state.getContext()));
+    }
+
+    @Test
+    public void testBlockingRequestBackpressure() throws Exception {
+        final QueueingExecutor executor = new QueueingExecutor(1);
+        final HttpAsyncService service = createBlockingService(executor);
+        final NHttpServerConnection conn2 = Mockito.mock(NHttpServerConnection.class);
+        final NHttpServerConnection conn3 = Mockito.mock(NHttpServerConnection.class);
+
+        receiveBlockingRequest(service, this.conn);
+        final State state2 = receiveBlockingRequest(service, conn2);
+        final State state3 = receiveBlockingRequest(service, conn3);
+
+        Mockito.verify(this.conn, Mockito.never()).suspendInput();
+        Mockito.verify(conn2).suspendInput();
+        Mockito.verify(conn2, Mockito.never()).requestInput();
+        // Queued up behind the rejected request
+        Mockito.verify(conn3).suspendInput();
+        Mockito.verify(conn3, Mockito.never()).requestInput();
+
+        Assert.assertTrue(executor.runNext());
+        Mockito.verify(conn2).requestInput();
+        Mockito.verify(conn3, Mockito.never()).requestInput();
+
+        Assert.assertTrue(executor.runNext());
+        Mockito.verify(conn3).requestInput();
+        Mockito.verify(this.requestHandler).handle(
+                Mockito.any(),
+                Mockito.any(HttpAsyncExchange.class),
+                Mockito.eq(state2.getContext()));
+
+        Assert.assertTrue(executor.runNext());
+        Assert.assertFalse(executor.runNext());
+        Mockito.verify(this.requestHandler).handle(
+                Mockito.any(),
+                Mockito.any(HttpAsyncExchange.class),
+                Mockito.eq(state3.getContext()));
+        Mockito.verify(conn2).suspendInput();
+        Mockito.verify(conn3).suspendInput();
+    }
+
+    @Test
+    public void testBlockingRequestRejected() throws Exception {
+        final QueueingExecutor executor = new QueueingExecutor(0);
+        final HttpAsyncService service = createBlockingService(executor);
+
+        final State state = receiveBlockingRequest(service, this.conn);
+
+        final HttpAsyncResponseProducer responseProducer = state.getResponseProducer();
+        Assert.assertNotNull(responseProducer);
+        Assert.assertEquals(HttpStatus.SC_SERVICE_UNAVAILABLE,
+                responseProducer.generateResponse().getStatusLine().getStatusCode());
+        Mockito.verify(this.conn).requestOutput();
+        Mockito.verify(this.requestHandler, Mockito.never()).handle(
+                Mockito.any(),
+                Mockito.any(HttpAsyncExchange.class),
+                Mockito.any(HttpContext.class));
+    }
+
+    @Test
+    public void testBlockingRequestHandlingHttpException() throws Exception {
+        final QueueingExecutor executor = new QueueingExecutor(10);
+        final HttpAsyncService service = createBlockingService(executor);
+        Mockito.doThrow(new UnsupportedHttpVersionException()).when(
+                this.requestHandler).handle(
+                        Mockito.any(),
+                        Mockito.any(HttpAsyncExchange.class),
+                        Mockito.any(HttpContext.class));
+
+        final State state = receiveBlockingRequest(service, this.conn);
+        Assert.assertNull(state.getResponseProducer());
+
+        Assert.assertTrue(executor.runNext());
+
+        final HttpAsyncResponseProducer responseProducer = state.getResponseProducer();
+        Assert.assertNotNull(responseProducer);
+        Assert.assertEquals(HttpStatus.SC_HTTP_VERSION_NOT_SUPPORTED,
+                responseProducer.generateResponse().getStatusLine().getStatusCode());
+        Mockito.verify(this.conn).requestOutput();
+    }
+
+    @Test
+    public void testBlockingRequestConnectionClosed() throws Exception {
+        final QueueingExecutor executor = new QueueingExecutor(10);
+        final HttpAsyncService service = createBlockingService(executor);
+
+        receiveBlockingRequest(service, this.conn);
+        service.closed(this.conn);
+
+        Assert.assertTrue(executor.runNext());
+        Mockito.verify(this.requestHandler, Mockito.never()).handle(
+                Mockito.any(),
+                Mockito.any(HttpAsyncExchange.class),
+                Mockito.any(HttpContext.class));
+    }
+
 }
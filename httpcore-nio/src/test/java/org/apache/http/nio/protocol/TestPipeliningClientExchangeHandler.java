@@ -0,0 +1,195 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.http.nio.protocol;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import org.apache.http.ConnectionClosedException;
+import org.apache.http.ConnectionReuseStrategy;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpVersion;
+import org.apache.http.message.BasicHttpRequest;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.nio.NHttpClientConnection;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpCoreContext;
+import org.apache.http.protocol.HttpProcessor;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class TestPipeliningClientExchangeHandler {
+
+    private HttpAsyncRequestProducer requestProducer1;
+    private HttpAsyncRequestProducer requestProducer2;
+    private HttpAsyncResponseConsumer<Object> responseConsumer1;
+    private HttpAsyncResponseConsumer<Object> responseConsumer2;
+    private HttpContext context;
+    private HttpProcessor httpProcessor;
+    private NHttpClientConnection conn;
+    private ConnectionReuseStrategy reuseStrategy;
+    private PipeliningClientExchangeHandler<Object> exchangeHandler;
+
+    @SuppressWarnings("unchecked")
+    @Before
+    public void setUp() throws Exception {
+        this.requestProducer1 = Mockito.mock(HttpAsyncRequestProducer.class);
+        this.requestProducer2 = Mockito.mock(HttpAsyncRequestProducer.class);
+        this.responseConsumer1 = Mockito.mock(HttpAsyncResponseConsumer.class);
+        this.responseConsumer2 = Mockito.mock(HttpAsyncResponseConsumer.class);
+        this.context = new BasicHttpContext();
+        this.conn = Mockito.mock(NHttpClientConnection.class);
+        this.httpProcessor = Mockito.mock(HttpProcessor.class);
+        this.reuseStrategy = Mockito.mock(ConnectionReuseStrategy.class);
+        this.exchangeHandler = new PipeliningClientExchangeHandler<Object>(
+                Arrays.asList(this.requestProducer1, this.requestProducer2),
+                Arrays.asList(this.responseConsumer1, this.responseConsumer2),
+                null,
+                this.context,
+                this.conn,
+                this.httpProcessor,
+                this.reuseStrategy);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testMismatchedProducersAndConsumers() throws Exception {
+        new PipeliningClientExchangeHandler<Object>(
+                Arrays.asList(this.requestProducer1, this.requestProducer2),
+                Arrays.asList(this.responseConsumer1),
+                null,
+                this.context,
+                this.conn,
+                this.httpProcessor,
+                this.reuseStrategy);
+    }
+
+    @Test
+    public void testPipelinedExecution() throws Exception {
+        final HttpRequest request1 = new BasicHttpRequest("GET", "/1");
+        final HttpRequest request2 = new BasicHttpRequest("GET", "/2");
+        Mockito.when(this.requestProducer1.generateRequest()).thenReturn(request1);
+        Mockito.when(this.requestProducer2.generateRequest()).thenReturn(request2);
+
+        Assert.assertSame(request1, this.exchangeHandler.generateRequest());
+        this.exchangeHandler.requestCompleted();
+        Assert.assertSame(request2, this.exchangeHandler.generateRequest());
+        this.exchangeHandler.requestCompleted();
+        Assert.assertNull(this.exchangeHandler.generateRequest());
+
+        Mockito.verify(this.httpProcessor).process(request1, this.context);
+        Mockito.verify(this.httpProcessor).process(request2, this.context);
+        Mockito.verify(this.requestProducer1).requestCompleted(this.context);
+        Mockito.verify(this.requestProducer2).requestCompleted(this.context);
+
+        final BasicHttpResponse response1 = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        final BasicHttpResponse response2 = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        Mockito.when(this.reuseStrategy.keepAlive(
+                Mockito.<BasicHttpResponse>any(), Mockito.<HttpContext>any())).thenReturn(Boolean.TRUE);
+        Mockito.when(this.responseConsumer1.getResult()).thenReturn("result1");
+        Mockito.when(this.responseConsumer2.getResult()).thenReturn("result2");
+
+        this.exchangeHandler.responseReceived(response1);
+        Assert.assertSame(request1, this.context.getAttribute(HttpCoreContext.HTTP_REQUEST));
+        Mockito.verify(this.responseConsumer1).responseReceived(response1);
+        this.exchangeHandler.responseCompleted();
+        Assert.assertFalse(this.exchangeHandler.isDone());
+        Assert.assertEquals(Arrays.<Object>asList("result1"), this.exchangeHandler.getCompletedResults());
+
+        this.exchangeHandler.responseReceived(response2);
+        Assert.assertSame(request2, this.context.getAttribute(HttpCoreContext.HTTP_REQUEST));
+        Mockito.verify(this.responseConsumer2).responseReceived(response2);
+        this.exchangeHandler.responseCompleted();
+        Assert.assertTrue(this.exchangeHandler.isDone());
+
+        final List<Object> results = this.exchangeHandler.getFuture().get();
+        Assert.assertEquals(Arrays.<Object>asList("result1", "result2"), results);
+        Mockito.verify(this.conn, Mockito.never()).close();
+        Mockito.verify(this.responseConsumer1).close();
+        Mockito.verify(this.responseConsumer2).close();
+    }
+
+    @Test
+    public void testConnectionNotPersistentMidPipeline() throws Exception {
+        Mockito.when(this.requestProducer1.generateRequest()).thenReturn(new BasicHttpRequest("GET", "/1"));
+        Mockito.when(this.requestProducer2.generateRequest()).thenReturn(new BasicHttpRequest("GET", "/2"));
+        this.exchangeHandler.generateRequest();
+        this.exchangeHandler.requestCompleted();
+        this.exchangeHandler.generateRequest();
+        this.exchangeHandler.requestCompleted();
+
+        final BasicHttpResponse response1 = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        Mockito.when(this.reuseStrategy.keepAlive(response1, this.context)).thenReturn(Boolean.FALSE);
+        Mockito.when(this.responseConsumer1.getResult()).thenReturn("result1");
+
+        this.exchangeHandler.responseReceived(response1);
+        this.exchangeHandler.responseCompleted();
+
+        Assert.assertTrue(this.exchangeHandler.isDone());
+        Mockito.verify(this.conn).close();
+        Mockito.verify(this.responseConsumer2).failed(Mockito.any(ConnectionClosedException.class));
+        Assert.assertEquals(Arrays.<Object>asList("result1"), this.exchangeHandler.getCompletedResults());
+        try {
+            this.exchangeHandler.getFuture().get();
+            Assert.fail("ExecutionException expected");
+        } catch (final ExecutionException ex) {
+            Assert.assertTrue(ex.getCause() instanceof ConnectionClosedException);
+        }
+    }
+
+    @Test
+    public void testInputTerminated() throws Exception {
+        Mockito.when(this.requestProducer1.generateRequest()).thenReturn(new BasicHttpRequest("GET", "/1"));
+        this.exchangeHandler.generateRequest();
+        this.exchangeHandler.requestCompleted();
+
+        this.exchangeHandler.inputTerminated();
+
+        Assert.assertTrue(this.exchangeHandler.isDone());
+        Mockito.verify(this.responseConsumer1).failed(Mockito.any(ConnectionClosedException.class));
+        Mockito.verify(this.responseConsumer2).failed(Mockito.any(ConnectionClosedException.class));
+        Mockito.verify(this.requestProducer1).close();
+        Mockito.verify(this.requestProducer2).close();
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        Mockito.when(this.responseConsumer1.cancel()).thenReturn(Boolean.TRUE);
+
+        Assert.assertTrue(this.exchangeHandler.cancel());
+
+        Assert.assertTrue(this.exchangeHandler.getFuture().isCancelled());
+        Mockito.verify(this.responseConsumer1).cancel();
+        Mockito.verify(this.responseConsumer2).cancel();
+        Mockito.verify(this.responseConsumer1).close();
+    }
+
+}
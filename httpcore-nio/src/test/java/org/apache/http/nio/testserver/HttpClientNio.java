@@ -177,6 +177,16 @@ public class HttpClientNio {
         return future;
     }
 
+    public <T> Future<List<T>> executePipelined(
+            final HttpHost target,
+            final List<? extends HttpAsyncRequestProducer> requestProducers,
+            final List<? extends HttpAsyncResponseConsumer<T>> responseConsumers,
+            final HttpContext context,
+            final FutureCallback<List<T>> callback) {
+        return this.executor.executePipelined(target, requestProducers, responseConsumers,
+                this.connpool, context != null ? context : new BasicHttpContext(), callback);
+    }
+
     public Future<HttpResponse> execute(
             final HttpHost target,
             final HttpRequest request,
@@ -26,6 +26,8 @@
  */
 package org.apache.http.nio.testserver;
 
+import java.util.concurrent.Executor;
+
 import javax.net.ssl.SSLContext;
 
 import org.apache.http.impl.nio.DefaultNHttpClientConnection;
@@ -37,15 +39,21 @@ import org.apache.http.nio.reactor.ssl.SSLMode;
 public class LoggingSSLClientConnectionFactory implements NHttpConnectionFactory<DefaultNHttpClientConnection> {
 
     private final SSLContext sslcontext;
+    private final Executor taskExecutor;
 
-    public LoggingSSLClientConnectionFactory(final SSLContext sslcontext) {
+    public LoggingSSLClientConnectionFactory(final SSLContext sslcontext, final Executor taskExecutor) {
         super();
         this.sslcontext = sslcontext;
+        this.taskExecutor = taskExecutor;
+    }
+
+    public LoggingSSLClientConnectionFactory(final SSLContext sslcontext) {
+        this(sslcontext, null);
     }
 
     public DefaultNHttpClientConnection createConnection(final IOSession iosession) {
         final SSLIOSession ssliosession = new SSLIOSession(
-                iosession, SSLMode.CLIENT, this.sslcontext, null);
+                iosession, SSLMode.CLIENT, this.sslcontext, null, null, this.taskExecutor);
         iosession.setAttribute(SSLIOSession.SESSION_KEY, ssliosession);
         return new LoggingNHttpClientConnection(ssliosession);
     }
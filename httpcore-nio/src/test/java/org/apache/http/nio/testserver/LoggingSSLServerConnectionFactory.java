@@ -26,6 +26,8 @@
  */
 package org.apache.http.nio.testserver;
 
+import java.util.concurrent.Executor;
+
 import javax.net.ssl.SSLContext;
 
 import org.apache.http.impl.nio.DefaultNHttpServerConnection;
@@ -37,15 +39,21 @@ import org.apache.http.nio.reactor.ssl.SSLMode;
 public class LoggingSSLServerConnectionFactory implements NHttpConnectionFactory<DefaultNHttpServerConnection> {
 
     private final SSLContext sslcontext;
+    private final Executor taskExecutor;
 
-    public LoggingSSLServerConnectionFactory(final SSLContext sslcontext) {
+    public LoggingSSLServerConnectionFactory(final SSLContext sslcontext, final Executor taskExecutor) {
         super();
         this.sslcontext = sslcontext;
+        this.taskExecutor = taskExecutor;
+    }
+
+    public LoggingSSLServerConnectionFactory(final SSLContext sslcontext) {
+        this(sslcontext, null);
     }
 
     public DefaultNHttpServerConnection createConnection(final IOSession iosession) {
         final SSLIOSession ssliosession = new SSLIOSession(
-                iosession, SSLMode.SERVER, this.sslcontext, null);
+                iosession, SSLMode.SERVER, this.sslcontext, null, null, this.taskExecutor);
         iosession.setAttribute(SSLIOSession.SESSION_KEY, ssliosession);
         return new LoggingNHttpServerConnection(ssliosession);
     }
@@ -0,0 +1,192 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.http.nio.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+import org.apache.http.Consts;
+import org.apache.http.ReadableByteChannelMock;
+import org.apache.http.impl.io.HttpTransportMetricsImpl;
+import org.apache.http.impl.nio.reactor.SessionOutputBufferImpl;
+import org.apache.http.nio.ContentEncoder;
+import org.apache.http.nio.reactor.SessionOutputBuffer;
+import org.apache.http.util.EncodingUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestPooledByteBufferAllocator {
+
+    @Test
+    public void testSizeClasses() {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator(false, 1000, 5000, 1024 * 1024, 4);
+        Assert.assertEquals(1024, allocator.allocate(1).capacity());
+        Assert.assertEquals(1024, allocator.allocate(1024).capacity());
+        Assert.assertEquals(2048, allocator.allocate(1025).capacity());
+        Assert.assertEquals(8192, allocator.allocate(5000).capacity());
+        // Beyond the max pooled size
+        Assert.assertEquals(10000, allocator.allocate(10000).capacity());
+        Assert.assertFalse(allocator.allocate(1).isDirect());
+        Assert.assertTrue(new PooledByteBufferAllocator(true).allocate(1).isDirect());
+    }
+
+    @Test
+    public void testRecycling() {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator(false, 1024, 8192, 1024 * 1024, 1);
+        final ByteBuffer b1 = allocator.allocate(1024);
+        final ByteBuffer b2 = allocator.allocate(1024);
+        Assert.assertEquals(0, allocator.getHits());
+        Assert.assertEquals(2, allocator.getMisses());
+        b1.put((byte) 1);
+        allocator.release(b1);
+        allocator.release(b2);
+        Assert.assertEquals(2048, allocator.getRetainedBytes());
+
+        // thread local cache first, shared arena next
+        final ByteBuffer b3 = allocator.allocate(1000);
+        Assert.assertSame(b1, b3);
+        Assert.assertEquals(0, b3.position());
+        Assert.assertEquals(1024, b3.limit());
+        final ByteBuffer b4 = allocator.allocate(1000);
+        Assert.assertSame(b2, b4);
+        Assert.assertEquals(0, allocator.getRetainedBytes());
+        Assert.assertEquals(2, allocator.getHits());
+        Assert.assertEquals(0.5, allocator.getHitRate(), 0.0001);
+
+        final ByteBuffer b5 = allocator.allocate(1000);
+        Assert.assertNotSame(b1, b5);
+        Assert.assertNotSame(b2, b5);
+    }
+
+    @Test
+    public void testRecyclingAcrossThreads() throws Exception {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator(false, 1024, 8192, 1024 * 1024, 4);
+        final ByteBuffer b1 = allocator.allocate(2048);
+        final Thread t = new Thread() {
+
+            @Override
+            public void run() {
+                allocator.release(b1);
+            }
+
+        };
+        t.start();
+        t.join();
+        Assert.assertEquals(2048, allocator.getRetainedBytes());
+        // Released into the cache of the other thread
+        Assert.assertNotSame(b1, allocator.allocate(2048));
+
+        final ByteBuffer b2 = allocator.allocate(4096);
+        final ByteBuffer[] result = new ByteBuffer[2];
+        final Thread t2 = new Thread() {
+
+            @Override
+            public void run() {
+                // Overflow the thread cache into the shared arena
+                for (int i = 0; i < 4; i++) {
+                    allocator.release(ByteBuffer.allocate(4096));
+                }
+                allocator.release(b2);
+            }
+
+        };
+        t2.start();
+        t2.join();
+        result[0] = allocator.allocate(4096);
+        Assert.assertSame(b2, result[0]);
+    }
+
+    @Test
+    public void testForeignBuffersDiscarded() {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator(false, 1024, 8192, 1024 * 1024, 4);
+        allocator.release(null);
+        allocator.release(ByteBuffer.allocate(1000));
+        allocator.release(ByteBuffer.allocateDirect(1024));
+        allocator.release(ByteBuffer.allocate(16384));
+        allocator.release(ByteBuffer.allocate(1024).asReadOnlyBuffer());
+        Assert.assertEquals(0, allocator.getRetainedBytes());
+    }
+
+    @Test
+    public void testMaxRetained() {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator(false, 1024, 8192, 4096, 4);
+        for (int i = 0; i < 10; i++) {
+            allocator.release(ByteBuffer.allocate(1024));
+        }
+        Assert.assertEquals(4096, allocator.getRetainedBytes());
+    }
+
+    @Test
+    public void testExpandableBufferRecycling() throws IOException {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator(false, 16, 1024, 1024 * 1024, 4);
+        final SimpleOutputBuffer buffer = new SimpleOutputBuffer(16, allocator);
+        final byte[] b = EncodingUtils.getAsciiBytes("0123456789abcdefghijklmnopqrstuvwxyz");
+        buffer.write(b, 0, b.length);
+        // 16 byte buffer returned to the pool on expansion
+        Assert.assertEquals(16, allocator.getRetainedBytes());
+        Assert.assertEquals(b.length, buffer.length());
+
+        buffer.release();
+        Assert.assertTrue(buffer.isReleased());
+        Assert.assertEquals(0, buffer.capacity());
+        Assert.assertEquals(16 + 64, allocator.getRetainedBytes());
+
+        // Querying a released buffer does not re-acquire it
+        Assert.assertFalse(buffer.hasData());
+        Assert.assertEquals(0, buffer.length());
+        Assert.assertTrue(buffer.isReleased());
+
+        // Re-acquired on demand
+        Assert.assertEquals(16, buffer.available());
+        Assert.assertFalse(buffer.isReleased());
+        Assert.assertEquals(16, buffer.capacity());
+        final ByteArrayOutputStream outstream = new ByteArrayOutputStream();
+        final WritableByteChannel channel = Channels.newChannel(outstream);
+        buffer.write(b, 0, 5);
+        final SessionOutputBuffer outbuf = new SessionOutputBufferImpl(1024, 128, Consts.ASCII);
+        final ContentEncoder encoder = new ContentEncoderMock(channel, outbuf, new HttpTransportMetricsImpl());
+        buffer.produceContent(encoder);
+        Assert.assertEquals("01234", EncodingUtils.getAsciiString(outstream.toByteArray()));
+    }
+
+    @Test
+    public void testReleaseNoopWithUnpooledAllocator() throws IOException {
+        final ReadableByteChannel channel = new ReadableByteChannelMock(
+                new String[] {"stuff"}, Consts.ASCII);
+        final SimpleInputBuffer buffer = new SimpleInputBuffer(16, HeapByteBufferAllocator.INSTANCE);
+        buffer.consumeContent(new ContentDecoderMock(channel));
+        buffer.release();
+        Assert.assertFalse(buffer.isReleased());
+        Assert.assertEquals(5, buffer.length());
+    }
+
+}
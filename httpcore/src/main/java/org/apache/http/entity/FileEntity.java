@@ -32,8 +32,10 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 
 import org.apache.http.annotation.NotThreadSafe;
+import org.apache.http.io.FileContentOutput;
 import org.apache.http.util.Args;
 
 /**
@@ -87,14 +89,35 @@ public class FileEntity extends AbstractHttpEntity implements Cloneable {
         return new FileInputStream(this.file);
     }
 
+    /**
+     * Writes the file content to the output stream. If the output stream is
+     * a {@link FileContentOutput} the content is transferred directly from
+     * the file channel. Connections transfer file content to the socket
+     * without copying it through user space only if the socket has
+     * a channel, see {@link org.apache.http.impl.BHttpConnectionBase}.
+     */
     public void writeTo(final OutputStream outstream) throws IOException {
         Args.notNull(outstream, "Output stream");
-        final InputStream instream = new FileInputStream(this.file);
+        final FileInputStream instream = new FileInputStream(this.file);
         try {
-            final byte[] tmp = new byte[4096];
-            int l;
-            while ((l = instream.read(tmp)) != -1) {
-                outstream.write(tmp, 0, l);
+            if (outstream instanceof FileContentOutput) {
+                final FileContentOutput output = (FileContentOutput) outstream;
+                final FileChannel channel = instream.getChannel();
+                final long size = channel.size();
+                long position = 0;
+                while (position < size) {
+                    final long bytesWritten = output.transfer(channel, position, size - position);
+                    if (bytesWritten <= 0) {
+                        break;
+                    }
+                    position += bytesWritten;
+                }
+            } else {
+                final byte[] tmp = new byte[4096];
+                int l;
+                while ((l = instream.read(tmp)) != -1) {
+                    outstream.write(tmp, 0, l);
+                }
             }
             outstream.flush();
         } finally {
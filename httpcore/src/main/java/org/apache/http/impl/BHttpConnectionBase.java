@@ -35,9 +35,13 @@ import java.net.Socket;
 import java.net.SocketAddress;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CharsetEncoder;
 
+import javax.net.ssl.SSLSocket;
+
 import org.apache.http.Header;
 import org.apache.http.HttpConnection;
 import org.apache.http.HttpConnectionMetrics;
@@ -130,7 +134,7 @@ public class BHttpConnectionBase implements HttpConnection, HttpInetConnection {
             this.inbuffer.bind(getSocketInputStream(this.socket));
         }
         if (!this.outbuffer.isBound()) {
-            this.outbuffer.bind(getSocketOutputStream(this.socket));
+            this.outbuffer.bind(getSocketOutputStream(this.socket), getSocketChannel(this.socket));
         }
     }
 
@@ -142,6 +146,30 @@ public class BHttpConnectionBase implements HttpConnection, HttpInetConnection {
         return socket.getOutputStream();
     }
 
+    /**
+     * Returns the channel that file content can be transferred to directly,
+     * bypassing the socket output stream, or <code>null</code> if direct
+     * transfer is not possible. This implementation returns the channel of
+     * plain sockets in blocking mode and <code>null</code> for SSL sockets.
+     * Please note that only sockets created through a
+     * {@link SocketChannel} or accepted from a
+     * {@link java.nio.channels.ServerSocketChannel} have a channel. Content
+     * sent over sockets created by a classic {@link java.net.ServerSocket}
+     * or socket factory is always copied through the socket output stream.
+     * <p/>
+     * Classes overriding {@link #getSocketOutputStream(Socket)} in order to
+     * decorate the socket output should override this method as well.
+     *
+     * @since 4.3
+     */
+    protected WritableByteChannel getSocketChannel(final Socket socket) throws IOException {
+        if (socket instanceof SSLSocket) {
+            return null;
+        }
+        final SocketChannel channel = socket.getChannel();
+        return channel != null && channel.isBlocking() ? channel : null;
+    }
+
     /**
      * Binds this connection to the given {@link Socket}. This socket will be
      * used by the connection to send and receive data.
@@ -0,0 +1,308 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.http.impl.bootstrap;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.net.ServerSocketFactory;
+
+import org.apache.http.annotation.ThreadSafe;
+import org.apache.http.config.ConnectionConfig;
+import org.apache.http.config.SocketConfig;
+import org.apache.http.impl.DefaultBHttpServerConnection;
+import org.apache.http.protocol.HttpService;
+
+/**
+ * Embedded HTTP/1.1 server based on blocking I/O. Each connection is served
+ * by a dedicated thread executing {@link HttpService#handleRequest} for as
+ * long as the connection is kept alive.
+ * <p/>
+ * When configured to use virtual threads and running on Java 21 or newer,
+ * each connection is served by a virtual thread, so that idle keep-alive
+ * connections blocked on socket reads cost little more than the session
+ * buffers of the connection. On older Java versions platform threads are
+ * used instead. Blocking I/O on the request processing path of this module
+ * is not performed while holding monitors, which would pin virtual threads
+ * to their carrier threads.
+ * <p/>
+ * Unless a custom {@link ServerSocketFactory} has been configured, the server
+ * socket is opened through a {@link ServerSocketChannel}, so that accepted
+ * sockets have a channel, which file content can be transferred to directly.
+ * <p/>
+ * Instances of this class are created with {@link ServerBootstrap}.
+ *
+ * @since 4.3
+ */
+@ThreadSafe
+public class HttpServer {
+
+    enum Status { READY, ACTIVE, STOPPING }
+
+    private final int port;
+    private final InetAddress ifAddress;
+    private final SocketConfig socketConfig;
+    private final ConnectionConfig connectionConfig;
+    private final ServerSocketFactory serverSocketFactory;
+    private final HttpService httpService;
+    private final ExceptionLogger exceptionLogger;
+    private final Semaphore connectionPermits;
+    private final ExecutorService listenerExecutor;
+    private final ExecutorService workerExecutor;
+    private final boolean virtualThreads;
+    private final ConcurrentHashMap<Worker, Boolean> workers;
+    private final AtomicReference<Status> status;
+
+    private volatile ServerSocket serverSocket;
+
+    HttpServer(
+            final int port,
+            final InetAddress ifAddress,
+            final SocketConfig socketConfig,
+            final ConnectionConfig connectionConfig,
+            final ServerSocketFactory serverSocketFactory,
+            final HttpService httpService,
+            final int maxConnections,
+            final boolean useVirtualThreads,
+            final ExceptionLogger exceptionLogger) {
+        super();
+        this.port = port;
+        this.ifAddress = ifAddress;
+        this.socketConfig = socketConfig;
+        this.connectionConfig = connectionConfig;
+        this.serverSocketFactory = serverSocketFactory;
+        this.httpService = httpService;
+        this.exceptionLogger = exceptionLogger;
+        this.connectionPermits = maxConnections > 0 ? new Semaphore(maxConnections) : null;
+        this.listenerExecutor = Executors.newSingleThreadExecutor(
+                new ThreadFactoryImpl("HTTP-listener-" + this.port, false));
+        final ExecutorService virtualThreadExecutor = useVirtualThreads ?
+                VirtualThreads.newThreadPerTaskExecutor("HTTP-worker") : null;
+        if (virtualThreadExecutor != null) {
+            this.workerExecutor = virtualThreadExecutor;
+            this.virtualThreads = true;
+        } else {
+            this.workerExecutor = new ThreadPoolExecutor(
+                    0, Integer.MAX_VALUE, 1L, TimeUnit.SECONDS,
+                    new SynchronousQueue<Runnable>(),
+                    new ThreadFactoryImpl("HTTP-worker", true));
+            this.virtualThreads = false;
+        }
+        this.workers = new ConcurrentHashMap<Worker, Boolean>();
+        this.status = new AtomicReference<Status>(Status.READY);
+    }
+
+    public InetAddress getInetAddress() {
+        final ServerSocket localSocket = this.serverSocket;
+        if (localSocket != null) {
+            return localSocket.getInetAddress();
+        } else {
+            return null;
+        }
+    }
+
+    public int getLocalPort() {
+        final ServerSocket localSocket = this.serverSocket;
+        if (localSocket != null) {
+            return localSocket.getLocalPort();
+        } else {
+            return -1;
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if connections are served by virtual threads.
+     */
+    public boolean isVirtualThreads() {
+        return this.virtualThreads;
+    }
+
+    /**
+     * Returns the number of connections currently being served.
+     */
+    public int getConnectionCount() {
+        return this.workers.size();
+    }
+
+    boolean isActive() {
+        return this.status.get() == Status.ACTIVE;
+    }
+
+    ExceptionLogger getExceptionLogger() {
+        return this.exceptionLogger;
+    }
+
+    public void start() throws IOException {
+        if (this.status.compareAndSet(Status.READY, Status.ACTIVE)) {
+            ServerSocket localSocket = null;
+            boolean started = false;
+            try {
+                localSocket = this.serverSocketFactory != null ?
+                        this.serverSocketFactory.createServerSocket() :
+                        ServerSocketChannel.open().socket();
+                localSocket.setReuseAddress(this.socketConfig.isSoReuseAddress());
+                localSocket.bind(new InetSocketAddress(this.ifAddress, this.port));
+                this.serverSocket = localSocket;
+                this.listenerExecutor.execute(new RequestListener(
+                        this, localSocket, this.socketConfig, this.connectionPermits));
+                started = true;
+            } finally {
+                if (!started) {
+                    // Release the socket and allow the server to be started again
+                    this.serverSocket = null;
+                    if (localSocket != null) {
+                        try {
+                            localSocket.close();
+                        } catch (final IOException ignore) {
+                        }
+                    }
+                    this.status.set(Status.READY);
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops accepting new connections and immediately shuts down
+     * all active connections.
+     */
+    public void stop() {
+        shutdown(0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops accepting new connections, lets active connections complete
+     * their current request for up to the given grace period and shuts
+     * down connections still active after that.
+     * <p/>
+     * Please note that connections waiting for the next request on an idle
+     * keep-alive connection are shut down when the grace period expires only,
+     * unless the socket timeout elapses first.
+     *
+     * @param gracePeriod the grace period. <code>0</code> means connections
+     *   are shut down immediately.
+     * @param timeUnit the time unit of the grace period.
+     */
+    public void shutdown(final long gracePeriod, final TimeUnit timeUnit) {
+        if (!this.status.compareAndSet(Status.ACTIVE, Status.STOPPING)) {
+            return;
+        }
+        final ServerSocket localSocket = this.serverSocket;
+        if (localSocket != null) {
+            try {
+                localSocket.close();
+            } catch (final IOException ex) {
+                this.exceptionLogger.log(ex);
+            }
+        }
+        this.listenerExecutor.shutdownNow();
+        this.workerExecutor.shutdown();
+        if (gracePeriod > 0) {
+            try {
+                this.workerExecutor.awaitTermination(gracePeriod, timeUnit);
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (final Worker worker: this.workers.keySet()) {
+            try {
+                worker.getConnection().shutdown();
+            } catch (final IOException ex) {
+                this.exceptionLogger.log(ex);
+            }
+        }
+        this.workerExecutor.shutdownNow();
+    }
+
+    public void awaitTermination(final long timeout, final TimeUnit timeUnit) throws InterruptedException {
+        this.workerExecutor.awaitTermination(timeout, timeUnit);
+    }
+
+    DefaultBHttpServerConnection createConnection(final Socket socket) throws IOException {
+        CharsetDecoder chardecoder = null;
+        CharsetEncoder charencoder = null;
+        final Charset charset = this.connectionConfig.getCharset();
+        final CodingErrorAction malformedInputAction = this.connectionConfig.getMalformedInputAction() != null ?
+                this.connectionConfig.getMalformedInputAction() : CodingErrorAction.REPORT;
+        final CodingErrorAction unmappableInputAction = this.connectionConfig.getUnmappableInputAction() != null ?
+                this.connectionConfig.getUnmappableInputAction() : CodingErrorAction.REPORT;
+        if (charset != null) {
+            chardecoder = charset.newDecoder();
+            chardecoder.onMalformedInput(malformedInputAction);
+            chardecoder.onUnmappableCharacter(unmappableInputAction);
+            charencoder = charset.newEncoder();
+            charencoder.onMalformedInput(malformedInputAction);
+            charencoder.onUnmappableCharacter(unmappableInputAction);
+        }
+        final DefaultBHttpServerConnection conn = new DefaultBHttpServerConnection(
+                this.connectionConfig.getBufferSize(),
+                this.connectionConfig.getFragmentSizeHint(),
+                chardecoder, charencoder,
+                this.connectionConfig.getMessageConstraints(),
+                null, null, null, null);
+        conn.bind(socket);
+        return conn;
+    }
+
+    boolean dispatch(final DefaultBHttpServerConnection conn) {
+        final Worker worker = new Worker(this, this.httpService, conn, this.exceptionLogger);
+        this.workers.put(worker, Boolean.TRUE);
+        try {
+            this.workerExecutor.execute(worker);
+            return true;
+        } catch (final RejectedExecutionException ex) {
+            this.workers.remove(worker);
+            return false;
+        }
+    }
+
+    void workerTerminated(final Worker worker) {
+        this.workers.remove(worker);
+        if (this.connectionPermits != null) {
+            this.connectionPermits.release();
+        }
+    }
+
+}
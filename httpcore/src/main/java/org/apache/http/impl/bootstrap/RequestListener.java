@@ -0,0 +1,114 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.http.impl.bootstrap;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.Semaphore;
+
+import org.apache.http.config.SocketConfig;
+import org.apache.http.impl.DefaultBHttpServerConnection;
+
+/**
+ * Accepts incoming connections and dispatches them to {@link Worker}s.
+ * At most as many connections as permitted by the connection limit are
+ * accepted at a time; further connection requests wait in the backlog
+ * of the server socket.
+ *
+ * @since 4.3
+ */
+class RequestListener implements Runnable {
+
+    private final HttpServer server;
+    private final ServerSocket serversocket;
+    private final SocketConfig socketConfig;
+    private final Semaphore connectionPermits;
+
+    RequestListener(
+            final HttpServer server,
+            final ServerSocket serversocket,
+            final SocketConfig socketConfig,
+            final Semaphore connectionPermits) {
+        super();
+        this.server = server;
+        this.serversocket = serversocket;
+        this.socketConfig = socketConfig;
+        this.connectionPermits = connectionPermits;
+    }
+
+    public void run() {
+        try {
+            while (this.server.isActive() && !Thread.interrupted()) {
+                if (this.connectionPermits != null) {
+                    this.connectionPermits.acquire();
+                }
+                final Socket socket;
+                try {
+                    socket = this.serversocket.accept();
+                } catch (final IOException ex) {
+                    if (this.connectionPermits != null) {
+                        this.connectionPermits.release();
+                    }
+                    throw ex;
+                }
+                boolean dispatched = false;
+                try {
+                    socket.setSoTimeout(this.socketConfig.getSoTimeout());
+                    socket.setKeepAlive(this.socketConfig.isSoKeepAlive());
+                    socket.setTcpNoDelay(this.socketConfig.isTcpNoDelay());
+                    if (this.socketConfig.getSoLinger() >= 0) {
+                        socket.setSoLinger(true, this.socketConfig.getSoLinger());
+                    }
+                    final DefaultBHttpServerConnection conn = this.server.createConnection(socket);
+                    dispatched = this.server.dispatch(conn);
+                } catch (final IOException ex) {
+                    // Failure to set up a single connection must not stop the listener
+                    this.server.getExceptionLogger().log(ex);
+                } finally {
+                    if (!dispatched) {
+                        try {
+                            socket.close();
+                        } catch (final IOException ignore) {
+                        }
+                        if (this.connectionPermits != null) {
+                            this.connectionPermits.release();
+                        }
+                    }
+                }
+            }
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (final IOException ex) {
+            if (this.server.isActive()) {
+                this.server.getExceptionLogger().log(ex);
+            }
+        }
+    }
+
+}
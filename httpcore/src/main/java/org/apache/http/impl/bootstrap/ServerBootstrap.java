@@ -0,0 +1,254 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.http.impl.bootstrap;
+
+import java.net.InetAddress;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.net.ServerSocketFactory;
+
+import org.apache.http.ConnectionReuseStrategy;
+import org.apache.http.HttpResponseFactory;
+import org.apache.http.config.ConnectionConfig;
+import org.apache.http.config.SocketConfig;
+import org.apache.http.impl.DefaultConnectionReuseStrategy;
+import org.apache.http.impl.DefaultHttpResponseFactory;
+import org.apache.http.protocol.HttpExpectationVerifier;
+import org.apache.http.protocol.HttpProcessor;
+import org.apache.http.protocol.HttpProcessorBuilder;
+import org.apache.http.protocol.HttpRequestHandler;
+import org.apache.http.protocol.HttpRequestHandlerMapper;
+import org.apache.http.protocol.HttpService;
+import org.apache.http.protocol.ResponseConnControl;
+import org.apache.http.protocol.ResponseContent;
+import org.apache.http.protocol.ResponseDate;
+import org.apache.http.protocol.ResponseServer;
+import org.apache.http.protocol.UriHttpRequestHandlerMapper;
+
+/**
+ * Builder for {@link HttpServer} instances.
+ *
+ * @since 4.3
+ */
+public class ServerBootstrap {
+
+    private int listenerPort;
+    private InetAddress localAddress;
+    private SocketConfig socketConfig;
+    private ConnectionConfig connectionConfig;
+    private HttpProcessor httpProcessor;
+    private ConnectionReuseStrategy connStrategy;
+    private HttpResponseFactory responseFactory;
+    private HttpRequestHandlerMapper handlerMapper;
+    private Map<String, HttpRequestHandler> handlerMap;
+    private HttpExpectationVerifier expectationVerifier;
+    private ServerSocketFactory serverSocketFactory;
+    private int maxConnections;
+    private boolean useVirtualThreads;
+    private ExceptionLogger exceptionLogger;
+    private String serverInfo;
+
+    public static ServerBootstrap bootstrap() {
+        return new ServerBootstrap();
+    }
+
+    ServerBootstrap() {
+        super();
+    }
+
+    /**
+     * Sets the port to listen on. <code>0</code> means any free port.
+     */
+    public final ServerBootstrap setListenerPort(final int listenerPort) {
+        this.listenerPort = listenerPort;
+        return this;
+    }
+
+    /**
+     * Sets the local interface to bind to. <code>null</code> means all interfaces.
+     */
+    public final ServerBootstrap setLocalAddress(final InetAddress localAddress) {
+        this.localAddress = localAddress;
+        return this;
+    }
+
+    public final ServerBootstrap setSocketConfig(final SocketConfig socketConfig) {
+        this.socketConfig = socketConfig;
+        return this;
+    }
+
+    public final ServerBootstrap setConnectionConfig(final ConnectionConfig connectionConfig) {
+        this.connectionConfig = connectionConfig;
+        return this;
+    }
+
+    /**
+     * Sets the protocol processor. If not set a processor with standard
+     * server-side protocol interceptors is used.
+     */
+    public final ServerBootstrap setHttpProcessor(final HttpProcessor httpProcessor) {
+        this.httpProcessor = httpProcessor;
+        return this;
+    }
+
+    /**
+     * Sets the value of the <code>Server</code> response header generated
+     * by the default protocol processor.
+     */
+    public final ServerBootstrap setServerInfo(final String serverInfo) {
+        this.serverInfo = serverInfo;
+        return this;
+    }
+
+    public final ServerBootstrap setConnectionReuseStrategy(final ConnectionReuseStrategy connStrategy) {
+        this.connStrategy = connStrategy;
+        return this;
+    }
+
+    public final ServerBootstrap setResponseFactory(final HttpResponseFactory responseFactory) {
+        this.responseFactory = responseFactory;
+        return this;
+    }
+
+    /**
+     * Sets the handler mapper. Handlers registered with
+     * {@link #registerHandler(String, HttpRequestHandler)} are ignored
+     * if the handler mapper is set.
+     */
+    public final ServerBootstrap setHandlerMapper(final HttpRequestHandlerMapper handlerMapper) {
+        this.handlerMapper = handlerMapper;
+        return this;
+    }
+
+    /**
+     * Registers the given handler for the given request URI pattern.
+     *
+     * @see UriHttpRequestHandlerMapper
+     */
+    public final ServerBootstrap registerHandler(final String pattern, final HttpRequestHandler handler) {
+        if (pattern == null || handler == null) {
+            return this;
+        }
+        if (this.handlerMap == null) {
+            this.handlerMap = new HashMap<String, HttpRequestHandler>();
+        }
+        this.handlerMap.put(pattern, handler);
+        return this;
+    }
+
+    public final ServerBootstrap setExpectationVerifier(final HttpExpectationVerifier expectationVerifier) {
+        this.expectationVerifier = expectationVerifier;
+        return this;
+    }
+
+    /**
+     * Sets the factory for the server socket, for instance
+     * an {@link javax.net.ssl.SSLServerSocketFactory}. If not set, the server
+     * socket is opened through a {@link java.nio.channels.ServerSocketChannel}.
+     * Please note that file content can be transferred to the socket directly
+     * only if sockets created by the factory have a channel.
+     */
+    public final ServerBootstrap setServerSocketFactory(final ServerSocketFactory serverSocketFactory) {
+        this.serverSocketFactory = serverSocketFactory;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of connections served concurrently. Further
+     * connection requests wait in the backlog of the server socket until
+     * a connection is closed. <code>0</code> means no limit.
+     */
+    public final ServerBootstrap setMaxConnections(final int maxConnections) {
+        this.maxConnections = maxConnections;
+        return this;
+    }
+
+    /**
+     * Sets whether connections should be served by virtual threads. Virtual
+     * threads are used only if supported by the Java runtime (Java 21 or
+     * newer), otherwise connections are served by platform threads.
+     *
+     * @see HttpServer#isVirtualThreads()
+     */
+    public final ServerBootstrap setUseVirtualThreads(final boolean useVirtualThreads) {
+        this.useVirtualThreads = useVirtualThreads;
+        return this;
+    }
+
+    public final ServerBootstrap setExceptionLogger(final ExceptionLogger exceptionLogger) {
+        this.exceptionLogger = exceptionLogger;
+        return this;
+    }
+
+    public HttpServer create() {
+        HttpProcessor httpProcessorCopy = this.httpProcessor;
+        if (httpProcessorCopy == null) {
+            String serverInfoCopy = this.serverInfo;
+            if (serverInfoCopy == null) {
+                serverInfoCopy = "HttpCore/1.1";
+            }
+            httpProcessorCopy = HttpProcessorBuilder.create()
+                    .add(new ResponseDate())
+                    .add(new ResponseServer(serverInfoCopy))
+                    .add(new ResponseContent())
+                    .add(new ResponseConnControl())
+                    .build();
+        }
+
+        HttpRequestHandlerMapper handlerMapperCopy = this.handlerMapper;
+        if (handlerMapperCopy == null) {
+            final UriHttpRequestHandlerMapper registry = new UriHttpRequestHandlerMapper();
+            if (this.handlerMap != null) {
+                for (final Map.Entry<String, HttpRequestHandler> entry: this.handlerMap.entrySet()) {
+                    registry.register(entry.getKey(), entry.getValue());
+                }
+            }
+            handlerMapperCopy = registry;
+        }
+
+        final HttpService httpService = new HttpService(
+                httpProcessorCopy,
+                this.connStrategy != null ? this.connStrategy : DefaultConnectionReuseStrategy.INSTANCE,
+                this.responseFactory != null ? this.responseFactory : DefaultHttpResponseFactory.INSTANCE,
+                handlerMapperCopy,
+                this.expectationVerifier);
+
+        return new HttpServer(
+                this.listenerPort > 0 ? this.listenerPort : 0,
+                this.localAddress,
+                this.socketConfig != null ? this.socketConfig : SocketConfig.DEFAULT,
+                this.connectionConfig != null ? this.connectionConfig : ConnectionConfig.DEFAULT,
+                this.serverSocketFactory,
+                httpService,
+                this.maxConnections,
+                this.useVirtualThreads,
+                this.exceptionLogger != null ? this.exceptionLogger : ExceptionLogger.NO_OP);
+    }
+
+}
@@ -0,0 +1,70 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.http.impl.bootstrap;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to virtual threads of Java 21 and newer by reflection, which
+ * keeps this module compatible with older Java versions.
+ *
+ * @since 4.3
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Creates an executor running each task in a new virtual thread
+     * named with the given prefix followed by a sequence number.
+     *
+     * @return the executor or <code>null</code> if the Java runtime does
+     *   not support virtual threads.
+     */
+    static ExecutorService newThreadPerTaskExecutor(final String namePrefix) {
+        try {
+            final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            final Object namedBuilder = builderClass.getMethod("name", String.class, long.class)
+                    .invoke(builder, namePrefix + "-", Long.valueOf(1));
+            final ThreadFactory threadFactory = (ThreadFactory) builderClass.getMethod("factory")
+                    .invoke(namedBuilder);
+            final Method newExecutor = Executors.class.getMethod(
+                    "newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) newExecutor.invoke(null, threadFactory);
+        } catch (final Exception ex) {
+            // Not supported by the runtime or disabled
+            return null;
+        }
+    }
+
+}
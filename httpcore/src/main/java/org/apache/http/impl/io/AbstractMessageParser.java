@@ -42,6 +42,7 @@ import org.apache.http.config.MessageConstraints;
 import org.apache.http.io.HttpMessageParser;
 import org.apache.http.io.SessionInputBuffer;
 import org.apache.http.message.BasicLineParser;
+import org.apache.http.message.HeaderBufferParser;
 import org.apache.http.message.LineParser;
 import org.apache.http.params.HttpParamConfig;
 import org.apache.http.params.HttpParams;
@@ -51,6 +52,10 @@ import org.apache.http.util.CharArrayBuffer;
 /**
  * Abstract base class for HTTP message parsers that obtain input from
  * an instance of {@link SessionInputBuffer}.
+ * <p/>
+ * If the line parser implements {@link HeaderBufferParser} all header lines
+ * of a message are collected into a single buffer and headers are created
+ * from regions of that buffer.
  *
  * @since 4.0
  */
@@ -69,6 +74,12 @@ public abstract class AbstractMessageParser<T extends HttpMessage> implements Ht
     private int state;
     private T message;
 
+    private CharArrayBuffer lineBuf;
+    private CharArrayBuffer headerBlock;
+    private int[] headerEnds;
+    private int headerCount;
+    private int headerBlockHint;
+
     /**
      * Creates an instance of AbstractMessageParser.
      *
@@ -254,6 +265,82 @@ public abstract class AbstractMessageParser<T extends HttpMessage> implements Ht
     protected abstract T parseHead(SessionInputBuffer sessionBuffer)
         throws IOException, HttpException, ParseException;
 
+    /**
+     * Reads all header lines of the current message into a single buffer
+     * and lets the parser create headers from regions of that buffer.
+     * The state is kept in this instance, which makes it possible to resume
+     * parsing of headers in case of a {@link java.io.InterruptedIOException}.
+     */
+    private Header[] parseHeaderBlock(final HeaderBufferParser parser)
+            throws HttpException, IOException {
+        final int maxHeaderCount = this.messageConstraints.getMaxHeaderCount();
+        final int maxLineLen = this.messageConstraints.getMaxLineLength();
+        if (this.headerBlock == null) {
+            this.headerBlock = new CharArrayBuffer(Math.max(this.headerBlockHint, 256));
+            this.headerCount = 0;
+        }
+        if (this.lineBuf == null) {
+            this.lineBuf = new CharArrayBuffer(64);
+        }
+        if (this.headerEnds == null) {
+            this.headerEnds = new int[16];
+        }
+        final CharArrayBuffer block = this.headerBlock;
+        final CharArrayBuffer current = this.lineBuf;
+        for (;;) {
+            current.clear();
+            final int l = this.sessionBuffer.readLine(current);
+            if (l == -1 || current.length() < 1) {
+                break;
+            }
+            if ((current.charAt(0) == ' ' || current.charAt(0) == '\t') && this.headerCount > 0) {
+                // Folded header line: append its value to the last header,
+                // which always ends at the end of the block
+                int i = 0;
+                while (i < current.length()) {
+                    final char ch = current.charAt(i);
+                    if (ch != ' ' && ch != '\t') {
+                        break;
+                    }
+                    i++;
+                }
+                final int previous = this.headerCount > 1 ? this.headerEnds[this.headerCount - 2] : 0;
+                if (maxLineLen > 0
+                        && block.length() - previous + 1 + current.length() - i > maxLineLen) {
+                    throw new MessageConstraintException("Maximum line length limit exceeded");
+                }
+                block.append(' ');
+                block.append(current, i, current.length() - i);
+                this.headerEnds[this.headerCount - 1] = block.length();
+            } else {
+                block.append(current);
+                if (this.headerCount == this.headerEnds.length) {
+                    final int[] newEnds = new int[this.headerEnds.length << 1];
+                    System.arraycopy(this.headerEnds, 0, newEnds, 0, this.headerCount);
+                    this.headerEnds = newEnds;
+                }
+                this.headerEnds[this.headerCount] = block.length();
+                this.headerCount++;
+            }
+            if (maxHeaderCount > 0 && this.headerCount >= maxHeaderCount) {
+                throw new MessageConstraintException("Maximum header count exceeded");
+            }
+        }
+        this.headerBlockHint = block.length();
+        final Header[] headers = new Header[this.headerCount];
+        int beginIndex = 0;
+        for (int i = 0; i < this.headerCount; i++) {
+            final int endIndex = this.headerEnds[i];
+            try {
+                headers[i] = parser.parseHeader(block, beginIndex, endIndex);
+            } catch (final ParseException ex) {
+                throw new ProtocolException(ex.getMessage());
+            }
+            beginIndex = endIndex;
+        }
+        return headers;
+    }
+
     public T parse() throws IOException, HttpException {
         final int st = this.state;
         switch (st) {
@@ -266,16 +353,23 @@ public abstract class AbstractMessageParser<T extends HttpMessage> implements Ht
             this.state = HEADERS;
             //$FALL-THROUGH$
         case HEADERS:
-            final Header[] headers = AbstractMessageParser.parseHeaders(
-                    this.sessionBuffer,
-                    this.messageConstraints.getMaxHeaderCount(),
-                    this.messageConstraints.getMaxLineLength(),
-                    this.lineParser,
-                    this.headerLines);
+            final Header[] headers;
+            if (this.lineParser instanceof HeaderBufferParser) {
+                headers = parseHeaderBlock((HeaderBufferParser) this.lineParser);
+            } else {
+                headers = AbstractMessageParser.parseHeaders(
+                        this.sessionBuffer,
+                        this.messageConstraints.getMaxHeaderCount(),
+                        this.messageConstraints.getMaxLineLength(),
+                        this.lineParser,
+                        this.headerLines);
+            }
             this.message.setHeaders(headers);
             final T result = this.message;
             this.message = null;
             this.headerLines.clear();
+            this.headerBlock = null;
+            this.headerCount = 0;
             this.state = HEAD_LINE;
             return result;
         default:
@@ -29,8 +29,11 @@ package org.apache.http.impl.io;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 
 import org.apache.http.annotation.NotThreadSafe;
+import org.apache.http.io.FileContentOutput;
 import org.apache.http.io.SessionOutputBuffer;
 import org.apache.http.util.Args;
 
@@ -48,7 +51,7 @@ import org.apache.http.util.Args;
  * @since 4.0
  */
 @NotThreadSafe
-public class ContentLengthOutputStream extends OutputStream {
+public class ContentLengthOutputStream extends OutputStream implements FileContentOutput {
 
     /**
      * Wrapped session output buffer.
@@ -121,6 +124,32 @@ public class ContentLengthOutputStream extends OutputStream {
         write(b, 0, b.length);
     }
 
+    /**
+     * Transfers a portion of content from the given file channel. If the session
+     * output buffer is a {@link FileContentOutput} the content is transferred
+     * directly, otherwise it is written out through this stream.
+     *
+     * @since 4.3
+     */
+    public long transfer(final FileChannel src, final long position, final long count) throws IOException {
+        if (this.closed) {
+            throw new IOException("Attempted write to closed stream.");
+        }
+        if (this.total >= this.contentLength) {
+            return 0;
+        }
+        final long len = Math.min(count, this.contentLength - this.total);
+        if (this.out instanceof FileContentOutput) {
+            final long bytesWritten = ((FileContentOutput) this.out).transfer(src, position, len);
+            if (bytesWritten > 0) {
+                this.total += bytesWritten;
+            }
+            return bytesWritten;
+        } else {
+            return src.transferTo(position, len, Channels.newChannel(this));
+        }
+    }
+
     @Override
     public void write(final int b) throws IOException {
         if (this.closed) {
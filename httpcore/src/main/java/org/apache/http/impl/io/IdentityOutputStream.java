@@ -29,8 +29,11 @@ package org.apache.http.impl.io;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 
 import org.apache.http.annotation.NotThreadSafe;
+import org.apache.http.io.FileContentOutput;
 import org.apache.http.io.SessionOutputBuffer;
 import org.apache.http.util.Args;
 
@@ -47,7 +50,7 @@ import org.apache.http.util.Args;
  * @since 4.0
  */
 @NotThreadSafe
-public class IdentityOutputStream extends OutputStream {
+public class IdentityOutputStream extends OutputStream implements FileContentOutput {
 
     /**
      * Wrapped session output buffer.
@@ -93,6 +96,24 @@ public class IdentityOutputStream extends OutputStream {
         write(b, 0, b.length);
     }
 
+    /**
+     * Transfers a portion of content from the given file channel. If the session
+     * output buffer is a {@link FileContentOutput} the content is transferred
+     * directly, otherwise it is written out through this stream.
+     *
+     * @since 4.3
+     */
+    public long transfer(final FileChannel src, final long position, final long count) throws IOException {
+        if (this.closed) {
+            throw new IOException("Attempted write to closed stream.");
+        }
+        if (this.out instanceof FileContentOutput) {
+            return ((FileContentOutput) this.out).transfer(src, position, count);
+        } else {
+            return src.transferTo(position, count, Channels.newChannel(this));
+        }
+    }
+
     @Override
     public void write(final int b) throws IOException {
         if (this.closed) {
@@ -45,6 +45,7 @@ import org.apache.http.util.Args;
 import org.apache.http.util.Asserts;
 import org.apache.http.util.ByteArrayBuffer;
 import org.apache.http.util.CharArrayBuffer;
+import org.apache.http.util.CharsetUtils;
 
 /**
  * Abstract base class for session input buffers that stream data from
@@ -66,6 +67,7 @@ public class SessionInputBufferImpl implements SessionInputBuffer, BufferInfo {
     private final int minChunkLimit;
     private final MessageConstraints constraints;
     private final CharsetDecoder decoder;
+    private final boolean asciiCompatible;
 
     private InputStream instream;
     private int bufferpos;
@@ -103,6 +105,7 @@ public class SessionInputBufferImpl implements SessionInputBuffer, BufferInfo {
         this.constraints = constraints != null ? constraints : MessageConstraints.DEFAULT;
         this.linebuffer = new ByteArrayBuffer(buffersize);
         this.decoder = chardecoder;
+        this.asciiCompatible = chardecoder != null && CharsetUtils.isASCIICompatible(chardecoder.charset());
     }
 
     public void bind(final InputStream instream) {
@@ -335,6 +338,10 @@ public class SessionInputBufferImpl implements SessionInputBuffer, BufferInfo {
         if (!bbuf.hasRemaining()) {
             return 0;
         }
+        if (this.asciiCompatible && appendASCII(
+                charbuffer, bbuf.array(), bbuf.arrayOffset() + bbuf.position(), bbuf.remaining())) {
+            return bbuf.remaining();
+        }
         if (this.cbuf == null) {
             this.cbuf = CharBuffer.allocate(1024);
         }
@@ -350,6 +357,32 @@ public class SessionInputBufferImpl implements SessionInputBuffer, BufferInfo {
         return len;
     }
 
+    /**
+     * Appends the given bytes to the char buffer using simple type cast
+     * unless they contain non US-ASCII bytes, in which case the char buffer
+     * is left unchanged.
+     *
+     * @return <code>true</code> if the bytes have been appended.
+     */
+    private static boolean appendASCII(
+            final CharArrayBuffer charbuffer, final byte[] b, final int off, final int len) {
+        final int oldlen = charbuffer.length();
+        charbuffer.ensureCapacity(len);
+        final char[] chars = charbuffer.buffer();
+        int bits = 0;
+        for (int i = 0; i < len; i++) {
+            final byte ch = b[off + i];
+            bits |= ch;
+            chars[oldlen + i] = (char) ch;
+        }
+        if (bits < 0) {
+            // at least one byte has its high bit set
+            return false;
+        }
+        charbuffer.setLength(oldlen + len);
+        return true;
+    }
+
     private int handleDecodingResult(
             final CoderResult result,
             final CharArrayBuffer charbuffer,
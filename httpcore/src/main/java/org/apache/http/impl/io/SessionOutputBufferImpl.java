@@ -31,11 +31,15 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.CharsetEncoder;
 import java.nio.charset.CoderResult;
 
 import org.apache.http.annotation.NotThreadSafe;
 import org.apache.http.io.BufferInfo;
+import org.apache.http.io.FileContentOutput;
 import org.apache.http.io.HttpTransportMetrics;
 import org.apache.http.io.SessionOutputBuffer;
 import org.apache.http.protocol.HTTP;
@@ -51,11 +55,15 @@ import org.apache.http.util.CharArrayBuffer;
  * </p>
  * {@link #writeLine(CharArrayBuffer)} and {@link #writeLine(String)} methods
  * of this class use CR-LF as a line delimiter.
+ * <p/>
+ * If the buffer is bound to a channel as well as a stream, file content
+ * transferred with {@link #transfer(FileChannel, long, long)} is written
+ * directly to the channel.
  *
  * @since 4.3
  */
 @NotThreadSafe
-public class SessionOutputBufferImpl implements SessionOutputBuffer, BufferInfo {
+public class SessionOutputBufferImpl implements SessionOutputBuffer, BufferInfo, FileContentOutput {
 
     private static final byte[] CRLF = new byte[] {HTTP.CR, HTTP.LF};
 
@@ -65,6 +73,7 @@ public class SessionOutputBufferImpl implements SessionOutputBuffer, BufferInfo
     private final CharsetEncoder encoder;
 
     private OutputStream outstream;
+    private WritableByteChannel channel;
     private ByteBuffer bbuf;
 
     /**
@@ -93,7 +102,22 @@ public class SessionOutputBufferImpl implements SessionOutputBuffer, BufferInfo
     }
 
     public void bind(final OutputStream outstream) {
+        bind(outstream, null);
+    }
+
+    /**
+     * Binds this buffer to the given output stream and optionally to
+     * a channel writing to the same destination.
+     *
+     * @param outstream the output stream.
+     * @param channel the channel used for direct transfer of file content.
+     *   May be <code>null</code>.
+     *
+     * @since 4.3
+     */
+    public void bind(final OutputStream outstream, final WritableByteChannel channel) {
         this.outstream = outstream;
+        this.channel = channel;
     }
 
     public boolean isBound() {
@@ -137,6 +161,26 @@ public class SessionOutputBufferImpl implements SessionOutputBuffer, BufferInfo
         flushStream();
     }
 
+    /**
+     * @since 4.3
+     */
+    public long transfer(final FileChannel src, final long position, final long count) throws IOException {
+        Args.notNull(src, "File channel");
+        Asserts.notNull(this.outstream, "Output stream");
+        flushBuffer();
+        final long bytesWritten;
+        if (this.channel != null) {
+            flushStream();
+            bytesWritten = src.transferTo(position, count, this.channel);
+        } else {
+            bytesWritten = src.transferTo(position, count, Channels.newChannel(this.outstream));
+        }
+        if (bytesWritten > 0) {
+            this.metrics.incrementBytesTransferred(bytesWritten);
+        }
+        return bytesWritten;
+    }
+
     public void write(final byte[] b, final int off, final int len) throws IOException {
         if (b == null) {
             return;
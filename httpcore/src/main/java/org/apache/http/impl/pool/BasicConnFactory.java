@@ -34,6 +34,7 @@ import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CharsetEncoder;
 import java.nio.charset.CodingErrorAction;
 
+import javax.net.ssl.SSLSocket;
 import javax.net.ssl.SSLSocketFactory;
 
 import org.apache.http.HttpClientConnection;
@@ -64,6 +65,7 @@ public class BasicConnFactory implements ConnFactory<HttpHost, HttpClientConnect
     private final int connectTimeout;
     private final SocketConfig sconfig;
     private final ConnectionConfig cconfig;
+    private final SSLSessionCache sessionCache;
 
     /**
      * @deprecated (4.3) use
@@ -77,6 +79,7 @@ public class BasicConnFactory implements ConnFactory<HttpHost, HttpClientConnect
         this.connectTimeout = HttpConnectionParams.getConnectionTimeout(params);
         this.sconfig = HttpParamConfig.getSocketConfig(params);
         this.cconfig = HttpParamConfig.getConnectionConfig(params);
+        this.sessionCache = null;
     }
 
     /**
@@ -89,18 +92,39 @@ public class BasicConnFactory implements ConnFactory<HttpHost, HttpClientConnect
     }
 
     /**
+     * @param sslfactory SSL socket factory. May be <code>null</code>.
+     * @param connectTimeout connect timeout in milliseconds.
+     * @param sconfig socket configuration.
+     * @param cconfig connection configuration.
+     * @param sessionCache optional cache of TLS/SSL sessions. If specified
+     *   SSL handshakes are completed when the connection is created and their
+     *   sessions reported to the cache. May be <code>null</code>.
+     *
      * @since 4.3
      */
     public BasicConnFactory(
             final SSLSocketFactory sslfactory,
             final int connectTimeout,
             final SocketConfig sconfig,
-            final ConnectionConfig cconfig) {
+            final ConnectionConfig cconfig,
+            final SSLSessionCache sessionCache) {
         super();
         this.sslfactory = sslfactory;
         this.connectTimeout = connectTimeout;
         this.sconfig = sconfig != null ? sconfig : SocketConfig.DEFAULT;
         this.cconfig = cconfig != null ? cconfig : ConnectionConfig.DEFAULT;
+        this.sessionCache = sessionCache;
+    }
+
+    /**
+     * @since 4.3
+     */
+    public BasicConnFactory(
+            final SSLSocketFactory sslfactory,
+            final int connectTimeout,
+            final SocketConfig sconfig,
+            final ConnectionConfig cconfig) {
+        this(sslfactory, connectTimeout, sconfig, cconfig, null);
     }
 
     /**
@@ -138,17 +162,11 @@ public class BasicConnFactory implements ConnFactory<HttpHost, HttpClientConnect
 
     public HttpClientConnection create(final HttpHost host) throws IOException {
         final String scheme = host.getSchemeName();
-        Socket socket = null;
-        if ("http".equalsIgnoreCase(scheme)) {
-            socket = new Socket();
-        } if ("https".equalsIgnoreCase(scheme)) {
-            if (this.sslfactory != null) {
-                socket = this.sslfactory.createSocket();
-            }
-        }
-        if (socket == null) {
+        final boolean secure = "https".equalsIgnoreCase(scheme);
+        if (!"http".equalsIgnoreCase(scheme) && !(secure && this.sslfactory != null)) {
             throw new IOException(scheme + " scheme is not supported");
         }
+        Socket socket = new Socket();
         socket.setSoTimeout(this.sconfig.getSoTimeout());
         socket.connect(new InetSocketAddress(host.getHostName(), host.getPort()), this.connectTimeout);
         socket.setTcpNoDelay(this.sconfig.isTcpNoDelay());
@@ -156,6 +174,22 @@ public class BasicConnFactory implements ConnFactory<HttpHost, HttpClientConnect
         if (linger >= 0) {
             socket.setSoLinger(linger > 0, linger);
         }
+        if (secure) {
+            // Layer SSL over the connected socket using the route host and port
+            // as a peer hint, which enables resumption of cached SSL sessions
+            final SSLSocket sslsocket = (SSLSocket) this.sslfactory.createSocket(
+                    socket, host.getHostName(), host.getPort(), true);
+            if (this.sessionCache != null) {
+                try {
+                    sslsocket.startHandshake();
+                } catch (final IOException ex) {
+                    sslsocket.close();
+                    throw ex;
+                }
+                this.sessionCache.sessionEstablished(host, sslsocket.getSession());
+            }
+            socket = sslsocket;
+        }
         CharsetDecoder chardecoder = null;
         CharsetEncoder charencoder = null;
         final Charset charset = this.cconfig.getCharset();
@@ -0,0 +1,148 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.http.impl.pool;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.net.ssl.SSLSession;
+
+import org.apache.http.HttpHost;
+import org.apache.http.annotation.ThreadSafe;
+import org.apache.http.util.Args;
+
+/**
+ * Route aware registry of TLS/SSL sessions established by client connections.
+ * <p/>
+ * TLS/SSL sessions are resumed by the client session cache of the SSL context,
+ * which looks up sessions by peer host name and port. Connection factories
+ * configured with this cache hint SSL engines and sockets with the host and
+ * port of the connection route, so that new connections to the same route can
+ * resume the session of a previous connection instead of performing a full
+ * handshake. Every completed handshake is reported to this cache, which
+ * keeps track of the most recent session of each route and counts the
+ * handshakes that resumed it (hits) and those that did not (misses).
+ *
+ * @since 4.3
+ */
+@ThreadSafe
+public class SSLSessionCache {
+
+    private final ConcurrentMap<HttpHost, SSLSession> sessionMap;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+
+    public SSLSessionCache() {
+        super();
+        this.sessionMap = new ConcurrentHashMap<HttpHost, SSLSession>();
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+    }
+
+    /**
+     * Records a TLS/SSL session established by a connection to the given
+     * route.
+     *
+     * @param route the connection route.
+     * @param session the TLS/SSL session.
+     * @return <code>true</code> if the session resumes the most recent
+     *   session of the route, <code>false</code> otherwise.
+     */
+    public boolean sessionEstablished(final HttpHost route, final SSLSession session) {
+        Args.notNull(route, "Route");
+        Args.notNull(session, "SSL session");
+        final SSLSession previous = this.sessionMap.put(route, session);
+        final boolean resumed = previous != null
+                && Arrays.equals(previous.getId(), session.getId());
+        if (resumed) {
+            this.hits.incrementAndGet();
+        } else {
+            this.misses.incrementAndGet();
+        }
+        return resumed;
+    }
+
+    /**
+     * Returns the most recent TLS/SSL session of the given route or
+     * <code>null</code> if no session has been established yet.
+     */
+    public SSLSession getSession(final HttpHost route) {
+        Args.notNull(route, "Route");
+        return this.sessionMap.get(route);
+    }
+
+    /**
+     * Invalidates the most recent TLS/SSL session of the given route, forcing
+     * the next connection to that route to perform a full handshake.
+     */
+    public void invalidate(final HttpHost route) {
+        Args.notNull(route, "Route");
+        final SSLSession session = this.sessionMap.remove(route);
+        if (session != null) {
+            session.invalidate();
+        }
+    }
+
+    /**
+     * Invalidates TLS/SSL sessions of all routes.
+     */
+    public void clear() {
+        for (final HttpHost route: this.sessionMap.keySet()) {
+            invalidate(route);
+        }
+    }
+
+    /**
+     * Returns the number of handshakes that resumed a previous session.
+     */
+    public long getHitCount() {
+        return this.hits.get();
+    }
+
+    /**
+     * Returns the number of handshakes that established a new session.
+     */
+    public long getMissCount() {
+        return this.misses.get();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder buffer = new StringBuilder();
+        buffer.append("[hits: ");
+        buffer.append(this.hits.get());
+        buffer.append("; misses: ");
+        buffer.append(this.misses.get());
+        buffer.append("; routes: ");
+        buffer.append(this.sessionMap.size());
+        buffer.append("]");
+        return buffer.toString();
+    }
+
+}
@@ -161,13 +161,15 @@ public class BasicLineParser implements LineParser {
                 ("Invalid protocol version number: " +
                  buffer.substring(indexFrom, indexTo));
         }
-        int major;
-        try {
-            major = Integer.parseInt(buffer.substringTrimmed(i, period));
-        } catch (final NumberFormatException e) {
-            throw new ParseException
-                ("Invalid protocol major version number: " +
-                 buffer.substring(indexFrom, indexTo));
+        int major = parseDigits(buffer, i, period);
+        if (major < 0) {
+            try {
+                major = Integer.parseInt(buffer.substringTrimmed(i, period));
+            } catch (final NumberFormatException e) {
+                throw new ParseException
+                    ("Invalid protocol major version number: " +
+                     buffer.substring(indexFrom, indexTo));
+            }
         }
         i = period + 1;
 
@@ -175,13 +177,15 @@ public class BasicLineParser implements LineParser {
         if (blank == -1) {
             blank = indexTo;
         }
-        int minor;
-        try {
-            minor = Integer.parseInt(buffer.substringTrimmed(i, blank));
-        } catch (final NumberFormatException e) {
-            throw new ParseException(
-                "Invalid protocol minor version number: " +
-                buffer.substring(indexFrom, indexTo));
+        int minor = parseDigits(buffer, i, blank);
+        if (minor < 0) {
+            try {
+                minor = Integer.parseInt(buffer.substringTrimmed(i, blank));
+            } catch (final NumberFormatException e) {
+                throw new ParseException(
+                    "Invalid protocol minor version number: " +
+                    buffer.substring(indexFrom, indexTo));
+            }
         }
 
         cursor.updatePos(blank);
@@ -204,6 +208,36 @@ public class BasicLineParser implements LineParser {
         return protocol.forVersion(major, minor);
     }
 
+    /**
+     * Parses a plain decimal number of up to nine digits from a region of
+     * the buffer without creating an intermediate string.
+     *
+     * @return the number or <code>-1</code> if the trimmed region is not
+     *   a plain decimal number of up to nine digits.
+     */
+    private static int parseDigits(final CharArrayBuffer buffer, final int beginIndex, final int endIndex) {
+        int begin = beginIndex;
+        int end = endIndex;
+        while (begin < end && HTTP.isWhitespace(buffer.charAt(begin))) {
+            begin++;
+        }
+        while (end > begin && HTTP.isWhitespace(buffer.charAt(end - 1))) {
+            end--;
+        }
+        if (begin == end || end - begin > 9) {
+            return -1;
+        }
+        int n = 0;
+        for (int i = begin; i < end; i++) {
+            final char ch = buffer.charAt(i);
+            if (ch < '0' || ch > '9') {
+                return -1;
+            }
+            n = n * 10 + (ch - '0');
+        }
+        return n;
+    }
+
 
 
     // non-javadoc, see interface LineParser
@@ -294,7 +328,7 @@ public class BasicLineParser implements LineParser {
                 throw new ParseException("Invalid request line: " +
                         buffer.substring(indexFrom, indexTo));
             }
-            final String method = buffer.substringTrimmed(i, blank);
+            final String method = TokenTable.substringTrimmed(buffer, i, blank);
             cursor.updatePos(blank);
 
             skipWhitespace(buffer, cursor);
@@ -377,27 +411,29 @@ public class BasicLineParser implements LineParser {
             if (blank < 0) {
                 blank = indexTo;
             }
-            int statusCode = 0;
-            final String s = buffer.substringTrimmed(i, blank);
-            for (int j = 0; j < s.length(); j++) {
-                if (!Character.isDigit(s.charAt(j))) {
+            int statusCode = parseDigits(buffer, i, blank);
+            if (statusCode < 0) {
+                final String s = buffer.substringTrimmed(i, blank);
+                for (int j = 0; j < s.length(); j++) {
+                    if (!Character.isDigit(s.charAt(j))) {
+                        throw new ParseException(
+                                "Status line contains invalid status code: "
+                                + buffer.substring(indexFrom, indexTo));
+                    }
+                }
+                try {
+                    statusCode = Integer.parseInt(s);
+                } catch (final NumberFormatException e) {
                     throw new ParseException(
                             "Status line contains invalid status code: "
                             + buffer.substring(indexFrom, indexTo));
                 }
             }
-            try {
-                statusCode = Integer.parseInt(s);
-            } catch (final NumberFormatException e) {
-                throw new ParseException(
-                        "Status line contains invalid status code: "
-                        + buffer.substring(indexFrom, indexTo));
-            }
             //handle the Reason-Phrase
             i = blank;
             String reasonPhrase = null;
             if (i < indexTo) {
-                reasonPhrase = buffer.substringTrimmed(i, indexTo);
+                reasonPhrase = TokenTable.substringTrimmed(buffer, i, indexTo);
             } else {
                 reasonPhrase = "";
             }
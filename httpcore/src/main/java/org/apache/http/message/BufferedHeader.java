@@ -82,7 +82,7 @@ public class BufferedHeader implements FormattedHeader, Cloneable, Serializable
             throw new ParseException
                 ("Invalid header: " + buffer.toString());
         }
-        final String s = buffer.substringTrimmed(0, colon);
+        final String s = TokenTable.substringTrimmed(buffer, 0, colon);
         if (s.length() == 0) {
             throw new ParseException
                 ("Invalid header: " + buffer.toString());
@@ -0,0 +1,59 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.http.message;
+
+import org.apache.http.Header;
+import org.apache.http.ParseException;
+import org.apache.http.util.CharArrayBuffer;
+
+/**
+ * Parser for header lines stored as regions of a buffer shared by all
+ * headers of a message. Message parsers that are given a {@link LineParser}
+ * implementing this interface may collect the header section of a message
+ * into a single buffer instead of allocating a new buffer per header line.
+ *
+ * @since 4.3
+ */
+public interface HeaderBufferParser {
+
+    /**
+     * Creates a header from a region of the given buffer.
+     *
+     * @param buffer     a buffer holding one or more header lines.
+     *                   The buffer is not expected to change afterwards.
+     * @param beginIndex the beginning index of the header line, inclusive
+     * @param endIndex   the ending index of the header line, exclusive
+     *
+     * @return  the header in the argument buffer.
+     *
+     * @throws ParseException        in case of a parse error
+     */
+    Header parseHeader(CharArrayBuffer buffer, int beginIndex, int endIndex)
+        throws ParseException;
+
+}
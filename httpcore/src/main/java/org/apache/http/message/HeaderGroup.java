@@ -41,7 +41,10 @@ import org.apache.http.util.CharArrayBuffer;
  * A class for combining a set of headers.
  * This class allows for multiple headers with the same name and
  * keeps track of the order in which headers were added.
- *
+ * <p/>
+ * Once a group holds more than a few headers it gets indexed by
+ * a case-insensitive hash of the header names upon the first lookup,
+ * so that lookups no longer need to scan all headers of the group.
  *
  * @since 4.0
  */
@@ -50,8 +53,27 @@ public class HeaderGroup implements Cloneable, Serializable {
 
     private static final long serialVersionUID = 2608834160639271617L;
 
+    /** Groups with more headers than this get indexed */
+    private static final int INDEX_THRESHOLD = 8;
+
+    /** Lower case of US-ASCII chars */
+    private static final char[] LOWER_CASE = new char[0x80];
+
+    static {
+        for (char ch = 0; ch < LOWER_CASE.length; ch++) {
+            LOWER_CASE[ch] = ch >= 'A' && ch <= 'Z' ? (char) (ch + 'a' - 'A') : ch;
+        }
+    }
+
     /** The list of headers for this group, in the order in which they were added */
-    private final List<Header> headers;
+    private List<Header> headers;
+
+    /** Position of the first header of each bucket plus one, <code>null</code> if not indexed */
+    private transient int[] buckets;
+    /** Position of the next header in the same bucket plus one for each indexed header */
+    private transient int[] next;
+    /** Case-insensitive hash of the name of each indexed header */
+    private transient int[] hashes;
 
     /**
      * Constructor for HeaderGroup.
@@ -65,6 +87,7 @@ public class HeaderGroup implements Cloneable, Serializable {
      */
     public void clear() {
         headers.clear();
+        this.buckets = null;
     }
 
     /**
@@ -78,6 +101,15 @@ public class HeaderGroup implements Cloneable, Serializable {
             return;
         }
         headers.add(header);
+        if (this.buckets != null) {
+            final int count = this.headers.size();
+            if (count > this.buckets.length >> 1) {
+                // rebuild a larger index upon the next lookup
+                this.buckets = null;
+            } else {
+                indexHeader(count - 1);
+            }
+        }
     }
 
     /**
@@ -89,7 +121,9 @@ public class HeaderGroup implements Cloneable, Serializable {
         if (header == null) {
             return;
         }
-        headers.remove(header);
+        if (headers.remove(header)) {
+            this.buckets = null;
+        }
     }
 
     /**
@@ -103,14 +137,13 @@ public class HeaderGroup implements Cloneable, Serializable {
         if (header == null) {
             return;
         }
-        for (int i = 0; i < this.headers.size(); i++) {
-            final Header current = this.headers.get(i);
-            if (current.getName().equalsIgnoreCase(header.getName())) {
-                this.headers.set(i, header);
-                return;
-            }
+        final int i = indexOf(header.getName());
+        if (i >= 0) {
+            // same name, the index remains valid
+            this.headers.set(i, header);
+            return;
         }
-        this.headers.add(header);
+        addHeader(header);
     }
 
     /**
@@ -173,10 +206,20 @@ public class HeaderGroup implements Cloneable, Serializable {
     public Header[] getHeaders(final String name) {
         final List<Header> headersFound = new ArrayList<Header>();
 
-        for (int i = 0; i < headers.size(); i++) {
-            final Header header = headers.get(i);
-            if (header.getName().equalsIgnoreCase(name)) {
-                headersFound.add(header);
+        if (name != null && isIndexed()) {
+            final int h = hash(name);
+            for (int i = this.buckets[bucket(h)]; i != 0; i = this.next[i - 1]) {
+                final Header header = headers.get(i - 1);
+                if (this.hashes[i - 1] == h && matches(header, name)) {
+                    headersFound.add(header);
+                }
+            }
+        } else {
+            for (int i = 0; i < headers.size(); i++) {
+                final Header header = headers.get(i);
+                if (matches(header, name)) {
+                    headersFound.add(header);
+                }
             }
         }
 
@@ -192,13 +235,8 @@ public class HeaderGroup implements Cloneable, Serializable {
      * @return the first header or <code>null</code>
      */
     public Header getFirstHeader(final String name) {
-        for (int i = 0; i < headers.size(); i++) {
-            final Header header = headers.get(i);
-            if (header.getName().equalsIgnoreCase(name)) {
-                return header;
-            }
-        }
-        return null;
+        final int i = indexOf(name);
+        return i >= 0 ? headers.get(i) : null;
     }
 
     /**
@@ -210,10 +248,21 @@ public class HeaderGroup implements Cloneable, Serializable {
      * @return the last header or <code>null</code>
      */
     public Header getLastHeader(final String name) {
+        if (name != null && isIndexed()) {
+            final int h = hash(name);
+            Header last = null;
+            for (int i = this.buckets[bucket(h)]; i != 0; i = this.next[i - 1]) {
+                final Header header = headers.get(i - 1);
+                if (this.hashes[i - 1] == h && matches(header, name)) {
+                    last = header;
+                }
+            }
+            return last;
+        }
         // start at the end of the list and work backwards
         for (int i = headers.size() - 1; i >= 0; i--) {
             final Header header = headers.get(i);
-            if (header.getName().equalsIgnoreCase(name)) {
+            if (matches(header, name)) {
                 return header;
             }
         }
@@ -240,14 +289,7 @@ public class HeaderGroup implements Cloneable, Serializable {
      * contained, <code>false</code> otherwise
      */
     public boolean containsHeader(final String name) {
-        for (int i = 0; i < headers.size(); i++) {
-            final Header header = headers.get(i);
-            if (header.getName().equalsIgnoreCase(name)) {
-                return true;
-            }
-        }
-
-        return false;
+        return indexOf(name) >= 0;
     }
 
     /**
@@ -258,7 +300,7 @@ public class HeaderGroup implements Cloneable, Serializable {
      * @since 4.0
      */
     public HeaderIterator iterator() {
-        return new BasicListHeaderIterator(this.headers, null);
+        return new IndexAwareHeaderIterator(null);
     }
 
     /**
@@ -272,7 +314,7 @@ public class HeaderGroup implements Cloneable, Serializable {
      * @since 4.0
      */
     public HeaderIterator iterator(final String name) {
-        return new BasicListHeaderIterator(this.headers, name);
+        return new IndexAwareHeaderIterator(name);
     }
 
     /**
@@ -290,7 +332,13 @@ public class HeaderGroup implements Cloneable, Serializable {
 
     @Override
     public Object clone() throws CloneNotSupportedException {
-        return super.clone();
+        final HeaderGroup clone = (HeaderGroup) super.clone();
+        // do not share the header list and its index with the clone
+        clone.headers = new ArrayList<Header>(this.headers);
+        clone.buckets = null;
+        clone.next = null;
+        clone.hashes = null;
+        return clone;
     }
 
     @Override
@@ -298,4 +346,110 @@ public class HeaderGroup implements Cloneable, Serializable {
         return this.headers.toString();
     }
 
+    /**
+     * Returns the position of the first header with the given name or
+     * <code>-1</code> if there is no such header.
+     */
+    private int indexOf(final String name) {
+        if (name != null && isIndexed()) {
+            final int h = hash(name);
+            for (int i = this.buckets[bucket(h)]; i != 0; i = this.next[i - 1]) {
+                if (this.hashes[i - 1] == h && matches(headers.get(i - 1), name)) {
+                    return i - 1;
+                }
+            }
+            return -1;
+        }
+        for (int i = 0; i < headers.size(); i++) {
+            if (matches(headers.get(i), name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Builds the index if this group has grown large enough to be indexed.
+     *
+     * @return <code>true</code> if the group is indexed
+     */
+    private boolean isIndexed() {
+        if (this.buckets != null) {
+            return true;
+        }
+        final int count = this.headers.size();
+        if (count <= INDEX_THRESHOLD) {
+            return false;
+        }
+        int capacity = 32;
+        while (capacity >> 1 < count) {
+            capacity <<= 1;
+        }
+        this.buckets = new int[capacity];
+        this.next = new int[capacity >> 1];
+        this.hashes = new int[capacity >> 1];
+        for (int i = 0; i < count; i++) {
+            indexHeader(i);
+        }
+        return true;
+    }
+
+    private void indexHeader(final int pos) {
+        final int h = hash(this.headers.get(pos).getName());
+        this.hashes[pos] = h;
+        this.next[pos] = 0;
+        final int b = bucket(h);
+        int i = this.buckets[b];
+        if (i == 0) {
+            this.buckets[b] = pos + 1;
+        } else {
+            // keep the headers of a bucket in the order they were added
+            while (this.next[i - 1] != 0) {
+                i = this.next[i - 1];
+            }
+            this.next[i - 1] = pos + 1;
+        }
+    }
+
+    private int bucket(final int h) {
+        return (h ^ (h >>> 16)) & (this.buckets.length - 1);
+    }
+
+    private static boolean matches(final Header header, final String name) {
+        final String s = header.getName();
+        // well-known header names are usually the same string constants
+        return s == name || s.equalsIgnoreCase(name);
+    }
+
+    /**
+     * Computes a hash of the given header name that is consistent with
+     * {@link String#equalsIgnoreCase(String)}.
+     */
+    static int hash(final String name) {
+        int h = 0;
+        final int len = name.length();
+        for (int i = 0; i < len; i++) {
+            final char ch = name.charAt(i);
+            h = 31 * h + (ch < 0x80 ? LOWER_CASE[ch] : Character.toLowerCase(Character.toUpperCase(ch)));
+        }
+        return h;
+    }
+
+    /**
+     * Header iterator that drops the index when it removes headers.
+     */
+    private class IndexAwareHeaderIterator extends BasicListHeaderIterator {
+
+        IndexAwareHeaderIterator(final String name) {
+            super(headers, name);
+        }
+
+        @Override
+        public void remove() throws UnsupportedOperationException {
+            super.remove();
+            buckets = null;
+        }
+
+    }
+
 }
@@ -0,0 +1,160 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.http.message;
+
+import java.io.Serializable;
+
+import org.apache.http.FormattedHeader;
+import org.apache.http.HeaderElement;
+import org.apache.http.ParseException;
+import org.apache.http.annotation.NotThreadSafe;
+import org.apache.http.protocol.HTTP;
+import org.apache.http.util.Args;
+import org.apache.http.util.CharArrayBuffer;
+
+/**
+ * This class represents a raw HTTP header stored as a region of a buffer that
+ * may be shared with other headers of the same message. Neither the name nor
+ * the value of the header are converted to {@link String}s until they are
+ * accessed for the first time.
+ * <p/>
+ * The shared buffer is expected to remain unchanged for as long as
+ * the header is in use.
+ *
+ * @see LazyLineParser
+ *
+ * @since 4.3
+ */
+@NotThreadSafe
+public class LazyHeader implements FormattedHeader, Cloneable, Serializable {
+
+    private static final long serialVersionUID = -7434590932219049317L;
+
+    private final CharArrayBuffer buffer;
+    private final int beginIndex;
+    private final int endIndex;
+    private final int colon;
+
+    private String name;
+    private String value;
+    private CharArrayBuffer lineBuffer;
+
+    /**
+     * Creates a new header from a region of a buffer. The header is only
+     * validated, neither its name nor its value are parsed immediately.
+     *
+     * @param buffer     the buffer containing the header to represent
+     * @param beginIndex the beginning index of the header line, inclusive
+     * @param endIndex   the ending index of the header line, exclusive
+     *
+     * @throws ParseException   in case of a parse error
+     */
+    public LazyHeader(final CharArrayBuffer buffer, final int beginIndex, final int endIndex)
+        throws ParseException {
+        super();
+        Args.notNull(buffer, "Char array buffer");
+        if (beginIndex < 0 || endIndex > buffer.length() || beginIndex > endIndex) {
+            throw new IndexOutOfBoundsException("beginIndex: " + beginIndex + "; endIndex: "
+                    + endIndex + "; buffer length: " + buffer.length());
+        }
+        final int colon = buffer.indexOf(':', beginIndex, endIndex);
+        if (colon == -1) {
+            throw new ParseException
+                ("Invalid header: " + buffer.substring(beginIndex, endIndex));
+        }
+        boolean blank = true;
+        for (int i = beginIndex; i < colon; i++) {
+            if (!HTTP.isWhitespace(buffer.charAt(i))) {
+                blank = false;
+                break;
+            }
+        }
+        if (blank) {
+            throw new ParseException
+                ("Invalid header: " + buffer.substring(beginIndex, endIndex));
+        }
+        this.buffer = buffer;
+        this.beginIndex = beginIndex;
+        this.endIndex = endIndex;
+        this.colon = colon;
+    }
+
+    public String getName() {
+        if (this.name == null) {
+            this.name = TokenTable.substringTrimmed(this.buffer, this.beginIndex, this.colon);
+        }
+        return this.name;
+    }
+
+    public String getValue() {
+        if (this.value == null) {
+            this.value = this.buffer.substringTrimmed(this.colon + 1, this.endIndex);
+        }
+        return this.value;
+    }
+
+    public HeaderElement[] getElements() throws ParseException {
+        final ParserCursor cursor = new ParserCursor(this.colon + 1, this.endIndex);
+        return BasicHeaderValueParser.INSTANCE.parseElements(this.buffer, cursor);
+    }
+
+    /**
+     * Returns the position of the header value in the buffer returned
+     * by {@link #getBuffer()}.
+     */
+    public int getValuePos() {
+        return this.colon + 1 - this.beginIndex;
+    }
+
+    /**
+     * Returns a buffer containing this header line only. The buffer gets
+     * copied from the shared buffer upon the first invocation of this method.
+     */
+    public CharArrayBuffer getBuffer() {
+        if (this.lineBuffer == null) {
+            final int len = this.endIndex - this.beginIndex;
+            final CharArrayBuffer b = new CharArrayBuffer(len);
+            b.append(this.buffer, this.beginIndex, len);
+            this.lineBuffer = b;
+        }
+        return this.lineBuffer;
+    }
+
+    @Override
+    public String toString() {
+        return this.buffer.substring(this.beginIndex, this.endIndex);
+    }
+
+    @Override
+    public Object clone() throws CloneNotSupportedException {
+        // buffer is considered immutable
+        // no need to make a copy of it
+        return super.clone();
+    }
+
+}
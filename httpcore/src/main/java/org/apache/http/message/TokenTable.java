@@ -0,0 +1,175 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.http.message;
+
+import java.util.Locale;
+
+import org.apache.http.annotation.Immutable;
+import org.apache.http.protocol.HTTP;
+import org.apache.http.util.CharArrayBuffer;
+
+/**
+ * Static table of well-known tokens of HTTP message heads: request methods,
+ * registered header names and common reason phrases. Parsers resolve tokens
+ * against this table directly from the {@link CharArrayBuffer} they parse,
+ * so that well-known tokens are returned as shared constants instead of
+ * newly allocated {@link String}s.
+ *
+ * @since 4.3
+ */
+@Immutable
+final class TokenTable {
+
+    private static final String[] METHODS = {
+        "GET", "HEAD", "POST", "PUT", "DELETE", "OPTIONS", "TRACE", "CONNECT", "PATCH"
+    };
+
+    private static final String[] HEADER_NAMES = {
+        "Accept", "Accept-Charset", "Accept-Encoding", "Accept-Language", "Accept-Ranges",
+        "Age", "Allow", "Authorization", "Cache-Control", HTTP.CONN_DIRECTIVE,
+        HTTP.CONTENT_ENCODING, "Content-Disposition", "Content-Language", HTTP.CONTENT_LEN,
+        "Content-Location", "Content-MD5", "Content-Range", HTTP.CONTENT_TYPE, "Cookie",
+        HTTP.DATE_HEADER, "DNT", "ETag", HTTP.EXPECT_DIRECTIVE, "Expires", "From",
+        HTTP.TARGET_HOST, "If-Match", "If-Modified-Since", "If-None-Match", "If-Range",
+        "If-Unmodified-Since", HTTP.CONN_KEEP_ALIVE, "Last-Modified", "Link", "Location",
+        "Max-Forwards", "Origin", "Pragma", "Proxy-Authenticate", "Proxy-Authorization",
+        "Proxy-Connection", "Range", "Referer", "Retry-After", HTTP.SERVER_HEADER,
+        "Set-Cookie", "Set-Cookie2", "TE", "Trailer", HTTP.TRANSFER_ENCODING, "Upgrade",
+        HTTP.USER_AGENT, "Vary", "Via", "Warning", "WWW-Authenticate", "X-Forwarded-For",
+        "X-Forwarded-Host", "X-Forwarded-Proto", "X-Requested-With"
+    };
+
+    private static final String[] REASON_PHRASES = {
+        "Continue", "Switching Protocols", "OK", "Created", "Accepted", "No Content",
+        "Partial Content", "Moved Permanently", "Found", "Moved Temporarily", "See Other",
+        "Not Modified", "Temporary Redirect", "Bad Request", "Unauthorized", "Forbidden",
+        "Not Found", "Method Not Allowed", "Request Timeout", "Conflict", "Gone",
+        "Precondition Failed", "Internal Server Error", "Not Implemented", "Bad Gateway",
+        "Service Unavailable", "Gateway Timeout"
+    };
+
+    private static final String[] TABLE;
+    private static final int MAX_LENGTH;
+
+    static {
+        final String[] table = new String[512];
+        int maxLength = 0;
+        for (final String method : METHODS) {
+            maxLength = Math.max(maxLength, add(table, method));
+        }
+        for (final String name : HEADER_NAMES) {
+            maxLength = Math.max(maxLength, add(table, name));
+            // Header names are frequently sent in lower case as well
+            maxLength = Math.max(maxLength, add(table, name.toLowerCase(Locale.ENGLISH)));
+        }
+        for (final String phrase : REASON_PHRASES) {
+            maxLength = Math.max(maxLength, add(table, phrase));
+        }
+        TABLE = table;
+        MAX_LENGTH = maxLength;
+    }
+
+    private static int add(final String[] table, final String token) {
+        final int mask = table.length - 1;
+        int i = index(token.hashCode(), mask);
+        while (table[i] != null) {
+            if (table[i].equals(token)) {
+                return token.length();
+            }
+            i = (i + 1) & mask;
+        }
+        table[i] = token;
+        return token.length();
+    }
+
+    private static int index(final int h, final int mask) {
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private TokenTable() {
+    }
+
+    /**
+     * Returns the well-known token equal to the given region of the buffer
+     * or <code>null</code> if the region does not represent a well-known token.
+     * Tokens are matched case-sensitively.
+     */
+    static String lookup(final CharArrayBuffer buffer, final int beginIndex, final int endIndex) {
+        final int len = endIndex - beginIndex;
+        if (len <= 0 || len > MAX_LENGTH) {
+            return null;
+        }
+        final char[] chars = buffer.buffer();
+        int h = 0;
+        for (int i = beginIndex; i < endIndex; i++) {
+            h = 31 * h + chars[i];
+        }
+        final String[] table = TABLE;
+        final int mask = table.length - 1;
+        int i = index(h, mask);
+        String token;
+        while ((token = table[i]) != null) {
+            if (token.length() == len && matches(token, chars, beginIndex)) {
+                return token;
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    private static boolean matches(final String token, final char[] chars, final int off) {
+        for (int i = 0; i < token.length(); i++) {
+            if (token.charAt(i) != chars[off + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Same as {@link CharArrayBuffer#substringTrimmed(int, int)} except that
+     * well-known tokens are returned as shared constants.
+     */
+    static String substringTrimmed(final CharArrayBuffer buffer, final int beginIndex, final int endIndex) {
+        if (beginIndex < 0 || endIndex > buffer.length() || beginIndex > endIndex) {
+            // let the buffer report the error
+            return buffer.substringTrimmed(beginIndex, endIndex);
+        }
+        int begin = beginIndex;
+        int end = endIndex;
+        while (begin < end && HTTP.isWhitespace(buffer.charAt(begin))) {
+            begin++;
+        }
+        while (end > begin && HTTP.isWhitespace(buffer.charAt(end - 1))) {
+            end--;
+        }
+        final String token = lookup(buffer, begin, end);
+        return token != null ? token : buffer.substring(begin, end);
+    }
+
+}
@@ -0,0 +1,614 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.http.pool;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.http.annotation.ThreadSafe;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.util.Args;
+import org.apache.http.util.Asserts;
+
+/**
+ * Abstract synchronous (blocking) pool of connections that does not serialize
+ * all operations behind one global lock as {@link AbstractConnPool} does.
+ * <p/>
+ * The state of each route is guarded by a lock of its own, so that lease and
+ * release operations for distinct routes never contend with each other.
+ * The total number of allocated connections is maintained with atomic
+ * compare-and-set operations. Locks of other routes are only acquired once
+ * the total max limit has been reached and idle connections of other routes
+ * need to be evicted or pending requests of other routes need to be notified
+ * about released capacity.
+ * <p/>
+ * Please note that this class does not maintain its own pool of execution {@link Thread}s.
+ * Therefore, one <b>must</b> call {@link Future#get()} or {@link Future#get(long, TimeUnit)}
+ * method on the {@link Future} object returned by the
+ * {@link #lease(Object, Object, FutureCallback)} method in order for the lease operation
+ * to complete.
+ *
+ * @param <T> the route type that represents the opposite endpoint of a pooled
+ *   connection.
+ * @param <C> the connection type.
+ * @param <E> the type of the pool entry containing a pooled connection.
+ * @since 4.3
+ */
+@ThreadSafe
+public abstract class AbstractStripedConnPool<T, C, E extends PoolEntry<T, C>>
+                                               implements ConnPool<T, E>, ConnPoolControl<T> {
+
+    // Period of time after which a request blocked by a contended idle
+    // connection of another route re-attempts eviction
+    private static final long EVICTION_RETRY_MILLIS = 10;
+
+    private static final int EVICTED = 1;
+    private static final int NOTHING_TO_EVICT = 0;
+    private static final int CONTENDED = -1;
+
+    private final ConnFactory<T, C> connFactory;
+    private final ConcurrentMap<T, RouteSegment<T, C, E>> routeToSegment;
+    private final ConcurrentMap<T, Integer> maxPerRoute;
+    private final AtomicInteger allocatedCount;
+    private final AtomicInteger leasedCount;
+    private final AtomicInteger availableCount;
+    private final AtomicInteger pendingCount;
+
+    private volatile boolean isShutDown;
+    private volatile int defaultMaxPerRoute;
+    private volatile int maxTotal;
+
+    public AbstractStripedConnPool(
+            final ConnFactory<T, C> connFactory,
+            final int defaultMaxPerRoute,
+            final int maxTotal) {
+        super();
+        this.connFactory = Args.notNull(connFactory, "Connection factory");
+        this.defaultMaxPerRoute = Args.notNegative(defaultMaxPerRoute, "Max per route value");
+        this.maxTotal = Args.notNegative(maxTotal, "Max total value");
+        this.routeToSegment = new ConcurrentHashMap<T, RouteSegment<T, C, E>>();
+        this.maxPerRoute = new ConcurrentHashMap<T, Integer>();
+        this.allocatedCount = new AtomicInteger(0);
+        this.leasedCount = new AtomicInteger(0);
+        this.availableCount = new AtomicInteger(0);
+        this.pendingCount = new AtomicInteger(0);
+    }
+
+    /**
+     * Creates a new entry for the given connection with the given route.
+     */
+    protected abstract E createEntry(T route, C conn);
+
+    public boolean isShutdown() {
+        return this.isShutDown;
+    }
+
+    /**
+     * Shuts down the pool.
+     */
+    public void shutdown() throws IOException {
+        if (this.isShutDown) {
+            return ;
+        }
+        this.isShutDown = true;
+        for (final RouteSegment<T, C, E> segment: this.routeToSegment.values()) {
+            segment.lock.lock();
+            try {
+                segment.pool.shutdown();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        this.routeToSegment.clear();
+        this.allocatedCount.set(0);
+        this.leasedCount.set(0);
+        this.availableCount.set(0);
+    }
+
+    private RouteSegment<T, C, E> getSegment(final T route) {
+        RouteSegment<T, C, E> segment = this.routeToSegment.get(route);
+        if (segment == null) {
+            final RouteSpecificPool<T, C, E> pool = new RouteSpecificPool<T, C, E>(route) {
+
+                @Override
+                protected E createEntry(final C conn) {
+                    return AbstractStripedConnPool.this.createEntry(route, conn);
+                }
+
+            };
+            final RouteSegment<T, C, E> newSegment = new RouteSegment<T, C, E>(pool);
+            segment = this.routeToSegment.putIfAbsent(route, newSegment);
+            if (segment == null) {
+                segment = newSegment;
+            }
+        }
+        return segment;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Please note that this class does not maintain its own pool of execution
+     * {@link Thread}s. Therefore, one <b>must</b> call {@link Future#get()}
+     * or {@link Future#get(long, TimeUnit)} method on the {@link Future}
+     * returned by this method in order for the lease operation to complete.
+     */
+    public Future<E> lease(final T route, final Object state, final FutureCallback<E> callback) {
+        Args.notNull(route, "Route");
+        Asserts.check(!this.isShutDown, "Connection pool shut down");
+        final RouteSegment<T, C, E> segment = getSegment(route);
+        return new PoolEntryFuture<E>(segment.lock, callback) {
+
+            @Override
+            public E getPoolEntry(
+                    final long timeout,
+                    final TimeUnit tunit)
+                        throws InterruptedException, TimeoutException, IOException {
+                return getPoolEntryBlocking(segment, state, timeout, tunit, this);
+            }
+
+        };
+    }
+
+    /**
+     * Attempts to lease a connection for the given route and with the given
+     * state from the pool.
+     * <p/>
+     * Please note that this class does not maintain its own pool of execution
+     * {@link Thread}s. Therefore, one <b>must</b> call {@link Future#get()}
+     * or {@link Future#get(long, TimeUnit)} method on the {@link Future}
+     * returned by this method in order for the lease operation to complete.
+     *
+     * @param route route of the connection.
+     * @param state arbitrary object that represents a particular state
+     *  (usually a security principal or a unique token identifying
+     *  the user whose credentials have been used while establishing the connection).
+     *  May be <code>null</code>.
+     * @return future for a leased pool entry.
+     */
+    public Future<E> lease(final T route, final Object state) {
+        return lease(route, state, null);
+    }
+
+    private E getPoolEntryBlocking(
+            final RouteSegment<T, C, E> segment, final Object state,
+            final long timeout, final TimeUnit tunit,
+            final PoolEntryFuture<E> future)
+                throws IOException, InterruptedException, TimeoutException {
+
+        Date deadline = null;
+        if (timeout > 0) {
+            deadline = new Date
+                (System.currentTimeMillis() + tunit.toMillis(timeout));
+        }
+
+        segment.lock.lock();
+        try {
+            final RouteSpecificPool<T, C, E> pool = segment.pool;
+            final T route = pool.getRoute();
+            E entry = null;
+            while (entry == null) {
+                Asserts.check(!this.isShutDown, "Connection pool shut down");
+                for (;;) {
+                    entry = pool.getFree(state);
+                    if (entry == null) {
+                        break;
+                    }
+                    this.availableCount.decrementAndGet();
+                    if (entry.isClosed() || entry.isExpired(System.currentTimeMillis())) {
+                        entry.close();
+                        pool.free(entry, false);
+                        this.allocatedCount.decrementAndGet();
+                    } else {
+                        break;
+                    }
+                }
+                if (entry != null) {
+                    this.leasedCount.incrementAndGet();
+                    return entry;
+                }
+
+                // Register the request as pending prior to checking the total
+                // capacity, so that capacity released by other routes cannot
+                // go unnoticed
+                pool.queue(future);
+                segment.pending.incrementAndGet();
+                this.pendingCount.incrementAndGet();
+                boolean reserved = false;
+                boolean success = false;
+                try {
+                    // New connection is needed
+                    final int maxPerRoute = getMax(route);
+                    // Shrink the pool prior to allocating a new connection
+                    final int excess = Math.max(0, pool.getAllocatedCount() + 1 - maxPerRoute);
+                    if (excess > 0) {
+                        for (int i = 0; i < excess; i++) {
+                            if (!evictLastUsed(pool)) {
+                                break;
+                            }
+                        }
+                    }
+
+                    Date awaitDeadline = deadline;
+                    if (pool.getAllocatedCount() < maxPerRoute) {
+                        reserved = reserveCapacity();
+                        if (!reserved && evictLastUsed(pool)) {
+                            reserved = reserveCapacity();
+                        }
+                        int evicted = NOTHING_TO_EVICT;
+                        while (!reserved) {
+                            evicted = evictIdle(segment);
+                            if (evicted != EVICTED) {
+                                break;
+                            }
+                            reserved = reserveCapacity();
+                        }
+                        if (!reserved && evicted == CONTENDED) {
+                            // Idle connections of other routes are locked by
+                            // their owner at the moment. Re-attempt shortly.
+                            final Date retry = new Date(
+                                    System.currentTimeMillis() + EVICTION_RETRY_MILLIS);
+                            if (deadline == null || retry.before(deadline)) {
+                                awaitDeadline = retry;
+                            }
+                        }
+                    }
+                    if (!reserved) {
+                        success = future.await(awaitDeadline);
+                    }
+                } finally {
+                    // In case of 'success', we were woken up by the
+                    // connection pool and should now have a connection
+                    // waiting for us, or else we're shutting down.
+                    // Just continue in the loop, both cases are checked.
+                    pool.unqueue(future);
+                    segment.pending.decrementAndGet();
+                    this.pendingCount.decrementAndGet();
+                }
+                if (reserved) {
+                    boolean created = false;
+                    try {
+                        final C conn = this.connFactory.create(route);
+                        entry = pool.add(conn);
+                        this.leasedCount.incrementAndGet();
+                        created = true;
+                    } finally {
+                        if (!created) {
+                            this.allocatedCount.decrementAndGet();
+                        }
+                    }
+                    return entry;
+                }
+                // check for spurious wakeup vs. timeout
+                if (!success && (deadline != null) &&
+                    (deadline.getTime() <= System.currentTimeMillis())) {
+                    break;
+                }
+            }
+            throw new TimeoutException("Timeout waiting for connection");
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    private boolean reserveCapacity() {
+        for (;;) {
+            final int allocated = this.allocatedCount.get();
+            if (allocated >= this.maxTotal) {
+                return false;
+            }
+            if (this.allocatedCount.compareAndSet(allocated, allocated + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Closes and removes the least recently used idle connection of the given
+     * route pool. Must be called while holding the lock of the route.
+     */
+    private boolean evictLastUsed(final RouteSpecificPool<T, C, E> pool) {
+        final E lastUsed = pool.getLastUsed();
+        if (lastUsed == null) {
+            return false;
+        }
+        lastUsed.close();
+        pool.remove(lastUsed);
+        this.availableCount.decrementAndGet();
+        this.allocatedCount.decrementAndGet();
+        return true;
+    }
+
+    /**
+     * Evicts an idle connection of a route other than the given one. Locks of
+     * other routes are never waited for as the lock of the current route is
+     * held by the caller.
+     */
+    private int evictIdle(final RouteSegment<T, C, E> current) {
+        if (this.availableCount.get() == 0) {
+            return NOTHING_TO_EVICT;
+        }
+        int result = NOTHING_TO_EVICT;
+        for (final RouteSegment<T, C, E> segment: this.routeToSegment.values()) {
+            if (segment == current) {
+                continue;
+            }
+            if (segment.lock.tryLock()) {
+                try {
+                    if (evictLastUsed(segment.pool)) {
+                        return EVICTED;
+                    }
+                } finally {
+                    segment.lock.unlock();
+                }
+            } else {
+                result = CONTENDED;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Wakes up a request pending on a route other than the given one. Must be
+     * called without holding any route lock.
+     */
+    private void notifyPending(final RouteSegment<T, C, E> current) {
+        if (this.pendingCount.get() == 0) {
+            return;
+        }
+        for (final RouteSegment<T, C, E> segment: this.routeToSegment.values()) {
+            if (segment == current || segment.pending.get() == 0) {
+                continue;
+            }
+            segment.lock.lock();
+            try {
+                final PoolEntryFuture<E> future = segment.pool.nextPending();
+                if (future != null) {
+                    future.wakeup();
+                    return;
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    public void release(final E entry, final boolean reusable) {
+        final RouteSegment<T, C, E> segment = this.routeToSegment.get(entry.getRoute());
+        if (segment == null) {
+            return;
+        }
+        boolean notifyOthers = false;
+        segment.lock.lock();
+        try {
+            final RouteSpecificPool<T, C, E> pool = segment.pool;
+            if (pool.isLeased(entry)) {
+                this.leasedCount.decrementAndGet();
+                final boolean keepAlive = reusable && !this.isShutDown;
+                pool.free(entry, keepAlive);
+                if (keepAlive) {
+                    this.availableCount.incrementAndGet();
+                } else {
+                    entry.close();
+                    this.allocatedCount.decrementAndGet();
+                }
+                final PoolEntryFuture<E> future = pool.nextPending();
+                if (future != null) {
+                    future.wakeup();
+                } else {
+                    notifyOthers = true;
+                }
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+        if (notifyOthers) {
+            notifyPending(segment);
+        }
+    }
+
+    private int getMax(final T route) {
+        final Integer v = this.maxPerRoute.get(route);
+        if (v != null) {
+            return v.intValue();
+        } else {
+            return this.defaultMaxPerRoute;
+        }
+    }
+
+    public void setMaxTotal(final int max) {
+        Args.notNegative(max, "Max value");
+        this.maxTotal = max;
+    }
+
+    public int getMaxTotal() {
+        return this.maxTotal;
+    }
+
+    public void setDefaultMaxPerRoute(final int max) {
+        Args.notNegative(max, "Max per route value");
+        this.defaultMaxPerRoute = max;
+    }
+
+    public int getDefaultMaxPerRoute() {
+        return this.defaultMaxPerRoute;
+    }
+
+    public void setMaxPerRoute(final T route, final int max) {
+        Args.notNull(route, "Route");
+        Args.notNegative(max, "Max per route value");
+        this.maxPerRoute.put(route, max);
+    }
+
+    public int getMaxPerRoute(final T route) {
+        Args.notNull(route, "Route");
+        return getMax(route);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Please note that total statistics are collected without blocking any
+     * route and therefore represent an approximate snapshot of the pool state.
+     */
+    public PoolStats getTotalStats() {
+        return new PoolStats(
+                this.leasedCount.get(),
+                this.pendingCount.get(),
+                this.availableCount.get(),
+                this.maxTotal);
+    }
+
+    public PoolStats getStats(final T route) {
+        Args.notNull(route, "Route");
+        final RouteSegment<T, C, E> segment = getSegment(route);
+        segment.lock.lock();
+        try {
+            final RouteSpecificPool<T, C, E> pool = segment.pool;
+            return new PoolStats(
+                    pool.getLeasedCount(),
+                    pool.getPendingCount(),
+                    pool.getAvailableCount(),
+                    getMax(route));
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Closes connections that have been idle longer than the given period
+     * of time and evicts them from the pool.
+     *
+     * @param idletime maximum idle time.
+     * @param tunit time unit.
+     */
+    public void closeIdle(final long idletime, final TimeUnit tunit) {
+        Args.notNull(tunit, "Time unit");
+        long time = tunit.toMillis(idletime);
+        if (time < 0) {
+            time = 0;
+        }
+        final long deadline = System.currentTimeMillis() - time;
+        for (final RouteSegment<T, C, E> segment: this.routeToSegment.values()) {
+            boolean notifyOthers = false;
+            segment.lock.lock();
+            try {
+                final RouteSpecificPool<T, C, E> pool = segment.pool;
+                for (final E entry: pool.getAvailable()) {
+                    if (entry.getUpdated() <= deadline) {
+                        notifyOthers |= discard(pool, entry);
+                    }
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+            if (notifyOthers) {
+                notifyPending(segment);
+            }
+        }
+    }
+
+    /**
+     * Closes expired connections and evicts them from the pool.
+     */
+    public void closeExpired() {
+        final long now = System.currentTimeMillis();
+        for (final RouteSegment<T, C, E> segment: this.routeToSegment.values()) {
+            boolean notifyOthers = false;
+            segment.lock.lock();
+            try {
+                final RouteSpecificPool<T, C, E> pool = segment.pool;
+                for (final E entry: pool.getAvailable()) {
+                    if (entry.isExpired(now)) {
+                        notifyOthers |= discard(pool, entry);
+                    }
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+            if (notifyOthers) {
+                notifyPending(segment);
+            }
+        }
+    }
+
+    /**
+     * Closes and removes the given idle entry. Must be called while holding
+     * the lock of the route. Returns <code>true</code> if the released
+     * capacity is to be offered to requests pending on other routes.
+     */
+    private boolean discard(final RouteSpecificPool<T, C, E> pool, final E entry) {
+        entry.close();
+        pool.remove(entry);
+        this.availableCount.decrementAndGet();
+        this.allocatedCount.decrementAndGet();
+        final PoolEntryFuture<E> future = pool.nextPending();
+        if (future != null) {
+            future.wakeup();
+            return false;
+        } else {
+            return true;
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder buffer = new StringBuilder();
+        buffer.append("[leased: ");
+        buffer.append(this.leasedCount.get());
+        buffer.append("][available: ");
+        buffer.append(this.availableCount.get());
+        buffer.append("][pending: ");
+        buffer.append(this.pendingCount.get());
+        buffer.append("]");
+        return buffer.toString();
+    }
+
+    static class RouteSegment<T, C, E extends PoolEntry<T, C>> {
+
+        final Lock lock;
+        final RouteSpecificPool<T, C, E> pool;
+        final AtomicInteger pending;
+
+        RouteSegment(final RouteSpecificPool<T, C, E> pool) {
+            super();
+            this.lock = new ReentrantLock();
+            this.pool = pool;
+            this.pending = new AtomicInteger(0);
+        }
+
+    }
+
+}
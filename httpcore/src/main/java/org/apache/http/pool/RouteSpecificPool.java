@@ -26,9 +26,11 @@
  */
 package org.apache.http.pool;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Set;
 
 import org.apache.http.annotation.NotThreadSafe;
@@ -99,6 +101,14 @@ abstract class RouteSpecificPool<T, C, E extends PoolEntry<T, C>> {
         return null;
     }
 
+    public boolean isLeased(final E entry) {
+        return this.leased.contains(entry);
+    }
+
+    public List<E> getAvailable() {
+        return new ArrayList<E>(this.available);
+    }
+
     public E getLastUsed() {
         if (!this.available.isEmpty()) {
             return this.available.getLast();
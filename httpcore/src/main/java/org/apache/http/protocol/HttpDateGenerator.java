@@ -32,12 +32,23 @@ import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Locale;
 import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicReference;
 
-import org.apache.http.annotation.GuardedBy;
+import org.apache.http.annotation.Immutable;
 import org.apache.http.annotation.ThreadSafe;
+import org.apache.http.util.ByteArrayBuffer;
+import org.apache.http.util.CharArrayBuffer;
+import org.apache.http.util.EncodingUtils;
 
 /**
  * Generates a date in the format required by the HTTP protocol.
+ * <p/>
+ * The formatted date is cached for the duration of one second. The cached
+ * value is immutable and published without locking: whichever thread first
+ * observes a new second formats the date and replaces the cached value.
+ * Concurrent threads may occasionally format the same date twice, which
+ * is harmless. The cached value is never replaced with an older one, so
+ * that a thread delayed after reading the clock cannot move it backwards.
  *
  * @since 4.0
  */
@@ -51,27 +62,77 @@ public class HttpDateGenerator {
     /** The time zone to use in the date header. */
     public static final TimeZone GMT = TimeZone.getTimeZone("GMT");
 
-    @GuardedBy("this")
-    private final DateFormat dateformat;
-    @GuardedBy("this")
-    private long dateAsLong = 0L;
-    @GuardedBy("this")
-    private String dateAsText = null;
+    private final AtomicReference<CachedDate> cachedDate;
 
     public HttpDateGenerator() {
         super();
-        this.dateformat = new SimpleDateFormat(PATTERN_RFC1123, Locale.US);
-        this.dateformat.setTimeZone(GMT);
+        this.cachedDate = new AtomicReference<CachedDate>();
     }
 
-    public synchronized String getCurrentDate() {
+    private CachedDate getCachedDate() {
         final long now = System.currentTimeMillis();
-        if (now - this.dateAsLong > 1000) {
-            // Generate new date string
-            this.dateAsText = this.dateformat.format(new Date(now));
-            this.dateAsLong = now;
+        final long second = now / 1000;
+        CachedDate current = this.cachedDate.get();
+        if (current != null && current.second >= second) {
+            return current;
         }
-        return this.dateAsText;
+        // SimpleDateFormat is not thread safe, but a new instance
+        // is needed only once per second
+        final DateFormat dateformat = new SimpleDateFormat(PATTERN_RFC1123, Locale.US);
+        dateformat.setTimeZone(GMT);
+        final CachedDate update = new CachedDate(second, dateformat.format(new Date(now)));
+        while (!this.cachedDate.compareAndSet(current, update)) {
+            current = this.cachedDate.get();
+            if (current != null && current.second >= second) {
+                // Superseded by a more recent date
+                return current;
+            }
+        }
+        return update;
+    }
+
+    public String getCurrentDate() {
+        return getCachedDate().text;
+    }
+
+    /**
+     * Appends the current date to the given char buffer.
+     *
+     * @param buffer the buffer to append the date to.
+     *
+     * @since 4.3
+     */
+    public void appendCurrentDate(final CharArrayBuffer buffer) {
+        final byte[] b = getCachedDate().bytes;
+        buffer.append(b, 0, b.length);
+    }
+
+    /**
+     * Appends US-ASCII encoded bytes of the current date to the given
+     * byte buffer.
+     *
+     * @param buffer the buffer to append the date to.
+     *
+     * @since 4.3
+     */
+    public void appendCurrentDate(final ByteArrayBuffer buffer) {
+        final byte[] b = getCachedDate().bytes;
+        buffer.append(b, 0, b.length);
+    }
+
+    @Immutable
+    private static final class CachedDate {
+
+        final long second;
+        final String text;
+        final byte[] bytes;
+
+        CachedDate(final long second, final String text) {
+            this.second = second;
+            this.text = text;
+            this.bytes = EncodingUtils.getAsciiBytes(text);
+        }
+
     }
 
 }
@@ -31,6 +31,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.apache.http.annotation.GuardedBy;
+import org.apache.http.annotation.Immutable;
 import org.apache.http.annotation.ThreadSafe;
 import org.apache.http.util.Args;
 
@@ -46,6 +47,12 @@ import org.apache.http.util.Args;
  * <br>
  * This class can be used to resolve an object matching a particular request
  * URI.
+ * <p/>
+ * Registered patterns are compiled into an immutable index consisting of
+ * a prefix trie and a suffix trie. Modifications merely discard the index,
+ * which is rebuilt once upon the next lookup. Lookups against a current
+ * index do not lock and do not allocate and their cost depends on
+ * the length of the request path only.
  *
  * @since 4.0
  */
@@ -54,10 +61,41 @@ public class UriPatternMatcher<T> {
 
     @GuardedBy("this")
     private final Map<String, T> map;
+    private final boolean defaultMatching;
+
+    @GuardedBy("this")
+    private boolean exposed;
+    private volatile Index<T> index;
 
     public UriPatternMatcher() {
         super();
         this.map = new HashMap<String, T>();
+        this.defaultMatching = isDefaultMatching(getClass());
+        this.index = null;
+    }
+
+    /**
+     * Determines whether the given class retains the default
+     * {@link #matchUriRequestPattern(String, String)} implementation,
+     * which the index is equivalent to.
+     */
+    private static boolean isDefaultMatching(final Class<?> clazz) {
+        Class<?> c = clazz;
+        while (c != null && c != UriPatternMatcher.class) {
+            try {
+                c.getDeclaredMethod("matchUriRequestPattern", String.class, String.class);
+                return false;
+            } catch (final NoSuchMethodException ignore) {
+                c = c.getSuperclass();
+            } catch (final SecurityException ex) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void reindex() {
+        this.index = null;
     }
 
     /**
@@ -69,6 +107,7 @@ public class UriPatternMatcher<T> {
     public synchronized void register(final String pattern, final T obj) {
         Args.notNull(pattern, "URI request pattern");
         this.map.put(pattern, obj);
+        reindex();
     }
 
     /**
@@ -81,6 +120,7 @@ public class UriPatternMatcher<T> {
             return;
         }
         this.map.remove(pattern);
+        reindex();
     }
 
     /**
@@ -91,6 +131,7 @@ public class UriPatternMatcher<T> {
         Args.notNull(map, "Map of handlers");
         this.map.clear();
         this.map.putAll(map);
+        reindex();
     }
 
     /**
@@ -101,6 +142,7 @@ public class UriPatternMatcher<T> {
         Args.notNull(map, "Map of handlers");
         this.map.clear();
         this.map.putAll(map);
+        reindex();
     }
 
     /**
@@ -108,6 +150,10 @@ public class UriPatternMatcher<T> {
      */
     @Deprecated
     public synchronized Map<String, T> getObjects() {
+        // The map may be modified by the caller from now on, which
+        // the index would not reflect
+        this.exposed = true;
+        this.index = null;
         return this.map;
     }
 
@@ -117,8 +163,28 @@ public class UriPatternMatcher<T> {
      * @param path the request path
      * @return object or <code>null</code> if no match is found.
      */
-    public synchronized T lookup(final String path) {
+    public T lookup(final String path) {
         Args.notNull(path, "Request path");
+        final Index<T> current = this.index;
+        if (current != null) {
+            return current.lookup(path);
+        }
+        return lookupSlow(path);
+    }
+
+    private synchronized T lookupSlow(final String path) {
+        if (this.defaultMatching && !this.exposed) {
+            Index<T> current = this.index;
+            if (current == null) {
+                current = new Index<T>(this.map);
+                this.index = current;
+            }
+            return current.lookup(path);
+        }
+        return scan(path);
+    }
+
+    private T scan(final String path) {
         // direct match?
         T obj = this.map.get(path);
         if (obj == null) {
@@ -162,4 +228,157 @@ public class UriPatternMatcher<T> {
         return this.map.toString();
     }
 
+    /**
+     * Immutable snapshot of registered patterns. Patterns ending with
+     * <code>*</code> are stored in a trie keyed by the chars preceding
+     * the wildcard, patterns starting with <code>*</code> in a trie keyed
+     * by the chars following the wildcard in reverse order. The longest
+     * matching pattern wins with prefix patterns taking precedence over
+     * suffix patterns of the same length, exactly as with the linear scan.
+     */
+    @Immutable
+    private static final class Index<T> {
+
+        private final Map<String, T> exact;
+        private final Node prefixes;
+        private final Node suffixes;
+
+        Index(final Map<String, T> map) {
+            super();
+            this.exact = new HashMap<String, T>(map);
+            this.prefixes = new Node();
+            this.suffixes = new Node();
+            for (final Map.Entry<String, T> entry: map.entrySet()) {
+                final String pattern = entry.getKey();
+                final int len = pattern.length();
+                if (len > 0 && pattern.charAt(len - 1) == '*') {
+                    Node node = this.prefixes;
+                    for (int i = 0; i < len - 1; i++) {
+                        node = node.add(pattern.charAt(i));
+                    }
+                    node.terminal = true;
+                    node.value = entry.getValue();
+                }
+                if (len > 0 && pattern.charAt(0) == '*') {
+                    Node node = this.suffixes;
+                    for (int i = len - 1; i > 0; i--) {
+                        node = node.add(pattern.charAt(i));
+                    }
+                    node.terminal = true;
+                    node.value = entry.getValue();
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        T lookup(final String path) {
+            final T obj = this.exact.get(path);
+            if (obj != null) {
+                return obj;
+            }
+            final int len = path.length();
+            // longest matching prefix pattern
+            int prefixLen = -1;
+            Object prefixValue = null;
+            Node node = this.prefixes;
+            for (int i = 0; ; i++) {
+                if (node.terminal) {
+                    prefixLen = i;
+                    prefixValue = node.value;
+                }
+                if (i == len) {
+                    break;
+                }
+                node = node.get(path.charAt(i));
+                if (node == null) {
+                    break;
+                }
+            }
+            // longest matching suffix pattern
+            int suffixLen = -1;
+            Object suffixValue = null;
+            node = this.suffixes;
+            for (int i = 0; ; i++) {
+                if (node.terminal) {
+                    suffixLen = i;
+                    suffixValue = node.value;
+                }
+                if (i == len) {
+                    break;
+                }
+                node = node.get(path.charAt(len - 1 - i));
+                if (node == null) {
+                    break;
+                }
+            }
+            return (T) (suffixLen > prefixLen ? suffixValue : prefixValue);
+        }
+
+    }
+
+    private static final class Node {
+
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private int size;
+        boolean terminal;
+        Object value;
+
+        Node get(final char ch) {
+            final char[] k = this.keys;
+            int low = 0;
+            int high = this.size - 1;
+            while (low <= high) {
+                final int mid = (low + high) >>> 1;
+                final char c = k[mid];
+                if (c < ch) {
+                    low = mid + 1;
+                } else if (c > ch) {
+                    high = mid - 1;
+                } else {
+                    return this.children[mid];
+                }
+            }
+            return null;
+        }
+
+        Node add(final char ch) {
+            final int n = this.size;
+            int low = 0;
+            int high = n - 1;
+            while (low <= high) {
+                final int mid = (low + high) >>> 1;
+                final char c = this.keys[mid];
+                if (c < ch) {
+                    low = mid + 1;
+                } else if (c > ch) {
+                    high = mid - 1;
+                } else {
+                    return this.children[mid];
+                }
+            }
+            final int pos = low;
+            if (n == this.keys.length) {
+                final int capacity = n < 2 ? 2 : n << 1;
+                final char[] newkeys = new char[capacity];
+                final Node[] newchildren = new Node[capacity];
+                System.arraycopy(this.keys, 0, newkeys, 0, n);
+                System.arraycopy(this.children, 0, newchildren, 0, n);
+                this.keys = newkeys;
+                this.children = newchildren;
+            }
+            System.arraycopy(this.keys, pos, this.keys, pos + 1, n - pos);
+            System.arraycopy(this.children, pos, this.children, pos + 1, n - pos);
+            final Node child = new Node();
+            this.keys[pos] = ch;
+            this.children[pos] = child;
+            this.size = n + 1;
+            return child;
+        }
+
+    }
+
 }
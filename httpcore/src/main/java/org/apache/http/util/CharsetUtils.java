@@ -28,7 +28,12 @@
 package org.apache.http.util;
 
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
 import java.nio.charset.UnsupportedCharsetException;
 
 public class CharsetUtils {
@@ -55,4 +60,44 @@ public class CharsetUtils {
         }
     }
 
+    /**
+     * Determines whether the given charset decodes all US-ASCII bytes
+     * (<code>0x00</code> to <code>0x7F</code>) to the same US-ASCII chars.
+     * Lines consisting of US-ASCII bytes only can be converted to chars
+     * using simple type cast with such charsets.
+     *
+     * @since 4.3
+     */
+    public static boolean isASCIICompatible(final Charset charset) {
+        if (charset == null) {
+            return false;
+        }
+        final String name = charset.name();
+        if (name.equals("US-ASCII") || name.equals("ISO-8859-1") || name.equals("UTF-8")) {
+            return true;
+        }
+        final byte[] b = new byte[0x80];
+        for (int i = 0; i < b.length; i++) {
+            b[i] = (byte) i;
+        }
+        final CharsetDecoder decoder = charset.newDecoder();
+        decoder.onMalformedInput(CodingErrorAction.REPORT);
+        decoder.onUnmappableCharacter(CodingErrorAction.REPORT);
+        final CharBuffer cbuf;
+        try {
+            cbuf = decoder.decode(ByteBuffer.wrap(b));
+        } catch (final CharacterCodingException ex) {
+            return false;
+        }
+        if (cbuf.remaining() != b.length) {
+            return false;
+        }
+        for (int i = 0; i < b.length; i++) {
+            if (cbuf.get(i) != i) {
+                return false;
+            }
+        }
+        return true;
+    }
+
 }
@@ -32,6 +32,9 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.InputStream;
 
+import org.apache.http.impl.SessionOutputBufferMock;
+import org.apache.http.impl.io.ContentLengthOutputStream;
+
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -102,4 +105,32 @@ public class TestFileEntity {
         }
     }
 
+    @Test
+    public void testWriteToFileContentOutput() throws Exception {
+        final File tmpfile = File.createTempFile("testfile", ".txt");
+        tmpfile.deleteOnExit();
+
+        final FileOutputStream outstream = new FileOutputStream(tmpfile);
+        for (int i = 0; i < 100; i++) {
+            outstream.write(i);
+        }
+        outstream.close();
+
+        final FileEntity httpentity = new FileEntity(tmpfile, ContentType.TEXT_PLAIN);
+
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        final SessionOutputBufferMock outbuf = new SessionOutputBufferMock(buffer);
+        final ContentLengthOutputStream out = new ContentLengthOutputStream(outbuf, 100);
+        httpentity.writeTo(out);
+        final byte[] bytes = buffer.toByteArray();
+        Assert.assertEquals(100, bytes.length);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(i, bytes[i]);
+        }
+        Assert.assertEquals(100, outbuf.getMetrics().getBytesTransferred());
+        if (!tmpfile.delete()){
+            Assert.fail("Failed to delete: "+tmpfile);
+        }
+    }
+
 }
@@ -27,6 +27,9 @@
 package org.apache.http.impl;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.InetAddress;
@@ -34,14 +37,25 @@ import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import junit.framework.Assert;
 
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpException;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
 import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
 import org.apache.http.HttpVersion;
 import org.apache.http.config.MessageConstraints;
+import org.apache.http.config.SocketConfig;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.FileEntity;
+import org.apache.http.impl.bootstrap.HttpServer;
+import org.apache.http.impl.bootstrap.ServerBootstrap;
 import org.apache.http.impl.entity.LaxContentLengthStrategy;
 import org.apache.http.impl.entity.StrictContentLengthStrategy;
 import org.apache.http.impl.io.ChunkedInputStream;
@@ -50,7 +64,13 @@ import org.apache.http.impl.io.ContentLengthInputStream;
 import org.apache.http.impl.io.ContentLengthOutputStream;
 import org.apache.http.impl.io.IdentityInputStream;
 import org.apache.http.impl.io.IdentityOutputStream;
+import org.apache.http.message.BasicHttpRequest;
 import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpCoreContext;
+import org.apache.http.protocol.HttpRequestHandler;
+import org.apache.http.testserver.HttpClient;
+import org.apache.http.util.EntityUtils;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
@@ -387,4 +407,56 @@ public class TestBHttpConnectionBase {
         Assert.assertTrue(conn.isStale());
     }
 
+    @Test
+    public void testSocketChannelOfBootstrapServerConnection() throws Exception {
+        final File file = File.createTempFile("content", ".bin");
+        final byte[] content = new byte[100000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i % 251);
+        }
+        final FileOutputStream outstream = new FileOutputStream(file);
+        try {
+            outstream.write(content);
+        } finally {
+            outstream.close();
+        }
+        final AtomicBoolean direct = new AtomicBoolean();
+        final HttpServer server = ServerBootstrap.bootstrap()
+                .setSocketConfig(SocketConfig.custom().setSoTimeout(5000).build())
+                .registerHandler("*", new HttpRequestHandler() {
+
+                    public void handle(
+                            final HttpRequest request,
+                            final HttpResponse response,
+                            final HttpContext context) throws HttpException, IOException {
+                        final BHttpConnectionBase serverConn = (BHttpConnectionBase) context.getAttribute(
+                                HttpCoreContext.HTTP_CONNECTION);
+                        direct.set(serverConn.getSocketChannel(serverConn.getSocket()) != null);
+                        response.setStatusCode(HttpStatus.SC_OK);
+                        response.setEntity(new FileEntity(file, ContentType.APPLICATION_OCTET_STREAM));
+                    }
+
+                })
+                .create();
+        server.start();
+        try {
+            final HttpHost host = new HttpHost("localhost", server.getLocalPort());
+            final HttpClient client = new HttpClient();
+            final DefaultBHttpClientConnection clientConn = client.createConnection();
+            client.connect(host, clientConn);
+            try {
+                final HttpResponse response = client.execute(new BasicHttpRequest("GET", "/"), host, clientConn);
+                Assert.assertEquals(HttpStatus.SC_OK, response.getStatusLine().getStatusCode());
+                final byte[] received = EntityUtils.toByteArray(response.getEntity());
+                Assert.assertTrue(Arrays.equals(content, received));
+            } finally {
+                clientConn.close();
+            }
+        } finally {
+            server.stop();
+            file.delete();
+        }
+        Assert.assertTrue(direct.get());
+    }
+
 }
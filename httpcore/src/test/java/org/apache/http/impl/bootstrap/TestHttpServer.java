@@ -0,0 +1,228 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.http.impl.bootstrap;
+
+import java.io.IOException;
+import java.net.BindException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.http.HttpException;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.config.SocketConfig;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.DefaultBHttpClientConnection;
+import org.apache.http.message.BasicHttpRequest;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpRequestHandler;
+import org.apache.http.testserver.HttpClient;
+import org.apache.http.util.EntityUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestHttpServer {
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws Exception {
+        this.executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (this.server != null) {
+            this.server.stop();
+        }
+        this.executor.shutdownNow();
+    }
+
+    private HttpServer start(final ServerBootstrap bootstrap) throws IOException {
+        this.server = bootstrap
+                .setSocketConfig(SocketConfig.custom().setSoTimeout(5000).build())
+                .registerHandler("*", new HttpRequestHandler() {
+
+                    public void handle(
+                            final HttpRequest request,
+                            final HttpResponse response,
+                            final HttpContext context) throws HttpException, IOException {
+                        response.setStatusCode(HttpStatus.SC_OK);
+                        response.setEntity(new StringEntity(
+                                request.getRequestLine().getUri(), ContentType.TEXT_PLAIN));
+                    }
+
+                })
+                .create();
+        this.server.start();
+        return this.server;
+    }
+
+    private static String get(
+            final HttpClient client,
+            final DefaultBHttpClientConnection conn,
+            final HttpHost host,
+            final String uri) throws Exception {
+        final HttpResponse response = client.execute(new BasicHttpRequest("GET", uri), host, conn);
+        Assert.assertEquals(HttpStatus.SC_OK, response.getStatusLine().getStatusCode());
+        return EntityUtils.toString(response.getEntity());
+    }
+
+    @Test
+    public void testKeepAlive() throws Exception {
+        start(ServerBootstrap.bootstrap());
+        final HttpHost host = new HttpHost("localhost", this.server.getLocalPort());
+        final HttpClient client = new HttpClient();
+        final DefaultBHttpClientConnection conn = client.createConnection();
+        client.connect(host, conn);
+        try {
+            for (int i = 0; i < 5; i++) {
+                Assert.assertEquals("/r" + i, get(client, conn, host, "/r" + i));
+            }
+            Assert.assertEquals(1, this.server.getConnectionCount());
+        } finally {
+            conn.close();
+        }
+    }
+
+    @Test
+    public void testMaxConnections() throws Exception {
+        start(ServerBootstrap.bootstrap().setMaxConnections(1));
+        final HttpHost host = new HttpHost("localhost", this.server.getLocalPort());
+        final HttpClient client1 = new HttpClient();
+        final DefaultBHttpClientConnection conn1 = client1.createConnection();
+        client1.connect(host, conn1);
+        Assert.assertEquals("/first", get(client1, conn1, host, "/first"));
+
+        final Future<String> future = this.executor.submit(new Callable<String>() {
+
+            public String call() throws Exception {
+                final HttpClient client2 = new HttpClient();
+                final DefaultBHttpClientConnection conn2 = client2.createConnection();
+                client2.connect(host, conn2);
+                try {
+                    return get(client2, conn2, host, "/second");
+                } finally {
+                    conn2.close();
+                }
+            }
+
+        });
+        try {
+            future.get(500, TimeUnit.MILLISECONDS);
+            Assert.fail("TimeoutException expected");
+        } catch (final TimeoutException expected) {
+        }
+        conn1.close();
+        Assert.assertEquals("/second", future.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testStop() throws Exception {
+        start(ServerBootstrap.bootstrap());
+        final HttpHost host = new HttpHost("localhost", this.server.getLocalPort());
+        final HttpClient client = new HttpClient();
+        final DefaultBHttpClientConnection conn = client.createConnection();
+        client.connect(host, conn);
+        Assert.assertEquals("/", get(client, conn, host, "/"));
+
+        this.server.shutdown(100, TimeUnit.MILLISECONDS);
+        this.server.awaitTermination(5, TimeUnit.SECONDS);
+        Assert.assertEquals(0, this.server.getConnectionCount());
+        Assert.assertTrue(conn.isStale());
+        conn.close();
+    }
+
+    @Test
+    public void testStartBindFailure() throws Exception {
+        final InetAddress loopback = InetAddress.getByName("localhost");
+        final ServerSocket blocker = new ServerSocket();
+        blocker.bind(new InetSocketAddress(loopback, 0));
+        final int port = blocker.getLocalPort();
+        final ServerBootstrap bootstrap = ServerBootstrap.bootstrap()
+                .setLocalAddress(loopback)
+                .setListenerPort(port);
+        try {
+            start(bootstrap);
+            Assert.fail("BindException should have been thrown");
+        } catch (final BindException expected) {
+        } finally {
+            blocker.close();
+        }
+        Assert.assertEquals(-1, this.server.getLocalPort());
+
+        // The server can be started once the port is free
+        this.server.start();
+        Assert.assertEquals(port, this.server.getLocalPort());
+        final HttpHost host = new HttpHost("localhost", port);
+        final HttpClient client = new HttpClient();
+        final DefaultBHttpClientConnection conn = client.createConnection();
+        client.connect(host, conn);
+        try {
+            Assert.assertEquals("/restarted", get(client, conn, host, "/restarted"));
+        } finally {
+            conn.close();
+        }
+    }
+
+    @Test
+    public void testVirtualThreads() throws Exception {
+        boolean supported;
+        try {
+            Thread.class.getMethod("ofVirtual");
+            supported = true;
+        } catch (final NoSuchMethodException ex) {
+            supported = false;
+        }
+        start(ServerBootstrap.bootstrap().setUseVirtualThreads(true));
+        Assert.assertEquals(supported, this.server.isVirtualThreads());
+        final HttpHost host = new HttpHost("localhost", this.server.getLocalPort());
+        final HttpClient client = new HttpClient();
+        final DefaultBHttpClientConnection conn = client.createConnection();
+        client.connect(host, conn);
+        try {
+            Assert.assertEquals("/virtual", get(client, conn, host, "/virtual"));
+        } finally {
+            conn.close();
+        }
+    }
+
+}
@@ -28,8 +28,12 @@
 package org.apache.http.impl.io;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
 
 import org.apache.http.impl.SessionOutputBufferMock;
 import org.junit.Assert;
@@ -96,5 +100,35 @@ public class TestContentLengthOutputStream {
         }
     }
 
-}
+    @Test
+    public void testTransfer() throws Exception {
+        final File tmpfile = File.createTempFile("testfile", ".txt");
+        tmpfile.deleteOnExit();
+        final FileOutputStream fileout = new FileOutputStream(tmpfile);
+        fileout.write("0123456789abcdefghij".getBytes("US-ASCII"));
+        fileout.close();
 
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        final SessionOutputBufferMock datatransmitter = new SessionOutputBufferMock(buffer);
+        final ContentLengthOutputStream out = new ContentLengthOutputStream(datatransmitter, 15L);
+        out.write('-');
+        final RandomAccessFile file = new RandomAccessFile(tmpfile, "r");
+        try {
+            final FileChannel channel = file.getChannel();
+            Assert.assertEquals(14, out.transfer(channel, 0, 20));
+            Assert.assertEquals(0, out.transfer(channel, 14, 6));
+        } finally {
+            file.close();
+        }
+        out.close();
+        Assert.assertEquals("-0123456789abcd", new String(datatransmitter.getData(), "US-ASCII"));
+        try {
+            out.transfer(null, 0, 1);
+            Assert.fail("IOException should have been thrown");
+        } catch (final IOException ex) {
+            // expected
+        }
+        tmpfile.delete();
+    }
+
+}
@@ -34,8 +34,11 @@ import org.apache.http.Header;
 import org.apache.http.HttpRequest;
 import org.apache.http.HttpVersion;
 import org.apache.http.RequestLine;
+import org.apache.http.config.MessageConstraints;
 import org.apache.http.impl.SessionInputBufferMock;
 import org.apache.http.io.SessionInputBuffer;
+import org.apache.http.message.LazyHeader;
+import org.apache.http.message.LazyLineParser;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -122,5 +125,77 @@ public class TestRequestParser {
         Assert.assertEquals(3, headers.length);
     }
 
-}
+    @Test
+    public void testLazyHeaderParsing() throws Exception {
+        final String s =
+            "GET / HTTP/1.1\r\n" +
+            "Host: localhost\r\n" +
+            "User-Agent: whatever\r\n" +
+            "  more\r\n" +
+            "Cookie: c1=stuff\r\n" +
+            "\r\n" +
+            "GET /stuff HTTP/1.1\r\n" +
+            "Host: localhost\r\n" +
+            "\r\n";
+        final SessionInputBuffer inbuffer = new SessionInputBufferMock(s, Consts.ASCII);
 
+        final DefaultHttpRequestParser parser = new DefaultHttpRequestParser(
+                inbuffer, LazyLineParser.INSTANCE, null, MessageConstraints.DEFAULT);
+        final HttpRequest httprequest1 = parser.parse();
+        Assert.assertEquals("/", httprequest1.getRequestLine().getUri());
+        final Header[] headers = httprequest1.getAllHeaders();
+        Assert.assertEquals(3, headers.length);
+        for (final Header header : headers) {
+            Assert.assertTrue(header instanceof LazyHeader);
+        }
+        Assert.assertEquals("Host", headers[0].getName());
+        Assert.assertEquals("localhost", headers[0].getValue());
+        Assert.assertEquals("User-Agent", headers[1].getName());
+        Assert.assertEquals("whatever more", headers[1].getValue());
+        Assert.assertEquals("Cookie", headers[2].getName());
+        Assert.assertEquals("c1=stuff", headers[2].getValue());
+
+        final HttpRequest httprequest2 = parser.parse();
+        Assert.assertEquals("/stuff", httprequest2.getRequestLine().getUri());
+        Assert.assertEquals(1, httprequest2.getAllHeaders().length);
+        Assert.assertEquals("localhost", httprequest2.getFirstHeader("Host").getValue());
+        Assert.assertEquals("localhost", httprequest1.getFirstHeader("Host").getValue());
+    }
+
+    @Test
+    public void testLazyHeaderParsingTimeout() throws Exception {
+        final String s =
+            "GET \000/ HTTP/1.1\r\000\n" +
+            "Host: loca\000lhost\r\n" +
+            "User-Agent: whatever\r\n" +
+            "Coo\000kie: c1=stuff\r\n" +
+            "\000\r\n";
+        final SessionInputBuffer inbuffer = new SessionInputBufferMock(
+                new TimeoutByteArrayInputStream(s.getBytes("US-ASCII")), 16);
+
+        final DefaultHttpRequestParser parser = new DefaultHttpRequestParser(
+                inbuffer, LazyLineParser.INSTANCE, null, MessageConstraints.DEFAULT);
+
+        int timeoutCount = 0;
+
+        HttpRequest httprequest = null;
+        for (int i = 0; i < 10; i++) {
+            try {
+                httprequest = parser.parse();
+                break;
+            } catch (final InterruptedIOException ex) {
+                timeoutCount++;
+            }
+
+        }
+        Assert.assertNotNull(httprequest);
+        Assert.assertEquals(5, timeoutCount);
+        @SuppressWarnings("null") // httprequest cannot be null here
+        final Header[] headers = httprequest.getAllHeaders();
+        Assert.assertEquals(3, headers.length);
+        Assert.assertEquals("localhost", headers[0].getValue());
+        Assert.assertEquals("whatever", headers[1].getValue());
+        Assert.assertEquals("Cookie", headers[2].getName());
+    }
+
+}
@@ -28,7 +28,12 @@
 package org.apache.http.impl.io;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.CharacterCodingException;
 import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CharsetEncoder;
@@ -597,5 +602,47 @@ public class TestSessionInOutBuffers {
         }
     }
 
-}
+    @Test
+    public void testTransferToChannel() throws Exception {
+        final File tmpfile = File.createTempFile("testfile", ".txt");
+        tmpfile.deleteOnExit();
+        final FileOutputStream fileout = new FileOutputStream(tmpfile);
+        fileout.write("0123456789".getBytes("US-ASCII"));
+        fileout.close();
+
+        final ByteArrayOutputStream outstream = new ByteArrayOutputStream();
+        final ByteArrayOutputStream channelstream = new ByteArrayOutputStream();
+        final HttpTransportMetricsImpl metrics = new HttpTransportMetricsImpl();
+        final SessionOutputBufferImpl outbuf = new SessionOutputBufferImpl(metrics, 16, 16, null);
+        outbuf.bind(outstream, Channels.newChannel(channelstream));
+
+        outbuf.writeLine("head");
+        final RandomAccessFile file = new RandomAccessFile(tmpfile, "r");
+        try {
+            Assert.assertEquals(10, outbuf.transfer(file.getChannel(), 0, 10));
+        } finally {
+            file.close();
+        }
+        outbuf.flush();
+
+        Assert.assertEquals("head\r\n", new String(outstream.toByteArray(), "US-ASCII"));
+        Assert.assertEquals("0123456789", new String(channelstream.toByteArray(), "US-ASCII"));
+        Assert.assertEquals(16, metrics.getBytesTransferred());
+        tmpfile.delete();
+    }
 
+    @Test
+    public void testDecodedReadLineMixedASCII() throws Exception {
+        final String s1 = "Some plain US-ASCII content";
+        final String s2 = "Gr\u00FCezi_z\u00E4m\u00E4";
+        final String s3 = "More plain US-ASCII content";
+        final byte[] raw = (s1 + "\r\n" + s2 + "\r\n" + s3 + "\r\n").getBytes("UTF-8");
+        final SessionInputBufferMock inbuffer = new SessionInputBufferMock(raw, 16,
+                MessageConstraints.DEFAULT, Consts.UTF_8.newDecoder());
+        Assert.assertEquals(s1, inbuffer.readLine());
+        Assert.assertEquals(s2, inbuffer.readLine());
+        Assert.assertEquals(s3, inbuffer.readLine());
+        Assert.assertNull(inbuffer.readLine());
+    }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.http.impl.pool;
+
+import javax.net.ssl.SSLSession;
+
+import org.apache.http.HttpHost;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class TestSSLSessionCache {
+
+    private static SSLSession mockSession(final byte[] id) {
+        final SSLSession session = Mockito.mock(SSLSession.class);
+        Mockito.when(session.getId()).thenReturn(id);
+        return session;
+    }
+
+    @Test
+    public void testHitsAndMisses() throws Exception {
+        final SSLSessionCache cache = new SSLSessionCache();
+        final HttpHost route1 = new HttpHost("somehost", 443, "https");
+        final HttpHost route2 = new HttpHost("otherhost", 443, "https");
+        final SSLSession session1 = mockSession(new byte[] {1, 2, 3});
+        final SSLSession session2 = mockSession(new byte[] {1, 2, 3});
+        final SSLSession session3 = mockSession(new byte[] {4, 5, 6});
+
+        Assert.assertFalse(cache.sessionEstablished(route1, session1));
+        Assert.assertTrue(cache.sessionEstablished(route1, session2));
+        Assert.assertFalse(cache.sessionEstablished(route2, session2));
+        Assert.assertFalse(cache.sessionEstablished(route1, session3));
+
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(3, cache.getMissCount());
+        Assert.assertSame(session3, cache.getSession(route1));
+        Assert.assertSame(session2, cache.getSession(route2));
+        Assert.assertEquals("[hits: 1; misses: 3; routes: 2]", cache.toString());
+    }
+
+    @Test
+    public void testInvalidate() throws Exception {
+        final SSLSessionCache cache = new SSLSessionCache();
+        final HttpHost route = new HttpHost("somehost", 443, "https");
+        final SSLSession session = mockSession(new byte[] {1, 2, 3});
+        cache.sessionEstablished(route, session);
+
+        cache.invalidate(route);
+        Assert.assertNull(cache.getSession(route));
+        Mockito.verify(session).invalidate();
+
+        cache.sessionEstablished(route, session);
+        Assert.assertEquals(0, cache.getHitCount());
+        Assert.assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void testClear() throws Exception {
+        final SSLSessionCache cache = new SSLSessionCache();
+        final SSLSession session1 = mockSession(new byte[] {1});
+        final SSLSession session2 = mockSession(new byte[] {2});
+        cache.sessionEstablished(new HttpHost("somehost", 443, "https"), session1);
+        cache.sessionEstablished(new HttpHost("otherhost", 443, "https"), session2);
+        cache.clear();
+        Mockito.verify(session1).invalidate();
+        Mockito.verify(session2).invalidate();
+        Assert.assertNull(cache.getSession(new HttpHost("somehost", 443, "https")));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNullRoute() throws Exception {
+        final SSLSessionCache cache = new SSLSessionCache();
+        cache.sessionEstablished(null, mockSession(new byte[] {1}));
+    }
+
+}
@@ -27,6 +27,7 @@
 
 package org.apache.http.message;
 
+import org.apache.http.Header;
 import org.apache.http.HttpVersion;
 import org.apache.http.ParseException;
 import org.apache.http.RequestLine;
@@ -328,4 +329,46 @@ public class TestBasicLineParser {
         }
     }
 
+    @Test
+    public void testWellKnownTokensShared() throws Exception {
+        final RequestLine requestline = BasicLineParser.parseRequestLine(" POST /stuff HTTP/1.1 ", null);
+        Assert.assertSame("POST", requestline.getMethod());
+        Assert.assertSame(HttpVersion.HTTP_1_1, requestline.getProtocolVersion());
+        Assert.assertEquals("/stuff", requestline.getUri());
+        final RequestLine customline = BasicLineParser.parseRequestLine("STUFF / HTTP/1.0", null);
+        Assert.assertEquals("STUFF", customline.getMethod());
+        Assert.assertSame(HttpVersion.HTTP_1_0, customline.getProtocolVersion());
+
+        final StatusLine statusline = BasicLineParser.parseStatusLine("HTTP/1.1 404 Not Found", null);
+        Assert.assertEquals(404, statusline.getStatusCode());
+        Assert.assertSame("Not Found", statusline.getReasonPhrase());
+        final StatusLine customstatus = BasicLineParser.parseStatusLine("HTTP/1.1 299 Whatever", null);
+        Assert.assertEquals(299, customstatus.getStatusCode());
+        Assert.assertEquals("Whatever", customstatus.getReasonPhrase());
+
+        final Header header = BasicLineParser.parseHeader(" Content-Type : text/plain", null);
+        Assert.assertSame("Content-Type", header.getName());
+        final Header lowercase = BasicLineParser.parseHeader("content-type: text/plain", null);
+        Assert.assertEquals("content-type", lowercase.getName());
+        final Header custom = BasicLineParser.parseHeader("X-Stuff: stuff", null);
+        Assert.assertEquals("X-Stuff", custom.getName());
+    }
+
+    @Test
+    public void testVersionAndStatusCodeParsing() throws Exception {
+        final StatusLine statusline = BasicLineParser.parseStatusLine("HTTP/01.001 0200 OK", null);
+        Assert.assertEquals(200, statusline.getStatusCode());
+        Assert.assertSame(HttpVersion.HTTP_1_1, statusline.getProtocolVersion());
+        try {
+            BasicLineParser.parseStatusLine("HTTP/1.1 9999999999 OK", null);
+            Assert.fail("ParseException should have been thrown");
+        } catch (final ParseException expected) {
+        }
+        try {
+            BasicLineParser.parseProtocolVersion("HTTP/1.x", null);
+            Assert.fail("ParseException should have been thrown");
+        } catch (final ParseException expected) {
+        }
+    }
+
 }
@@ -213,4 +213,96 @@ public class TestHeaderGroup {
         }
     }
 
+    private static HeaderGroup createLargeGroup() {
+        final HeaderGroup headergroup = new HeaderGroup();
+        for (int i = 0; i < 20; i++) {
+            headergroup.addHeader(new BasicHeader("X-Header-" + i, "value " + i));
+        }
+        headergroup.addHeader(new BasicHeader("Cookie", "c1"));
+        headergroup.addHeader(new BasicHeader("cookie", "c2"));
+        headergroup.addHeader(new BasicHeader("COOKIE", "c3"));
+        return headergroup;
+    }
+
+    @Test
+    public void testIndexedLookups() {
+        final HeaderGroup headergroup = createLargeGroup();
+        Assert.assertEquals("value 7", headergroup.getFirstHeader("x-header-7").getValue());
+        Assert.assertEquals("value 19", headergroup.getLastHeader("X-HEADER-19").getValue());
+        Assert.assertTrue(headergroup.containsHeader("x-HEADER-0"));
+        Assert.assertFalse(headergroup.containsHeader("X-Header-20"));
+        Assert.assertNull(headergroup.getFirstHeader("Content-Length"));
+        Assert.assertNull(headergroup.getLastHeader("Content-Length"));
+        Assert.assertNull(headergroup.getFirstHeader(null));
+        Assert.assertEquals(0, headergroup.getHeaders("Content-Length").length);
+
+        final Header[] cookies = headergroup.getHeaders("Cookie");
+        Assert.assertEquals(3, cookies.length);
+        Assert.assertEquals("c1", cookies[0].getValue());
+        Assert.assertEquals("c2", cookies[1].getValue());
+        Assert.assertEquals("c3", cookies[2].getValue());
+        Assert.assertEquals("c1", headergroup.getFirstHeader("cookie").getValue());
+        Assert.assertEquals("c3", headergroup.getLastHeader("cookie").getValue());
+        Assert.assertEquals("c1, c2, c3", headergroup.getCondensedHeader("cookie").getValue());
+    }
+
+    @Test
+    public void testIndexedModifications() {
+        final HeaderGroup headergroup = createLargeGroup();
+        Assert.assertTrue(headergroup.containsHeader("Cookie"));
+
+        for (int i = 0; i < 20; i++) {
+            headergroup.addHeader(new BasicHeader("Y-Header-" + i, "value " + i));
+        }
+        Assert.assertEquals("value 13", headergroup.getFirstHeader("y-header-13").getValue());
+        headergroup.addHeader(new BasicHeader("cookie", "c4"));
+        Assert.assertEquals(4, headergroup.getHeaders("Cookie").length);
+        Assert.assertEquals("c4", headergroup.getLastHeader("Cookie").getValue());
+
+        headergroup.updateHeader(new BasicHeader("COOKIE", "c0"));
+        final Header[] cookies = headergroup.getHeaders("Cookie");
+        Assert.assertEquals(4, cookies.length);
+        Assert.assertEquals("c0", cookies[0].getValue());
+        Assert.assertEquals("c2", cookies[1].getValue());
+
+        headergroup.removeHeader(cookies[0]);
+        Assert.assertEquals("c2", headergroup.getFirstHeader("Cookie").getValue());
+        Assert.assertEquals("value 13", headergroup.getFirstHeader("y-header-13").getValue());
+
+        final HeaderIterator it = headergroup.iterator("cookie");
+        while (it.hasNext()) {
+            it.nextHeader();
+            it.remove();
+        }
+        Assert.assertFalse(headergroup.containsHeader("Cookie"));
+        Assert.assertEquals("value 19", headergroup.getFirstHeader("y-header-19").getValue());
+        Assert.assertEquals(40, headergroup.getAllHeaders().length);
+
+        headergroup.setHeaders(new Header[] { new BasicHeader("Cookie", "stuff") });
+        Assert.assertEquals("stuff", headergroup.getFirstHeader("cookie").getValue());
+        Assert.assertNull(headergroup.getFirstHeader("X-Header-1"));
+    }
+
+    @Test
+    public void testCloneIsIndependent() throws Exception {
+        final HeaderGroup orig = createLargeGroup();
+        Assert.assertTrue(orig.containsHeader("Cookie"));
+        final HeaderGroup clone = (HeaderGroup) orig.clone();
+        clone.removeHeader(clone.getFirstHeader("Cookie"));
+        clone.addHeader(new BasicHeader("Host", "localhost"));
+        Assert.assertEquals(3, orig.getHeaders("Cookie").length);
+        Assert.assertFalse(orig.containsHeader("Host"));
+        Assert.assertEquals(2, clone.getHeaders("Cookie").length);
+        Assert.assertTrue(clone.containsHeader("Host"));
+    }
+
+    @Test
+    public void testCaseInsensitiveHash() {
+        Assert.assertEquals(HeaderGroup.hash("Content-Length"), HeaderGroup.hash("CONTENT-length"));
+        Assert.assertEquals(HeaderGroup.hash("X-\u00e4\u00df"), HeaderGroup.hash("x-\u00c4\u00df"));
+        final HeaderGroup headergroup = createLargeGroup();
+        headergroup.addHeader(new BasicHeader("X-\u00e4", "umlaut"));
+        Assert.assertEquals("umlaut", headergroup.getFirstHeader("x-\u00c4").getValue());
+    }
+
 }
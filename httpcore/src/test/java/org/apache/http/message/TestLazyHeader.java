@@ -0,0 +1,151 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.http.message;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.apache.http.HeaderElement;
+import org.apache.http.ParseException;
+import org.apache.http.util.CharArrayBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link LazyHeader}.
+ *
+ */
+public class TestLazyHeader {
+
+    @Test
+    public void testBasicConstructor() {
+        final CharArrayBuffer buf = new CharArrayBuffer(32);
+        buf.append("name: value");
+        final LazyHeader header = new LazyHeader(buf, 0, buf.length());
+        Assert.assertEquals("name", header.getName());
+        Assert.assertEquals("value", header.getValue());
+        Assert.assertEquals("name: value", header.getBuffer().toString());
+        Assert.assertEquals(5, header.getValuePos());
+        Assert.assertEquals("name: value", header.toString());
+    }
+
+    @Test
+    public void testSharedBuffer() {
+        final CharArrayBuffer buf = new CharArrayBuffer(32);
+        buf.append("name1: value1Name2 :  value2 ");
+        final LazyHeader header1 = new LazyHeader(buf, 0, 13);
+        final LazyHeader header2 = new LazyHeader(buf, 13, buf.length());
+        Assert.assertEquals("name1", header1.getName());
+        Assert.assertEquals("value1", header1.getValue());
+        Assert.assertSame(header1.getName(), header1.getName());
+        Assert.assertSame(header1.getValue(), header1.getValue());
+        Assert.assertEquals("Name2", header2.getName());
+        Assert.assertEquals("value2", header2.getValue());
+        final CharArrayBuffer line = header2.getBuffer();
+        Assert.assertEquals("Name2 :  value2 ", line.toString());
+        Assert.assertEquals(7, header2.getValuePos());
+        Assert.assertSame(line, header2.getBuffer());
+    }
+
+    @Test
+    public void testInvalidInput() {
+        try {
+            new LazyHeader(null, 0, 0);
+            Assert.fail("IllegalArgumentException should have been thrown");
+        } catch (final IllegalArgumentException ex) {
+            //expected
+        }
+        final CharArrayBuffer buf = new CharArrayBuffer(32);
+        buf.append("name: value  : value");
+        try {
+            new LazyHeader(buf, 0, 40);
+            Assert.fail("IndexOutOfBoundsException should have been thrown");
+        } catch (final IndexOutOfBoundsException ex) {
+            //expected
+        }
+        try {
+            new LazyHeader(buf, 0, 4);
+            Assert.fail("ParseException should have been thrown");
+        } catch (final ParseException ex) {
+            //expected
+        }
+        try {
+            new LazyHeader(buf, 11, buf.length());
+            Assert.fail("ParseException should have been thrown");
+        } catch (final ParseException ex) {
+            //expected
+        }
+    }
+
+    @Test
+    public void testHeaderElements() {
+        final CharArrayBuffer buf = new CharArrayBuffer(32);
+        buf.append("name: element1 = value1, element2; param1 = value1, element3other: stuff");
+        final LazyHeader header = new LazyHeader(buf, 0, buf.indexOf('o'));
+        final HeaderElement[] elements = header.getElements();
+        Assert.assertNotNull(elements);
+        Assert.assertEquals(3, elements.length);
+        Assert.assertEquals("element1", elements[0].getName());
+        Assert.assertEquals("value1", elements[0].getValue());
+        Assert.assertEquals("element2", elements[1].getName());
+        Assert.assertEquals(null, elements[1].getValue());
+        Assert.assertEquals("element3", elements[2].getName());
+        Assert.assertEquals(null, elements[2].getValue());
+        Assert.assertEquals(1, elements[1].getParameters().length);
+    }
+
+    @Test
+    public void testCloning() throws Exception {
+        final CharArrayBuffer buf = new CharArrayBuffer(32);
+        buf.append("name: value");
+        final LazyHeader orig = new LazyHeader(buf, 0, buf.length());
+        final LazyHeader clone = (LazyHeader) orig.clone();
+        Assert.assertEquals(orig.getName(), clone.getName());
+        Assert.assertEquals(orig.getValue(), clone.getValue());
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        final CharArrayBuffer buf = new CharArrayBuffer(32);
+        buf.append("name: value");
+        final LazyHeader orig = new LazyHeader(buf, 0, buf.length());
+        final ByteArrayOutputStream outbuffer = new ByteArrayOutputStream();
+        final ObjectOutputStream outstream = new ObjectOutputStream(outbuffer);
+        outstream.writeObject(orig);
+        outstream.close();
+        final byte[] raw = outbuffer.toByteArray();
+        final ByteArrayInputStream inbuffer = new ByteArrayInputStream(raw);
+        final ObjectInputStream instream = new ObjectInputStream(inbuffer);
+        final LazyHeader clone = (LazyHeader) instream.readObject();
+        Assert.assertEquals(orig.getName(), clone.getName());
+        Assert.assertEquals(orig.getValue(), clone.getValue());
+    }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.http.message;
+
+import org.apache.http.protocol.HTTP;
+import org.apache.http.util.CharArrayBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link TokenTable}.
+ *
+ */
+public class TestTokenTable {
+
+    private static CharArrayBuffer toBuffer(final String s) {
+        final CharArrayBuffer buffer = new CharArrayBuffer(s.length());
+        buffer.append(s);
+        return buffer;
+    }
+
+    @Test
+    public void testLookup() {
+        final CharArrayBuffer buffer = toBuffer("GETContent-Lengthcontent-lengthNot FoundX-Stuff");
+        Assert.assertSame("GET", TokenTable.lookup(buffer, 0, 3));
+        Assert.assertSame(HTTP.CONTENT_LEN, TokenTable.lookup(buffer, 3, 17));
+        final String lowercase = TokenTable.lookup(buffer, 17, 31);
+        Assert.assertEquals("content-length", lowercase);
+        Assert.assertSame(lowercase, TokenTable.lookup(buffer, 17, 31));
+        Assert.assertSame("Not Found", TokenTable.lookup(buffer, 31, 40));
+        Assert.assertNull(TokenTable.lookup(buffer, 40, 47));
+        Assert.assertNull(TokenTable.lookup(buffer, 0, 2));
+        Assert.assertNull(TokenTable.lookup(buffer, 3, 3));
+        Assert.assertNull(TokenTable.lookup(buffer, 0, buffer.length()));
+    }
+
+    @Test
+    public void testSubstringTrimmed() {
+        final CharArrayBuffer buffer = toBuffer(" \tHost \t: stuff ");
+        Assert.assertSame(HTTP.TARGET_HOST, TokenTable.substringTrimmed(buffer, 0, 8));
+        Assert.assertEquals("stuff", TokenTable.substringTrimmed(buffer, 9, buffer.length()));
+        Assert.assertEquals("", TokenTable.substringTrimmed(buffer, 0, 2));
+        try {
+            TokenTable.substringTrimmed(buffer, 0, buffer.length() + 1);
+            Assert.fail("IndexOutOfBoundsException should have been thrown");
+        } catch (final IndexOutOfBoundsException expected) {
+        }
+    }
+
+}
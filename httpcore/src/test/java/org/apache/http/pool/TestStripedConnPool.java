@@ -0,0 +1,180 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.http.pool;
+
+import java.io.IOException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.http.HttpConnection;
+import org.apache.http.HttpConnectionMetrics;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class TestStripedConnPool extends ConnPoolTestBase {
+
+    static class LocalConnPool extends AbstractStripedConnPool<String, HttpConnection, LocalPoolEntry>
+            implements LocalPool {
+
+        public LocalConnPool(
+                final ConnFactory<String, HttpConnection> connFactory,
+                final int defaultMaxPerRoute, final int maxTotal) {
+            super(connFactory, defaultMaxPerRoute, maxTotal);
+        }
+
+        @Override
+        protected LocalPoolEntry createEntry(final String route, final HttpConnection conn) {
+            return new LocalPoolEntry(route, conn);
+        }
+
+    }
+
+    @Override
+    protected LocalPool createPool(
+            final ConnFactory<String, HttpConnection> connFactory,
+            final int defaultMaxPerRoute, final int maxTotal) {
+        return new LocalConnPool(connFactory, defaultMaxPerRoute, maxTotal);
+    }
+
+    @Test
+    public void testEmptyPoolToString() throws Exception {
+        final LocalConnFactory connFactory = Mockito.mock(LocalConnFactory.class);
+        final LocalConnPool pool = new LocalConnPool(connFactory, 2, 10);
+        Assert.assertEquals("[leased: 0][available: 0][pending: 0]", pool.toString());
+    }
+
+    static class CountingConnFactory implements ConnFactory<String, HttpConnection> {
+
+        private final AtomicInteger open = new AtomicInteger(0);
+        private final AtomicInteger maxOpen = new AtomicInteger(0);
+
+        public HttpConnection create(final String route) throws IOException {
+            final int n = this.open.incrementAndGet();
+            for (;;) {
+                final int max = this.maxOpen.get();
+                if (n <= max || this.maxOpen.compareAndSet(max, n)) {
+                    break;
+                }
+            }
+            return new HttpConnection() {
+
+                private volatile boolean closed;
+
+                public void close() throws IOException {
+                    if (!this.closed) {
+                        this.closed = true;
+                        open.decrementAndGet();
+                    }
+                }
+
+                public void shutdown() throws IOException {
+                    close();
+                }
+
+                public boolean isOpen() {
+                    return !this.closed;
+                }
+
+                public boolean isStale() {
+                    return false;
+                }
+
+                public void setSocketTimeout(final int timeout) {
+                }
+
+                public int getSocketTimeout() {
+                    return 0;
+                }
+
+                public HttpConnectionMetrics getMetrics() {
+                    return null;
+                }
+
+            };
+        }
+
+        public int getMaxOpen() {
+            return this.maxOpen.get();
+        }
+
+    }
+
+    @Test
+    public void testConcurrentLeaseReleaseTotalMaxLimit() throws Exception {
+        final CountingConnFactory connFactory = new CountingConnFactory();
+        final LocalConnPool pool = new LocalConnPool(connFactory, 3, 5);
+
+        final String[] routes = new String[] { "host1", "host2", "host3", "host4" };
+        final AtomicInteger failures = new AtomicInteger(0);
+        final Thread[] threads = new Thread[16];
+        for (int i = 0; i < threads.length; i++) {
+            final String route = routes[i % routes.length];
+            final boolean reusable = i % 3 != 0;
+            threads[i] = new Thread() {
+
+                @Override
+                public void run() {
+                    try {
+                        for (int n = 0; n < 200; n++) {
+                            final Future<LocalPoolEntry> future = pool.lease(route, null);
+                            final LocalPoolEntry entry = future.get(GRACE_PERIOD, TimeUnit.MILLISECONDS);
+                            if (!route.equals(entry.getRoute())) {
+                                failures.incrementAndGet();
+                            }
+                            pool.release(entry, reusable);
+                        }
+                    } catch (final Exception ex) {
+                        failures.incrementAndGet();
+                    }
+                }
+
+            };
+            threads[i].start();
+        }
+        for (final Thread thread: threads) {
+            thread.join(GRACE_PERIOD * 3);
+        }
+        Assert.assertEquals(0, failures.get());
+        Assert.assertTrue(connFactory.getMaxOpen() <= 5);
+
+        final PoolStats totals = pool.getTotalStats();
+        Assert.assertEquals(0, totals.getLeased());
+        Assert.assertEquals(0, totals.getPending());
+        Assert.assertTrue(totals.getAvailable() <= 5);
+        int available = 0;
+        for (final String route: routes) {
+            final PoolStats stats = pool.getStats(route);
+            Assert.assertEquals(0, stats.getLeased());
+            available += stats.getAvailable();
+        }
+        Assert.assertEquals(totals.getAvailable(), available);
+    }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.http.protocol;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.http.util.ByteArrayBuffer;
+import org.apache.http.util.CharArrayBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestHttpDateGenerator {
+
+    @Test
+    public void testCurrentDate() throws Exception {
+        final HttpDateGenerator generator = new HttpDateGenerator();
+        final long before = System.currentTimeMillis() / 1000 * 1000;
+        final String s = generator.getCurrentDate();
+        final long after = System.currentTimeMillis();
+
+        final SimpleDateFormat dateformat = new SimpleDateFormat(
+                HttpDateGenerator.PATTERN_RFC1123, Locale.US);
+        dateformat.setTimeZone(HttpDateGenerator.GMT);
+        final Date date = dateformat.parse(s);
+        Assert.assertTrue(date.getTime() >= before);
+        Assert.assertTrue(date.getTime() <= after);
+        Assert.assertTrue(s.endsWith(" GMT"));
+    }
+
+    @Test
+    public void testAppendCurrentDate() throws Exception {
+        final HttpDateGenerator generator = new HttpDateGenerator();
+        String s;
+        CharArrayBuffer chars;
+        ByteArrayBuffer bytes;
+        // Retry in the unlikely case the second ticks in between
+        do {
+            s = generator.getCurrentDate();
+            chars = new CharArrayBuffer(32);
+            chars.append("Date: ");
+            generator.appendCurrentDate(chars);
+            bytes = new ByteArrayBuffer(32);
+            generator.appendCurrentDate(bytes);
+        } while (!s.equals(generator.getCurrentDate()));
+
+        Assert.assertEquals("Date: " + s, chars.toString());
+        Assert.assertEquals(s, new String(bytes.toByteArray(), "US-ASCII"));
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        final HttpDateGenerator generator = new HttpDateGenerator();
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 8; i++) {
+            threads.add(new Thread() {
+
+                @Override
+                public void run() {
+                    try {
+                        for (int n = 0; n < 10000; n++) {
+                            final String s = generator.getCurrentDate();
+                            if (s == null || !s.endsWith(" GMT")) {
+                                throw new AssertionError("Unexpected date: " + s);
+                            }
+                        }
+                    } catch (final Throwable ex) {
+                        failure.set(ex);
+                    }
+                }
+
+            });
+        }
+        for (final Thread thread: threads) {
+            thread.start();
+        }
+        for (final Thread thread: threads) {
+            thread.join(10000);
+        }
+        Assert.assertNull(failure.get());
+    }
+
+}
@@ -27,6 +27,11 @@
 
 package org.apache.http.protocol;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -152,4 +157,119 @@ public class TestUriPatternMatcher {
         matcher.lookup(null);
     }
 
+    static class ScanningUriPatternMatcher<T> extends UriPatternMatcher<T> {
+
+        @Override
+        protected boolean matchUriRequestPattern(final String pattern, final String path) {
+            return super.matchUriRequestPattern(pattern, path);
+        }
+
+    }
+
+    private static String randomPath(final Random rnd) {
+        final String[] segments = new String[] { "/", "a", "b", "ab", ".", "view", "form", "x/" };
+        final StringBuilder buffer = new StringBuilder();
+        final int n = rnd.nextInt(6);
+        for (int i = 0; i < n; i++) {
+            buffer.append(segments[rnd.nextInt(segments.length)]);
+        }
+        return buffer.toString();
+    }
+
+    @Test
+    public void testSameMatchesAsScan() throws Exception {
+        final Random rnd = new Random(42);
+        for (int round = 0; round < 50; round++) {
+            final UriPatternMatcher<Object> matcher = new UriPatternMatcher<Object>();
+            final UriPatternMatcher<Object> scanner = new ScanningUriPatternMatcher<Object>();
+            final List<String> patterns = new ArrayList<String>();
+            for (int i = 0; i < 20; i++) {
+                final String s = randomPath(rnd);
+                final String pattern;
+                switch (rnd.nextInt(4)) {
+                case 0:
+                    pattern = s + "*";
+                    break;
+                case 1:
+                    pattern = "*" + s;
+                    break;
+                case 2:
+                    pattern = s;
+                    break;
+                default:
+                    pattern = "*";
+                }
+                patterns.add(pattern);
+                matcher.register(pattern, pattern);
+                scanner.register(pattern, pattern);
+            }
+            for (int i = 0; i < 5; i++) {
+                final String pattern = patterns.get(rnd.nextInt(patterns.size()));
+                matcher.unregister(pattern);
+                scanner.unregister(pattern);
+            }
+            for (int i = 0; i < 200; i++) {
+                final String path = randomPath(rnd);
+                Assert.assertEquals(path, scanner.lookup(path), matcher.lookup(path));
+            }
+        }
+    }
+
+    @Test
+    public void testPrefixPreferredOverSuffixOfSameLength() throws Exception {
+        final UriPatternMatcher<Object> matcher = new UriPatternMatcher<Object>();
+        matcher.register("*.html", "suffix");
+        matcher.register("/abcd*", "prefix");
+        Assert.assertEquals("prefix", matcher.lookup("/abcd.html"));
+        Assert.assertEquals("suffix", matcher.lookup("/other.html"));
+        matcher.register("*d.html", "longer suffix");
+        Assert.assertEquals("longer suffix", matcher.lookup("/abcd.html"));
+    }
+
+    @Test
+    public void testOverriddenMatching() throws Exception {
+        final UriPatternMatcher<Object> matcher = new UriPatternMatcher<Object>() {
+
+            @Override
+            protected boolean matchUriRequestPattern(final String pattern, final String path) {
+                return path.contains(pattern);
+            }
+
+        };
+        matcher.register("two", "h1");
+        Assert.assertEquals("h1", matcher.lookup("/one/two/three"));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testModifyExposedMap() throws Exception {
+        final UriPatternMatcher<Object> matcher = new UriPatternMatcher<Object>();
+        matcher.register("/one/*", "h1");
+        Assert.assertEquals("h1", matcher.lookup("/one/request"));
+        final Map<String, Object> map = matcher.getObjects();
+        map.put("/one/two/*", "h2");
+        Assert.assertEquals("h2", matcher.lookup("/one/two/request"));
+        matcher.register("/one/two/three/*", "h3");
+        Assert.assertEquals("h3", matcher.lookup("/one/two/three/request"));
+    }
+
+    @Test(timeout=10000)
+    public void testRegisterManyPatterns() throws Exception {
+        final UriPatternMatcher<Object> matcher = new UriPatternMatcher<Object>();
+        final int n = 10000;
+        for (int i = 0; i < n; i++) {
+            matcher.register("/handler/" + i + "/*", Integer.valueOf(i));
+            matcher.register("*.ext" + i, Integer.valueOf(-i));
+        }
+        for (int i = 0; i < n; i++) {
+            Assert.assertEquals(Integer.valueOf(i), matcher.lookup("/handler/" + i + "/request"));
+            Assert.assertEquals(Integer.valueOf(-i), matcher.lookup("/stuff/file.ext" + i));
+        }
+        for (int i = 0; i < n; i += 2) {
+            matcher.unregister("/handler/" + i + "/*");
+        }
+        Assert.assertNull(matcher.lookup("/handler/0/request"));
+        Assert.assertEquals(Integer.valueOf(1), matcher.lookup("/handler/1/request"));
+    }
+
 }
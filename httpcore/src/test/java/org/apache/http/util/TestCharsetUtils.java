@@ -0,0 +1,53 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.http.util;
+
+import java.nio.charset.Charset;
+
+import org.apache.http.Consts;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link CharsetUtils}.
+ *
+ */
+public class TestCharsetUtils {
+
+    @Test
+    public void testASCIICompatible() throws Exception {
+        Assert.assertTrue(CharsetUtils.isASCIICompatible(Consts.ASCII));
+        Assert.assertTrue(CharsetUtils.isASCIICompatible(Consts.ISO_8859_1));
+        Assert.assertTrue(CharsetUtils.isASCIICompatible(Consts.UTF_8));
+        Assert.assertTrue(CharsetUtils.isASCIICompatible(Charset.forName("windows-1252")));
+        Assert.assertFalse(CharsetUtils.isASCIICompatible(Charset.forName("UTF-16")));
+        Assert.assertFalse(CharsetUtils.isASCIICompatible(Charset.forName("UTF-16LE")));
+        Assert.assertFalse(CharsetUtils.isASCIICompatible(null));
+    }
+
+}